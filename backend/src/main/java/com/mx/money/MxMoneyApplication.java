@@ -1,10 +1,13 @@
 package com.mx.money;
 
+import com.mx.money.service.MonthlyRollupService;
 import com.mx.money.service.RecurringTransactionService;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
@@ -17,6 +20,16 @@ public class MxMoneyApplication {
         SpringApplication.run(MxMoneyApplication.class, args);
     }
 
+    /**
+     * Reconstrói os agregados mensais ao iniciar, antes da geração de recorrentes
+     * (que já os atualiza incrementalmente)
+     */
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    CommandLineRunner rebuildMonthlyRollups(MonthlyRollupService service) {
+        return args -> service.rebuild();
+    }
+
     /**
      * Gera transações recorrentes pendentes ao iniciar a aplicação
      */
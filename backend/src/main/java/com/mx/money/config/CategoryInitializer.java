@@ -2,6 +2,7 @@ package com.mx.money.config;
 
 import com.mx.money.entity.Category;
 import com.mx.money.repository.CategoryRepository;
+import com.mx.money.service.ChangeJournalService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -26,6 +27,7 @@ import java.util.stream.Collectors;
 public class CategoryInitializer implements CommandLineRunner {
 
     private final CategoryRepository categoryRepository;
+    private final ChangeJournalService changeJournalService;
 
     @Value("classpath:categories.md")
     private Resource categoriesResource;
@@ -84,6 +86,7 @@ public class CategoryInitializer implements CommandLineRunner {
                         .color(color)
                         .build();
                 categoryRepository.save(category);
+                changeJournalService.recordChanged(ChangeJournalService.CATEGORIES, category.getId());
                 usedColors.add(color.toUpperCase());
                 created++;
                 log.info("Created category '{}' with color {}", categoryName, color);
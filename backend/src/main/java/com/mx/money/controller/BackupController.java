@@ -1,19 +1,22 @@
 package com.mx.money.controller;
 
 import com.mx.money.service.BackupService;
-import org.springframework.core.io.InputStreamResource;
-import org.springframework.core.io.Resource;
+import com.mx.money.service.DatabaseExportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -21,10 +24,18 @@ import java.util.Map;
 @RequestMapping("/api/backup")
 public class BackupController {
 
+    /** Request attributes of Tomcat's sendfile support (used by its DefaultServlet too) */
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
     private final BackupService backupService;
+    private final DatabaseExportService databaseExportService;
 
-    public BackupController(BackupService backupService) {
+    public BackupController(BackupService backupService, DatabaseExportService databaseExportService) {
         this.backupService = backupService;
+        this.databaseExportService = databaseExportService;
     }
 
     /**
@@ -37,10 +48,21 @@ public class BackupController {
 
     /**
      * Create a new backup
+     *
+     * @param format "logical" for a per-table NDJSON backup; omitted for the
+     *               configured file backup
      */
     @PostMapping
-    public ResponseEntity<Map<String, String>> createBackup() throws IOException {
-        String backupName = backupService.createBackup();
+    public ResponseEntity<Map<String, String>> createBackup(@RequestParam(required = false) String format)
+            throws IOException {
+        String backupName;
+        if (format == null) {
+            backupName = backupService.createBackup();
+        } else if (format.equals("logical")) {
+            backupName = backupService.createLogicalBackup();
+        } else {
+            throw new IllegalArgumentException("Invalid format: " + format);
+        }
         return ResponseEntity.ok(Map.of("name", backupName, "message", "Backup created successfully"));
     }
 
@@ -55,31 +77,98 @@ public class BackupController {
 
     /**
      * Restore from a backup
+     *
+     * @param tables Only these tables (logical backups only); omitted for all
      */
     @PostMapping("/restore/{backupName}")
-    public ResponseEntity<Map<String, String>> restoreBackup(@PathVariable String backupName) throws IOException {
-        backupService.restoreBackup(backupName);
+    public ResponseEntity<Map<String, String>> restoreBackup(@PathVariable String backupName,
+            @RequestParam(required = false) List<String> tables) throws IOException {
+        if (tables == null || tables.isEmpty()) {
+            backupService.restoreBackup(backupName);
+        } else {
+            backupService.restoreBackup(backupName, tables);
+        }
         return ResponseEntity.ok(Map.of("message", "Database restored from " + backupName));
     }
 
     /**
-     * Export database as downloadable file
+     * Rebuild the database as it was at a given moment (local time), from the
+     * nearest earlier backup plus the change journal
+     */
+    @PostMapping("/restore-point")
+    public ResponseEntity<Map<String, Object>> restoreToPointInTime(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) throws IOException {
+        Map<String, Object> result = new HashMap<>(backupService.restoreToPointInTime(at));
+        result.put("message", "Database restored to " + at);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Export database as downloadable file.
+     * Serves a consistent snapshot with its ETag; a single byte range is honoured
+     * (when If-Range is absent or matches) so interrupted downloads can resume.
+     * The file goes out through the container's sendfile when supported.
      */
     @GetMapping("/export")
-    public ResponseEntity<Resource> exportDatabase() throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        backupService.exportDatabase(baos);
+    public ResponseEntity<StreamingResponseBody> exportDatabase(
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+            HttpServletRequest request) throws IOException {
+        DatabaseExportService.Export export = databaseExportService.currentExport();
+        long size = export.size();
+
+        long start = 0;
+        long length = size;
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        HttpRange range = singleRange(rangeHeader);
+        if (range != null && (ifRange == null || ifRange.equals(export.etag()))) {
+            start = range.getRangeStart(size);
+            if (start >= size) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + size)
+                        .build();
+            }
+            long end = range.getRangeEnd(size);
+            length = end - start + 1;
+            response = ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        }
 
         String filename = "mxmoney_export_" +
                 LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss")) + ".db";
+        response.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .eTag(export.etag())
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .contentLength(length);
 
-        InputStreamResource resource = new InputStreamResource(new ByteArrayInputStream(baos.toByteArray()));
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT)) && length > 0) {
+            // Tomcat writes the file itself (zero-copy) once the headers are committed
+            request.setAttribute(SENDFILE_FILENAME, export.file().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return response.build();
+        }
+        long from = start;
+        long count = length;
+        StreamingTimeout.disable(request);
+        return response.body(out -> databaseExportService.transfer(export.file(), from, count, out));
+    }
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .contentLength(baos.size())
-                .body(resource);
+    /**
+     * Single range of the Range header, or null when absent, malformed or multiple
+     * (in which case the whole file is sent)
+     */
+    private static HttpRange singleRange(String rangeHeader) {
+        if (rangeHeader == null) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
 
     /**
@@ -93,7 +182,22 @@ public class BackupController {
         }
 
         backupService.importDatabase(file.getInputStream());
-        return ResponseEntity.ok(Map.of("message", "Database imported successfully. Please restart the application."));
+        return ResponseEntity.ok(Map.of("message", "Database imported successfully"));
+    }
+
+    /**
+     * Import database from the raw request body, streamed straight to disk
+     * without multipart parsing
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<Map<String, String>> importDatabaseStream(HttpServletRequest request)
+            throws IOException {
+        if (request.getContentLengthLong() == 0) {
+            return ResponseEntity.badRequest().body(Map.of("error", "File is empty"));
+        }
+
+        backupService.importDatabase(request.getInputStream());
+        return ResponseEntity.ok(Map.of("message", "Database imported successfully"));
     }
 
     /**
@@ -114,6 +218,16 @@ public class BackupController {
         return ResponseEntity.ok(backupService.getSettings());
     }
 
+    /**
+     * Switch between full and incremental backups
+     */
+    @PutMapping("/settings/incremental")
+    public ResponseEntity<Map<String, Object>> setIncremental(@RequestBody Map<String, Boolean> body) {
+        boolean enabled = body.getOrDefault("enabled", false);
+        backupService.setIncrementalBackups(enabled);
+        return ResponseEntity.ok(backupService.getSettings());
+    }
+
     /**
      * Update backup directory
      */
@@ -140,4 +254,18 @@ public class BackupController {
         backupService.setBackupInterval(hours);
         return ResponseEntity.ok(backupService.getSettings());
     }
+
+    /**
+     * Update how many backups are kept
+     */
+    @PutMapping("/settings/max-backups")
+    public ResponseEntity<Map<String, Object>> setMaxBackups(@RequestBody Map<String, Integer> body)
+            throws IOException {
+        Integer maxBackups = body.get("maxBackups");
+        if (maxBackups == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "maxBackups is required"));
+        }
+        backupService.setMaxBackups(maxBackups);
+        return ResponseEntity.ok(backupService.getSettings());
+    }
 }
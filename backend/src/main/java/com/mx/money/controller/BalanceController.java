@@ -4,10 +4,13 @@ import com.mx.money.dto.BalanceProjection;
 import com.mx.money.dto.BalanceResponse;
 import com.mx.money.dto.SimulationResponse;
 import com.mx.money.service.BalanceService;
+import com.mx.money.service.LedgerVersionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -19,13 +22,22 @@ import java.util.List;
 public class BalanceController {
 
     private final BalanceService balanceService;
+    private final LedgerVersionService ledgerVersionService;
 
     /**
-     * Retorna o saldo atual
+     * Retorna o saldo atual (304 se nenhuma transação mudou desde o ETag
+     * informado)
      */
     @GetMapping
-    public ResponseEntity<BalanceResponse> getCurrentBalance() {
-        return ResponseEntity.ok(balanceService.getCurrentBalance());
+    public ResponseEntity<BalanceResponse> getCurrentBalance(WebRequest webRequest) {
+        String etag = ledgerVersionService.etag(LocalDate.now(), LedgerVersionService.Resource.TRANSACTIONS);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .body(balanceService.getCurrentBalance());
     }
 
     /**
@@ -38,12 +50,21 @@ public class BalanceController {
     }
 
     /**
-     * Retorna a projeção de saldo para os próximos N dias
+     * Retorna a projeção de saldo para os próximos N dias (304 se nenhuma
+     * transação ou categoria mudou desde o ETag informado)
      */
     @GetMapping("/projection")
     public ResponseEntity<List<BalanceProjection>> getProjection(
-            @RequestParam(defaultValue = "30") int days) {
-        return ResponseEntity.ok(balanceService.getProjection(days));
+            @RequestParam(defaultValue = "30") int days, WebRequest webRequest) {
+        String etag = ledgerVersionService.etag(LocalDate.now(),
+                LedgerVersionService.Resource.TRANSACTIONS, LedgerVersionService.Resource.CATEGORIES);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .body(balanceService.getProjection(days));
     }
 
     /**
@@ -0,0 +1,51 @@
+package com.mx.money.controller;
+
+import com.mx.money.dto.CalendarMonthResponse;
+import com.mx.money.service.CalendarService;
+import com.mx.money.service.LedgerVersionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+
+@RestController
+@RequestMapping("/api/calendar")
+@RequiredArgsConstructor
+public class CalendarController {
+
+    private final CalendarService calendarService;
+    private final LedgerVersionService ledgerVersionService;
+
+    /**
+     * Retorna os totais diários (receitas, despesas, saldo e quantidade) de um
+     * mês, incluindo recorrências projetadas
+     *
+     * @param month      Mês no formato yyyy-MM
+     * @param includeIds Se true, inclui os IDs das transações de cada dia
+     */
+    @GetMapping("/{month}")
+    public ResponseEntity<CalendarMonthResponse> getMonth(
+            @PathVariable String month,
+            @RequestParam(defaultValue = "false") boolean includeIds,
+            WebRequest webRequest) {
+        YearMonth yearMonth;
+        try {
+            yearMonth = YearMonth.parse(month);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Mês inválido (esperado yyyy-MM): " + month);
+        }
+
+        String etag = ledgerVersionService.etag(LedgerVersionService.Resource.TRANSACTIONS);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .body(calendarService.getMonth(yearMonth, includeIds));
+    }
+}
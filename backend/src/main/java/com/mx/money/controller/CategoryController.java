@@ -3,11 +3,14 @@ package com.mx.money.controller;
 import com.mx.money.dto.CategoryRequest;
 import com.mx.money.dto.CategoryResponse;
 import com.mx.money.service.CategoryService;
+import com.mx.money.service.LedgerVersionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -17,10 +20,18 @@ import java.util.List;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final LedgerVersionService ledgerVersionService;
 
     @GetMapping
-    public ResponseEntity<List<CategoryResponse>> findAll() {
-        return ResponseEntity.ok(categoryService.findAll());
+    public ResponseEntity<List<CategoryResponse>> findAll(WebRequest webRequest) {
+        String etag = ledgerVersionService.etag(LedgerVersionService.Resource.CATEGORIES);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .body(categoryService.findAll());
     }
 
     @GetMapping("/{id}")
@@ -1,14 +1,28 @@
 package com.mx.money.controller;
 
 import com.mx.money.dto.ReportAnalysisResponse;
-import com.mx.money.service.ReportService;
+import com.mx.money.dto.ReportJobResponse;
+import com.mx.money.dto.RollupResponse;
+import com.mx.money.service.MonthlyRollupService;
+import com.mx.money.service.ReportJobService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
+import java.net.URI;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Controller para relatórios financeiros com IA
@@ -19,10 +33,52 @@ import java.time.format.DateTimeFormatter;
 @Slf4j
 public class ReportController {
 
-    private final ReportService reportService;
+    private final ReportJobService reportJobService;
+    private final MonthlyRollupService monthlyRollupService;
 
     /**
-     * Gera análise financeira usando IA
+     * Totais agregados por mês, categoria e/ou tipo, lidos da tabela de rollups
+     *
+     * @param from    Mês inicial no formato yyyy-MM (opcional)
+     * @param to      Mês final no formato yyyy-MM (opcional)
+     * @param groupBy Dimensões separadas por vírgula: month, category, type
+     */
+    @GetMapping("/rollup")
+    public ResponseEntity<List<RollupResponse>> getRollup(
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "month,category,type") String groupBy) {
+
+        Set<String> dimensions = Arrays.stream(groupBy.split(","))
+                .map(String::trim)
+                .filter(d -> !d.isEmpty())
+                .collect(Collectors.toSet());
+
+        return ResponseEntity.ok(monthlyRollupService.query(parseMonth(from), parseMonth(to), dimensions));
+    }
+
+    /**
+     * Reconstrói os rollups a partir das transações
+     */
+    @PostMapping("/rollup/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildRollup() {
+        int rows = monthlyRollupService.rebuild();
+        return ResponseEntity.ok(Map.of("rows", rows));
+    }
+
+    private YearMonth parseMonth(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Mês inválido (use yyyy-MM): " + value);
+        }
+    }
+
+    /**
+     * Gera análise financeira usando IA, aguardando o job correspondente
      * 
      * @param language Idioma da análise (pt-BR ou en)
      */
@@ -32,16 +88,15 @@ public class ReportController {
 
         log.info("Generating financial analysis in language: {}", language);
 
+        ReportJobService.ReportJob job = reportJobService.submit(language);
         try {
-            String analysis = reportService.generateFinancialAnalysis(language);
-
-            return ResponseEntity.ok(ReportAnalysisResponse.builder()
-                    .analysis(analysis)
-                    .generatedAt(LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
-                    .success(true)
-                    .build());
-
-        } catch (Exception e) {
+            return ResponseEntity.ok(reportJobService.await(job));
+        } catch (InterruptedException e) {
+            // Ninguém mais espera pelo resultado
+            Thread.currentThread().interrupt();
+            reportJobService.cancel(job.getId());
+            throw new RuntimeException("Geração da análise interrompida", e);
+        } catch (IllegalStateException e) {
             log.error("Error generating analysis", e);
 
             String errorMsg = language.equals("pt-BR")
@@ -55,4 +110,80 @@ public class ReportController {
                     .build());
         }
     }
+
+    /**
+     * Gera a análise em streaming (text/event-stream). Eventos "chunk" trazem
+     * trechos em analysis; "done" encerra com generatedAt; "error" traz
+     * errorMessage. Desconectar o cliente cancela a geração.
+     *
+     * @param language Idioma da análise (pt-BR ou en)
+     */
+    @GetMapping(value = "/analysis/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ReportAnalysisResponse>> streamAnalysis(
+            @RequestParam(defaultValue = "pt-BR") String language) {
+
+        log.info("Streaming financial analysis in language: {}", language);
+
+        return toEvents(reportJobService.stream(reportJobService.submit(language)), language);
+    }
+
+    /**
+     * Enfileira a geração da análise. Pedidos idênticos a um job ainda ativo
+     * devolvem esse mesmo job.
+     *
+     * @param language Idioma da análise (pt-BR ou en)
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<ReportJobResponse> submitJob(@RequestParam(defaultValue = "pt-BR") String language) {
+        ReportJobService.ReportJob job = reportJobService.submit(language);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/reports/jobs/" + job.getId()))
+                .body(job.toResponse());
+    }
+
+    /**
+     * Estado do job (com o texto parcial enquanto roda)
+     */
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<ReportJobResponse> getJob(@PathVariable String id) {
+        return ResponseEntity.ok(reportJobService.get(id).toResponse());
+    }
+
+    /**
+     * Desiste do job; a geração é interrompida quando ninguém mais a aguarda
+     */
+    @DeleteMapping("/jobs/{id}")
+    public ResponseEntity<ReportJobResponse> cancelJob(@PathVariable String id) {
+        return ResponseEntity.ok(reportJobService.cancel(id).toResponse());
+    }
+
+    /**
+     * Acompanha um job em streaming (mesmos eventos de /analysis/stream)
+     */
+    @GetMapping(value = "/jobs/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ReportAnalysisResponse>> streamJob(@PathVariable String id) {
+        ReportJobService.ReportJob job = reportJobService.get(id);
+        return toEvents(reportJobService.follow(id), job.getLanguage());
+    }
+
+    private Flux<ServerSentEvent<ReportAnalysisResponse>> toEvents(Flux<ReportAnalysisResponse> parts,
+            String language) {
+        return parts
+                .map(part -> ServerSentEvent.builder(part)
+                        .event(part.getGeneratedAt() != null ? "done" : "chunk")
+                        .build())
+                .onErrorResume(e -> {
+                    log.error("Error streaming analysis", e);
+                    String errorMsg = language.equals("pt-BR")
+                            ? "Erro ao gerar análise. Verifique se o Ollama está rodando."
+                            : "Error generating analysis. Check if Ollama is running.";
+                    return Flux.just(ServerSentEvent.builder(ReportAnalysisResponse.builder()
+                            .success(false)
+                            .errorMessage(errorMsg + " - " + e.getMessage())
+                            .generatedAt(LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                            .build())
+                            .event("error")
+                            .build());
+                });
+    }
 }
@@ -0,0 +1,25 @@
+package com.mx.money.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+/**
+ * Limite de tempo das respostas em streaming ({@code StreamingResponseBody}).
+ * <p>
+ * O limite global ({@code spring.mvc.async.request-timeout}) vale para SSE e
+ * demais respostas assíncronas; exportações do livro-caixa ou do banco podem
+ * demorar mais que ele em conexões lentas e não devem ser cortadas no meio.
+ */
+final class StreamingTimeout {
+
+    private StreamingTimeout() {
+    }
+
+    /**
+     * Remove o limite para a requisição atual. Deve ser chamado no handler,
+     * antes de a resposta assíncrona começar.
+     */
+    static void disable(HttpServletRequest request) {
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest().setTimeout(-1L);
+    }
+}
@@ -1,15 +1,26 @@
 package com.mx.money.controller;
 
+import com.mx.money.dto.TransactionBatch;
+import com.mx.money.dto.TransactionBatchUndoResponse;
 import com.mx.money.dto.TransactionRequest;
 import com.mx.money.dto.TransactionResponse;
+import com.mx.money.service.LedgerVersionService;
 import com.mx.money.service.RecurringTransactionService;
+import com.mx.money.service.TransactionBatchService;
+import com.mx.money.service.TransactionExportService;
 import com.mx.money.service.TransactionService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -22,16 +33,56 @@ public class TransactionController {
 
     private final TransactionService transactionService;
     private final RecurringTransactionService recurringTransactionService;
+    private final TransactionExportService transactionExportService;
+    private final LedgerVersionService ledgerVersionService;
+    private final TransactionBatchService transactionBatchService;
 
     @GetMapping
     public ResponseEntity<List<TransactionResponse>> findAll(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            WebRequest webRequest) {
 
-        if (startDate != null && endDate != null) {
-            return ResponseEntity.ok(transactionService.findByPeriod(startDate, endDate));
+        String etag = ledgerVersionService.etag(
+                LedgerVersionService.Resource.TRANSACTIONS, LedgerVersionService.Resource.CATEGORIES);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
         }
-        return ResponseEntity.ok(transactionService.findAll());
+
+        List<TransactionResponse> transactions = startDate != null && endDate != null
+                ? transactionService.findByPeriod(startDate, endDate)
+                : transactionService.findAll();
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .body(transactions);
+    }
+
+    /**
+     * Exporta todas as transações em streaming (NDJSON ou CSV), sem carregar o
+     * livro-caixa inteiro em memória
+     *
+     * @param format ndjson (padrão) ou csv
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "ndjson") String format,
+            HttpServletRequest request) {
+        boolean csv = switch (format.toLowerCase()) {
+            case "ndjson" -> false;
+            case "csv" -> true;
+            default -> throw new IllegalArgumentException("Formato inválido (use ndjson ou csv): " + format);
+        };
+
+        StreamingTimeout.disable(request);
+        StreamingResponseBody body = csv
+                ? transactionExportService::exportCsv
+                : transactionExportService::exportNdjson;
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"transactions." + (csv ? "csv" : "ndjson") + "\"")
+                .contentType(csv ? new MediaType("text", "csv") : MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @GetMapping("/{id}")
@@ -58,6 +109,23 @@ public class TransactionController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Operações em lote (importações, gerações de recorrências) que podem ser
+     * desfeitas
+     */
+    @GetMapping("/batches")
+    public ResponseEntity<List<TransactionBatch>> findBatches() {
+        return ResponseEntity.ok(transactionBatchService.findAll());
+    }
+
+    /**
+     * Desfaz uma operação em lote, removendo as transações que ela criou
+     */
+    @DeleteMapping("/batches/{batchId}")
+    public ResponseEntity<TransactionBatchUndoResponse> undoBatch(@PathVariable String batchId) {
+        return ResponseEntity.ok(transactionBatchService.undo(batchId));
+    }
+
     /**
      * Gera transações pendentes de recorrências manualmente
      */
@@ -0,0 +1,53 @@
+package com.mx.money.dto;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Manifesto gravado dentro de cada arquivo de backup
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BackupManifest {
+
+    /**
+     * Versão do formato do arquivo de backup
+     */
+    private int formatVersion;
+    private String createdAt;
+    private String appVersion;
+
+    /**
+     * PRAGMA schema_version do banco copiado
+     */
+    private int schemaVersion;
+
+    /**
+     * SHA-256 (hex) e tamanho do banco descomprimido
+     */
+    private String sha256;
+    private long databaseSize;
+
+    /**
+     * Linhas por tabela no momento do backup
+     */
+    private Map<String, Long> rowCounts;
+
+    /**
+     * Backups incrementais: tamanho dos blocos, hashes dos blocos em ordem e
+     * bytes (comprimidos) que este backup acrescentou ao repositório de blocos
+     */
+    private Integer chunkSize;
+    private List<String> chunks;
+    private Long addedBytes;
+
+    /**
+     * Backups lógicos: tabelas exportadas em blocos NDJSON
+     */
+    private Map<String, LogicalTableManifest> tables;
+}
@@ -0,0 +1,33 @@
+package com.mx.money.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Totais de um dia do calendário (transações registradas + recorrências
+ * projetadas)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CalendarDayResponse {
+
+    private LocalDate date;
+    private BigDecimal totalIncome;
+    private BigDecimal totalExpense;
+    private BigDecimal net;
+    private long incomeCount;
+    private long expenseCount;
+    private long count;
+
+    /**
+     * IDs das transações do dia (somente quando solicitado). Ocorrências
+     * projetadas usam o ID da transação recorrente de origem.
+     */
+    private List<Long> transactionIds;
+}
@@ -0,0 +1,27 @@
+package com.mx.money.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO de resposta com os totais diários de um mês do calendário
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CalendarMonthResponse {
+
+    private String month; // yyyy-MM
+    private BigDecimal totalIncome;
+    private BigDecimal totalExpense;
+    private BigDecimal balance;
+
+    /**
+     * Apenas os dias com movimentação, em ordem cronológica
+     */
+    private List<CalendarDayResponse> days;
+}
@@ -0,0 +1,18 @@
+package com.mx.money.dto;
+
+import lombok.*;
+
+/**
+ * Uso da memória de categorizações desde a inicialização
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategorizationMemoStats {
+    private long entries;
+    private long lookups;
+    private long hits;
+    private double hitRate;
+}
@@ -0,0 +1,23 @@
+package com.mx.money.dto;
+
+import com.mx.money.entity.TransactionType;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Soma e quantidade de transações de um tipo em uma categoria (resultado de
+ * GROUP BY). categoryName é null para transações sem categoria.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategoryTypeTotal {
+
+    private TransactionType type;
+    private String categoryName;
+    private BigDecimal total;
+    private Long count;
+}
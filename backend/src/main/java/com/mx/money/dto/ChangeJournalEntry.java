@@ -0,0 +1,47 @@
+package com.mx.money.dto;
+
+import lombok.*;
+
+import java.util.Map;
+
+/**
+ * Entrada do diário de alterações (uma linha NDJSON)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChangeJournalEntry {
+
+    public enum Operation {
+        /** Imagem completa da linha após a alteração */
+        UPSERT,
+        /** Linha excluída */
+        DELETE,
+        /** Backup criado; abre um segmento do diário */
+        CHECKPOINT,
+        /** Arquivo do banco substituído (restore/import); abre um segmento */
+        REPLACED
+    }
+
+    /**
+     * Sequência crescente, sem lacunas, e instante da gravação (epoch millis)
+     */
+    private long seq;
+    private long ts;
+    private Operation op;
+
+    /**
+     * UPSERT/DELETE: tabela, id e valores das colunas como gravados no banco
+     */
+    private String table;
+    private Long id;
+    private Map<String, Object> row;
+
+    /**
+     * CHECKPOINT: nome do backup e última entrada anterior ao snapshot
+     */
+    private String backup;
+    private Long from;
+}
@@ -0,0 +1,31 @@
+package com.mx.money.dto;
+
+import com.mx.money.service.CsvImportJobService;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Estado de uma importação de CSV em segundo plano. {@code rows} traz a prévia
+ * (linhas ainda não categorizadas têm categoria nula) e só é preenchido nas
+ * consultas completas e no evento final.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CsvImportJobResponse {
+
+    private String id;
+    private String fileName;
+    private CsvImportJobService.Status status;
+    private CsvImportJobService.Stage stage;
+    private int progress;
+    private int totalRows;
+    private int processedRows;
+    private List<CsvImportResponse> rows;
+    private String errorMessage;
+    private String createdAt;
+    private String finishedAt;
+}
@@ -18,4 +18,9 @@ public class CsvImportResponse {
     private String description;
     private BigDecimal amount;
     private String category;
+
+    /**
+     * Linha já importada anteriormente (não é categorizada nem salva de novo)
+     */
+    private Boolean duplicate;
 }
@@ -0,0 +1,28 @@
+package com.mx.money.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Resumo de uma importação salva em lote
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CsvImportSummary {
+    /**
+     * Lote da importação, para desfazê-la; null quando nada foi gravado
+     */
+    private String batchId;
+    private int imported;
+    private int skippedDuplicates;
+    private List<String> createdCategories;
+    private BigDecimal totalIncome;
+    private BigDecimal totalExpense;
+    private String firstDate;
+    private String lastDate;
+}
@@ -0,0 +1,25 @@
+package com.mx.money.dto;
+
+import com.mx.money.entity.TransactionType;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Soma e quantidade de transações de um tipo e categoria em um dia (resultado
+ * de GROUP BY). categoryId é null para transações sem categoria.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyCategoryTotal {
+
+    private LocalDate date;
+    private Long categoryId;
+    private TransactionType type;
+    private BigDecimal total;
+    private Long count;
+}
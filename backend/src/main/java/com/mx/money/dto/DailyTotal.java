@@ -0,0 +1,23 @@
+package com.mx.money.dto;
+
+import com.mx.money.entity.TransactionType;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Soma e quantidade de transações de um tipo em um dia (resultado de GROUP BY)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyTotal {
+
+    private LocalDate date;
+    private TransactionType type;
+    private BigDecimal total;
+    private Long count;
+}
@@ -0,0 +1,22 @@
+package com.mx.money.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Estatísticas gerais do livro de transações (quantidade, recorrentes e
+ * período coberto), calculadas em uma única consulta agregada
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerStats {
+
+    private Long count;
+    private Long recurringCount;
+    private LocalDate firstDate;
+    private LocalDate lastDate;
+}
@@ -0,0 +1,29 @@
+package com.mx.money.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Descrição de uma tabela dentro de um backup lógico
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LogicalTableManifest {
+
+    /**
+     * Colunas na ordem em que aparecem em cada linha NDJSON
+     */
+    private List<String> columns;
+    private long rowCount;
+
+    /**
+     * Entradas do ZIP com os blocos de linhas, em ordem, e o SHA-256 (hex) do
+     * conteúdo descomprimido de cada uma
+     */
+    private List<String> chunks;
+    private List<String> chunkSha256;
+}
@@ -16,4 +16,5 @@ public class ReportAnalysisResponse {
     private String generatedAt;
     private boolean success;
     private String errorMessage;
+    private boolean cached; // true quando reaproveitada do cache (generatedAt é o da geração original)
 }
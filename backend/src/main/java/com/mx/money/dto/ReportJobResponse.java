@@ -0,0 +1,26 @@
+package com.mx.money.dto;
+
+import com.mx.money.service.ReportJobService;
+import lombok.*;
+
+/**
+ * Estado de um job de geração de relatório. Enquanto o job roda, analysis
+ * traz o texto parcial já recebido do modelo.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReportJobResponse {
+
+    private String id;
+    private ReportJobService.Status status;
+    private String language;
+    private String analysis;
+    private String generatedAt;
+    private boolean cached;
+    private String errorMessage;
+    private String createdAt;
+    private String finishedAt;
+}
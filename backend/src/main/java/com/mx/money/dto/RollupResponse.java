@@ -0,0 +1,26 @@
+package com.mx.money.dto;
+
+import com.mx.money.entity.TransactionType;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Linha do agregado mensal. Dimensões não incluídas no groupBy ficam nulas
+ * (e são omitidas do JSON).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RollupResponse {
+
+    private String month; // yyyy-MM
+    private Long categoryId;
+    private String categoryName;
+    private String categoryColor;
+    private TransactionType type;
+    private BigDecimal total;
+    private long count;
+}
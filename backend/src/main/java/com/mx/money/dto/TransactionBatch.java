@@ -0,0 +1,32 @@
+package com.mx.money.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Operação em lote (importação de CSV, geração de recorrências) com as
+ * transações que ainda estão no livro-caixa
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransactionBatch {
+
+    private String batchId;
+    private Long transactionCount;
+    private LocalDateTime createdAt;
+    private LocalDate firstDate;
+    private LocalDate lastDate;
+
+    /**
+     * Tipo da operação, prefixo do id (ex: "import", "recurring")
+     */
+    public String getKind() {
+        int separator = batchId.indexOf('-');
+        return separator > 0 ? batchId.substring(0, separator) : batchId;
+    }
+}
@@ -0,0 +1,18 @@
+package com.mx.money.dto;
+
+import lombok.*;
+
+/**
+ * Resultado de desfazer uma operação em lote
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransactionBatchUndoResponse {
+
+    private String batchId;
+    private int deletedTransactions;
+    private int deletedCategories;
+}
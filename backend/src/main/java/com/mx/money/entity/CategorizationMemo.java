@@ -0,0 +1,33 @@
+package com.mx.money.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Categoria confirmada pelo usuário para uma descrição normalizada. Consultada
+ * antes do classificador por palavra-chave e do LLM na importação de CSV.
+ */
+@Entity
+@Table(name = "categorization_memo")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategorizationMemo {
+
+    /**
+     * Descrição normalizada (ver {@code CategorizationMemoService.key})
+     */
+    @Id
+    @Column(name = "description_key", length = 255)
+    private String descriptionKey;
+
+    @Column(name = "category_name", nullable = false)
+    private String categoryName;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -29,6 +29,12 @@ public class Category {
 
     private String icon; // Nome do ícone (ex: "shopping-cart")
 
+    /**
+     * Operação em lote que criou a categoria (importação de CSV)
+     */
+    @Column(name = "batch_id", length = 64)
+    private String batchId;
+
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
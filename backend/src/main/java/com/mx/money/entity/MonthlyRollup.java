@@ -0,0 +1,50 @@
+package com.mx.money.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Agregado mensal (mês × categoria × tipo → soma e quantidade) das transações.
+ * Mantido incrementalmente a cada escrita de transação e reconstruível a partir
+ * da tabela de transações.
+ */
+@Entity
+@Table(name = "monthly_rollups")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MonthlyRollup {
+
+    /**
+     * Valor de category_id para transações sem categoria (evita comparações com
+     * NULL na chave mês × categoria × tipo)
+     */
+    public static final long NO_CATEGORY = 0L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Mês no formato yyyy-MM
+     */
+    @Column(nullable = false, length = 7)
+    private String month;
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TransactionType type;
+
+    @Column(name = "total_amount", nullable = false, precision = 15, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(name = "tx_count", nullable = false)
+    private Long txCount;
+}
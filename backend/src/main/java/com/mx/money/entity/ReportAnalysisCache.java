@@ -0,0 +1,37 @@
+package com.mx.money.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Análise gerada pela IA, indexada pela impressão digital do prompt (resumo
+ * financeiro + idioma + configurações do modelo). Enquanto o resumo não muda, a
+ * mesma análise é reaproveitada sem chamar o modelo.
+ */
+@Entity
+@Table(name = "report_analysis_cache")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReportAnalysisCache {
+
+    /**
+     * SHA-256 em hexadecimal
+     */
+    @Id
+    @Column(length = 64)
+    private String fingerprint;
+
+    @Column(nullable = false, length = 10)
+    private String language;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String analysis;
+
+    @Column(name = "generated_at", nullable = false)
+    private LocalDateTime generatedAt;
+}
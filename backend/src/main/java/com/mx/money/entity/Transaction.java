@@ -11,7 +11,9 @@ import java.time.LocalDateTime;
  * Representa uma transação financeira (receita ou despesa)
  */
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_import_fingerprint", columnList = "import_fingerprint"),
+        @Index(name = "idx_transactions_batch_id", columnList = "batch_id") })
 @Getter
 @Setter
 @NoArgsConstructor
@@ -74,6 +76,20 @@ public class Transaction {
     @Column(name = "parent_recurring_id")
     private Long parentRecurringId;
 
+    /**
+     * Impressão digital da linha do extrato que originou a transação (apenas
+     * transações importadas), usada para detectar reimportações
+     */
+    @Column(name = "import_fingerprint", length = 64)
+    private String importFingerprint;
+
+    /**
+     * Operação em lote que criou a transação (importação de CSV, geração de
+     * recorrências), para desfazê-la de uma vez
+     */
+    @Column(name = "batch_id", length = 64)
+    private String batchId;
+
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
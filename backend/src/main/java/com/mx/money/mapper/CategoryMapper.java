@@ -19,10 +19,12 @@ public interface CategoryMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "batchId", ignore = true)
     Category toEntity(CategoryRequest request);
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "batchId", ignore = true)
     void updateEntity(CategoryRequest request, @MappingTarget Category category);
 }
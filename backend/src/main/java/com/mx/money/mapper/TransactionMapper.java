@@ -22,6 +22,8 @@ public interface TransactionMapper {
     @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "lastGeneratedDate", ignore = true)
     @Mapping(target = "parentRecurringId", ignore = true)
+    @Mapping(target = "importFingerprint", ignore = true)
+    @Mapping(target = "batchId", ignore = true)
     Transaction toEntity(TransactionRequest request);
 
     @Mapping(target = "id", ignore = true)
@@ -30,5 +32,7 @@ public interface TransactionMapper {
     @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "lastGeneratedDate", ignore = true)
     @Mapping(target = "parentRecurringId", ignore = true)
+    @Mapping(target = "importFingerprint", ignore = true)
+    @Mapping(target = "batchId", ignore = true)
     void updateEntity(TransactionRequest request, @MappingTarget Transaction transaction);
 }
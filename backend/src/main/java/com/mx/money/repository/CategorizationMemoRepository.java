@@ -0,0 +1,9 @@
+package com.mx.money.repository;
+
+import com.mx.money.entity.CategorizationMemo;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CategorizationMemoRepository extends JpaRepository<CategorizationMemo, String> {
+}
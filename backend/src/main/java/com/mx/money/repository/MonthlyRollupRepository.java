@@ -0,0 +1,41 @@
+package com.mx.money.repository;
+
+import com.mx.money.entity.MonthlyRollup;
+import com.mx.money.entity.TransactionType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface MonthlyRollupRepository extends JpaRepository<MonthlyRollup, Long> {
+
+    /**
+     * Soma (ou subtrai, com valores negativos) um delta a um agregado existente
+     *
+     * @return Número de linhas atualizadas (0 se o agregado ainda não existe)
+     */
+    @Modifying
+    @Query("UPDATE MonthlyRollup r SET r.totalAmount = r.totalAmount + :amount, r.txCount = r.txCount + :count "
+            + "WHERE r.month = :month AND r.categoryId = :categoryId AND r.type = :type")
+    int increment(
+            @Param("month") String month,
+            @Param("categoryId") long categoryId,
+            @Param("type") TransactionType type,
+            @Param("amount") BigDecimal amount,
+            @Param("count") long count);
+
+    /**
+     * Agregados de um intervalo de meses (yyyy-MM, inclusive), ignorando linhas
+     * zeradas por exclusões
+     */
+    @Query("SELECT r FROM MonthlyRollup r WHERE r.month >= :fromMonth AND r.month <= :toMonth AND r.txCount > 0 "
+            + "ORDER BY r.month ASC")
+    List<MonthlyRollup> findInRange(
+            @Param("fromMonth") String fromMonth,
+            @Param("toMonth") String toMonth);
+}
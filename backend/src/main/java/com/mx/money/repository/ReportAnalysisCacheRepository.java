@@ -0,0 +1,16 @@
+package com.mx.money.repository;
+
+import com.mx.money.entity.ReportAnalysisCache;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ReportAnalysisCacheRepository extends JpaRepository<ReportAnalysisCache, String> {
+
+    /**
+     * Lista as análises em cache, das mais recentes para as mais antigas
+     */
+    List<ReportAnalysisCache> findAllByOrderByGeneratedAtDesc();
+}
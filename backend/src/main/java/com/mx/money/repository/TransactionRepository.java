@@ -1,15 +1,27 @@
 package com.mx.money.repository;
 
+import com.mx.money.dto.CategoryTypeTotal;
+import com.mx.money.dto.DailyCategoryTotal;
+import com.mx.money.dto.DailyTotal;
+import com.mx.money.dto.LedgerStats;
+import com.mx.money.dto.TransactionBatch;
+import com.mx.money.entity.RecurrenceType;
 import com.mx.money.entity.Transaction;
 import com.mx.money.entity.TransactionType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
@@ -59,4 +71,83 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
      * Lista todas as transações ordenadas por data
      */
     List<Transaction> findAllByOrderByEffectiveDateDesc();
+
+    /**
+     * Busca transações com recorrência diferente da informada (templates
+     * recorrentes)
+     */
+    List<Transaction> findByRecurrenceNot(RecurrenceType recurrence);
+
+    /**
+     * Soma e quantidade de transações por dia e tipo em um período
+     */
+    @Query("SELECT new com.mx.money.dto.DailyTotal(t.effectiveDate, t.type, SUM(t.amount), COUNT(t)) "
+            + "FROM Transaction t WHERE t.effectiveDate >= :startDate AND t.effectiveDate <= :endDate "
+            + "GROUP BY t.effectiveDate, t.type")
+    List<DailyTotal> sumByDayAndType(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * Pares [id, effectiveDate] das transações de um período
+     */
+    @Query("SELECT t.id, t.effectiveDate FROM Transaction t "
+            + "WHERE t.effectiveDate >= :startDate AND t.effectiveDate <= :endDate ORDER BY t.effectiveDate ASC, t.id ASC")
+    List<Object[]> findIdsAndDatesInPeriod(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * Percorre todas as transações (com categoria) via cursor, em ordem
+     * cronológica. Deve ser consumido dentro de uma transação e fechado ao final.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT t FROM Transaction t LEFT JOIN FETCH t.category ORDER BY t.effectiveDate ASC, t.id ASC")
+    Stream<Transaction> streamAllWithCategory();
+
+    /**
+     * Soma e quantidade de transações por dia, categoria e tipo (usado para
+     * reconstruir os agregados mensais)
+     */
+    @Query("SELECT new com.mx.money.dto.DailyCategoryTotal(t.effectiveDate, c.id, t.type, SUM(t.amount), COUNT(t)) "
+            + "FROM Transaction t LEFT JOIN t.category c GROUP BY t.effectiveDate, c.id, t.type")
+    List<DailyCategoryTotal> sumByDayCategoryAndType();
+
+    /**
+     * Soma e quantidade das transações de uma operação em lote por dia,
+     * categoria e tipo (usado para retirá-las dos agregados mensais)
+     */
+    @Query("SELECT new com.mx.money.dto.DailyCategoryTotal(t.effectiveDate, c.id, t.type, SUM(t.amount), COUNT(t)) "
+            + "FROM Transaction t LEFT JOIN t.category c WHERE t.batchId = :batchId "
+            + "GROUP BY t.effectiveDate, c.id, t.type")
+    List<DailyCategoryTotal> sumByDayCategoryAndTypeInBatch(@Param("batchId") String batchId);
+
+    /**
+     * Operações em lote com transações ainda no livro-caixa, mais recentes primeiro
+     */
+    @Query("SELECT new com.mx.money.dto.TransactionBatch(t.batchId, COUNT(t), MIN(t.createdAt), "
+            + "MIN(t.effectiveDate), MAX(t.effectiveDate)) FROM Transaction t WHERE t.batchId IS NOT NULL "
+            + "GROUP BY t.batchId ORDER BY MIN(t.createdAt) DESC")
+    List<TransactionBatch> summarizeBatches();
+
+    /**
+     * Soma e quantidade de transações por tipo e categoria
+     */
+    @Query("SELECT new com.mx.money.dto.CategoryTypeTotal(t.type, c.name, SUM(t.amount), COUNT(t)) "
+            + "FROM Transaction t LEFT JOIN t.category c GROUP BY t.type, c.name")
+    List<CategoryTypeTotal> sumByTypeAndCategory();
+
+    /**
+     * Quantidade total, quantidade de recorrentes e primeira/última data efetiva
+     */
+    @Query("SELECT new com.mx.money.dto.LedgerStats(COUNT(t), "
+            + "COALESCE(SUM(CASE WHEN t.recurrence <> 'NONE' THEN 1 ELSE 0 END), 0), "
+            + "MIN(t.effectiveDate), MAX(t.effectiveDate)) FROM Transaction t")
+    LedgerStats summarizeLedger();
+
+    /**
+     * Impressões digitais de importação já gravadas, dentre as informadas
+     */
+    @Query("SELECT t.importFingerprint FROM Transaction t WHERE t.importFingerprint IN :fingerprints")
+    List<String> findExistingImportFingerprints(@Param("fingerprints") Collection<String> fingerprints);
 }
@@ -0,0 +1,204 @@
+package com.mx.money.service;
+
+import com.mx.money.dto.BackupManifest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Arquivos de backup comprimidos: um ZIP com o banco SQLite (deflate) e um
+ * manifesto JSON com SHA-256, tamanho, contagem de linhas por tabela, versão do
+ * schema e da aplicação.
+ * <p>
+ * O manifesto pode ser lido sem descomprimir o banco (diretório central do ZIP);
+ * a verificação completa descomprime em streaming e confere o SHA-256.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BackupArchiveService {
+
+    public static final String EXTENSION = ".zip";
+    public static final int FORMAT_VERSION = 1;
+
+    static final String DATABASE_ENTRY = "mxmoney.db";
+    static final String MANIFEST_ENTRY = "manifest.json";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Comprime o banco em {@code archive}, gerando o manifesto
+     *
+     * @param database Cópia consistente do banco (não o arquivo em uso)
+     */
+    public BackupManifest write(Path database, Path archive) throws IOException {
+        BackupManifest manifest = inspect(database);
+        Path temp = archive.resolveSibling(archive.getFileName() + ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            try (ZipOutputStream zip = new ZipOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp), BUFFER_SIZE))) {
+                zip.setLevel(6);
+                zip.putNextEntry(new ZipEntry(DATABASE_ENTRY));
+                try (InputStream in = new DigestInputStream(Files.newInputStream(database), digest)) {
+                    in.transferTo(zip);
+                }
+                zip.closeEntry();
+
+                manifest.setSha256(HexFormat.of().formatHex(digest.digest()));
+                manifest.setDatabaseSize(Files.size(database));
+                zip.putNextEntry(new ZipEntry(MANIFEST_ENTRY));
+                zip.write(objectMapper.writeValueAsBytes(manifest));
+                zip.closeEntry();
+            }
+            Files.move(temp, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        log.info("Backup archive {}: {} -> {} bytes", archive.getFileName(), manifest.getDatabaseSize(),
+                Files.size(archive));
+        return manifest;
+    }
+
+    /**
+     * Lê apenas o manifesto
+     */
+    public BackupManifest readManifest(Path archive) throws IOException {
+        try (ZipFile zip = new ZipFile(archive.toFile())) {
+            ZipEntry entry = zip.getEntry(MANIFEST_ENTRY);
+            if (entry == null) {
+                throw new IOException("Backup sem manifesto: " + archive.getFileName());
+            }
+            try (InputStream in = zip.getInputStream(entry)) {
+                return objectMapper.readValue(in, BackupManifest.class);
+            } catch (JacksonException e) {
+                throw new IOException("Manifesto inválido: " + archive.getFileName(), e);
+            }
+        }
+    }
+
+    /**
+     * Descomprime o banco e confere o SHA-256 do manifesto sem gravar nada
+     *
+     * @throws IOException se o arquivo estiver corrompido
+     */
+    public BackupManifest verify(Path archive) throws IOException {
+        return extract(archive, OutputStream.nullOutputStream());
+    }
+
+    /**
+     * Descomprime o banco em {@code target}, conferindo o SHA-256 do manifesto
+     *
+     * @throws IOException se o arquivo estiver corrompido ({@code target} não é
+     *                     criado nesse caso)
+     */
+    public BackupManifest extract(Path archive, Path target) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            BackupManifest manifest;
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp), BUFFER_SIZE)) {
+                manifest = extract(archive, out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            return manifest;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private BackupManifest extract(Path archive, OutputStream out) throws IOException {
+        BackupManifest manifest = readManifest(archive);
+        MessageDigest digest = sha256();
+        long size;
+        try (ZipFile zip = new ZipFile(archive.toFile())) {
+            ZipEntry entry = zip.getEntry(DATABASE_ENTRY);
+            if (entry == null) {
+                throw new IOException("Backup sem banco de dados: " + archive.getFileName());
+            }
+            try (InputStream in = new DigestInputStream(zip.getInputStream(entry), digest)) {
+                size = in.transferTo(out);
+            }
+        } catch (ZipException e) {
+            throw new IOException("Backup corrompido: " + archive.getFileName() + " (" + e.getMessage() + ")", e);
+        }
+        String actual = HexFormat.of().formatHex(digest.digest());
+        if (size != manifest.getDatabaseSize() || !actual.equals(manifest.getSha256())) {
+            throw new IOException("Backup corrompido: " + archive.getFileName() + " (checksum não confere)");
+        }
+        return manifest;
+    }
+
+    /**
+     * Manifesto sem checksum: contagem de linhas por tabela e versão do schema
+     */
+    static BackupManifest inspect(Path database) throws IOException {
+        Map<String, Long> rowCounts = new LinkedHashMap<>();
+        int schemaVersion;
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + database.toAbsolutePath());
+                Statement statement = connection.createStatement()) {
+            List<String> tables = new ArrayList<>();
+            try (ResultSet rs = statement.executeQuery(
+                    "SELECT name FROM sqlite_master WHERE type = 'table' AND name NOT LIKE 'sqlite_%' ORDER BY name")) {
+                while (rs.next()) {
+                    tables.add(rs.getString(1));
+                }
+            }
+            for (String table : tables) {
+                String quoted = "\"" + table.replace("\"", "\"\"") + "\"";
+                try (ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM " + quoted)) {
+                    rowCounts.put(table, rs.getLong(1));
+                }
+            }
+            try (ResultSet rs = statement.executeQuery("PRAGMA schema_version")) {
+                schemaVersion = rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            throw new IOException("Falha ao inspecionar o banco: " + e.getMessage(), e);
+        }
+
+        String appVersion = BackupArchiveService.class.getPackage().getImplementationVersion();
+        return BackupManifest.builder()
+                .formatVersion(FORMAT_VERSION)
+                .createdAt(LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                .appVersion(appVersion != null ? appVersion : "dev")
+                .schemaVersion(schemaVersion)
+                .rowCounts(rowCounts)
+                .build();
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,18 +1,30 @@
 package com.mx.money.service;
 
+import com.mx.money.dto.BackupManifest;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.nio.file.*;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -20,19 +32,88 @@ import java.util.stream.Stream;
 public class BackupService {
 
     private static final Logger log = LoggerFactory.getLogger(BackupService.class);
-    private static final DateTimeFormatter BACKUP_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
-    private static final int MAX_BACKUPS = 5;
+    private static final DateTimeFormatter BACKUP_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss-SSS");
+    private static final int DEFAULT_MAX_BACKUPS = 5;
+    private static final int MAX_BACKUPS_LIMIT = 500;
+    private static final String LEGACY_EXTENSION = ".db";
     private static final Path SETTINGS_FILE = Paths.get("./data/backup-settings.properties");
-    private static final Path DEFAULT_BACKUP_DIR = Paths.get("./data/backups");
+    /** Delay before the first scheduled backup, so it never competes with startup */
+    private static final Duration STARTUP_DELAY = Duration.ofMinutes(1);
+    /** Attempts at a logical restore while the live database keeps changing under it */
+    private static final int LOGICAL_RESTORE_ATTEMPTS = 3;
 
     @Value("${spring.datasource.url}")
     private String datasourceUrl;
 
+    private final LedgerVersionService ledgerVersionService;
+    private final MonthlyRollupService monthlyRollupService;
+    private final DatabaseSnapshotService databaseSnapshotService;
+    private final BackupArchiveService backupArchiveService;
+    private final ChunkedBackupService chunkedBackupService;
+    private final DatabaseSwapService databaseSwapService;
+    private final LogicalBackupService logicalBackupService;
+    private final ChangeJournalService changeJournalService;
+
+    /** Settings file; backups go to a "backups" directory next to it by default */
+    private final Path settingsFile;
+    private final Clock clock;
+
     private Path backupDir;
     private boolean autoBackupEnabled = true;
     private int backupIntervalHours = 24;
+    private int maxBackups = DEFAULT_MAX_BACKUPS;
+    private boolean incrementalBackups = false;
+
+    /**
+     * Verification results by backup name, valid while size and modification time
+     * are unchanged
+     */
+    private final Map<String, Verification> verifications = new ConcurrentHashMap<>();
+
+    private record Verification(long size, long modified, boolean valid) {
+    }
+
+    /**
+     * Single daemon thread running scheduled backups; the next run is rescheduled
+     * whenever the interval or the auto backup flag changes
+     */
+    private ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> nextRun;
+    private Instant nextRunAt;
+
+    /** Ledger version captured by the last successful backup, null until one runs */
+    private volatile String lastBackupVersion;
+
+    @Autowired
+    public BackupService(LedgerVersionService ledgerVersionService, MonthlyRollupService monthlyRollupService,
+            DatabaseSnapshotService databaseSnapshotService, BackupArchiveService backupArchiveService,
+            ChunkedBackupService chunkedBackupService, DatabaseSwapService databaseSwapService,
+            LogicalBackupService logicalBackupService, ChangeJournalService changeJournalService) {
+        this(ledgerVersionService, monthlyRollupService, databaseSnapshotService, backupArchiveService,
+                chunkedBackupService, databaseSwapService, logicalBackupService, changeJournalService,
+                SETTINGS_FILE, Clock.systemDefaultZone(), null);
+    }
 
-    public BackupService() {
+    /**
+     * Settings file, clock and scheduler given explicitly (tests); with a null
+     * scheduler the backup thread is created on startup
+     */
+    BackupService(LedgerVersionService ledgerVersionService, MonthlyRollupService monthlyRollupService,
+            DatabaseSnapshotService databaseSnapshotService, BackupArchiveService backupArchiveService,
+            ChunkedBackupService chunkedBackupService, DatabaseSwapService databaseSwapService,
+            LogicalBackupService logicalBackupService, ChangeJournalService changeJournalService,
+            Path settingsFile, Clock clock, ScheduledExecutorService scheduler) {
+        this.ledgerVersionService = ledgerVersionService;
+        this.monthlyRollupService = monthlyRollupService;
+        this.databaseSnapshotService = databaseSnapshotService;
+        this.backupArchiveService = backupArchiveService;
+        this.chunkedBackupService = chunkedBackupService;
+        this.databaseSwapService = databaseSwapService;
+        this.logicalBackupService = logicalBackupService;
+        this.changeJournalService = changeJournalService;
+        this.settingsFile = settingsFile;
+        this.clock = clock;
+        this.scheduler = scheduler;
         loadSettings();
         try {
             Files.createDirectories(backupDir);
@@ -41,17 +122,34 @@ public class BackupService {
         }
     }
 
+    @PostConstruct
+    void startScheduler() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "backup-scheduler");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        reschedule(STARTUP_DELAY);
+    }
+
+    @PreDestroy
+    void stopScheduler() {
+        scheduler.shutdownNow();
+    }
+
     /**
      * Loads settings from file or uses defaults
      */
     private void loadSettings() {
-        this.backupDir = DEFAULT_BACKUP_DIR;
+        this.backupDir = settingsFile.resolveSibling("backups");
         this.autoBackupEnabled = true;
 
-        if (Files.exists(SETTINGS_FILE)) {
+        if (Files.exists(settingsFile)) {
             try {
                 Properties props = new Properties();
-                props.load(Files.newInputStream(SETTINGS_FILE));
+                props.load(Files.newInputStream(settingsFile));
 
                 String dir = props.getProperty("backupDirectory");
                 if (dir != null && !dir.isBlank()) {
@@ -63,6 +161,20 @@ public class BackupService {
                     this.autoBackupEnabled = Boolean.parseBoolean(auto);
                 }
 
+                String max = props.getProperty("maxBackups");
+                if (max != null) {
+                    try {
+                        this.maxBackups = Math.clamp(Integer.parseInt(max), 1, MAX_BACKUPS_LIMIT);
+                    } catch (NumberFormatException e) {
+                        log.warn("Invalid max backups, using default");
+                    }
+                }
+
+                String incremental = props.getProperty("incrementalBackups");
+                if (incremental != null) {
+                    this.incrementalBackups = Boolean.parseBoolean(incremental);
+                }
+
                 String interval = props.getProperty("backupIntervalHours");
                 if (interval != null) {
                     try {
@@ -82,12 +194,14 @@ public class BackupService {
      */
     private void saveSettings() {
         try {
-            Files.createDirectories(SETTINGS_FILE.getParent());
+            Files.createDirectories(settingsFile.toAbsolutePath().getParent());
             Properties props = new Properties();
             props.setProperty("backupDirectory", backupDir.toAbsolutePath().toString());
             props.setProperty("autoBackupEnabled", String.valueOf(autoBackupEnabled));
             props.setProperty("backupIntervalHours", String.valueOf(backupIntervalHours));
-            props.store(Files.newOutputStream(SETTINGS_FILE), "MX-Money Backup Settings");
+            props.setProperty("maxBackups", String.valueOf(maxBackups));
+            props.setProperty("incrementalBackups", String.valueOf(incrementalBackups));
+            props.store(Files.newOutputStream(settingsFile), "MX-Money Backup Settings");
         } catch (IOException e) {
             log.error("Failed to save backup settings", e);
         }
@@ -103,9 +217,39 @@ public class BackupService {
     }
 
     /**
-     * Creates a backup of the database
+     * Creates a backup of the database: a consistent snapshot taken through
+     * SQLite's online backup API, compressed into an archive with a manifest
+     * (checksum, row counts, schema and app version). In incremental mode only
+     * the chunks not already stored by earlier backups are written.
      */
     public String createBackup() throws IOException {
+        return createBackup(false);
+    }
+
+    /**
+     * @param background Scheduled run: the snapshot is throttled so it does not
+     *                   compete with request handling for the disk
+     */
+    private synchronized String createBackup(boolean background) throws IOException {
+        return incrementalBackups
+                ? createBackup(ChunkedBackupService.EXTENSION, chunkedBackupService::write, background)
+                : createBackup(BackupArchiveService.EXTENSION, backupArchiveService::write, background);
+    }
+
+    /**
+     * Creates a logical backup (per-table NDJSON), restorable across schema
+     * versions and table by table
+     */
+    public synchronized String createLogicalBackup() throws IOException {
+        return createBackup(LogicalBackupService.EXTENSION, logicalBackupService::write, false);
+    }
+
+    @FunctionalInterface
+    private interface BackupWriter {
+        BackupManifest write(Path snapshot, Path target) throws IOException;
+    }
+
+    private String createBackup(String extension, BackupWriter writer, boolean background) throws IOException {
         Path dbPath = getDatabasePath();
         if (!Files.exists(dbPath)) {
             throw new IOException("Database file not found: " + dbPath);
@@ -114,10 +258,22 @@ public class BackupService {
         // Ensure backup directory exists
         Files.createDirectories(backupDir);
 
-        String backupName = "backup_" + LocalDateTime.now().format(BACKUP_DATE_FORMAT) + ".db";
-        Path backupPath = backupDir.resolve(backupName);
+        String baseName = uniqueBaseName(extension);
+        String backupName = baseName + extension;
+        Path snapshot = backupDir.resolve(baseName + ".snapshot");
+        // Captured before the snapshot: writes during the backup leave the next run due
+        String version = currentLedgerVersion();
+        // Journal entries up to here are in the snapshot; later ones may be, and replay is idempotent
+        long journalSequence = changeJournalService.lastSequence();
 
-        Files.copy(dbPath, backupPath, StandardCopyOption.REPLACE_EXISTING);
+        try {
+            databaseSnapshotService.snapshot(snapshot, background);
+            writer.write(snapshot, backupDir.resolve(backupName));
+        } finally {
+            Files.deleteIfExists(snapshot);
+        }
+        lastBackupVersion = version;
+        changeJournalService.checkpoint(backupName, journalSequence);
         log.info("Backup created: {}", backupName);
 
         // Clean old backups
@@ -127,94 +283,357 @@ public class BackupService {
     }
 
     /**
-     * Lists all existing backups
+     * Timestamped name for a new backup, moved forward while a backup with that
+     * name exists: checkpoints in the change journal refer to backups by name, so
+     * a backup must never replace an earlier one
+     */
+    private String uniqueBaseName(String extension) {
+        LocalDateTime time = LocalDateTime.now(clock);
+        String baseName = "backup_" + time.format(BACKUP_DATE_FORMAT);
+        while (Files.exists(backupDir.resolve(baseName + extension))) {
+            time = time.plus(1, ChronoUnit.MILLIS);
+            baseName = "backup_" + time.format(BACKUP_DATE_FORMAT);
+        }
+        return baseName;
+    }
+
+    /**
+     * Lists all existing backups (compressed archives and legacy .db copies).
+     * Each backup is verified the first time it is listed and the result is
+     * cached until the file changes.
      */
     public List<Map<String, Object>> listBackups() throws IOException {
         if (!Files.exists(backupDir)) {
             return Collections.emptyList();
         }
 
+        List<Path> files;
         try (Stream<Path> paths = Files.list(backupDir)) {
-            return paths
-                    .filter(p -> p.getFileName().toString().endsWith(".db"))
+            files = paths
+                    .filter(BackupService::isBackupFile)
                     .sorted(Comparator.comparing(Path::getFileName).reversed())
-                    .map(p -> {
-                        Map<String, Object> backup = new HashMap<>();
-                        backup.put("name", p.getFileName().toString());
-                        try {
-                            backup.put("size", Files.size(p));
-                            backup.put("created", Files.getLastModifiedTime(p).toMillis());
-                        } catch (IOException e) {
-                            backup.put("size", 0L);
-                            backup.put("created", 0L);
-                        }
-                        return backup;
-                    })
                     .collect(Collectors.toList());
         }
+        verifications.keySet().retainAll(files.stream().map(p -> p.getFileName().toString()).toList());
+
+        List<Map<String, Object>> backups = new ArrayList<>();
+        for (Path p : files) {
+            Map<String, Object> backup = new HashMap<>();
+            String name = p.getFileName().toString();
+            backup.put("name", name);
+            backup.put("format", name.endsWith(LEGACY_EXTENSION) ? "db"
+                    : isIncremental(p) ? "incremental" : isLogical(p) ? "logical" : "archive");
+            try {
+                backup.put("size", Files.size(p));
+                backup.put("created", Files.getLastModifiedTime(p).toMillis());
+            } catch (IOException e) {
+                backup.put("size", 0L);
+                backup.put("created", 0L);
+            }
+            if (!name.endsWith(LEGACY_EXTENSION)) {
+                try {
+                    BackupManifest manifest = readManifest(p);
+                    backup.put("databaseSize", manifest.getDatabaseSize());
+                    if (manifest.getAddedBytes() != null) {
+                        backup.put("addedBytes", manifest.getAddedBytes());
+                    }
+                    backup.put("appVersion", manifest.getAppVersion());
+                    backup.put("schemaVersion", manifest.getSchemaVersion());
+                    backup.put("rowCounts", manifest.getRowCounts());
+                } catch (IOException e) {
+                    log.warn("Could not read manifest of {}: {}", name, e.getMessage());
+                }
+            }
+            backup.put("verified", isValid(p));
+            backups.add(backup);
+        }
+        return backups;
+    }
+
+    private static boolean isBackupFile(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith("backup_") && (name.endsWith(BackupArchiveService.EXTENSION)
+                || name.endsWith(ChunkedBackupService.EXTENSION) || name.endsWith(LogicalBackupService.EXTENSION)
+                || name.endsWith(LEGACY_EXTENSION));
+    }
+
+    private static boolean isIncremental(Path path) {
+        return path.getFileName().toString().endsWith(ChunkedBackupService.EXTENSION);
+    }
+
+    /**
+     * Logical backups are ZIPs too, so check them before archives
+     */
+    private static boolean isLogical(Path path) {
+        return path.getFileName().toString().endsWith(LogicalBackupService.EXTENSION);
+    }
+
+    private BackupManifest readManifest(Path backup) throws IOException {
+        if (isIncremental(backup)) {
+            return chunkedBackupService.readManifest(backup);
+        }
+        return isLogical(backup) ? logicalBackupService.readManifest(backup)
+                : backupArchiveService.readManifest(backup);
+    }
+
+    /**
+     * Full verification (checksum for archives, integrity_check for legacy
+     * copies), cached by name while size and modification time are unchanged
+     */
+    private boolean isValid(Path backup) {
+        String name = backup.getFileName().toString();
+        try {
+            long size = Files.size(backup);
+            long modified = Files.getLastModifiedTime(backup).toMillis();
+            Verification cached = verifications.get(name);
+            if (cached != null && cached.size() == size && cached.modified() == modified) {
+                return cached.valid();
+            }
+            boolean valid = true;
+            try {
+                verify(backup);
+            } catch (IOException e) {
+                log.warn("Backup {} failed verification: {}", name, e.getMessage());
+                valid = false;
+            }
+            verifications.put(name, new Verification(size, modified, valid));
+            return valid;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void verify(Path backup) throws IOException {
+        if (backup.getFileName().toString().endsWith(LEGACY_EXTENSION)) {
+            databaseSnapshotService.verify(backup);
+        } else if (isIncremental(backup)) {
+            chunkedBackupService.verify(backup);
+        } else if (isLogical(backup)) {
+            logicalBackupService.verify(backup);
+        } else {
+            backupArchiveService.verify(backup);
+        }
     }
 
     /**
-     * Deletes a specific backup
+     * Deletes a specific backup (and the chunks only it referenced)
      */
-    public void deleteBackup(String backupName) throws IOException {
+    public synchronized void deleteBackup(String backupName) throws IOException {
+        deleteBackupFile(backupName);
+        if (backupName.endsWith(ChunkedBackupService.EXTENSION)) {
+            collectChunkGarbage();
+        }
+        changeJournalService.prune(this::backupExists);
+    }
+
+    private boolean backupExists(String backupName) {
+        return Files.exists(backupDir.resolve(backupName));
+    }
+
+    private void deleteBackupFile(String backupName) throws IOException {
         Path backupPath = backupDir.resolve(backupName);
         if (!Files.exists(backupPath)) {
             throw new IOException("Backup not found: " + backupName);
         }
         Files.delete(backupPath);
+        verifications.remove(backupName);
         log.info("Backup deleted: {}", backupName);
     }
 
     /**
-     * Exports the database to an output stream
+     * Removes chunks no longer referenced by any incremental backup
      */
-    public void exportDatabase(OutputStream outputStream) throws IOException {
-        Path dbPath = getDatabasePath();
-        Files.copy(dbPath, outputStream);
+    private void collectChunkGarbage() throws IOException {
+        List<Path> manifests;
+        try (Stream<Path> paths = Files.list(backupDir)) {
+            manifests = paths.filter(p -> isBackupFile(p) && isIncremental(p)).toList();
+        }
+        chunkedBackupService.collectGarbage(backupDir, manifests);
     }
 
     /**
      * Imports database from an input stream
      */
-    public void importDatabase(InputStream inputStream) throws IOException {
-        // First, create a backup before import
-        createBackup();
+    public synchronized void importDatabase(InputStream inputStream) throws IOException {
+        Files.createDirectories(backupDir);
+        Path upload = backupDir.resolve("import_" + LocalDateTime.now(clock).format(BACKUP_DATE_FORMAT) + ".upload");
+        try {
+            Files.copy(inputStream, upload, StandardCopyOption.REPLACE_EXISTING);
+            try {
+                databaseSwapService.validate(upload);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Invalid database file: " + e.getMessage(), e);
+            }
 
-        Path dbPath = getDatabasePath();
-        Files.copy(inputStream, dbPath, StandardCopyOption.REPLACE_EXISTING);
+            // Create a backup before import
+            createBackup();
+
+            databaseSwapService.replace(upload);
+        } finally {
+            Files.deleteIfExists(upload);
+        }
+        afterDatabaseReplaced();
         log.info("Database imported successfully");
     }
 
     /**
      * Restores from a specific backup
      */
-    public void restoreBackup(String backupName) throws IOException {
+    public synchronized void restoreBackup(String backupName) throws IOException {
+        restoreBackup(backupName, List.of());
+    }
+
+    /**
+     * Restores a backup; logical backups can be restored partially, replacing
+     * only the given tables and keeping the rest of the current data
+     *
+     * @param tables Tables to restore, empty for the whole backup
+     */
+    public synchronized void restoreBackup(String backupName, List<String> tables) throws IOException {
         Path backupPath = backupDir.resolve(backupName);
         if (!Files.exists(backupPath)) {
             throw new IOException("Backup not found: " + backupName);
         }
+        if (!tables.isEmpty() && !isLogical(backupPath)) {
+            throw new IllegalArgumentException("Partial restore is only supported for logical backups");
+        }
 
-        // Create a backup before restore
-        createBackup();
-
-        Path dbPath = getDatabasePath();
-        Files.copy(backupPath, dbPath, StandardCopyOption.REPLACE_EXISTING);
+        // Decompress and check before touching the live database
+        Path restored = backupDir.resolve(backupName + ".restore");
+        try {
+            String version = currentLedgerVersion();
+            extractBackup(backupPath, restored, tables);
+            databaseSwapService.validate(restored);
+
+            // Create a backup before restore
+            createBackup();
+
+            if (!isLogical(backupPath)) {
+                databaseSwapService.replace(restored);
+            } else {
+                // Built over a copy of the live database: writes committed since the copy
+                // would be lost, so the restore is redone on a fresh copy
+                for (int attempt = 1; !replaceIfUnchanged(restored, version); attempt++) {
+                    if (attempt == LOGICAL_RESTORE_ATTEMPTS) {
+                        throw new IllegalStateException("Database kept changing during the restore of "
+                                + backupName + ", nothing was restored");
+                    }
+                    log.info("Database changed during the restore of {}, restoring again", backupName);
+                    version = currentLedgerVersion();
+                    extractBackup(backupPath, restored, tables);
+                    databaseSwapService.validate(restored);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(restored);
+        }
+        afterDatabaseReplaced();
         log.info("Database restored from: {}", backupName);
     }
 
     /**
-     * Removes backups older than MAX_BACKUPS
+     * Rebuilds the database as it was at the given moment: the backup of the
+     * latest journal checkpoint before it is restored and the change journal is
+     * replayed on top, up to that moment
+     *
+     * @return The base backup and the number of replayed changes
+     */
+    public synchronized Map<String, Object> restoreToPointInTime(LocalDateTime pointInTime) throws IOException {
+        Instant at = pointInTime.atZone(ZoneId.systemDefault()).toInstant();
+        if (at.isAfter(clock.instant())) {
+            throw new IllegalArgumentException("Point in time is in the future: " + pointInTime);
+        }
+        ChangeJournalService.Checkpoint checkpoint = changeJournalService.findCheckpoint(at, this::backupExists)
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "No backup with a journal checkpoint before " + pointInTime));
+
+        Path restored = backupDir.resolve(checkpoint.backup() + ".restore");
+        int replayed;
+        try {
+            extractBackup(backupDir.resolve(checkpoint.backup()), restored, List.of());
+            replayed = changeJournalService.replay(restored, checkpoint.from(), at);
+            databaseSwapService.validate(restored);
+
+            // Create a backup before restore
+            createBackup();
+
+            databaseSwapService.replace(restored);
+        } finally {
+            Files.deleteIfExists(restored);
+        }
+        afterDatabaseReplaced();
+        log.info("Database restored to {} from {} and {} journal entries", pointInTime, checkpoint.backup(),
+                replayed);
+        return Map.of("backup", checkpoint.backup(), "replayedChanges", replayed);
+    }
+
+    /**
+     * Replaces the live database unless a write was committed since
+     * {@code version} was read; checked with writers drained, so nothing can
+     * commit in between
+     */
+    private boolean replaceIfUnchanged(Path restored, String version) throws IOException {
+        return databaseSwapService.replace(restored, () -> currentLedgerVersion().equals(version));
+    }
+
+    /**
+     * Decompresses a backup into a standalone database file
+     */
+    private void extractBackup(Path backupPath, Path restored, List<String> tables) throws IOException {
+        if (isLogical(backupPath)) {
+            // Loaded into a copy of the live database, so the current schema is kept
+            databaseSnapshotService.snapshot(restored);
+            logicalBackupService.restore(backupPath, restored, tables);
+        } else if (backupPath.getFileName().toString().endsWith(LEGACY_EXTENSION)) {
+            Files.copy(backupPath, restored, StandardCopyOption.REPLACE_EXISTING);
+        } else if (isIncremental(backupPath)) {
+            chunkedBackupService.extract(backupPath, restored);
+        } else {
+            backupArchiveService.extract(backupPath, restored);
+        }
+    }
+
+    /**
+     * Invalidates caches and rebuilds the monthly rollups after the database file
+     * has been replaced (the incoming file may carry stale or no rollups)
+     */
+    private void afterDatabaseReplaced() {
+        ledgerVersionService.markAllChanged();
+        try {
+            // Journal entries from here on apply to the new file, not to older backups
+            changeJournalService.markReplaced();
+        } catch (IOException e) {
+            log.error("Failed to mark the database replacement in the change journal", e);
+        }
+        try {
+            monthlyRollupService.rebuild();
+        } catch (Exception e) {
+            log.warn("Failed to rebuild monthly rollups, they will be rebuilt on next startup", e);
+        }
+    }
+
+    /**
+     * Removes the oldest backups beyond maxBackups
      */
     private void cleanOldBackups() throws IOException {
-        List<Map<String, Object>> backups = listBackups();
-        if (backups.size() > MAX_BACKUPS) {
-            for (int i = MAX_BACKUPS; i < backups.size(); i++) {
-                String name = (String) backups.get(i).get("name");
-                deleteBackup(name);
-                log.info("Removed old backup: {}", name);
-            }
+        List<String> names;
+        try (Stream<Path> paths = Files.list(backupDir)) {
+            names = paths
+                    .filter(BackupService::isBackupFile)
+                    .map(p -> p.getFileName().toString())
+                    .sorted(Comparator.reverseOrder())
+                    .toList();
         }
+        boolean removedIncremental = false;
+        for (int i = maxBackups; i < names.size(); i++) {
+            deleteBackupFile(names.get(i));
+            removedIncremental |= names.get(i).endsWith(ChunkedBackupService.EXTENSION);
+            log.info("Removed old backup: {}", names.get(i));
+        }
+        if (removedIncremental) {
+            collectChunkGarbage();
+        }
+        changeJournalService.prune(this::backupExists);
     }
 
     /**
@@ -223,9 +642,20 @@ public class BackupService {
     public Map<String, Object> getSettings() {
         Map<String, Object> settings = new HashMap<>();
         settings.put("autoBackupEnabled", autoBackupEnabled);
-        settings.put("maxBackups", MAX_BACKUPS);
+        settings.put("maxBackups", maxBackups);
+        settings.put("incrementalBackups", incrementalBackups);
         settings.put("backupDirectory", backupDir.toAbsolutePath().toString());
         settings.put("backupIntervalHours", backupIntervalHours);
+        Instant next = nextRunAt;
+        if (next != null) {
+            settings.put("nextBackupAt", next.toString());
+        }
+        try {
+            changeJournalService.recoverableSince(this::backupExists).ifPresent(since -> settings.put(
+                    "recoverableSince", LocalDateTime.ofInstant(since, ZoneId.systemDefault()).toString()));
+        } catch (IOException e) {
+            log.warn("Failed to read change journal checkpoints", e);
+        }
         return settings;
     }
 
@@ -236,6 +666,7 @@ public class BackupService {
         this.autoBackupEnabled = enabled;
         saveSettings();
         log.info("Auto backup enabled: {}", enabled);
+        reschedule(Duration.ZERO);
     }
 
     /**
@@ -263,6 +694,7 @@ public class BackupService {
         this.backupIntervalHours = hours;
         saveSettings();
         log.info("Backup interval changed to: {} hours", hours);
+        reschedule(Duration.ZERO);
     }
 
     public int getBackupIntervalHours() {
@@ -270,20 +702,107 @@ public class BackupService {
     }
 
     /**
-     * Scheduled backup - runs once per day at midnight
+     * Switches between full compressed archives and incremental chunked backups.
+     * Existing backups of either kind remain listed and restorable.
      */
-    @Scheduled(cron = "0 0 0 * * ?")
-    public void scheduledBackup() {
-        if (!autoBackupEnabled) {
-            log.info("Scheduled backup skipped (disabled)");
-            return;
+    public void setIncrementalBackups(boolean incremental) {
+        this.incrementalBackups = incremental;
+        saveSettings();
+        log.info("Incremental backups: {}", incremental);
+    }
+
+    public boolean isIncrementalBackups() {
+        return incrementalBackups;
+    }
+
+    /**
+     * Updates how many backups are kept, removing the excess right away
+     */
+    public synchronized void setMaxBackups(int max) throws IOException {
+        if (max < 1 || max > MAX_BACKUPS_LIMIT) {
+            throw new IllegalArgumentException("Invalid max backups. Must be between 1 and " + MAX_BACKUPS_LIMIT + ".");
         }
+        this.maxBackups = max;
+        saveSettings();
+        if (Files.exists(backupDir)) {
+            cleanOldBackups();
+        }
+        log.info("Max backups changed to: {}", max);
+    }
 
+    /**
+     * Scheduled backup - runs every backupIntervalHours, skipped when nothing in the
+     * ledger changed since the last backup
+     */
+    void scheduledBackup() {
         try {
-            String backupName = createBackup();
+            if (!autoBackupEnabled) {
+                log.info("Scheduled backup skipped (disabled)");
+                return;
+            }
+            if (currentLedgerVersion().equals(lastBackupVersion)) {
+                log.info("Scheduled backup skipped (no changes since last backup)");
+                return;
+            }
+            String backupName = createBackup(true);
             log.info("Scheduled backup completed: {}", backupName);
-        } catch (IOException e) {
+        } catch (Exception e) {
             log.error("Scheduled backup failed", e);
+        } finally {
+            // A full interval from now, even when skipped or failed
+            reschedule(Duration.ofHours(backupIntervalHours));
         }
     }
+
+    /**
+     * Schedules the next backup one interval after the newest backup (or from now
+     * when there is none), but never sooner than minDelay
+     */
+    private synchronized void reschedule(Duration minDelay) {
+        if (scheduler == null || scheduler.isShutdown()) {
+            return;
+        }
+        if (nextRun != null) {
+            nextRun.cancel(false);
+            nextRun = null;
+            nextRunAt = null;
+        }
+        if (!autoBackupEnabled) {
+            return;
+        }
+
+        Instant now = clock.instant();
+        Instant due = newestBackupTime().orElse(now).plus(Duration.ofHours(backupIntervalHours));
+        if (due.isBefore(now.plus(minDelay))) {
+            due = now.plus(minDelay);
+        }
+        nextRunAt = due;
+        nextRun = scheduler.schedule(this::scheduledBackup,
+                Duration.between(now, due).toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Next scheduled backup at {}", due);
+    }
+
+    private Optional<Instant> newestBackupTime() {
+        if (!Files.isDirectory(backupDir)) {
+            return Optional.empty();
+        }
+        try (Stream<Path> files = Files.list(backupDir)) {
+            return files.filter(BackupService::isBackupFile)
+                    .map(path -> {
+                        try {
+                            return Files.getLastModifiedTime(path).toInstant();
+                        } catch (IOException e) {
+                            return Instant.EPOCH;
+                        }
+                    })
+                    .max(Comparator.naturalOrder());
+        } catch (IOException e) {
+            log.warn("Failed to list backups for scheduling", e);
+            return Optional.empty();
+        }
+    }
+
+    private String currentLedgerVersion() {
+        return ledgerVersionService.etag(LedgerVersionService.Resource.values());
+    }
 }
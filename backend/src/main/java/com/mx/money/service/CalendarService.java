@@ -0,0 +1,162 @@
+package com.mx.money.service;
+
+import com.mx.money.dto.CalendarDayResponse;
+import com.mx.money.dto.CalendarMonthResponse;
+import com.mx.money.dto.DailyTotal;
+import com.mx.money.entity.RecurrenceType;
+import com.mx.money.entity.Transaction;
+import com.mx.money.entity.TransactionType;
+import com.mx.money.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+
+/**
+ * Serviço que calcula os totais diários de um mês para o calendário.
+ * As transações registradas são agregadas no banco (GROUP BY por dia e tipo);
+ * apenas os templates recorrentes são carregados para projetar as ocorrências
+ * que ainda não foram geradas.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class CalendarService {
+
+    private final TransactionRepository transactionRepository;
+
+    /**
+     * Retorna os totais por dia do mês informado
+     *
+     * @param month      Mês a ser consultado
+     * @param includeIds Se true, inclui os IDs das transações de cada dia
+     */
+    public CalendarMonthResponse getMonth(YearMonth month, boolean includeIds) {
+        LocalDate start = month.atDay(1);
+        LocalDate end = month.atEndOfMonth();
+
+        Map<LocalDate, DayAccumulator> days = new TreeMap<>();
+
+        // Transações registradas (inclui ocorrências já geradas)
+        for (DailyTotal total : transactionRepository.sumByDayAndType(start, end)) {
+            days.computeIfAbsent(total.getDate(), DayAccumulator::new)
+                    .add(total.getType(), total.getTotal(), total.getCount());
+        }
+
+        if (includeIds) {
+            for (Object[] row : transactionRepository.findIdsAndDatesInPeriod(start, end)) {
+                days.computeIfAbsent((LocalDate) row[1], DayAccumulator::new).ids.add((Long) row[0]);
+            }
+        }
+
+        // Ocorrências recorrentes ainda não geradas
+        for (Transaction template : transactionRepository.findByRecurrenceNot(RecurrenceType.NONE)) {
+            for (LocalDate date : projectOccurrences(template, start, end)) {
+                DayAccumulator day = days.computeIfAbsent(date, DayAccumulator::new);
+                day.add(template.getType(), template.getAmount(), 1);
+                if (includeIds) {
+                    day.ids.add(template.getId());
+                }
+            }
+        }
+
+        BigDecimal monthIncome = BigDecimal.ZERO;
+        BigDecimal monthExpense = BigDecimal.ZERO;
+        List<CalendarDayResponse> responses = new ArrayList<>(days.size());
+
+        for (DayAccumulator day : days.values()) {
+            monthIncome = monthIncome.add(day.income);
+            monthExpense = monthExpense.add(day.expense);
+            responses.add(day.toResponse(includeIds));
+        }
+
+        return CalendarMonthResponse.builder()
+                .month(month.toString())
+                .totalIncome(monthIncome)
+                .totalExpense(monthExpense)
+                .balance(monthIncome.subtract(monthExpense))
+                .days(responses)
+                .build();
+    }
+
+    /**
+     * Datas de ocorrência de um template recorrente dentro do período que ainda
+     * não foram persistidas (posteriores a lastGeneratedDate, ou à própria
+     * effectiveDate, que já é coberta pelo template)
+     */
+    private List<LocalDate> projectOccurrences(Transaction template, LocalDate start, LocalDate end) {
+        List<LocalDate> occurrences = new ArrayList<>();
+
+        LocalDate limit = end;
+        if (template.getEndDate() != null && template.getEndDate().isBefore(limit)) {
+            limit = template.getEndDate();
+        }
+
+        LocalDate lastCovered = template.getLastGeneratedDate() != null
+                ? template.getLastGeneratedDate()
+                : template.getEffectiveDate();
+        LocalDate current = nextOccurrence(lastCovered, template.getRecurrence());
+
+        while (!current.isAfter(limit)) {
+            if (!current.isBefore(start)) {
+                occurrences.add(current);
+            }
+            current = nextOccurrence(current, template.getRecurrence());
+        }
+
+        return occurrences;
+    }
+
+    private LocalDate nextOccurrence(LocalDate from, RecurrenceType recurrence) {
+        return switch (recurrence) {
+            case DAILY -> from.plusDays(1);
+            case WEEKLY -> from.plusWeeks(1);
+            case MONTHLY -> from.plusMonths(1);
+            case YEARLY -> from.plusYears(1);
+            default -> from.plusYears(100); // Nunca ocorre
+        };
+    }
+
+    /**
+     * Acumulador mutável dos totais de um dia
+     */
+    private static class DayAccumulator {
+        private final LocalDate date;
+        private BigDecimal income = BigDecimal.ZERO;
+        private BigDecimal expense = BigDecimal.ZERO;
+        private long incomeCount;
+        private long expenseCount;
+        private final List<Long> ids = new ArrayList<>();
+
+        DayAccumulator(LocalDate date) {
+            this.date = date;
+        }
+
+        void add(TransactionType type, BigDecimal amount, long count) {
+            if (type == TransactionType.INCOME) {
+                income = income.add(amount);
+                incomeCount += count;
+            } else {
+                expense = expense.add(amount);
+                expenseCount += count;
+            }
+        }
+
+        CalendarDayResponse toResponse(boolean includeIds) {
+            return CalendarDayResponse.builder()
+                    .date(date)
+                    .totalIncome(income)
+                    .totalExpense(expense)
+                    .net(income.subtract(expense))
+                    .incomeCount(incomeCount)
+                    .expenseCount(expenseCount)
+                    .count(incomeCount + expenseCount)
+                    .transactionIds(includeIds ? ids : null)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.mx.money.service;
+
+import com.mx.money.dto.CategorizationMemoStats;
+import com.mx.money.entity.CategorizationMemo;
+import com.mx.money.repository.CategorizationMemoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Memória descrição → categoria alimentada pelas confirmações do usuário
+ * (importação salva, recategorização manual). Na importação de CSV, linhas cuja
+ * descrição normalizada já foi confirmada não passam pelo classificador nem pelo
+ * LLM.
+ * <p>
+ * Os contadores de consultas e acertos vivem em memória e recomeçam a cada
+ * inicialização.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CategorizationMemoService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final CategorizationMemoRepository categorizationMemoRepository;
+    private final LedgerVersionService ledgerVersionService;
+
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+
+    /**
+     * Chave da memória: descrição normalizada sem os trechos puramente numéricos
+     * (parcelas, datas, códigos de autorização), que variam entre extratos do
+     * mesmo estabelecimento. Se só houver números, eles são mantidos.
+     */
+    public static String key(String description) {
+        if (description == null) {
+            return "";
+        }
+        String normalized = KeywordCategoryClassifier.normalize(description);
+        String withoutNumbers = Arrays.stream(normalized.split(" "))
+                .filter(token -> !token.chars().allMatch(Character::isDigit))
+                .collect(Collectors.joining(" "));
+        String key = withoutNumbers.isEmpty() ? normalized : withoutNumbers;
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    /**
+     * Busca em uma única consulta as categorias memorizadas para as descrições.
+     * O mapa retornado usa as descrições originais como chave e só contém as
+     * encontradas.
+     */
+    public Map<String, String> lookupAll(Collection<String> descriptions) {
+        Set<String> keys = descriptions.stream()
+                .map(CategorizationMemoService::key)
+                .filter(k -> !k.isEmpty())
+                .collect(Collectors.toSet());
+        Map<String, String> byKey = keys.isEmpty() ? Map.of()
+                : categorizationMemoRepository.findAllById(keys).stream()
+                        .collect(Collectors.toMap(CategorizationMemo::getDescriptionKey,
+                                CategorizationMemo::getCategoryName));
+
+        Map<String, String> result = new HashMap<>();
+        long found = 0;
+        for (String description : descriptions) {
+            String category = byKey.get(key(description));
+            if (category != null) {
+                result.put(description, category);
+                found++;
+            }
+        }
+        lookups.addAndGet(descriptions.size());
+        hits.addAndGet(found);
+        return result;
+    }
+
+    /**
+     * Memoriza a categoria escolhida para a descrição
+     */
+    public void remember(String description, String categoryName) {
+        rememberAll(Map.of(description, categoryName));
+    }
+
+    /**
+     * Memoriza várias descrições de uma vez; em chaves repetidas vale a última
+     */
+    public void rememberAll(Map<String, String> categoryByDescription) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, CategorizationMemo> entries = new LinkedHashMap<>();
+        categoryByDescription.forEach((description, categoryName) -> {
+            String key = key(description);
+            if (!key.isEmpty() && categoryName != null && !categoryName.isBlank()) {
+                entries.put(key, CategorizationMemo.builder()
+                        .descriptionKey(key)
+                        .categoryName(categoryName)
+                        .updatedAt(now)
+                        .build());
+            }
+        });
+        if (!entries.isEmpty()) {
+            categorizationMemoRepository.saveAll(entries.values());
+            // Backups agendados e a exportação do banco dependem da versão
+            ledgerVersionService.markChanged(LedgerVersionService.Resource.CATEGORIZATION_MEMO);
+            log.debug("Remembered {} description categories", entries.size());
+        }
+    }
+
+    public CategorizationMemoStats getStats() {
+        long totalLookups = lookups.get();
+        long totalHits = hits.get();
+        return CategorizationMemoStats.builder()
+                .entries(categorizationMemoRepository.count())
+                .lookups(totalLookups)
+                .hits(totalHits)
+                .hitRate(totalLookups == 0 ? 0 : (double) totalHits / totalLookups)
+                .build();
+    }
+}
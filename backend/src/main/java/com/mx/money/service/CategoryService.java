@@ -19,6 +19,8 @@ public class CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
+    private final LedgerVersionService ledgerVersionService;
+    private final ChangeJournalService changeJournalService;
 
     @Transactional(readOnly = true)
     public List<CategoryResponse> findAll() {
@@ -38,6 +40,8 @@ public class CategoryService {
         }
         Category category = categoryMapper.toEntity(request);
         category = categoryRepository.save(category);
+        changeJournalService.recordChanged(ChangeJournalService.CATEGORIES, category.getId());
+        ledgerVersionService.markChanged(LedgerVersionService.Resource.CATEGORIES);
         return categoryMapper.toResponse(category);
     }
 
@@ -46,6 +50,8 @@ public class CategoryService {
                 .orElseThrow(() -> new EntityNotFoundException("Categoria não encontrada: " + id));
         categoryMapper.updateEntity(request, category);
         category = categoryRepository.save(category);
+        changeJournalService.recordChanged(ChangeJournalService.CATEGORIES, category.getId());
+        ledgerVersionService.markChanged(LedgerVersionService.Resource.CATEGORIES);
         return categoryMapper.toResponse(category);
     }
 
@@ -54,6 +60,8 @@ public class CategoryService {
             throw new EntityNotFoundException("Categoria não encontrada: " + id);
         }
         categoryRepository.deleteById(id);
+        changeJournalService.recordChanged(ChangeJournalService.CATEGORIES, id);
+        ledgerVersionService.markChanged(LedgerVersionService.Resource.CATEGORIES);
     }
 
     @Transactional(readOnly = true)
@@ -0,0 +1,589 @@
+package com.mx.money.service;
+
+import com.mx.money.dto.ChangeJournalEntry;
+import com.mx.money.dto.ChangeJournalEntry.Operation;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.*;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Diário de alterações (append-only) das transações e categorias, usado na
+ * recuperação do banco para um instante qualquer.
+ * <p>
+ * Cada escrita registra a imagem completa da linha alterada, ou a exclusão
+ * pelo id. As linhas são lidas do próprio banco no fim da transação, com os
+ * valores exatamente como gravados, e acrescentadas ao diário logo após o
+ * commit. Um lock mantido do início do commit até a gravação faz a ordem do
+ * diário ser a ordem dos commits. Reaplicar uma entrada é idempotente.
+ * <p>
+ * O diário fica ao lado do banco, em segmentos {@code journal-<seq>.ndjson}.
+ * Cada backup abre um segmento com um checkpoint, que registra o backup e a
+ * última entrada anterior ao snapshot. A troca do arquivo do banco
+ * (restore/import) abre um segmento com um marcador, pois as entradas
+ * seguintes partem de outro estado. Para reconstruir o banco em um instante,
+ * restaura-se o backup do último checkpoint anterior a ele e reaplicam-se as
+ * entradas seguintes até o instante.
+ */
+@Service
+@Slf4j
+public class ChangeJournalService {
+
+    public static final String TRANSACTIONS = "transactions";
+    public static final String CATEGORIES = "categories";
+
+    private static final String PREFIX = "journal-";
+    private static final String EXTENSION = ".ndjson";
+    private static final int SELECT_BATCH = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final Path journalDir;
+
+    /**
+     * Mantido do início do commit até a gravação das entradas
+     */
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private FileChannel segment;
+    private volatile long lastSequence;
+
+    /**
+     * Checkpoint de um backup e o instante em que foi gravado
+     */
+    public record Checkpoint(String backup, long from, Instant at) {
+    }
+
+    public ChangeJournalService(JdbcTemplate jdbcTemplate, EntityManager entityManager, ObjectMapper objectMapper,
+            @Value("${spring.datasource.url}") String datasourceUrl) throws IOException {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        // jdbc:sqlite:./data/mxmoney.db -> ./data/journal
+        this.journalDir = Paths.get(datasourceUrl.replace("jdbc:sqlite:", "")).toAbsolutePath()
+                .resolveSibling("journal");
+        Files.createDirectories(journalDir);
+        recover();
+    }
+
+    /**
+     * Registra as linhas alteradas (inseridas, atualizadas ou excluídas). A
+     * imagem de cada linha é lida no commit; linhas que não existem mais viram
+     * exclusões.
+     */
+    public void recordChanged(String table, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingChanges().ids.computeIfAbsent(table, t -> new LinkedHashSet<>()).addAll(ids);
+        } else {
+            PendingChanges changes = new PendingChanges();
+            changes.ids.put(table, new LinkedHashSet<>(ids));
+            appendNow(changes);
+        }
+    }
+
+    public void recordChanged(String table, Long id) {
+        recordChanged(table, List.of(id));
+    }
+
+    /**
+     * Maior id da tabela, para registrar inserts em lote com
+     * {@link #recordInsertedAfter}
+     */
+    public long lastId(String table) {
+        Long id = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + quote(table), Long.class);
+        return id != null ? id : 0;
+    }
+
+    /**
+     * Registra as linhas inseridas na transação atual com id maior que
+     * {@code lastId} (inserts JDBC em lote, que não devolvem os ids)
+     */
+    public void recordInsertedAfter(String table, long lastId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingChanges().insertedAfter.merge(table, lastId, Math::min);
+        } else {
+            PendingChanges changes = new PendingChanges();
+            changes.insertedAfter.put(table, lastId);
+            appendNow(changes);
+        }
+    }
+
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Abre um segmento com o checkpoint de um backup recém-criado
+     *
+     * @param from Última entrada gravada antes do snapshot do backup
+     */
+    public void checkpoint(String backup, long from) throws IOException {
+        startSegment(ChangeJournalEntry.builder().op(Operation.CHECKPOINT).backup(backup).from(from).build());
+    }
+
+    /**
+     * Abre um segmento marcando que o arquivo do banco foi substituído
+     */
+    public void markReplaced() throws IOException {
+        startSegment(ChangeJournalEntry.builder().op(Operation.REPLACED).build());
+    }
+
+    /**
+     * Último checkpoint gravado até {@code at} cujo backup ainda existe
+     */
+    public Optional<Checkpoint> findCheckpoint(Instant at, Predicate<String> backupAvailable) throws IOException {
+        Checkpoint found = null;
+        for (Checkpoint checkpoint : checkpoints()) {
+            if (!checkpoint.at().isAfter(at) && backupAvailable.test(checkpoint.backup())) {
+                found = checkpoint;
+            }
+        }
+        return Optional.ofNullable(found);
+    }
+
+    /**
+     * Instante mais antigo para o qual o banco pode ser reconstruído
+     */
+    public Optional<Instant> recoverableSince(Predicate<String> backupAvailable) throws IOException {
+        return checkpoints().stream()
+                .filter(checkpoint -> backupAvailable.test(checkpoint.backup()))
+                .map(Checkpoint::at)
+                .findFirst();
+    }
+
+    /**
+     * Reaplica sobre {@code database} as entradas posteriores a {@code from}
+     * gravadas até {@code until}, em uma única transação
+     *
+     * @return Número de linhas reaplicadas
+     * @throws IllegalArgumentException se o banco foi substituído nesse intervalo
+     */
+    public int replay(Path database, long from, Instant until) throws IOException {
+        List<Path> segments = segments();
+        int start = -1;
+        for (int i = 0; i < segments.size(); i++) {
+            if (firstSequence(segments.get(i)) <= from + 1) {
+                start = i;
+            }
+        }
+        if (start < 0) {
+            throw new IOException("O diário não contém as entradas posteriores a " + from);
+        }
+
+        long untilMillis = until.toEpochMilli();
+        int applied = 0;
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + database.toAbsolutePath());
+                Replayer replayer = new Replayer(connection)) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA journal_mode=OFF");
+                statement.execute("PRAGMA synchronous=OFF");
+            }
+            connection.setAutoCommit(false);
+            segments:
+            for (Path file : segments.subList(start, segments.size())) {
+                try (BufferedReader reader = reader(file)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (line.isBlank()) {
+                            continue;
+                        }
+                        ChangeJournalEntry entry = parse(line);
+                        if (entry.getSeq() <= from) {
+                            continue;
+                        }
+                        if (entry.getTs() > untilMillis) {
+                            break segments;
+                        }
+                        switch (entry.getOp()) {
+                            case UPSERT -> replayer.upsert(entry.getTable(), entry.getRow());
+                            case DELETE -> replayer.delete(entry.getTable(), entry.getId());
+                            case REPLACED -> throw new IllegalArgumentException(
+                                    "O banco foi substituído em " + Instant.ofEpochMilli(entry.getTs())
+                                            + "; escolha um instante anterior ou posterior ao backup seguinte");
+                            case CHECKPOINT -> {
+                                continue;
+                            }
+                        }
+                        applied++;
+                    }
+                }
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            throw new IOException("Falha ao reaplicar o diário: " + e.getMessage(), e);
+        }
+        log.info("Replayed {} journal entries after #{} up to {}", applied, from, until);
+        return applied;
+    }
+
+    /**
+     * Remove os segmentos anteriores ao checkpoint mais antigo cujo backup
+     * ainda existe; sem ele, essas entradas não servem para reconstruir nada
+     */
+    public void prune(Predicate<String> backupAvailable) throws IOException {
+        appendLock.lock();
+        try {
+            Optional<Checkpoint> oldest = checkpoints().stream()
+                    .filter(checkpoint -> backupAvailable.test(checkpoint.backup()))
+                    .findFirst();
+            if (oldest.isEmpty()) {
+                return;
+            }
+            List<Path> segments = segments();
+            // Nunca remove o segmento em uso (o último)
+            for (int i = 0; i < segments.size() - 1; i++) {
+                if (firstSequence(segments.get(i + 1)) > oldest.get().from() + 1) {
+                    break;
+                }
+                Files.delete(segments.get(i));
+                log.debug("Removed journal segment {}", segments.get(i).getFileName());
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private PendingChanges pendingChanges() {
+        PendingChanges changes = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            changes = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(changes);
+        }
+        return changes;
+    }
+
+    /**
+     * Alterações de uma transação, gravadas no diário após o commit
+     */
+    private final class PendingChanges implements TransactionSynchronization {
+
+        private final Map<String, Set<Long>> ids = new LinkedHashMap<>();
+        private final Map<String, Long> insertedAfter = new LinkedHashMap<>();
+        private List<ChangeJournalEntry> entries = List.of();
+        private boolean locked;
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // Alterações do Hibernate ainda pendentes precisam estar visíveis à leitura
+            entityManager.flush();
+            appendLock.lock();
+            locked = true;
+            entries = materialize(this);
+        }
+
+        @Override
+        public void afterCommit() {
+            try {
+                append(entries);
+            } catch (IOException e) {
+                log.error("Failed to write {} entries to the change journal", entries.size(), e);
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ChangeJournalService.this);
+            if (locked) {
+                locked = false;
+                appendLock.unlock();
+            }
+        }
+    }
+
+    private void appendNow(PendingChanges changes) {
+        appendLock.lock();
+        try {
+            append(materialize(changes));
+        } catch (IOException e) {
+            log.error("Failed to write to the change journal", e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Lê a imagem atual das linhas alteradas
+     */
+    private List<ChangeJournalEntry> materialize(PendingChanges changes) {
+        List<ChangeJournalEntry> entries = new ArrayList<>();
+        for (Map.Entry<String, Set<Long>> table : changes.ids.entrySet()) {
+            List<Long> ids = new ArrayList<>(table.getValue());
+            for (int i = 0; i < ids.size(); i += SELECT_BATCH) {
+                List<Long> batch = ids.subList(i, Math.min(i + SELECT_BATCH, ids.size()));
+                Map<Long, Map<String, Object>> rows = new HashMap<>();
+                for (Map<String, Object> row : jdbcTemplate.queryForList("SELECT * FROM " + quote(table.getKey())
+                        + " WHERE id IN (" + String.join(",", Collections.nCopies(batch.size(), "?")) + ")",
+                        batch.toArray())) {
+                    rows.put(((Number) row.get("id")).longValue(), new LinkedHashMap<>(row));
+                }
+                for (Long id : batch) {
+                    Map<String, Object> row = rows.get(id);
+                    entries.add(ChangeJournalEntry.builder()
+                            .op(row != null ? Operation.UPSERT : Operation.DELETE)
+                            .table(table.getKey())
+                            .id(id)
+                            .row(row)
+                            .build());
+                }
+            }
+        }
+        for (Map.Entry<String, Long> table : changes.insertedAfter.entrySet()) {
+            for (Map<String, Object> row : jdbcTemplate.queryForList("SELECT * FROM " + quote(table.getKey())
+                    + " WHERE id > ? ORDER BY id", table.getValue())) {
+                entries.add(ChangeJournalEntry.builder()
+                        .op(Operation.UPSERT)
+                        .table(table.getKey())
+                        .id(((Number) row.get("id")).longValue())
+                        .row(new LinkedHashMap<>(row))
+                        .build());
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Numera e grava as entradas no segmento atual, com um único fsync
+     */
+    private void append(List<ChangeJournalEntry> entries) throws IOException {
+        if (entries.isEmpty()) {
+            return;
+        }
+        appendLock.lock();
+        try {
+            if (segment == null) {
+                segment = open(journalDir.resolve(segmentName(lastSequence + 1)));
+            }
+            long ts = System.currentTimeMillis();
+            long seq = lastSequence;
+            ByteArrayOutputStream out = new ByteArrayOutputStream(entries.size() * 256);
+            for (ChangeJournalEntry entry : entries) {
+                entry.setSeq(++seq);
+                entry.setTs(ts);
+                out.write(objectMapper.writeValueAsBytes(entry));
+                out.write('\n');
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+            while (buffer.hasRemaining()) {
+                segment.write(buffer);
+            }
+            segment.force(false);
+            lastSequence = seq;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void startSegment(ChangeJournalEntry first) throws IOException {
+        appendLock.lock();
+        try {
+            if (segment != null) {
+                segment.close();
+                segment = null;
+            }
+            append(List.of(first));
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Retoma a numeração do último segmento, descartando uma linha incompleta
+     * deixada por uma gravação interrompida
+     */
+    private void recover() throws IOException {
+        List<Path> segments = segments();
+        if (segments.isEmpty()) {
+            return;
+        }
+        Path last = segments.getLast();
+        long size = Files.size(last);
+        long valid = 0;
+        long offset = 0;
+        lastSequence = firstSequence(last) - 1;
+        try (BufferedReader reader = reader(last)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                offset += line.getBytes(StandardCharsets.UTF_8).length + 1;
+                if (offset > size) {
+                    break;
+                }
+                try {
+                    lastSequence = parse(line).getSeq();
+                    valid = offset;
+                } catch (IOException e) {
+                    break;
+                }
+            }
+        }
+        segment = open(last);
+        if (valid < size) {
+            segment.truncate(valid);
+            log.warn("Discarded {} bytes of an incomplete entry in {}", size - valid, last.getFileName());
+        }
+        log.info("Change journal at entry #{}", lastSequence);
+    }
+
+    private List<Checkpoint> checkpoints() throws IOException {
+        List<Checkpoint> checkpoints = new ArrayList<>();
+        for (Path file : segments()) {
+            try (BufferedReader reader = reader(file)) {
+                String line = reader.readLine();
+                if (line == null || line.isBlank()) {
+                    continue;
+                }
+                ChangeJournalEntry first = parse(line);
+                if (first.getOp() == Operation.CHECKPOINT) {
+                    checkpoints.add(new Checkpoint(first.getBackup(), first.getFrom(),
+                            Instant.ofEpochMilli(first.getTs())));
+                }
+            }
+        }
+        return checkpoints;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(journalDir)) {
+            return files
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(EXTENSION);
+                    })
+                    .sorted(Comparator.comparing((Path path) -> path.getFileName().toString()))
+                    .toList();
+        }
+    }
+
+    private static String segmentName(long firstSequence) {
+        // Zeros à esquerda: a ordem dos nomes é a ordem das sequências
+        return String.format("%s%020d%s", PREFIX, firstSequence, EXTENSION);
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - EXTENSION.length()));
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private static BufferedReader reader(Path file) throws IOException {
+        // Bytes inválidos (gravação interrompida) são substituídos, não lançam exceção
+        return new BufferedReader(new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8));
+    }
+
+    private ChangeJournalEntry parse(String line) throws IOException {
+        try {
+            return objectMapper.readValue(line, ChangeJournalEntry.class);
+        } catch (JacksonException e) {
+            throw new IOException("Entrada inválida no diário: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    private static String quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Aplica entradas em um banco, casando as colunas por nome com o schema de
+     * destino; statements preparados são reaproveitados por tabela e colunas
+     */
+    private static final class Replayer implements AutoCloseable {
+
+        private final Connection connection;
+        private final Map<String, Set<String>> columns = new HashMap<>();
+        private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+        private Replayer(Connection connection) {
+            this.connection = connection;
+        }
+
+        void upsert(String table, Map<String, Object> row) throws SQLException {
+            Set<String> targetColumns = columns(table);
+            List<String> names = new ArrayList<>();
+            List<Object> values = new ArrayList<>();
+            for (Map.Entry<String, Object> column : row.entrySet()) {
+                if (targetColumns.contains(column.getKey())) {
+                    names.add(column.getKey());
+                    values.add(column.getValue());
+                }
+            }
+            PreparedStatement statement = prepare(table + ":" + names, "INSERT OR REPLACE INTO " + quote(table)
+                    + " (" + String.join(", ", names.stream().map(ChangeJournalService::quote).toList())
+                    + ") VALUES (" + String.join(", ", Collections.nCopies(names.size(), "?")) + ")");
+            for (int i = 0; i < values.size(); i++) {
+                statement.setObject(i + 1, values.get(i));
+            }
+            statement.executeUpdate();
+        }
+
+        void delete(String table, Long id) throws SQLException {
+            columns(table);
+            PreparedStatement statement = prepare(table + ":delete", "DELETE FROM " + quote(table) + " WHERE id = ?");
+            statement.setLong(1, id);
+            statement.executeUpdate();
+        }
+
+        private Set<String> columns(String table) throws SQLException {
+            Set<String> known = columns.get(table);
+            if (known == null) {
+                known = new HashSet<>();
+                try (Statement statement = connection.createStatement();
+                        ResultSet rs = statement.executeQuery("PRAGMA table_info(" + quote(table) + ")")) {
+                    while (rs.next()) {
+                        known.add(rs.getString("name"));
+                    }
+                }
+                if (known.isEmpty()) {
+                    throw new SQLException("Tabela inexistente no banco restaurado: " + table);
+                }
+                columns.put(table, known);
+            }
+            return known;
+        }
+
+        private PreparedStatement prepare(String key, String sql) throws SQLException {
+            PreparedStatement statement = statements.get(key);
+            if (statement == null) {
+                statement = connection.prepareStatement(sql);
+                statements.put(key, statement);
+            }
+            return statement;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            for (PreparedStatement statement : statements.values()) {
+                statement.close();
+            }
+        }
+    }
+}
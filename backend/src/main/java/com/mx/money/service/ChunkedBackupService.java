@@ -0,0 +1,249 @@
+package com.mx.money.service;
+
+import com.mx.money.dto.BackupManifest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Backups incrementais com deduplicação por conteúdo.
+ * <p>
+ * O banco é dividido em blocos de tamanho fixo (múltiplo do tamanho de página
+ * do SQLite), e cada bloco é gravado comprimido uma única vez em
+ * {@code chunks/<2 primeiros hex>/<sha256>} dentro do diretório de backups. O
+ * backup em si é um manifesto JSON com a lista de hashes: blocos que não
+ * mudaram desde o backup anterior não ocupam espaço de novo, então um backup
+ * após poucas transações custa alguns KB.
+ * <p>
+ * Blocos que nenhum manifesto referencia mais são removidos por
+ * {@link #collectGarbage(Path, Collection)}. Um bloco existente que não confere
+ * com o hash (arquivo corrompido) é regravado no próximo backup que o usa.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChunkedBackupService {
+
+    public static final String EXTENSION = ".chunks";
+    static final String CHUNK_DIR = "chunks";
+
+    /**
+     * 16 KiB: quatro páginas padrão do SQLite
+     */
+    static final int CHUNK_SIZE = 16 * 1024;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Grava os blocos novos do banco e o manifesto em {@code manifestFile}
+     *
+     * @param database Cópia consistente do banco (não o arquivo em uso)
+     */
+    public BackupManifest write(Path database, Path manifestFile) throws IOException {
+        BackupManifest manifest = BackupArchiveService.inspect(database);
+        Path store = chunkStore(manifestFile);
+        MessageDigest whole = BackupArchiveService.sha256();
+        List<String> chunks = new ArrayList<>();
+        long addedBytes = 0;
+        int added = 0;
+
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(database), CHUNK_SIZE)) {
+            byte[] buffer = new byte[CHUNK_SIZE];
+            int length;
+            while ((length = in.readNBytes(buffer, 0, CHUNK_SIZE)) > 0) {
+                whole.update(buffer, 0, length);
+                MessageDigest digest = BackupArchiveService.sha256();
+                digest.update(buffer, 0, length);
+                String hash = HexFormat.of().formatHex(digest.digest());
+                chunks.add(hash);
+
+                Path chunk = chunkPath(store, hash);
+                boolean exists = Files.exists(chunk);
+                if (!exists || !isIntact(chunk, hash)) {
+                    if (exists) {
+                        log.warn("Backup chunk {} is corrupted, rewriting it", hash);
+                    }
+                    addedBytes += writeChunk(chunk, buffer, length);
+                    added++;
+                }
+            }
+        }
+
+        manifest.setSha256(HexFormat.of().formatHex(whole.digest()));
+        manifest.setDatabaseSize(Files.size(database));
+        manifest.setChunkSize(CHUNK_SIZE);
+        manifest.setChunks(chunks);
+        manifest.setAddedBytes(addedBytes);
+
+        Path temp = manifestFile.resolveSibling(manifestFile.getFileName() + ".tmp");
+        try {
+            Files.write(temp, objectMapper.writeValueAsBytes(manifest));
+            Files.move(temp, manifestFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        log.info("Incremental backup {}: {} of {} chunks new ({} bytes added)", manifestFile.getFileName(), added,
+                chunks.size(), addedBytes);
+        return manifest;
+    }
+
+    public BackupManifest readManifest(Path manifestFile) throws IOException {
+        try (InputStream in = Files.newInputStream(manifestFile)) {
+            BackupManifest manifest = objectMapper.readValue(in, BackupManifest.class);
+            if (manifest.getChunks() == null) {
+                throw new IOException("Manifesto sem blocos: " + manifestFile.getFileName());
+            }
+            return manifest;
+        } catch (JacksonException e) {
+            throw new IOException("Manifesto inválido: " + manifestFile.getFileName(), e);
+        }
+    }
+
+    /**
+     * Remonta o banco sem gravar nada, conferindo cada bloco e o SHA-256 final
+     */
+    public BackupManifest verify(Path manifestFile) throws IOException {
+        return extract(manifestFile, OutputStream.nullOutputStream());
+    }
+
+    /**
+     * Remonta o banco em {@code target}, conferindo cada bloco e o SHA-256 final
+     *
+     * @throws IOException se faltar um bloco ou algum estiver corrompido
+     *                     ({@code target} não é criado nesse caso)
+     */
+    public BackupManifest extract(Path manifestFile, Path target) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            BackupManifest manifest;
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp), CHUNK_SIZE * 4)) {
+                manifest = extract(manifestFile, out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            return manifest;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private BackupManifest extract(Path manifestFile, OutputStream out) throws IOException {
+        BackupManifest manifest = readManifest(manifestFile);
+        Path store = chunkStore(manifestFile);
+        MessageDigest whole = BackupArchiveService.sha256();
+        long size = 0;
+        for (String hash : manifest.getChunks()) {
+            Path chunk = chunkPath(store, hash);
+            if (!Files.exists(chunk)) {
+                throw new IOException("Backup incompleto: bloco " + hash + " não encontrado");
+            }
+            byte[] data = readChunk(chunk);
+            if (!hashOf(data).equals(hash)) {
+                throw new IOException("Backup corrompido: bloco " + hash + " não confere");
+            }
+            whole.update(data);
+            out.write(data);
+            size += data.length;
+        }
+        String actual = HexFormat.of().formatHex(whole.digest());
+        if (size != manifest.getDatabaseSize() || !actual.equals(manifest.getSha256())) {
+            throw new IOException("Backup corrompido: " + manifestFile.getFileName() + " (checksum não confere)");
+        }
+        return manifest;
+    }
+
+    /**
+     * Remove do repositório os blocos que nenhum dos manifestos informados
+     * referencia
+     *
+     * @param backupDir Diretório de backups (onde fica o repositório de blocos)
+     * @param manifests Todos os manifestos incrementais que devem continuar
+     *                  restauráveis
+     * @return Número de blocos removidos
+     */
+    public int collectGarbage(Path backupDir, Collection<Path> manifests) throws IOException {
+        Path store = backupDir.resolve(CHUNK_DIR);
+        if (!Files.isDirectory(store)) {
+            return 0;
+        }
+        Set<String> live = new HashSet<>();
+        for (Path manifest : manifests) {
+            // Manifesto ilegível: não dá para saber o que ele referencia, então nada é removido
+            live.addAll(readManifest(manifest).getChunks());
+        }
+
+        int removed = 0;
+        try (Stream<Path> files = Files.walk(store)) {
+            for (Path chunk : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                if (!live.contains(chunk.getFileName().toString())) {
+                    Files.deleteIfExists(chunk);
+                    removed++;
+                }
+            }
+        }
+        if (removed > 0) {
+            log.info("Removed {} unreferenced backup chunks", removed);
+        }
+        return removed;
+    }
+
+    private static byte[] readChunk(Path chunk) throws IOException {
+        try (InputStream in = new InflaterInputStream(Files.newInputStream(chunk))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static String hashOf(byte[] data) {
+        return HexFormat.of().formatHex(BackupArchiveService.sha256().digest(data));
+    }
+
+    /**
+     * Confere se o bloco gravado descomprime para o conteúdo do hash
+     */
+    private static boolean isIntact(Path chunk, String hash) {
+        try {
+            return hashOf(readChunk(chunk)).equals(hash);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static Path chunkStore(Path manifestFile) {
+        return manifestFile.toAbsolutePath().getParent().resolve(CHUNK_DIR);
+    }
+
+    private static Path chunkPath(Path store, String hash) {
+        return store.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    /**
+     * Grava o bloco comprimido (temporário + move, para nunca deixar um bloco
+     * parcial com o nome definitivo)
+     *
+     * @return Bytes gravados em disco
+     */
+    private static long writeChunk(Path chunk, byte[] buffer, int length) throws IOException {
+        Files.createDirectories(chunk.getParent());
+        Path temp = chunk.resolveSibling(chunk.getFileName() + ".tmp");
+        try {
+            try (OutputStream out = new DeflaterOutputStream(Files.newOutputStream(temp))) {
+                out.write(buffer, 0, length);
+            }
+            Files.move(temp, chunk, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return Files.size(chunk);
+    }
+}
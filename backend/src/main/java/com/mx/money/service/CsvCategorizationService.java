@@ -7,43 +7,174 @@ import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
 /**
  * Serviço de categorização de transações CSV usando Spring AI + Ollama.
  * Usa o arquivo categories.md como base de conhecimento (RAG) para
  * ajudar o LLM a identificar categorias corretas.
+ * <p>
+ * Antes do LLM, cada descrição é procurada na memória de categorizações
+ * confirmadas ({@link CategorizationMemoService}) e depois no
+ * {@link KeywordCategoryClassifier}; apenas as linhas sem resposta local são
+ * enviadas ao modelo, em blocos processados em paralelo.
  */
 @Service
 @Slf4j
 public class CsvCategorizationService {
 
+    private static final Pattern NUMBERED_LINE = Pattern.compile("(?m)^\\s*\\d+\\s*[.:\\-\\s]");
+
     private final ChatClient.Builder chatClientBuilder;
+    private final KeywordCategoryClassifier keywordClassifier;
+    private final CategorizationMemoService categorizationMemoService;
     private final String categoriesKnowledge;
 
+    @Value("${csv.categorization.chunk-size:40}")
+    private int chunkSize = 40;
+
+    @Value("${csv.categorization.max-parallel-chunks:2}")
+    private int maxParallelChunks = 2;
+
+    @Value("${csv.categorization.max-attempts:2}")
+    private int maxAttempts = 2;
+
     public CsvCategorizationService(
             ChatClient.Builder chatClientBuilder,
+            KeywordCategoryClassifier keywordClassifier,
+            CategorizationMemoService categorizationMemoService,
             @Value("classpath:categories.md") Resource categoriesResource) throws IOException {
         this.chatClientBuilder = chatClientBuilder;
+        this.keywordClassifier = keywordClassifier;
+        this.categorizationMemoService = categorizationMemoService;
         this.categoriesKnowledge = categoriesResource.getContentAsString(StandardCharsets.UTF_8);
         log.info("Categories knowledge base loaded ({} chars)", categoriesKnowledge.length());
     }
 
     /**
-     * Categoriza uma lista de transações CSV usando a IA.
-     * Envia todas as descrições em um único prompt para eficiência.
+     * Categoriza uma lista de transações CSV. Linhas resolvidas pela memória ou
+     * pelo classificador local não passam pelo LLM; o resultado mantém a ordem
+     * de entrada.
      */
     public List<CsvImportResponse> categorize(List<CsvImportRequest> items) {
         if (items.isEmpty()) {
             return List.of();
         }
 
-        log.info("Categorizing {} transactions with AI...", items.size());
+        List<CsvImportResponse> results = new ArrayList<>(classifyLocally(items));
+        List<Integer> pendingIndexes = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) == null) {
+                pendingIndexes.add(i);
+            }
+        }
+
+        if (!pendingIndexes.isEmpty()) {
+            List<CsvImportRequest> pending = pendingIndexes.stream().map(items::get).toList();
+            List<CsvImportResponse> categorized = categorizeWithAi(pending, chunk -> {
+            });
+            for (int i = 0; i < pendingIndexes.size(); i++) {
+                results.set(pendingIndexes.get(i), categorized.get(i));
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Primeira etapa: memória de categorizações e classificador por
+     * palavra-chave. Devolve uma lista do mesmo tamanho da entrada, com
+     * {@code null} nas linhas que precisam do LLM.
+     */
+    public List<CsvImportResponse> classifyLocally(List<CsvImportRequest> items) {
+        Map<String, String> remembered = categorizationMemoService.lookupAll(
+                items.stream().map(CsvImportRequest::getDescription).toList());
+
+        List<CsvImportResponse> results = new ArrayList<>(items.size());
+        int byMemo = 0;
+        int byKeyword = 0;
+        for (CsvImportRequest item : items) {
+            String memoCategory = remembered.get(item.getDescription());
+            if (memoCategory != null) {
+                results.add(toResponse(item, memoCategory));
+                byMemo++;
+                continue;
+            }
+            Optional<String> category = keywordClassifier.classify(item.getDescription());
+            if (category.isPresent()) {
+                results.add(toResponse(item, category.get()));
+                byKeyword++;
+            } else {
+                results.add(null);
+            }
+        }
+
+        log.info("Categorizing {} transactions: {} from memo, {} by keyword, {} with AI",
+                items.size(), byMemo, byKeyword, items.size() - byMemo - byKeyword);
+        return results;
+    }
+
+    /**
+     * Segunda etapa: divide as linhas em blocos de tamanho fixo e categoriza até
+     * {@code maxParallelChunks} blocos ao mesmo tempo. Cada bloco é tentado até
+     * {@code maxAttempts} vezes; se ainda falhar, apenas as linhas dele ficam
+     * como "Outros". O resultado mantém a ordem de entrada; {@code onChunk}
+     * recebe cada bloco concluído, também em ordem.
+     */
+    public List<CsvImportResponse> categorizeWithAi(List<CsvImportRequest> items,
+            Consumer<List<CsvImportResponse>> onChunk) {
+        if (items.isEmpty()) {
+            return List.of();
+        }
+        // Valores menores que 1 valem como 1
+        int size = Math.max(1, chunkSize);
+        int parallelism = Math.max(1, maxParallelChunks);
+        List<List<CsvImportRequest>> chunks = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += size) {
+            chunks.add(items.subList(from, Math.min(from + size, items.size())));
+        }
+        if (chunks.size() > 1) {
+            log.info("Splitting {} rows into {} chunks ({} in parallel)", items.size(), chunks.size(),
+                    parallelism);
+        }
+
+        return Flux.fromIterable(chunks)
+                .flatMapSequential(this::categorizeChunk, parallelism)
+                .doOnNext(onChunk)
+                .concatMapIterable(chunk -> chunk)
+                .collectList()
+                .block();
+    }
 
+    private Mono<List<CsvImportResponse>> categorizeChunk(List<CsvImportRequest> chunk) {
+        return Mono.fromCallable(() -> callModel(chunk))
+                .subscribeOn(Schedulers.boundedElastic())
+                // Valores menores que 1 valem como uma única tentativa
+                .retry(Math.max(0, maxAttempts - 1))
+                .onErrorResume(e -> {
+                    log.error("Error calling Ollama for categorization ({} rows)", chunk.size(), e);
+                    // Fallback: retorna as linhas do bloco como "Outros"
+                    return Mono.just(chunk.stream()
+                            .map(item -> toResponse(item, "Outros"))
+                            .toList());
+                });
+    }
+
+    /**
+     * Envia as descrições do bloco em um único prompt numerado.
+     */
+    private List<CsvImportResponse> callModel(List<CsvImportRequest> items) {
         // Monta a lista de descrições numeradas
         StringBuilder descriptions = new StringBuilder();
         for (int i = 0; i < items.size(); i++) {
@@ -53,27 +184,23 @@ public class CsvCategorizationService {
         String prompt = buildPrompt(descriptions.toString());
         log.debug("Prompt sent to LLM:\n{}", prompt);
 
-        try {
-            ChatClient chatClient = chatClientBuilder.build();
-            String response = chatClient.prompt()
-                    .user(prompt)
-                    .call()
-                    .content();
-
-            log.debug("LLM raw response:\n{}", response);
-            return parseResponse(response, items);
-        } catch (Exception e) {
-            log.error("Error calling Ollama for categorization", e);
-            // Fallback: retorna todos como "Outros"
-            return items.stream()
-                    .map(item -> CsvImportResponse.builder()
-                            .date(item.getDate())
-                            .description(item.getDescription())
-                            .amount(item.getAmount())
-                            .category("Outros")
-                            .build())
-                    .toList();
-        }
+        ChatClient chatClient = chatClientBuilder.build();
+        String response = chatClient.prompt()
+                .user(prompt)
+                .call()
+                .content();
+
+        log.debug("LLM raw response:\n{}", response);
+        return parseResponse(response, items);
+    }
+
+    private CsvImportResponse toResponse(CsvImportRequest item, String category) {
+        return CsvImportResponse.builder()
+                .date(item.getDate())
+                .description(item.getDescription())
+                .amount(item.getAmount())
+                .category(category)
+                .build();
     }
 
     private String buildPrompt(String descriptions) {
@@ -105,9 +232,15 @@ public class CsvCategorizationService {
     }
 
     /**
-     * Parseia a resposta do LLM no formato "1. Categoria\n2. Categoria\n..."
+     * Parseia a resposta do LLM no formato "1. Categoria\n2. Categoria\n...".
+     * Uma resposta sem nenhuma linha numerada é tratada como falha, para que o
+     * bloco seja tentado de novo.
      */
     private List<CsvImportResponse> parseResponse(String response, List<CsvImportRequest> items) {
+        if (response == null || !NUMBERED_LINE.matcher(response).find()) {
+            throw new IllegalStateException("Resposta do modelo sem linhas numeradas");
+        }
+
         List<CsvImportResponse> results = new ArrayList<>();
         String[] lines = response.strip().split("\n");
 
@@ -133,15 +266,10 @@ public class CsvCategorizationService {
                 }
             }
 
-            results.add(CsvImportResponse.builder()
-                    .date(item.getDate())
-                    .description(item.getDescription())
-                    .amount(item.getAmount())
-                    .category(category)
-                    .build());
+            results.add(toResponse(item, category));
         }
 
-        log.info("Categorization complete: {} items processed", results.size());
+        log.debug("Chunk categorized: {} items processed", results.size());
         return results;
     }
 }
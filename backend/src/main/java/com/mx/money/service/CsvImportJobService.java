@@ -0,0 +1,409 @@
+package com.mx.money.service;
+
+import com.mx.money.dto.CsvImportJobResponse;
+import com.mx.money.dto.CsvImportRequest;
+import com.mx.money.dto.CsvImportResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Importação de CSV em segundo plano: parse → detecção de linhas já importadas
+ * → classificação local (memória e palavras-chave) → classificação pelo LLM →
+ * prévia. Linhas já importadas entram na prévia marcadas como duplicadas, sem
+ * passar pela classificação.
+ * <p>
+ * O arquivo enviado é copiado para um arquivo temporário e a requisição
+ * retorna imediatamente com o id do job; o progresso e as linhas já
+ * categorizadas podem ser consultados por polling ou acompanhados via SSE.
+ * Os jobs rodam em um executor com concorrência e fila limitadas.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CsvImportJobService {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        DONE,
+        FAILED,
+        CANCELLED
+    }
+
+    public enum Stage {
+        PARSING,
+        DEDUPLICATION,
+        LOCAL_CLASSIFICATION,
+        AI_CLASSIFICATION,
+        PREVIEW
+    }
+
+    /**
+     * Por quanto tempo jobs finalizados continuam consultáveis
+     */
+    private static final Duration RETENTION = Duration.ofMinutes(30);
+
+    private final CsvStatementParser csvStatementParser;
+    private final CsvCategorizationService csvCategorizationService;
+    private final ImportFingerprintService importFingerprintService;
+
+    @Value("${csv.import.max-concurrent-jobs:1}")
+    private int maxConcurrentJobs = 1;
+
+    @Value("${csv.import.queue-capacity:4}")
+    private int queueCapacity = 4;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(maxConcurrentJobs, maxConcurrentJobs, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "csv-import-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Copia o arquivo para disco e enfileira a importação
+     *
+     * @throws RejectedExecutionException se a fila estiver cheia
+     */
+    public ImportJob submit(MultipartFile file) throws IOException {
+        Path temp = Files.createTempFile("mxmoney-import-", ".csv");
+        try (InputStream input = file.getInputStream()) {
+            Files.copy(input, temp, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return submit(file.getOriginalFilename(), temp);
+    }
+
+    synchronized ImportJob submit(String fileName, Path file) throws IOException {
+        evictExpired();
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), fileName, file);
+        try {
+            job.future = executor.submit(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        jobs.put(job.id, job);
+        log.info("CSV import job {} queued for {} ({} waiting)", job.id, fileName, executor.getQueue().size());
+        return job;
+    }
+
+    public ImportJob get(String id) {
+        ImportJob job = jobs.get(id);
+        if (job == null) {
+            throw new EntityNotFoundException("Importação não encontrada: " + id);
+        }
+        return job;
+    }
+
+    /**
+     * Interrompe a importação (se ainda estiver na fila ou rodando)
+     */
+    public ImportJob cancel(String id) {
+        ImportJob job = get(id);
+        // Marca antes de interromper, para que a thread interrompida não registre FAILED
+        if (job.finish(Status.CANCELLED, "Importação cancelada")) {
+            job.future.cancel(true);
+            // Cancelado ainda na fila, o job ocuparia a vaga até um worker retirá-lo
+            executor.purge();
+            // Um job ainda na fila nunca chega ao finally de run()
+            deleteTemporaryFile(job);
+            log.info("CSV import job {} cancelled", job.id);
+        }
+        return job;
+    }
+
+    /**
+     * Progresso do job: o estado atual e cada mudança seguinte, terminando com
+     * o estado final (que, em DONE, inclui as linhas)
+     */
+    public Flux<CsvImportJobResponse> events(ImportJob job) {
+        return job.sink.asFlux();
+    }
+
+    /**
+     * Aguarda o fim do job e devolve as linhas categorizadas
+     */
+    public List<CsvImportResponse> await(ImportJob job) throws InterruptedException {
+        try {
+            job.future.get();
+        } catch (CancellationException | ExecutionException e) {
+            // estado final já registrado no job
+        }
+        if (job.status != Status.DONE) {
+            throw new IllegalStateException(job.errorMessage != null ? job.errorMessage : "Job " + job.status);
+        }
+        return job.rows();
+    }
+
+    private void run(ImportJob job) {
+        try {
+            if (!job.start()) {
+                return;
+            }
+            List<CsvImportRequest> parsed = new ArrayList<>();
+            try (InputStream input = Files.newInputStream(job.file)) {
+                csvStatementParser.parse(input, row -> {
+                    job.checkActive();
+                    parsed.add(row);
+                    job.parsed();
+                });
+            }
+
+            job.stage(Stage.DEDUPLICATION, parsed.size());
+            List<Boolean> duplicates = importFingerprintService.flagDuplicates(parsed);
+            List<Integer> freshIndexes = new ArrayList<>();
+            for (int i = 0; i < parsed.size(); i++) {
+                if (!duplicates.get(i)) {
+                    freshIndexes.add(i);
+                }
+            }
+
+            job.stage(Stage.LOCAL_CLASSIFICATION, parsed.size());
+            List<CsvImportResponse> fresh = csvCategorizationService.classifyLocally(
+                    freshIndexes.stream().map(parsed::get).toList());
+            List<CsvImportResponse> local = new ArrayList<>(parsed.size());
+            for (int i = 0; i < parsed.size(); i++) {
+                local.add(duplicates.get(i) ? duplicateRow(parsed.get(i)) : null);
+            }
+            List<Integer> pendingIndexes = new ArrayList<>();
+            for (int i = 0; i < freshIndexes.size(); i++) {
+                if (fresh.get(i) != null) {
+                    local.set(freshIndexes.get(i), fresh.get(i));
+                } else {
+                    pendingIndexes.add(freshIndexes.get(i));
+                }
+            }
+            job.classified(local, parsed);
+
+            if (!pendingIndexes.isEmpty()) {
+                job.stage(Stage.AI_CLASSIFICATION, parsed.size());
+                List<CsvImportRequest> pending = pendingIndexes.stream().map(parsed::get).toList();
+                AtomicInteger offset = new AtomicInteger();
+                csvCategorizationService.categorizeWithAi(pending, chunk -> {
+                    job.checkActive();
+                    int from = offset.getAndAdd(chunk.size());
+                    job.categorized(pendingIndexes.subList(from, from + chunk.size()), chunk);
+                });
+            }
+
+            job.stage(Stage.PREVIEW, parsed.size());
+            job.finish(Status.DONE, null);
+            log.info("CSV import job {} finished ({} rows, {} duplicates, {} sent to AI)", job.id, parsed.size(),
+                    parsed.size() - freshIndexes.size(), pendingIndexes.size());
+        } catch (Exception e) {
+            if (job.finish(Status.FAILED, e.getMessage())) {
+                log.error("CSV import job {} failed", job.id, e);
+            }
+        } finally {
+            deleteTemporaryFile(job);
+        }
+    }
+
+    private static CsvImportResponse duplicateRow(CsvImportRequest item) {
+        return CsvImportResponse.builder()
+                .date(item.getDate())
+                .description(item.getDescription())
+                .amount(item.getAmount())
+                .duplicate(true)
+                .build();
+    }
+
+    private void deleteTemporaryFile(ImportJob job) {
+        try {
+            Files.deleteIfExists(job.file);
+        } catch (IOException e) {
+            log.warn("Could not delete temporary import file {}", job.file, e);
+        }
+    }
+
+    private void evictExpired() {
+        LocalDateTime limit = LocalDateTime.now().minus(RETENTION);
+        jobs.values().removeIf(job -> job.isFinished() && job.finishedAt.isBefore(limit));
+    }
+
+    /**
+     * Job de importação. As linhas e o progresso são atualizados pela thread do
+     * executor e lidos pelas requisições de consulta.
+     */
+    public static class ImportJob {
+
+        /**
+         * Durante o parse, publica o progresso a cada tantas linhas
+         */
+        private static final int PARSE_PROGRESS_STEP = 10_000;
+
+        @Getter
+        private final String id;
+        private final String fileName;
+        private final Path file;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final List<CsvImportResponse> rows = new ArrayList<>();
+        private final Sinks.Many<CsvImportJobResponse> sink = Sinks.many().replay().latest();
+
+        @Getter
+        private volatile Status status = Status.QUEUED;
+        private volatile Stage stage = Stage.PARSING;
+        private volatile int totalRows;
+        private volatile int processedRows;
+        private volatile LocalDateTime finishedAt;
+        private volatile String errorMessage;
+        private Future<?> future;
+
+        ImportJob(String id, String fileName, Path file) {
+            this.id = id;
+            this.fileName = fileName;
+            this.file = file;
+            sink.tryEmitNext(toResponse(false));
+        }
+
+        public boolean isFinished() {
+            return status == Status.DONE || status == Status.FAILED || status == Status.CANCELLED;
+        }
+
+        public synchronized List<CsvImportResponse> rows() {
+            return List.copyOf(rows);
+        }
+
+        synchronized boolean start() {
+            if (status != Status.QUEUED) {
+                return false;
+            }
+            status = Status.RUNNING;
+            publish();
+            return true;
+        }
+
+        /**
+         * Interrompe o trabalho da thread do executor se o job já foi finalizado
+         */
+        void checkActive() {
+            if (isFinished()) {
+                throw new CancellationException("Importação cancelada");
+            }
+        }
+
+        synchronized void parsed() {
+            if (++totalRows % PARSE_PROGRESS_STEP == 0) {
+                publish();
+            }
+        }
+
+        synchronized void stage(Stage next, int total) {
+            stage = next;
+            totalRows = total;
+            publish();
+        }
+
+        /**
+         * Resultado da deduplicação e da classificação local: as linhas ainda sem
+         * categoria entram na prévia com categoria nula
+         */
+        synchronized void classified(List<CsvImportResponse> local, List<CsvImportRequest> parsed) {
+            rows.clear();
+            int resolved = 0;
+            for (int i = 0; i < local.size(); i++) {
+                CsvImportResponse row = local.get(i);
+                if (row != null) {
+                    resolved++;
+                } else {
+                    CsvImportRequest item = parsed.get(i);
+                    row = CsvImportResponse.builder()
+                            .date(item.getDate())
+                            .description(item.getDescription())
+                            .amount(item.getAmount())
+                            .build();
+                }
+                rows.add(row);
+            }
+            processedRows = resolved;
+            publish();
+        }
+
+        synchronized void categorized(List<Integer> indexes, List<CsvImportResponse> chunk) {
+            for (int i = 0; i < indexes.size(); i++) {
+                rows.set(indexes.get(i), chunk.get(i));
+            }
+            processedRows += chunk.size();
+            publish();
+        }
+
+        /**
+         * Registra o estado final (apenas a primeira transição vale)
+         */
+        synchronized boolean finish(Status finalStatus, String error) {
+            if (isFinished()) {
+                return false;
+            }
+            status = finalStatus;
+            errorMessage = error;
+            finishedAt = LocalDateTime.now();
+            sink.tryEmitNext(toResponse(finalStatus == Status.DONE));
+            sink.tryEmitComplete();
+            return true;
+        }
+
+        private void publish() {
+            sink.tryEmitNext(toResponse(false));
+        }
+
+        public synchronized CsvImportJobResponse toResponse(boolean includeRows) {
+            DateTimeFormatter fmt = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+            int progress = status == Status.DONE ? 100
+                    : totalRows == 0 || stage == Stage.PARSING ? 0
+                            : (int) (processedRows * 100L / totalRows);
+            return CsvImportJobResponse.builder()
+                    .id(id)
+                    .fileName(fileName)
+                    .status(status)
+                    .stage(stage)
+                    .progress(progress)
+                    .totalRows(totalRows)
+                    .processedRows(processedRows)
+                    .rows(includeRows ? List.copyOf(rows) : null)
+                    .errorMessage(errorMessage)
+                    .createdAt(createdAt.format(fmt))
+                    .finishedAt(finishedAt != null ? finishedAt.format(fmt) : null)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,520 @@
+package com.mx.money.service;
+
+import com.mx.money.dto.CsvImportRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Parser de extratos CSV em streaming.
+ * <p>
+ * O formato do arquivo (delimitador, cabeçalho, colunas de data/descrição/valor,
+ * formato de data e separador decimal) é detectado uma única vez a partir das
+ * primeiras linhas; depois cada registro é tokenizado à mão (com suporte a
+ * campos entre aspas, aspas escapadas e quebras de linha dentro de aspas) e
+ * entregue ao consumidor assim que lido, sem acumular o arquivo em memória.
+ * <p>
+ * Datas saem sempre no formato ISO (yyyy-MM-dd). Linhas que não se encaixam no
+ * formato detectado são ignoradas e registradas no log.
+ */
+@Component
+@Slf4j
+public class CsvStatementParser {
+
+    /**
+     * Quantidade de registros usados para detectar o formato
+     */
+    static final int SAMPLE_SIZE = 50;
+
+    /**
+     * Delimitador "virtual" para arquivos alinhados por espaços (2+ espaços)
+     */
+    static final char WHITESPACE = ' ';
+
+    private static final char[] DELIMITER_CANDIDATES = { ';', ',', '\t', '|' };
+
+    /**
+     * Formatos aceitos, em ordem de preferência (dd/MM antes de MM/dd)
+     */
+    private static final List<DateFormat> DATE_FORMATS = List.of(
+            new DateFormat("yyyy-MM-dd", '-', 0, 1, 2, false),
+            new DateFormat("dd/MM/yyyy", '/', 2, 1, 0, false),
+            new DateFormat("dd/MM/yy", '/', 2, 1, 0, true),
+            new DateFormat("dd-MM-yyyy", '-', 2, 1, 0, false),
+            new DateFormat("dd.MM.yyyy", '.', 2, 1, 0, false),
+            new DateFormat("yyyy/MM/dd", '/', 0, 1, 2, false),
+            new DateFormat("MM/dd/yyyy", '/', 2, 0, 1, false));
+
+    private static final String[] DATE_HEADERS = { "date", "data" };
+    private static final String[] DESCRIPTION_HEADERS = { "title", "descri", "hist", "lancamento", "estabelecimento" };
+    private static final String[] AMOUNT_HEADERS = { "amount", "valor", "value" };
+
+    /**
+     * Formato detectado para um arquivo
+     */
+    record Format(char delimiter, boolean header, int dateColumn, int descriptionColumn, int amountColumn,
+            DateFormat dateFormat, char decimalSeparator) {
+    }
+
+    /**
+     * Data numérica com três partes separadas por {@code separator}; os índices
+     * indicam a posição de ano, mês e dia. Interpretada à mão, sem
+     * DateTimeFormatter, por ser o campo mais caro de cada linha.
+     */
+    record DateFormat(String pattern, char separator, int yearIndex, int monthIndex, int dayIndex,
+            boolean shortYear) {
+
+        LocalDate parse(String value) {
+            int[] parts = new int[3];
+            int[] lengths = new int[3];
+            int part = 0;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == separator) {
+                    if (++part > 2) {
+                        return null;
+                    }
+                } else if (c >= '0' && c <= '9') {
+                    parts[part] = parts[part] * 10 + (c - '0');
+                    lengths[part]++;
+                } else {
+                    return null;
+                }
+            }
+            int yearLength = lengths[yearIndex];
+            if (part != 2 || lengths[monthIndex] == 0 || lengths[monthIndex] > 2
+                    || lengths[dayIndex] == 0 || lengths[dayIndex] > 2
+                    || yearLength != (shortYear ? 2 : 4)) {
+                return null;
+            }
+            int year = shortYear ? 2000 + parts[yearIndex] : parts[yearIndex];
+            try {
+                return LocalDate.of(year, parts[monthIndex], parts[dayIndex]);
+            } catch (DateTimeException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return pattern;
+        }
+    }
+
+    /**
+     * Lê o arquivo inteiro e devolve as linhas válidas
+     */
+    public List<CsvImportRequest> parse(InputStream input) throws IOException {
+        List<CsvImportRequest> rows = new ArrayList<>();
+        parse(input, rows::add);
+        return rows;
+    }
+
+    /**
+     * Lê o arquivo e entrega cada linha válida ao consumidor, na ordem do
+     * arquivo. Retorna a quantidade de linhas entregues.
+     */
+    public int parse(InputStream input, Consumer<CsvImportRequest> sink) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 1 << 16)) {
+            List<String> sample = new ArrayList<>();
+            String record;
+            while (sample.size() < SAMPLE_SIZE && (record = nextRecord(reader)) != null) {
+                if (!record.isBlank()) {
+                    sample.add(record);
+                }
+            }
+            if (sample.isEmpty()) {
+                return 0;
+            }
+            if (sample.get(0).charAt(0) == '\uFEFF') {
+                sample.set(0, sample.get(0).substring(1));
+            }
+
+            Format format = sniff(sample);
+            log.info("CSV format detected: {}", format);
+
+            int emitted = 0;
+            int skipped = 0;
+            boolean first = true;
+            List<String> fields = new ArrayList<>();
+            for (int i = 0; ; i++) {
+                String line = i < sample.size() ? sample.get(i) : nextRecord(reader);
+                if (line == null) {
+                    break;
+                }
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (first) {
+                    first = false;
+                    if (format.header()) {
+                        continue;
+                    }
+                }
+                split(line, format.delimiter(), fields);
+                CsvImportRequest row = toRow(fields, format);
+                if (row != null) {
+                    sink.accept(row);
+                    emitted++;
+                } else {
+                    skipped++;
+                    log.warn("Skipping invalid CSV row: {}", line);
+                }
+            }
+            log.info("Parsed {} CSV rows ({} skipped)", emitted, skipped);
+            return emitted;
+        }
+    }
+
+    /**
+     * Lê um registro lógico: se houver aspas abertas no fim da linha, o campo
+     * continua na linha seguinte
+     */
+    private static String nextRecord(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null || line.indexOf('"') < 0) {
+            return line;
+        }
+        StringBuilder record = new StringBuilder(line);
+        while (hasOpenQuote(record)) {
+            String next = reader.readLine();
+            if (next == null) {
+                break;
+            }
+            record.append('\n').append(next);
+        }
+        return record.toString();
+    }
+
+    private static boolean hasOpenQuote(CharSequence text) {
+        boolean open = false;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '"') {
+                open = !open;
+            }
+        }
+        return open;
+    }
+
+    /**
+     * Tokenizador: divide o registro no delimitador fora de aspas. {@code ""}
+     * dentro de aspas vira uma aspa literal. Campos são devolvidos sem espaços
+     * nas pontas.
+     */
+    static void split(String line, char delimiter, List<String> out) {
+        out.clear();
+        int length = line.length();
+        int start = 0;
+        // Só é usado quando o campo tem aspas; campos simples viram substring direto
+        StringBuilder quotedField = null;
+        boolean quoted = false;
+        for (int i = 0; i < length; i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    quotedField.append(c);
+                } else if (i + 1 < length && line.charAt(i + 1) == '"') {
+                    quotedField.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                if (quotedField == null) {
+                    quotedField = new StringBuilder(line.substring(start, i));
+                }
+                quoted = true;
+            } else if (delimiter == WHITESPACE ? isColumnGap(line, i) : c == delimiter) {
+                out.add(quotedField != null ? quotedField.toString().strip() : line.substring(start, i).strip());
+                quotedField = null;
+                if (delimiter == WHITESPACE) {
+                    while (i + 1 < length && Character.isWhitespace(line.charAt(i + 1))) {
+                        i++;
+                    }
+                }
+                start = i + 1;
+            } else if (quotedField != null) {
+                quotedField.append(c);
+            }
+        }
+        out.add(quotedField != null ? quotedField.toString().strip() : line.substring(start).strip());
+    }
+
+    /**
+     * Em arquivos alinhados, colunas são separadas por tab ou 2+ espaços
+     */
+    private static boolean isColumnGap(String line, int i) {
+        char c = line.charAt(i);
+        return c == '\t' || (c == ' ' && i + 1 < line.length() && line.charAt(i + 1) == ' ');
+    }
+
+    // ----- detecção do formato -----
+
+    static Format sniff(List<String> sample) {
+        char delimiter = sniffDelimiter(sample);
+
+        List<List<String>> rows = new ArrayList<>();
+        for (String line : sample) {
+            List<String> fields = new ArrayList<>();
+            split(line, delimiter, fields);
+            rows.add(fields);
+        }
+
+        List<String> first = rows.get(0);
+        boolean header = first.stream().noneMatch(f -> looksLikeNumber(f) || detectDateFormat(List.of(f)) != null);
+        List<List<String>> data = header ? rows.subList(1, rows.size()) : rows;
+        if (data.isEmpty()) {
+            data = rows;
+        }
+
+        int columns = first.size();
+        int dateColumn = header ? findHeader(first, DATE_HEADERS) : -1;
+        int descriptionColumn = header ? findHeader(first, DESCRIPTION_HEADERS) : -1;
+        int amountColumn = header ? findHeader(first, AMOUNT_HEADERS) : -1;
+
+        // Sem cabeçalho reconhecível: infere pelas colunas de conteúdo
+        if (dateColumn < 0) {
+            for (int c = 0; c < columns && dateColumn < 0; c++) {
+                if (detectDateFormat(column(data, c)) != null) {
+                    dateColumn = c;
+                }
+            }
+        }
+        if (amountColumn < 0) {
+            for (int c = columns - 1; c >= 0 && amountColumn < 0; c--) {
+                List<String> values = column(data, c);
+                if (c != dateColumn && !values.isEmpty() && values.stream().allMatch(CsvStatementParser::looksLikeNumber)) {
+                    amountColumn = c;
+                }
+            }
+        }
+        if (descriptionColumn < 0) {
+            for (int c = 0; c < columns && descriptionColumn < 0; c++) {
+                if (c != dateColumn && c != amountColumn) {
+                    descriptionColumn = c;
+                }
+            }
+        }
+
+        // Sem inferência possível, cai no padrão de bancos: data, descrição, ..., valor
+        if (dateColumn < 0) {
+            dateColumn = 0;
+        }
+        if (descriptionColumn < 0) {
+            descriptionColumn = Math.min(1, columns - 1);
+        }
+        if (amountColumn < 0) {
+            amountColumn = columns - 1;
+        }
+
+        DateFormat dateFormat = detectDateFormat(column(data, dateColumn));
+        char decimalSeparator = detectDecimalSeparator(column(data, amountColumn));
+        return new Format(delimiter, header, dateColumn, descriptionColumn, amountColumn,
+                dateFormat != null ? dateFormat : DATE_FORMATS.get(0), decimalSeparator);
+    }
+
+    /**
+     * Escolhe o delimitador que aparece (fora de aspas) a mesma quantidade de
+     * vezes, no mínimo duas, na maior parte das linhas de amostra; em empate,
+     * o que gera mais colunas
+     */
+    static char sniffDelimiter(List<String> sample) {
+        char best = WHITESPACE;
+        int bestScore = 0;
+        int bestColumns = 0;
+        for (char candidate : DELIMITER_CANDIDATES) {
+            int[] counts = sample.stream().mapToInt(line -> countOutsideQuotes(line, candidate)).toArray();
+            int mode = mode(counts);
+            if (mode < 2) {
+                continue;
+            }
+            int score = 0;
+            for (int count : counts) {
+                if (count == mode) {
+                    score++;
+                }
+            }
+            if (score > bestScore || (score == bestScore && mode > bestColumns)) {
+                best = candidate;
+                bestScore = score;
+                bestColumns = mode;
+            }
+        }
+        return best;
+    }
+
+    private static int countOutsideQuotes(String line, char delimiter) {
+        int count = 0;
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == delimiter && !quoted) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int mode(int[] values) {
+        int mode = 0;
+        int modeFrequency = 0;
+        for (int candidate : values) {
+            int frequency = 0;
+            for (int value : values) {
+                if (value == candidate) {
+                    frequency++;
+                }
+            }
+            if (frequency > modeFrequency || (frequency == modeFrequency && candidate > mode)) {
+                mode = candidate;
+                modeFrequency = frequency;
+            }
+        }
+        return mode;
+    }
+
+    private static int findHeader(List<String> header, String[] names) {
+        for (int c = 0; c < header.size(); c++) {
+            String normalized = KeywordCategoryClassifier.normalize(header.get(c));
+            for (String name : names) {
+                if (normalized.contains(name)) {
+                    return c;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static List<String> column(List<List<String>> rows, int column) {
+        List<String> values = new ArrayList<>();
+        for (List<String> row : rows) {
+            if (column < row.size() && !row.get(column).isEmpty()) {
+                values.add(row.get(column));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Primeiro formato de data que interpreta todos os valores da amostra
+     */
+    static DateFormat detectDateFormat(List<String> values) {
+        if (values.isEmpty()) {
+            return null;
+        }
+        for (DateFormat format : DATE_FORMATS) {
+            if (values.stream().allMatch(v -> format.parse(v.strip()) != null)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Vírgula é o separador decimal quando, na maioria dos valores, o último
+     * separador é vírgula seguida de 1 ou 2 dígitos (69,79 / 1.000,00)
+     */
+    static char detectDecimalSeparator(List<String> values) {
+        int comma = 0;
+        int dot = 0;
+        for (String value : values) {
+            String cleaned = cleanAmount(value);
+            int lastComma = cleaned.lastIndexOf(',');
+            int lastDot = cleaned.lastIndexOf('.');
+            int last = Math.max(lastComma, lastDot);
+            if (last >= 0 && cleaned.length() - last - 1 <= 2) {
+                if (last == lastComma) {
+                    comma++;
+                } else {
+                    dot++;
+                }
+            }
+        }
+        return comma > dot ? ',' : '.';
+    }
+
+    private static boolean looksLikeNumber(String value) {
+        String cleaned = cleanAmount(value);
+        if (cleaned.isEmpty()) {
+            return false;
+        }
+        int digits = 0;
+        for (int i = 0; i < cleaned.length(); i++) {
+            char c = cleaned.charAt(i);
+            if (Character.isDigit(c)) {
+                digits++;
+            } else if (c != '.' && c != ',' && !(i == 0 && (c == '-' || c == '+'))) {
+                return false;
+            }
+        }
+        return digits > 0;
+    }
+
+    // ----- conversão de linhas -----
+
+    private static String cleanAmount(String value) {
+        String cleaned = value.replace("R$", "").replace("$", "");
+        StringBuilder sb = new StringBuilder(cleaned.length());
+        for (int i = 0; i < cleaned.length(); i++) {
+            char c = cleaned.charAt(i);
+            if (!Character.isWhitespace(c) && c != '\u00A0') {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Converte o valor usando o separador decimal do arquivo; o outro separador
+     * é tratado como separador de milhar
+     */
+    static BigDecimal parseAmount(String value, char decimalSeparator) {
+        String cleaned = cleanAmount(value);
+        char thousands = decimalSeparator == ',' ? '.' : ',';
+        StringBuilder sb = new StringBuilder(cleaned.length());
+        for (int i = 0; i < cleaned.length(); i++) {
+            char c = cleaned.charAt(i);
+            if (c == decimalSeparator) {
+                sb.append('.');
+            } else if (c != thousands) {
+                sb.append(c);
+            }
+        }
+        return new BigDecimal(sb.toString());
+    }
+
+    private static CsvImportRequest toRow(List<String> fields, Format format) {
+        int needed = Math.max(format.dateColumn(), Math.max(format.descriptionColumn(), format.amountColumn()));
+        if (fields.size() <= needed) {
+            return null;
+        }
+        LocalDate date = format.dateFormat().parse(fields.get(format.dateColumn()));
+        if (date == null) {
+            return null;
+        }
+        BigDecimal amount;
+        try {
+            amount = parseAmount(fields.get(format.amountColumn()), format.decimalSeparator());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return CsvImportRequest.builder()
+                .date(date.toString())
+                .description(fields.get(format.descriptionColumn()))
+                .amount(amount)
+                .build();
+    }
+}
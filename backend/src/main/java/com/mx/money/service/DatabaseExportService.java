@@ -0,0 +1,122 @@
+package com.mx.money.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Exportação do banco para download.
+ * <p>
+ * O arquivo servido é um snapshot consistente (API de backup do SQLite), nunca
+ * o arquivo em uso. O snapshot é reaproveitado enquanto a versão do ledger não
+ * muda, de modo que um download interrompido pode ser retomado por faixa de
+ * bytes sobre exatamente o mesmo conteúdo (o ETag identifica o snapshot). Os
+ * bytes vão do arquivo para a resposta por {@link FileChannel#transferTo},
+ * sem passar por buffers no heap da aplicação.
+ */
+@Service
+@Slf4j
+public class DatabaseExportService {
+
+    /**
+     * Snapshots mantidos em disco: o atual e o anterior, que ainda pode estar
+     * sendo baixado
+     */
+    private static final int KEPT_EXPORTS = 2;
+
+    private static final String PREFIX = "export_";
+    private static final String EXTENSION = ".db";
+
+    private final DatabaseSnapshotService databaseSnapshotService;
+    private final LedgerVersionService ledgerVersionService;
+    private final Path exportDir;
+
+    private Export current;
+
+    /**
+     * Snapshot pronto para download
+     *
+     * @param etag ETag forte do snapshot, para If-Range/If-None-Match
+     */
+    public record Export(Path file, long size, String etag, String ledgerVersion) {
+    }
+
+    public DatabaseExportService(DatabaseSnapshotService databaseSnapshotService,
+            LedgerVersionService ledgerVersionService,
+            @Value("${spring.datasource.url}") String datasourceUrl) {
+        this.databaseSnapshotService = databaseSnapshotService;
+        this.ledgerVersionService = ledgerVersionService;
+        // jdbc:sqlite:./data/mxmoney.db -> ./data/exports
+        this.exportDir = Paths.get(datasourceUrl.replace("jdbc:sqlite:", "")).toAbsolutePath()
+                .resolveSibling("exports");
+    }
+
+    /**
+     * Retorna o snapshot da versão atual do ledger, criando-o se necessário
+     */
+    public synchronized Export currentExport() throws IOException {
+        // Capturada antes do snapshot: escritas durante a cópia geram um novo na próxima vez
+        String version = ledgerVersionService.etag(LedgerVersionService.Resource.values());
+        if (current != null && current.ledgerVersion().equals(version) && Files.exists(current.file())) {
+            return current;
+        }
+
+        Files.createDirectories(exportDir);
+        String name = PREFIX + System.currentTimeMillis();
+        Path file = exportDir.resolve(name + EXTENSION);
+        databaseSnapshotService.snapshot(file);
+        current = new Export(file, Files.size(file), "\"" + name + "\"", version);
+        removeOldExports();
+        return current;
+    }
+
+    /**
+     * Copia {@code length} bytes do arquivo a partir de {@code position}
+     */
+    public void transfer(Path file, long position, long length, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long end = position + length;
+            while (position < end) {
+                long sent = channel.transferTo(position, end - position, target);
+                if (sent <= 0) {
+                    throw new EOFException("Export truncated at byte " + position + " of " + end);
+                }
+                position += sent;
+            }
+        }
+        out.flush();
+    }
+
+    private void removeOldExports() {
+        try (Stream<Path> files = Files.list(exportDir)) {
+            List<Path> exports = files
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(EXTENSION);
+                    })
+                    .sorted(Comparator.comparing((Path path) -> path.getFileName().toString()).reversed())
+                    .toList();
+            for (Path old : exports.subList(Math.min(KEPT_EXPORTS, exports.size()), exports.size())) {
+                Files.deleteIfExists(old);
+                log.debug("Removed old export {}", old.getFileName());
+            }
+        } catch (IOException e) {
+            log.warn("Failed to remove old exports", e);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.mx.money.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.sqlite.SQLiteConnection;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cópias consistentes do banco SQLite em uso.
+ * <p>
+ * Copiar o arquivo enquanto a aplicação escreve pode gerar uma cópia rasgada
+ * (páginas de antes e depois de um commit). Aqui a cópia é feita pela API de
+ * backup online do SQLite, em uma conexão dedicada fora do pool: as páginas
+ * são copiadas em blocos, com pausas entre eles para que leituras e escritas
+ * da aplicação sigam normalmente. Se outra conexão escrever no meio, o SQLite
+ * reinicia a cópia, de modo que o resultado é sempre um estado confirmado.
+ * <p>
+ * A cópia é gravada em um arquivo temporário, conferida com
+ * {@code PRAGMA integrity_check} e só então movida para o destino.
+ * <p>
+ * Cópias em segundo plano (backups agendados) pausam também entre passos
+ * sem disputa, limitando a taxa de leitura e escrita em disco; prioridade de
+ * thread não tem efeito na JVM em Linux.
+ */
+@Service
+@Slf4j
+public class DatabaseSnapshotService {
+
+    /**
+     * Páginas copiadas por passo da API de backup
+     */
+    private static final int PAGES_PER_STEP = 256;
+
+    /**
+     * Pausa entre passos quando o banco está ocupado (ms) e número de tentativas
+     */
+    private static final int BUSY_SLEEP_MILLIS = 50;
+    private static final int BUSY_RETRIES = 100;
+
+    /**
+     * Pausa entre passos nas cópias em segundo plano (ms): no máximo ~1 MB
+     * copiado a cada pausa com páginas de 4 KB
+     */
+    private static final int THROTTLE_SLEEP_MILLIS = 20;
+
+    private final String datasourceUrl;
+
+    public DatabaseSnapshotService(@Value("${spring.datasource.url}") String datasourceUrl) {
+        this.datasourceUrl = datasourceUrl;
+    }
+
+    /**
+     * Copia o banco em uso para {@code target} e confere a integridade da cópia
+     *
+     * @throws IOException se a cópia falhar ou não passar na verificação (nada é
+     *                     deixado em {@code target} nesse caso)
+     */
+    public void snapshot(Path target) throws IOException {
+        snapshot(target, false);
+    }
+
+    /**
+     * Como {@link #snapshot(Path)}; com {@code throttled} pausa entre os passos
+     * da cópia para não disputar disco com as requisições
+     */
+    public void snapshot(Path target, boolean throttled) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.deleteIfExists(temp);
+        long start = System.currentTimeMillis();
+        try {
+            try (Connection connection = DriverManager.getConnection(datasourceUrl)) {
+                SQLiteConnection sqlite = connection.unwrap(SQLiteConnection.class);
+                sqlite.getDatabase().backup("main", temp.toAbsolutePath().toString(),
+                        throttled ? DatabaseSnapshotService::pause : null,
+                        BUSY_SLEEP_MILLIS, BUSY_RETRIES, PAGES_PER_STEP);
+            } catch (SQLException e) {
+                throw new IOException("Falha ao copiar o banco de dados: " + e.getMessage(), e);
+            }
+            verify(temp);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        log.info("Database snapshot written to {} in {} ms ({} bytes)", target,
+                System.currentTimeMillis() - start, Files.size(target));
+    }
+
+    /**
+     * Chamado pela API de backup após cada passo; entre passos o banco de origem
+     * fica livre para as outras conexões
+     */
+    private static void pause(int remaining, int pageCount) {
+        if (remaining <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(THROTTLE_SLEEP_MILLIS);
+        } catch (InterruptedException e) {
+            // Segue sem pausas; quem interrompeu decide o que fazer ao fim da cópia
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Executa {@code PRAGMA integrity_check} no arquivo
+     *
+     * @throws IOException se o arquivo não for um banco SQLite íntegro
+     */
+    public void verify(Path database) throws IOException {
+        List<String> problems = new ArrayList<>();
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + database.toAbsolutePath());
+                Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("PRAGMA integrity_check")) {
+            while (rs.next()) {
+                problems.add(rs.getString(1));
+            }
+        } catch (SQLException e) {
+            throw new IOException("Arquivo de banco inválido: " + e.getMessage(), e);
+        }
+        if (!problems.equals(List.of("ok"))) {
+            throw new IOException("Verificação de integridade falhou: " + String.join("; ", problems));
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.mx.money.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Troca do arquivo do banco SQLite com a aplicação no ar (restore/import).
+ * <p>
+ * Sobrescrever o arquivo por baixo das conexões do pool corrompe o banco ou
+ * deixa conexões lendo o arquivo antigo. Aqui o pool do Hikari é suspenso
+ * (novos pedidos de conexão esperam), as conexões em uso terminam suas
+ * transações e são fechadas, o novo arquivo entra no lugar com um move
+ * atômico e só então o pool volta a entregar conexões, já abertas sobre o
+ * banco novo. Requisições durante a troca apenas esperam, sem erro.
+ */
+@Service
+@Slf4j
+public class DatabaseSwapService {
+
+    /**
+     * Tabelas que um arquivo precisa ter para ser aceito como banco do MX Money
+     */
+    private static final List<String> REQUIRED_TABLES = List.of("transactions", "categories");
+
+    /**
+     * Arquivos auxiliares do SQLite que pertencem ao banco antigo
+     */
+    private static final List<String> SIDECAR_SUFFIXES = List.of("-journal", "-wal", "-shm");
+
+    private static final long DRAIN_POLL_MILLIS = 10;
+
+    private final DataSource dataSource;
+    private final DatabaseSnapshotService databaseSnapshotService;
+    private final Path databasePath;
+    private final Duration drainTimeout;
+
+    public DatabaseSwapService(DataSource dataSource, DatabaseSnapshotService databaseSnapshotService,
+            @Value("${spring.datasource.url}") String datasourceUrl,
+            @Value("${backup.restore.drain-timeout:10s}") Duration drainTimeout) {
+        this.dataSource = dataSource;
+        this.databaseSnapshotService = databaseSnapshotService;
+        // jdbc:sqlite:./data/mxmoney.db -> ./data/mxmoney.db
+        this.databasePath = Paths.get(datasourceUrl.replace("jdbc:sqlite:", ""));
+        this.drainTimeout = drainTimeout;
+    }
+
+    /**
+     * Confere que o arquivo é um banco SQLite íntegro com as tabelas do MX Money
+     *
+     * @throws IOException se o arquivo não puder substituir o banco em uso
+     */
+    public void validate(Path database) throws IOException {
+        databaseSnapshotService.verify(database);
+        Set<String> tables = new HashSet<>();
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + database.toAbsolutePath());
+                Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT name FROM sqlite_master WHERE type = 'table'")) {
+            while (rs.next()) {
+                tables.add(rs.getString(1));
+            }
+        } catch (SQLException e) {
+            throw new IOException("Arquivo de banco inválido: " + e.getMessage(), e);
+        }
+        List<String> missing = REQUIRED_TABLES.stream().filter(table -> !tables.contains(table)).toList();
+        if (!missing.isEmpty()) {
+            throw new IOException("Arquivo não é um banco do MX Money (faltam tabelas: "
+                    + String.join(", ", missing) + ")");
+        }
+    }
+
+    /**
+     * Substitui o banco em uso pelo conteúdo de {@code source}, que deve ter
+     * passado por {@link #validate(Path)}. O arquivo de origem não é alterado.
+     *
+     * @throws IOException           se a cópia ou o move falharem (o banco em uso
+     *                               fica intacto)
+     * @throws IllegalStateException se as conexões em uso não terminarem dentro
+     *                               do tempo limite (nada é trocado)
+     */
+    public void replace(Path source) throws IOException {
+        replace(source, () -> true);
+    }
+
+    /**
+     * Como {@link #replace(Path)}, mas só troca se {@code stillCurrent} for
+     * verdadeiro depois que as conexões em uso terminaram: nenhuma escrita pode
+     * ocorrer entre a conferência e a troca. Serve para arquivos montados a
+     * partir de uma cópia do banco em uso, que não podem descartar escritas
+     * feitas depois da cópia.
+     *
+     * @return false se a condição falhou (nada é trocado)
+     */
+    public boolean replace(Path source, BooleanSupplier stillCurrent) throws IOException {
+        // Cópia ao lado do banco para que o move seja atômico no mesmo sistema de arquivos
+        Path incoming = databasePath.resolveSibling(databasePath.getFileName() + ".incoming");
+        Files.copy(source, incoming, StandardCopyOption.REPLACE_EXISTING);
+        try {
+            HikariPoolMXBean pool = pool();
+            if (pool == null) {
+                log.warn("Connection pool not available, replacing database without draining");
+                if (!stillCurrent.getAsBoolean()) {
+                    return false;
+                }
+                swapFile(incoming);
+                return true;
+            }
+
+            long start = System.nanoTime();
+            pool.suspendPool();
+            try {
+                drain(pool);
+                if (!stillCurrent.getAsBoolean()) {
+                    log.info("Database changed since the replacement was prepared, not replaced");
+                    return false;
+                }
+                swapFile(incoming);
+                // Conexões criadas durante a drenagem ainda apontam para o arquivo antigo
+                pool.softEvictConnections();
+            } finally {
+                pool.resumePool();
+            }
+            log.info("Database replaced in {} ms", Duration.ofNanos(System.nanoTime() - start).toMillis());
+            return true;
+        } finally {
+            Files.deleteIfExists(incoming);
+        }
+    }
+
+    /**
+     * Fecha as conexões ociosas e espera as em uso voltarem ao pool (onde são
+     * fechadas por já estarem marcadas para remoção)
+     */
+    private void drain(HikariPoolMXBean pool) {
+        long deadline = System.nanoTime() + drainTimeout.toNanos();
+        pool.softEvictConnections();
+        while (pool.getActiveConnections() > 0) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Database still in use after " + drainTimeout.toSeconds()
+                        + "s, replacement aborted");
+            }
+            try {
+                Thread.sleep(DRAIN_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while draining connections", e);
+            }
+        }
+        pool.softEvictConnections();
+    }
+
+    private void swapFile(Path incoming) throws IOException {
+        // Journal/WAL do banco antigo não podem ser aplicados sobre o novo
+        for (String suffix : SIDECAR_SUFFIXES) {
+            Files.deleteIfExists(databasePath.resolveSibling(databasePath.getFileName() + suffix));
+        }
+        Files.move(incoming, databasePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private HikariPoolMXBean pool() {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+            }
+        } catch (SQLException e) {
+            log.warn("Failed to access connection pool", e);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,96 @@
+package com.mx.money.service;
+
+import com.mx.money.dto.CsvImportRequest;
+import com.mx.money.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Detecção de linhas de extrato já importadas.
+ * <p>
+ * Cada linha recebe uma impressão digital (SHA-256 de data, valor em centavos,
+ * descrição normalizada e índice de ocorrência) gravada na transação criada.
+ * O índice de ocorrência distingue lançamentos idênticos no mesmo arquivo (dois
+ * cafés de mesmo valor no mesmo dia): reimportar o extrato casa cada um com a
+ * sua ocorrência, em vez de descartar o segundo como cópia do primeiro.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImportFingerprintService {
+
+    /**
+     * Impressões digitais por consulta (abaixo do limite de parâmetros do SQLite)
+     */
+    private static final int LOOKUP_BATCH_SIZE = 900;
+
+    private final TransactionRepository transactionRepository;
+
+    /**
+     * Impressões digitais das linhas, na mesma ordem
+     */
+    public static List<String> fingerprintAll(List<CsvImportRequest> rows) {
+        Map<String, Integer> occurrences = new HashMap<>();
+        List<String> fingerprints = new ArrayList<>(rows.size());
+        for (CsvImportRequest row : rows) {
+            String base = baseKey(row.getDate(), row.getAmount(), row.getDescription());
+            int occurrence = occurrences.merge(base, 1, Integer::sum) - 1;
+            fingerprints.add(sha256(base + "|" + occurrence));
+        }
+        return fingerprints;
+    }
+
+    /**
+     * Marca as linhas cujas impressões digitais já existem no livro-caixa,
+     * consultando o banco em lote para o arquivo inteiro
+     */
+    @Transactional(readOnly = true)
+    public List<Boolean> flagDuplicates(List<CsvImportRequest> rows) {
+        List<String> fingerprints = fingerprintAll(rows);
+        Set<String> existing = findExisting(fingerprints);
+        List<Boolean> duplicates = fingerprints.stream().map(existing::contains).toList();
+        log.info("Duplicate check: {} of {} rows already imported",
+                duplicates.stream().filter(Boolean::booleanValue).count(), rows.size());
+        return duplicates;
+    }
+
+    /**
+     * Subconjunto das impressões digitais que já estão gravadas
+     */
+    @Transactional(readOnly = true)
+    public Set<String> findExisting(Collection<String> fingerprints) {
+        List<String> distinct = List.copyOf(new LinkedHashSet<>(fingerprints));
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < distinct.size(); from += LOOKUP_BATCH_SIZE) {
+            List<String> batch = distinct.subList(from, Math.min(from + LOOKUP_BATCH_SIZE, distinct.size()));
+            existing.addAll(transactionRepository.findExistingImportFingerprints(batch));
+        }
+        return existing;
+    }
+
+    static String baseKey(String date, BigDecimal amount, String description) {
+        String normalizedDate = LocalDate.parse(date.strip()).toString();
+        long cents = amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+        String normalizedDescription = description != null ? KeywordCategoryClassifier.normalize(description) : "";
+        return normalizedDate + "|" + cents + "|" + normalizedDescription;
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
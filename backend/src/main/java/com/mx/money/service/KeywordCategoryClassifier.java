@@ -0,0 +1,238 @@
+package com.mx.money.service;
+
+import com.mx.money.entity.Category;
+import com.mx.money.repository.CategoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+
+/**
+ * Classificador local de descrições por palavra-chave.
+ * <p>
+ * Compila as palavras-chave do categories.md e os nomes das categorias do
+ * usuário em um autômato Aho-Corasick, de modo que cada descrição é varrida
+ * uma única vez independente do número de palavras-chave. Textos são
+ * normalizados (minúsculas, sem acentos, pontuação vira espaço) antes da
+ * compilação e da busca.
+ * <p>
+ * Palavras-chave curtas ("99", "Gás", "Uber") só casam com palavras inteiras;
+ * as demais casam como substring ("Rxfautoposto" → Transporte). Havendo mais
+ * de um casamento vence a palavra-chave mais longa, e no empate a mais à
+ * esquerda.
+ * <p>
+ * O autômato é recompilado sob demanda quando a versão de CATEGORIES muda.
+ */
+@Service
+@Slf4j
+public class KeywordCategoryClassifier {
+
+    /** Palavras-chave menores que isso exigem fronteira de palavra */
+    static final int MIN_SUBSTRING_LENGTH = 5;
+
+    private final CategoryRepository categoryRepository;
+    private final LedgerVersionService ledgerVersionService;
+    private final Map<String, String> knowledgeKeywords;
+
+    private volatile Automaton automaton;
+    private volatile long automatonVersion = -1;
+
+    public KeywordCategoryClassifier(
+            CategoryRepository categoryRepository,
+            LedgerVersionService ledgerVersionService,
+            @Value("classpath:categories.md") Resource categoriesResource) throws IOException {
+        this.categoryRepository = categoryRepository;
+        this.ledgerVersionService = ledgerVersionService;
+        this.knowledgeKeywords = parseKnowledge(categoriesResource.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Retorna a categoria da descrição, ou vazio se nenhuma palavra-chave casar
+     */
+    public Optional<String> classify(String description) {
+        if (description == null || description.isBlank()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(currentAutomaton().match(normalize(description)));
+    }
+
+    private Automaton currentAutomaton() {
+        long version = ledgerVersionService.getVersion(LedgerVersionService.Resource.CATEGORIES);
+        Automaton current = automaton;
+        if (current != null && automatonVersion == version) {
+            return current;
+        }
+        synchronized (this) {
+            if (automaton == null || automatonVersion != version) {
+                automaton = compile();
+                automatonVersion = version;
+            }
+            return automaton;
+        }
+    }
+
+    private Automaton compile() {
+        // Base de conhecimento primeiro: em conflito, a primeira declaração vence
+        Map<String, String> keywords = new LinkedHashMap<>(knowledgeKeywords);
+        for (Category category : categoryRepository.findAll()) {
+            String key = normalize(category.getName());
+            if (!key.isEmpty()) {
+                keywords.putIfAbsent(key, category.getName());
+            }
+        }
+        log.info("Keyword classifier compiled with {} keywords", keywords.size());
+        return new Automaton(keywords);
+    }
+
+    /**
+     * Lê o formato "# Categoria" seguido de "- palavra-chave"
+     */
+    static Map<String, String> parseKnowledge(String content) {
+        Map<String, String> keywords = new LinkedHashMap<>();
+        String category = null;
+        for (String line : content.split("\n")) {
+            String trimmed = line.strip();
+            if (trimmed.startsWith("#")) {
+                category = trimmed.replaceFirst("^#+", "").strip();
+                keywords.putIfAbsent(normalize(category), category);
+            } else if (trimmed.startsWith("-") && category != null) {
+                String key = normalize(trimmed.substring(1));
+                if (!key.isEmpty()) {
+                    keywords.putIfAbsent(key, category);
+                }
+            }
+        }
+        keywords.remove("");
+        return keywords;
+    }
+
+    /**
+     * Minúsculas, sem acentos, apenas letras e dígitos separados por um espaço
+     */
+    static String normalize(String text) {
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase();
+        return folded.replaceAll("[^a-z0-9]+", " ").strip();
+    }
+
+    /**
+     * Autômato Aho-Corasick sobre caracteres. Cada nó guarda a palavra-chave mais
+     * longa que termina nele (direta ou via links de falha) e o link de saída
+     * para a próxima palavra-chave menor que também termina ali.
+     */
+    private static final class Automaton {
+
+        private final List<Map<Character, Integer>> children = new ArrayList<>();
+        private final List<Integer> fail = new ArrayList<>();
+        private final List<Integer> keywordAt = new ArrayList<>();
+        private final List<Integer> outputLink = new ArrayList<>();
+        private final List<String> keywords = new ArrayList<>();
+        private final List<String> categories = new ArrayList<>();
+
+        Automaton(Map<String, String> keywordToCategory) {
+            newNode();
+            keywordToCategory.forEach((keyword, category) -> {
+                int node = 0;
+                for (int i = 0; i < keyword.length(); i++) {
+                    Integer next = children.get(node).get(keyword.charAt(i));
+                    if (next == null) {
+                        next = newNode();
+                        children.get(node).put(keyword.charAt(i), next);
+                    }
+                    node = next;
+                }
+                keywordAt.set(node, keywords.size());
+                keywords.add(keyword);
+                categories.add(category);
+            });
+            buildLinks();
+        }
+
+        private int newNode() {
+            children.add(new HashMap<>());
+            fail.add(0);
+            keywordAt.add(-1);
+            outputLink.add(-1);
+            return children.size() - 1;
+        }
+
+        private void buildLinks() {
+            Queue<Integer> queue = new ArrayDeque<>(children.get(0).values());
+            while (!queue.isEmpty()) {
+                int node = queue.poll();
+                for (Map.Entry<Character, Integer> edge : children.get(node).entrySet()) {
+                    int child = edge.getValue();
+                    int f = fail.get(node);
+                    while (f != 0 && !children.get(f).containsKey(edge.getKey())) {
+                        f = fail.get(f);
+                    }
+                    Integer target = children.get(f).get(edge.getKey());
+                    int childFail = target != null && target != child ? target : 0;
+                    fail.set(child, childFail);
+                    outputLink.set(child, keywordAt.get(childFail) >= 0 ? childFail : outputLink.get(childFail));
+                    queue.add(child);
+                }
+            }
+        }
+
+        /**
+         * Varre o texto normalizado uma vez e retorna a categoria do melhor casamento
+         */
+        String match(String text) {
+            int best = -1;
+            int bestStart = Integer.MAX_VALUE;
+            int node = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                while (node != 0 && !children.get(node).containsKey(c)) {
+                    node = fail.get(node);
+                }
+                node = children.get(node).getOrDefault(c, 0);
+
+                int out = keywordAt.get(node) >= 0 ? node : outputLink.get(node);
+                while (out >= 0) {
+                    int id = keywordAt.get(out);
+                    String keyword = keywords.get(id);
+                    int start = i - keyword.length() + 1;
+                    if (accepts(text, keyword, start, i + 1) && isBetter(id, start, best, bestStart)) {
+                        best = id;
+                        bestStart = start;
+                    }
+                    out = outputLink.get(out);
+                }
+            }
+            return best >= 0 ? categories.get(best) : null;
+        }
+
+        private boolean isBetter(int id, int start, int best, int bestStart) {
+            if (best < 0) {
+                return true;
+            }
+            int length = keywords.get(id).length();
+            int bestLength = keywords.get(best).length();
+            return length > bestLength || (length == bestLength && start < bestStart);
+        }
+
+        private static boolean accepts(String text, String keyword, int start, int end) {
+            if (keyword.length() >= MIN_SUBSTRING_LENGTH) {
+                return true;
+            }
+            boolean leftBoundary = start == 0 || text.charAt(start - 1) == ' ';
+            boolean rightBoundary = end == text.length() || text.charAt(end) == ' ';
+            return leftBoundary && rightBoundary;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.mx.money.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mantém um contador de versão por recurso do livro-caixa (transações,
+ * categorias, memória de categorização), incrementado a cada escrita. Usado
+ * para gerar ETags e responder 304 sem consultar o banco quando nada mudou, e
+ * por backups e exportações para saber se o banco mudou
+ * ({@link Resource#values()}).
+ * <p>
+ * As ETags são fracas (W/): o corpo pode ser comprimido com gzip pelo servidor,
+ * e o Tomcat não comprime respostas com ETag forte. A comparação de
+ * If-None-Match é fraca de qualquer forma, então o 304 não é afetado.
+ * <p>
+ * Os contadores vivem em memória; o prefixo {@code epoch} (instante de
+ * inicialização) garante que ETags emitidas antes de um restart nunca sejam
+ * consideradas válidas.
+ */
+@Service
+public class LedgerVersionService {
+
+    public enum Resource {
+        TRANSACTIONS,
+        CATEGORIES,
+        /** Categorias aprendidas por descrição; não aparece em respostas com ETag */
+        CATEGORIZATION_MEMO
+    }
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Resource, AtomicLong> versions = new EnumMap<>(Resource.class);
+
+    public LedgerVersionService() {
+        for (Resource resource : Resource.values()) {
+            versions.put(resource, new AtomicLong());
+        }
+    }
+
+    /**
+     * Marca os recursos como alterados. Dentro de uma transação, o incremento só
+     * ocorre após o commit, para que nenhuma leitura concorrente associe a nova
+     * versão a dados ainda não confirmados.
+     */
+    public void markChanged(Resource... resources) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    increment(resources);
+                }
+            });
+        } else {
+            increment(resources);
+        }
+    }
+
+    /**
+     * Marca todos os recursos como alterados (restore/import do banco)
+     */
+    public void markAllChanged() {
+        markChanged(Resource.values());
+    }
+
+    public long getVersion(Resource resource) {
+        return versions.get(resource).get();
+    }
+
+    /**
+     * ETag para uma resposta que depende dos recursos informados
+     */
+    public String etag(Resource... resources) {
+        return "W/\"" + versionKey(resources) + "\"";
+    }
+
+    /**
+     * ETag para uma resposta que depende também da data atual (saldo e projeção
+     * mudam na virada do dia mesmo sem escritas)
+     */
+    public String etag(LocalDate asOf, Resource... resources) {
+        return "W/\"" + versionKey(resources) + "-" + asOf + "\"";
+    }
+
+    private String versionKey(Resource... resources) {
+        StringBuilder sb = new StringBuilder(epoch);
+        for (Resource resource : resources) {
+            sb.append('-').append(Character.toLowerCase(resource.name().charAt(0)))
+                    .append(getVersion(resource));
+        }
+        return sb.toString();
+    }
+
+    private void increment(Resource... resources) {
+        for (Resource resource : resources) {
+            versions.get(resource).incrementAndGet();
+        }
+    }
+}
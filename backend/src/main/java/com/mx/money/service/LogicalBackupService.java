@@ -0,0 +1,414 @@
+package com.mx.money.service;
+
+import com.mx.money.dto.BackupManifest;
+import com.mx.money.dto.LogicalTableManifest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Backups lógicos: o conteúdo das tabelas, não o arquivo SQLite.
+ * <p>
+ * Cada tabela é lida por cursor a partir de uma cópia consistente do banco e
+ * gravada em blocos de {@value #CHUNK_ROWS} linhas NDJSON (uma linha JSON em
+ * array por registro, colunas na ordem do manifesto), cada bloco uma entrada
+ * comprimida do ZIP com seu SHA-256 no manifesto. Tabelas derivadas (agregados
+ * mensais) ficam de fora e são reconstruídas após o restore.
+ * <p>
+ * No restore os blocos são descomprimidos e interpretados em paralelo, enquanto
+ * uma única conexão (o SQLite tem um único escritor) insere em lotes, na ordem,
+ * dentro de uma transação. As colunas são casadas por nome com o schema de
+ * destino, então backups de versões anteriores ou posteriores do schema podem
+ * ser restaurados, e é possível restaurar só algumas tabelas.
+ */
+@Service
+@Slf4j
+public class LogicalBackupService {
+
+    public static final String EXTENSION = ".ndjson.zip";
+    public static final int FORMAT_VERSION = 1;
+
+    static final String MANIFEST_ENTRY = "manifest.json";
+    static final int CHUNK_ROWS = 20_000;
+
+    private static final int INSERT_BATCH = 1_000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Tabelas reconstruídas a partir das transações, não exportadas
+     */
+    private static final Set<String> DERIVED_TABLES = Set.of("monthly_rollups");
+
+    private final ObjectMapper objectMapper;
+    private final int restoreThreads;
+
+    public LogicalBackupService(ObjectMapper objectMapper,
+            @Value("${backup.logical.restore-threads:4}") int restoreThreads) {
+        this.objectMapper = objectMapper;
+        this.restoreThreads = Math.max(1, restoreThreads);
+    }
+
+    /**
+     * Exporta as tabelas do banco para {@code archive}
+     *
+     * @param database Cópia consistente do banco (não o arquivo em uso)
+     */
+    public BackupManifest write(Path database, Path archive) throws IOException {
+        BackupManifest manifest = BackupArchiveService.inspect(database);
+        manifest.setFormatVersion(FORMAT_VERSION);
+        manifest.setDatabaseSize(Files.size(database));
+        Map<String, LogicalTableManifest> tables = new LinkedHashMap<>();
+
+        Path temp = archive.resolveSibling(archive.getFileName() + ".tmp");
+        try {
+            try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + database.toAbsolutePath());
+                    ZipOutputStream zip = new ZipOutputStream(
+                            new BufferedOutputStream(Files.newOutputStream(temp), BUFFER_SIZE))) {
+                zip.setLevel(6);
+                for (String table : listTables(connection)) {
+                    if (!DERIVED_TABLES.contains(table)) {
+                        tables.put(table, writeTable(connection, table, zip));
+                    }
+                }
+                manifest.setTables(tables);
+                zip.putNextEntry(new ZipEntry(MANIFEST_ENTRY));
+                zip.write(objectMapper.writeValueAsBytes(manifest));
+                zip.closeEntry();
+            } catch (SQLException e) {
+                throw new IOException("Falha ao exportar o banco: " + e.getMessage(), e);
+            }
+            Files.move(temp, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        log.info("Logical backup {}: {} tables -> {} bytes", archive.getFileName(), tables.size(),
+                Files.size(archive));
+        return manifest;
+    }
+
+    private LogicalTableManifest writeTable(Connection connection, String table, ZipOutputStream zip)
+            throws SQLException, IOException {
+        List<String> chunks = new ArrayList<>();
+        List<String> hashes = new ArrayList<>();
+        List<String> columns = new ArrayList<>();
+        ByteArrayOutputStream chunk = new ByteArrayOutputStream(BUFFER_SIZE);
+        long rows = 0;
+
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT * FROM " + quote(table))) {
+            ResultSetMetaData meta = rs.getMetaData();
+            for (int i = 1; i <= meta.getColumnCount(); i++) {
+                columns.add(meta.getColumnName(i));
+            }
+            Object[] values = new Object[columns.size()];
+            int inChunk = 0;
+            while (rs.next()) {
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = rs.getObject(i + 1);
+                }
+                chunk.write(objectMapper.writeValueAsBytes(values));
+                chunk.write('\n');
+                rows++;
+                if (++inChunk == CHUNK_ROWS) {
+                    writeChunk(zip, table, chunk, chunks, hashes);
+                    inChunk = 0;
+                }
+            }
+            if (inChunk > 0) {
+                writeChunk(zip, table, chunk, chunks, hashes);
+            }
+        }
+        return LogicalTableManifest.builder()
+                .columns(columns)
+                .rowCount(rows)
+                .chunks(chunks)
+                .chunkSha256(hashes)
+                .build();
+    }
+
+    private static void writeChunk(ZipOutputStream zip, String table, ByteArrayOutputStream chunk,
+            List<String> chunks, List<String> hashes) throws IOException {
+        String name = table + "/" + String.format("%05d", chunks.size()) + ".ndjson";
+        MessageDigest digest = BackupArchiveService.sha256();
+        digest.update(chunk.toByteArray());
+        zip.putNextEntry(new ZipEntry(name));
+        chunk.writeTo(zip);
+        zip.closeEntry();
+        chunks.add(name);
+        hashes.add(HexFormat.of().formatHex(digest.digest()));
+        chunk.reset();
+    }
+
+    /**
+     * Lê apenas o manifesto
+     */
+    public BackupManifest readManifest(Path archive) throws IOException {
+        try (ZipFile zip = new ZipFile(archive.toFile())) {
+            return readManifest(zip, archive);
+        }
+    }
+
+    private BackupManifest readManifest(ZipFile zip, Path archive) throws IOException {
+        ZipEntry entry = zip.getEntry(MANIFEST_ENTRY);
+        if (entry == null) {
+            throw new IOException("Backup sem manifesto: " + archive.getFileName());
+        }
+        BackupManifest manifest;
+        try (InputStream in = zip.getInputStream(entry)) {
+            manifest = objectMapper.readValue(in, BackupManifest.class);
+        } catch (JacksonException e) {
+            throw new IOException("Manifesto inválido: " + archive.getFileName(), e);
+        }
+        if (manifest.getTables() == null) {
+            throw new IOException("Backup não é lógico: " + archive.getFileName());
+        }
+        return manifest;
+    }
+
+    /**
+     * Lê todos os blocos conferindo SHA-256 e número de linhas, sem gravar nada
+     *
+     * @throws IOException se o arquivo estiver corrompido
+     */
+    public BackupManifest verify(Path archive) throws IOException {
+        try (ZipFile zip = new ZipFile(archive.toFile())) {
+            BackupManifest manifest = readManifest(zip, archive);
+            for (Map.Entry<String, LogicalTableManifest> table : manifest.getTables().entrySet()) {
+                LogicalTableManifest tm = table.getValue();
+                long rows = 0;
+                for (int i = 0; i < tm.getChunks().size(); i++) {
+                    rows += decodeChunk(zip, tm, i).size();
+                }
+                if (rows != tm.getRowCount()) {
+                    throw new IOException("Backup corrompido: " + table.getKey() + " tem " + rows
+                            + " linhas, esperado " + tm.getRowCount());
+                }
+            }
+            return manifest;
+        } catch (ZipException e) {
+            throw new IOException("Backup corrompido: " + archive.getFileName() + " (" + e.getMessage() + ")", e);
+        }
+    }
+
+    /**
+     * Substitui o conteúdo das tabelas de {@code target} pelo do backup.
+     * <p>
+     * {@code target} deve ser um arquivo descartável com o schema atual (em geral
+     * uma cópia do banco em uso): a carga roda sem journal, então uma falha no
+     * meio deixa o arquivo inconsistente. Tabelas fora da seleção, ou ausentes no
+     * backup, ficam como estão; colunas que só existem no destino recebem NULL
+     * (ou o default) e colunas que só existem no backup são ignoradas.
+     *
+     * @param tables Tabelas a restaurar, ou vazio para todas as do backup
+     * @return Linhas restauradas por tabela
+     * @throws IllegalArgumentException se uma tabela pedida não estiver no backup
+     */
+    public Map<String, Long> restore(Path archive, Path target, Collection<String> tables) throws IOException {
+        long start = System.currentTimeMillis();
+        Map<String, Long> restored = new LinkedHashMap<>();
+        ExecutorService decoders = Executors.newFixedThreadPool(restoreThreads, decoderThreadFactory());
+        try (ZipFile zip = new ZipFile(archive.toFile());
+                Connection connection = DriverManager.getConnection("jdbc:sqlite:" + target.toAbsolutePath())) {
+            BackupManifest manifest = readManifest(zip, archive);
+            List<String> selected = tables == null || tables.isEmpty()
+                    ? List.copyOf(manifest.getTables().keySet())
+                    : List.copyOf(tables);
+            for (String table : selected) {
+                if (!manifest.getTables().containsKey(table)) {
+                    throw new IllegalArgumentException("Table not in backup: " + table);
+                }
+            }
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA journal_mode = OFF");
+                statement.execute("PRAGMA synchronous = OFF");
+            }
+            connection.setAutoCommit(false);
+            Set<String> existing = new HashSet<>(listTables(connection));
+            for (String table : selected) {
+                if (!existing.contains(table)) {
+                    log.warn("Table {} is not in the current schema, skipped", table);
+                    continue;
+                }
+                restored.put(table, loadTable(zip, connection, table, manifest.getTables().get(table), decoders));
+            }
+            if (existing.contains("transactions") && existing.contains("categories")) {
+                detachMissingCategories(connection);
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            throw new IOException("Falha ao restaurar o backup lógico: " + e.getMessage(), e);
+        } finally {
+            decoders.shutdownNow();
+        }
+        log.info("Logical restore of {} finished in {} ms: {}", archive.getFileName(),
+                System.currentTimeMillis() - start, restored);
+        return restored;
+    }
+
+    /**
+     * Descomprime até 2x o número de threads blocos à frente e insere na ordem
+     */
+    private long loadTable(ZipFile zip, Connection connection, String table, LogicalTableManifest tm,
+            ExecutorService decoders) throws SQLException, IOException {
+        List<String> targetColumns = columns(connection, table);
+        List<Integer> sourceIndexes = new ArrayList<>();
+        List<String> insertColumns = new ArrayList<>();
+        for (int i = 0; i < tm.getColumns().size(); i++) {
+            if (targetColumns.contains(tm.getColumns().get(i))) {
+                sourceIndexes.add(i);
+                insertColumns.add(quote(tm.getColumns().get(i)));
+            }
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DELETE FROM " + quote(table));
+        }
+        if (insertColumns.isEmpty()) {
+            return 0;
+        }
+        String sql = "INSERT INTO " + quote(table) + " (" + String.join(", ", insertColumns) + ") VALUES ("
+                + String.join(", ", Collections.nCopies(insertColumns.size(), "?")) + ")";
+
+        long rows = 0;
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            Deque<Future<List<Object[]>>> window = new ArrayDeque<>();
+            int next = 0;
+            int pending = 0;
+            while (next < tm.getChunks().size() || !window.isEmpty()) {
+                while (next < tm.getChunks().size() && window.size() < restoreThreads * 2) {
+                    int index = next++;
+                    window.add(decoders.submit(() -> decodeChunk(zip, tm, index)));
+                }
+                for (Object[] row : await(window.poll())) {
+                    for (int i = 0; i < sourceIndexes.size(); i++) {
+                        int source = sourceIndexes.get(i);
+                        insert.setObject(i + 1, source < row.length ? row[source] : null);
+                    }
+                    insert.addBatch();
+                    rows++;
+                    if (++pending == INSERT_BATCH) {
+                        insert.executeBatch();
+                        pending = 0;
+                    }
+                }
+            }
+            if (pending > 0) {
+                insert.executeBatch();
+            }
+        }
+        if (rows != tm.getRowCount()) {
+            throw new IOException("Backup corrompido: " + table + " tem " + rows + " linhas, esperado "
+                    + tm.getRowCount());
+        }
+        return rows;
+    }
+
+    private List<Object[]> decodeChunk(ZipFile zip, LogicalTableManifest tm, int index) throws IOException {
+        String name = tm.getChunks().get(index);
+        ZipEntry entry = zip.getEntry(name);
+        if (entry == null) {
+            throw new IOException("Backup corrompido: bloco ausente " + name);
+        }
+        MessageDigest digest = BackupArchiveService.sha256();
+        List<Object[]> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new DigestInputStream(zip.getInputStream(entry), digest), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                rows.add(objectMapper.readValue(line, Object[].class));
+            }
+        } catch (JacksonException e) {
+            throw new IOException("Backup corrompido: linha inválida em " + name, e);
+        }
+        if (!HexFormat.of().formatHex(digest.digest()).equals(tm.getChunkSha256().get(index))) {
+            throw new IOException("Backup corrompido: checksum do bloco " + name + " não confere");
+        }
+        return rows;
+    }
+
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Restore interrompido", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Falha ao ler o backup: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Restaurar só as categorias pode remover categorias ainda usadas
+     */
+    private static void detachMissingCategories(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            int detached = statement.executeUpdate("UPDATE transactions SET category_id = NULL "
+                    + "WHERE category_id IS NOT NULL AND category_id NOT IN (SELECT id FROM categories)");
+            if (detached > 0) {
+                log.info("Detached {} transactions from categories missing after restore", detached);
+            }
+        }
+    }
+
+    private static List<String> listTables(Connection connection) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery(
+                        "SELECT name FROM sqlite_master WHERE type = 'table' AND name NOT LIKE 'sqlite_%' ORDER BY name")) {
+            while (rs.next()) {
+                tables.add(rs.getString(1));
+            }
+        }
+        return tables;
+    }
+
+    private static List<String> columns(Connection connection, String table) throws SQLException {
+        List<String> columns = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("PRAGMA table_info(" + quote(table) + ")")) {
+            while (rs.next()) {
+                columns.add(rs.getString("name"));
+            }
+        }
+        return columns;
+    }
+
+    private static String quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    private static ThreadFactory decoderThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "logical-restore-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,215 @@
+package com.mx.money.service;
+
+import com.mx.money.dto.DailyCategoryTotal;
+import com.mx.money.dto.RollupResponse;
+import com.mx.money.entity.Category;
+import com.mx.money.entity.MonthlyRollup;
+import com.mx.money.entity.Transaction;
+import com.mx.money.entity.TransactionType;
+import com.mx.money.repository.CategoryRepository;
+import com.mx.money.repository.MonthlyRollupRepository;
+import com.mx.money.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Mantém a tabela de agregados mensais (mês × categoria × tipo) usada por
+ * relatórios e gráficos, para que as visões agregadas leiam algumas centenas de
+ * linhas em vez de varrer todas as transações.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MonthlyRollupService {
+
+    /**
+     * Dimensões aceitas no parâmetro groupBy
+     */
+    public static final Set<String> DIMENSIONS = Set.of("month", "category", "type");
+
+    private static final String NO_CATEGORY_NAME = "Sem categoria";
+
+    private final MonthlyRollupRepository monthlyRollupRepository;
+    private final TransactionRepository transactionRepository;
+    private final CategoryRepository categoryRepository;
+
+    /**
+     * Soma uma transação recém-criada aos agregados
+     */
+    @Transactional
+    public void add(Transaction transaction) {
+        apply(transaction, 1);
+    }
+
+    /**
+     * Remove uma transação (excluída ou com valores antigos antes de uma edição)
+     * dos agregados
+     */
+    @Transactional
+    public void subtract(Transaction transaction) {
+        apply(transaction, -1);
+    }
+
+    /**
+     * Soma várias transações, consolidando por chave antes de escrever (uma
+     * escrita por mês/categoria/tipo em vez de uma por transação)
+     */
+    @Transactional
+    public void addAll(Collection<Transaction> transactions) {
+        Map<Key, Delta> deltas = new HashMap<>();
+        for (Transaction t : transactions) {
+            deltas.computeIfAbsent(Key.of(t), k -> new Delta()).add(t.getAmount(), 1);
+        }
+        deltas.forEach(this::write);
+    }
+
+    /**
+     * Retira dos agregados totais já consolidados por dia, categoria e tipo
+     * (transações excluídas em lote)
+     */
+    @Transactional
+    public void subtractTotals(Collection<DailyCategoryTotal> totals) {
+        Map<Key, Delta> deltas = new HashMap<>();
+        for (DailyCategoryTotal total : totals) {
+            Key key = new Key(YearMonth.from(total.getDate()).toString(),
+                    total.getCategoryId() != null ? total.getCategoryId() : MonthlyRollup.NO_CATEGORY,
+                    total.getType());
+            deltas.computeIfAbsent(key, k -> new Delta()).add(total.getTotal().negate(), -total.getCount());
+        }
+        deltas.forEach(this::write);
+    }
+
+    /**
+     * Reconstrói todos os agregados a partir da tabela de transações
+     *
+     * @return Número de linhas de agregado geradas
+     */
+    @Transactional
+    public int rebuild() {
+        Map<Key, Delta> deltas = new HashMap<>();
+        for (DailyCategoryTotal total : transactionRepository.sumByDayCategoryAndType()) {
+            Key key = new Key(YearMonth.from(total.getDate()).toString(),
+                    total.getCategoryId() != null ? total.getCategoryId() : MonthlyRollup.NO_CATEGORY,
+                    total.getType());
+            deltas.computeIfAbsent(key, k -> new Delta()).add(total.getTotal(), total.getCount());
+        }
+
+        monthlyRollupRepository.deleteAllInBatch();
+        monthlyRollupRepository.saveAll(deltas.entrySet().stream()
+                .map(e -> MonthlyRollup.builder()
+                        .month(e.getKey().month())
+                        .categoryId(e.getKey().categoryId())
+                        .type(e.getKey().type())
+                        .totalAmount(e.getValue().amount)
+                        .txCount(e.getValue().count)
+                        .build())
+                .toList());
+
+        log.info("Monthly rollup rebuilt: {} rows", deltas.size());
+        return deltas.size();
+    }
+
+    /**
+     * Consulta os agregados de um intervalo de meses, agrupando pelas dimensões
+     * informadas
+     *
+     * @param from    Mês inicial (inclusive), ou null para desde o início
+     * @param to      Mês final (inclusive), ou null para até o fim
+     * @param groupBy Subconjunto de {@link #DIMENSIONS}
+     */
+    @Transactional(readOnly = true)
+    public List<RollupResponse> query(YearMonth from, YearMonth to, Set<String> groupBy) {
+        if (!DIMENSIONS.containsAll(groupBy)) {
+            throw new IllegalArgumentException("groupBy inválido (use month, category e/ou type): " + groupBy);
+        }
+        boolean byMonth = groupBy.contains("month");
+        boolean byCategory = groupBy.contains("category");
+        boolean byType = groupBy.contains("type");
+
+        List<MonthlyRollup> rows = monthlyRollupRepository.findInRange(
+                from != null ? from.toString() : "0000-00",
+                to != null ? to.toString() : "9999-99");
+
+        Map<Long, Category> categories = byCategory
+                ? categoryRepository.findAll().stream().collect(Collectors.toMap(Category::getId, Function.identity()))
+                : Map.of();
+
+        Map<Key, Delta> grouped = new LinkedHashMap<>();
+        for (MonthlyRollup row : rows) {
+            Key key = new Key(
+                    byMonth ? row.getMonth() : null,
+                    byCategory ? row.getCategoryId() : null,
+                    byType ? row.getType() : null);
+            grouped.computeIfAbsent(key, k -> new Delta()).add(row.getTotalAmount(), row.getTxCount());
+        }
+
+        List<RollupResponse> responses = new ArrayList<>(grouped.size());
+        grouped.forEach((key, delta) -> {
+            RollupResponse.RollupResponseBuilder response = RollupResponse.builder()
+                    .month(key.month())
+                    .type(key.type())
+                    .total(delta.amount)
+                    .count(delta.count);
+            if (byCategory) {
+                Category category = categories.get(key.categoryId());
+                response.categoryId(key.categoryId() != MonthlyRollup.NO_CATEGORY ? key.categoryId() : null)
+                        .categoryName(category != null ? category.getName() : NO_CATEGORY_NAME)
+                        .categoryColor(category != null ? category.getColor() : null);
+            }
+            responses.add(response.build());
+        });
+        return responses;
+    }
+
+    private void apply(Transaction transaction, int sign) {
+        BigDecimal amount = sign > 0 ? transaction.getAmount() : transaction.getAmount().negate();
+        Delta delta = new Delta();
+        delta.add(amount, sign);
+        write(Key.of(transaction), delta);
+    }
+
+    private void write(Key key, Delta delta) {
+        int updated = monthlyRollupRepository.increment(key.month(), key.categoryId(), key.type(), delta.amount,
+                delta.count);
+        if (updated == 0) {
+            monthlyRollupRepository.save(MonthlyRollup.builder()
+                    .month(key.month())
+                    .categoryId(key.categoryId())
+                    .type(key.type())
+                    .totalAmount(delta.amount)
+                    .txCount(delta.count)
+                    .build());
+        }
+    }
+
+    /**
+     * Chave do agregado (campos nulos = dimensão consolidada)
+     */
+    private record Key(String month, Long categoryId, TransactionType type) {
+
+        static Key of(Transaction t) {
+            LocalDate date = t.getEffectiveDate();
+            Long categoryId = t.getCategory() != null ? t.getCategory().getId() : MonthlyRollup.NO_CATEGORY;
+            return new Key(YearMonth.from(date).toString(), categoryId, t.getType());
+        }
+    }
+
+    private static class Delta {
+        private BigDecimal amount = BigDecimal.ZERO;
+        private long count;
+
+        void add(BigDecimal value, long n) {
+            amount = amount.add(value);
+            count += n;
+        }
+    }
+}
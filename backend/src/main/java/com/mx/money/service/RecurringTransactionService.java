@@ -24,6 +24,9 @@ public class RecurringTransactionService {
     private static final Logger log = LoggerFactory.getLogger(RecurringTransactionService.class);
 
     private final TransactionRepository transactionRepository;
+    private final LedgerVersionService ledgerVersionService;
+    private final MonthlyRollupService monthlyRollupService;
+    private final ChangeJournalService changeJournalService;
 
     /**
      * Executa diariamente à meia-noite para gerar transações recorrentes
@@ -48,6 +51,7 @@ public class RecurringTransactionService {
                 .toList();
 
         List<Transaction> toCreate = new ArrayList<>();
+        String batchId = TransactionBatchService.newBatchId(TransactionBatchService.RECURRING);
 
         for (Transaction template : recurring) {
             List<LocalDate> newDates = getNewOccurrences(template, today);
@@ -61,6 +65,7 @@ public class RecurringTransactionService {
                         .recurrence(RecurrenceType.NONE) // Transação gerada não é recorrente
                         .category(template.getCategory())
                         .parentRecurringId(template.getId())
+                        .batchId(batchId)
                         .build();
                 toCreate.add(generated);
             }
@@ -69,11 +74,16 @@ public class RecurringTransactionService {
             if (!newDates.isEmpty()) {
                 template.setLastGeneratedDate(newDates.getLast());
                 transactionRepository.save(template);
+                changeJournalService.recordChanged(ChangeJournalService.TRANSACTIONS, template.getId());
             }
         }
 
         if (!toCreate.isEmpty()) {
             transactionRepository.saveAll(toCreate);
+            changeJournalService.recordChanged(ChangeJournalService.TRANSACTIONS,
+                    toCreate.stream().map(Transaction::getId).toList());
+            monthlyRollupService.addAll(toCreate);
+            ledgerVersionService.markChanged(LedgerVersionService.Resource.TRANSACTIONS);
             log.info("Generated {} transactions from recurring templates", toCreate.size());
         }
 
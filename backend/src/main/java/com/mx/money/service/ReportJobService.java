@@ -0,0 +1,291 @@
+package com.mx.money.service;
+
+import com.mx.money.dto.ReportAnalysisResponse;
+import com.mx.money.dto.ReportJobResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fila de geração de relatórios com IA. Todas as chamadas ao modelo passam por
+ * um executor com concorrência e fila limitadas, para que várias abas/usuários
+ * não saturem o Ollama local.
+ * <p>
+ * Pedidos idênticos (mesmo idioma e mesma versão do livro-caixa) enquanto um job
+ * ainda está ativo reaproveitam esse job em vez de iniciar outra geração. Cada
+ * pedido conta como um interessado; o job só é cancelado quando o último
+ * interessado cancela ou desconecta.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReportJobService {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        DONE,
+        FAILED,
+        CANCELLED
+    }
+
+    /**
+     * Por quanto tempo jobs finalizados continuam consultáveis
+     */
+    private static final Duration RETENTION = Duration.ofMinutes(15);
+
+    private final ReportService reportService;
+    private final LedgerVersionService ledgerVersionService;
+
+    @Value("${reports.max-concurrent-jobs:1}")
+    private int maxConcurrentJobs = 1;
+
+    @Value("${reports.queue-capacity:8}")
+    private int queueCapacity = 8;
+
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(maxConcurrentJobs, maxConcurrentJobs, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "report-job-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Enfileira a geração da análise, ou devolve o job ativo equivalente
+     *
+     * @throws RejectedExecutionException se a fila estiver cheia
+     */
+    public synchronized ReportJob submit(String language) {
+        evictExpired();
+
+        String key = language + "|" + ledgerVersionService.etag(
+                LedgerVersionService.Resource.TRANSACTIONS, LedgerVersionService.Resource.CATEGORIES);
+
+        for (ReportJob job : jobs.values()) {
+            if (job.key.equals(key) && !job.isFinished()) {
+                job.subscribers.incrementAndGet();
+                log.info("Report job {} coalesced ({} subscribers)", job.id, job.subscribers.get());
+                return job;
+            }
+        }
+
+        ReportJob job = new ReportJob(UUID.randomUUID().toString(), language, key);
+        job.future = executor.submit(() -> run(job));
+        jobs.put(job.id, job);
+        log.info("Report job {} queued ({} waiting)", job.id, executor.getQueue().size());
+        return job;
+    }
+
+    public ReportJob get(String id) {
+        ReportJob job = jobs.get(id);
+        if (job == null) {
+            throw new EntityNotFoundException("Job de relatório não encontrado: " + id);
+        }
+        return job;
+    }
+
+    /**
+     * Retira um interessado do job; sem interessados restantes, interrompe a
+     * geração (se ainda estiver na fila ou rodando)
+     */
+    public ReportJob cancel(String id) {
+        ReportJob job = get(id);
+        release(job);
+        return job;
+    }
+
+    /**
+     * Trechos do job obtido via {@link #submit(String)} (os já emitidos e os
+     * próximos). Desconectar o cliente conta como cancelamento deste interessado.
+     */
+    public Flux<ReportAnalysisResponse> stream(ReportJob job) {
+        return job.sink.asFlux().doOnCancel(() -> release(job));
+    }
+
+    /**
+     * Acompanha um job existente como novo interessado
+     */
+    public Flux<ReportAnalysisResponse> follow(String id) {
+        ReportJob job = get(id);
+        job.subscribers.incrementAndGet();
+        return stream(job);
+    }
+
+    /**
+     * Aguarda o fim do job e devolve a análise completa
+     */
+    public ReportAnalysisResponse await(ReportJob job) throws InterruptedException {
+        try {
+            job.future.get();
+        } catch (CancellationException | ExecutionException e) {
+            // estado final já registrado no job
+        }
+        if (job.status != Status.DONE) {
+            throw new IllegalStateException(job.errorMessage != null ? job.errorMessage : "Job " + job.status);
+        }
+        return ReportAnalysisResponse.builder()
+                .analysis(job.text())
+                .generatedAt(job.generatedAt)
+                .success(true)
+                .cached(job.cached)
+                .build();
+    }
+
+    private void release(ReportJob job) {
+        if (job.subscribers.decrementAndGet() > 0) {
+            return;
+        }
+        // Marca antes de interromper, para que a thread interrompida não registre FAILED
+        if (job.finish(Status.CANCELLED, "Geração cancelada")) {
+            job.future.cancel(true);
+            // Cancelado ainda na fila, o job ocuparia a vaga até um worker retirá-lo
+            executor.purge();
+            log.info("Report job {} cancelled", job.id);
+        }
+    }
+
+    private void run(ReportJob job) {
+        if (!job.start()) {
+            return;
+        }
+        try {
+            // blockLast responde à interrupção cancelando a assinatura (e a chamada ao modelo)
+            reportService.streamFinancialAnalysis(job.language)
+                    .doOnNext(job::emit)
+                    .blockLast();
+            job.finish(Status.DONE, null);
+        } catch (Exception e) {
+            if (job.finish(Status.FAILED, e.getMessage())) {
+                log.error("Report job {} failed", job.id, e);
+            }
+        }
+    }
+
+    private void evictExpired() {
+        LocalDateTime limit = LocalDateTime.now().minus(RETENTION);
+        jobs.values().removeIf(job -> job.isFinished() && job.finishedAt.isBefore(limit));
+    }
+
+    /**
+     * Job de geração. O texto e o estado são atualizados pela thread do executor
+     * e lidos pelas requisições de consulta.
+     */
+    public static class ReportJob {
+
+        @Getter
+        private final String id;
+        @Getter
+        private final String language;
+        private final String key;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final AtomicInteger subscribers = new AtomicInteger(1);
+        private final StringBuilder text = new StringBuilder();
+        private final Sinks.Many<ReportAnalysisResponse> sink = Sinks.many().replay().all();
+
+        @Getter
+        private volatile Status status = Status.QUEUED;
+        private volatile LocalDateTime finishedAt;
+        private volatile String generatedAt;
+        private volatile boolean cached;
+        private volatile String errorMessage;
+        private Future<?> future;
+
+        ReportJob(String id, String language, String key) {
+            this.id = id;
+            this.language = language;
+            this.key = key;
+        }
+
+        public boolean isFinished() {
+            return status == Status.DONE || status == Status.FAILED || status == Status.CANCELLED;
+        }
+
+        public synchronized String text() {
+            return text.toString();
+        }
+
+        synchronized boolean start() {
+            if (status != Status.QUEUED) {
+                return false;
+            }
+            status = Status.RUNNING;
+            return true;
+        }
+
+        synchronized void emit(ReportAnalysisResponse part) {
+            if (isFinished()) {
+                return;
+            }
+            if (part.getGeneratedAt() != null) {
+                generatedAt = part.getGeneratedAt();
+                cached = part.isCached();
+            } else if (part.getAnalysis() != null) {
+                text.append(part.getAnalysis());
+            }
+            sink.tryEmitNext(part);
+        }
+
+        /**
+         * Registra o estado final (apenas a primeira transição vale)
+         */
+        synchronized boolean finish(Status finalStatus, String error) {
+            if (isFinished()) {
+                return false;
+            }
+            status = finalStatus;
+            errorMessage = error;
+            finishedAt = LocalDateTime.now();
+            if (finalStatus == Status.DONE) {
+                sink.tryEmitComplete();
+            } else {
+                sink.tryEmitError(finalStatus == Status.CANCELLED
+                        ? new CancellationException(error)
+                        : new IllegalStateException(error));
+            }
+            return true;
+        }
+
+        public ReportJobResponse toResponse() {
+            DateTimeFormatter fmt = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+            return ReportJobResponse.builder()
+                    .id(id)
+                    .status(status)
+                    .language(language)
+                    .analysis(text())
+                    .generatedAt(generatedAt)
+                    .cached(cached)
+                    .errorMessage(errorMessage)
+                    .createdAt(createdAt.format(fmt))
+                    .finishedAt(finishedAt != null ? finishedAt.format(fmt) : null)
+                    .build();
+        }
+    }
+}
@@ -1,20 +1,34 @@
 package com.mx.money.service;
 
-import com.mx.money.entity.Transaction;
+import com.mx.money.dto.CategoryTypeTotal;
+import com.mx.money.dto.LedgerStats;
+import com.mx.money.dto.ReportAnalysisResponse;
+import com.mx.money.entity.ReportAnalysisCache;
+import com.mx.money.entity.TransactionType;
+import com.mx.money.repository.ReportAnalysisCacheRepository;
 import com.mx.money.repository.TransactionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
 import java.math.RoundingMode;
 import java.time.temporal.ChronoUnit;
-import java.util.stream.Collectors;
 
 /**
  * Service para geração de relatórios financeiros com IA
@@ -24,84 +38,140 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ReportService {
 
+    /**
+     * Quantidade máxima de análises mantidas em cache
+     */
+    private static final int MAX_CACHED_ANALYSES = 20;
+
     private final TransactionRepository transactionRepository;
+    private final ReportAnalysisCacheRepository reportAnalysisCacheRepository;
     private final ChatClient.Builder chatClientBuilder;
 
+    @Value("${spring.ai.ollama.chat.options.model:${spring.ai.ollama.chat.model:}}")
+    private String model;
+
+    @Value("${spring.ai.ollama.chat.options.temperature:}")
+    private String temperature;
+
     /**
-     * Gera uma análise financeira usando IA com base nas transações
+     * Gera uma análise financeira usando IA com base nas transações, emitindo os
+     * trechos conforme o modelo os produz. Os elementos intermediários trazem
+     * apenas o trecho em analysis; o último traz generatedAt e cached.
+     * <p>
+     * Se o mesmo prompt (resumo + idioma + modelo) já foi respondido, devolve a
+     * análise guardada com o generatedAt original, sem chamar o modelo. O
+     * cancelamento da assinatura interrompe a chamada ao modelo, e só respostas
+     * completas vão para o cache. Chamado pelos jobs de {@link ReportJobService}.
      */
-    public String generateFinancialAnalysis(String language) {
+    public Flux<ReportAnalysisResponse> streamFinancialAnalysis(String language) {
         log.info("Generating financial analysis report...");
 
-        List<Transaction> transactions = transactionRepository.findAll();
+        LedgerStats stats = transactionRepository.summarizeLedger();
+
+        if (stats.getCount() == 0) {
+            return Flux.just(
+                    chunk(language.equals("pt-BR")
+                            ? "Não há transações suficientes para gerar uma análise. Adicione algumas transações primeiro."
+                            : "Not enough transactions to generate an analysis. Add some transactions first."),
+                    completion(LocalDateTime.now(), false));
+        }
+
+        String prompt = buildAnalysisPrompt(buildFinancialSummary(stats, language), language);
+        String fingerprint = fingerprint(prompt);
 
-        if (transactions.isEmpty()) {
-            return language.equals("pt-BR")
-                    ? "Não há transações suficientes para gerar uma análise. Adicione algumas transações primeiro."
-                    : "Not enough transactions to generate an analysis. Add some transactions first.";
+        ReportAnalysisCache cached = reportAnalysisCacheRepository.findById(fingerprint).orElse(null);
+        if (cached != null) {
+            log.info("Financial analysis served from cache ({})", fingerprint.substring(0, 12));
+            return Flux.just(chunk(cached.getAnalysis()), completion(cached.getGeneratedAt(), true));
         }
 
-        // Agrupa dados para análise
-        String financialSummary = buildFinancialSummary(transactions, language);
-        String prompt = buildAnalysisPrompt(financialSummary, language);
+        StringBuilder full = new StringBuilder();
+        return chatClientBuilder.build().prompt()
+                .user(prompt)
+                .stream()
+                .content()
+                .doOnNext(full::append)
+                .map(this::chunk)
+                // Gravação no SQLite é bloqueante: sai da thread de I/O do cliente HTTP
+                .concatWith(Mono.fromCallable(() -> {
+                    log.info("Financial analysis streamed successfully");
+                    return completion(store(fingerprint, language, full.toString()).getGeneratedAt(), false);
+                }).subscribeOn(Schedulers.boundedElastic()))
+                .doOnCancel(() -> log.info("Financial analysis stream cancelled by client"));
+    }
+
+    private ReportAnalysisResponse chunk(String text) {
+        return ReportAnalysisResponse.builder().analysis(text).success(true).build();
+    }
 
-        log.debug("Sending prompt to LLM: {}", prompt);
+    private ReportAnalysisResponse completion(LocalDateTime generatedAt, boolean cached) {
+        return ReportAnalysisResponse.builder()
+                .generatedAt(generatedAt.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                .success(true)
+                .cached(cached)
+                .build();
+    }
 
+    /**
+     * SHA-256 do prompt completo (que já embute resumo e idioma) junto das
+     * configurações do modelo
+     */
+    String fingerprint(String prompt) {
         try {
-            ChatClient chatClient = chatClientBuilder.build();
-            String response = chatClient.prompt()
-                    .user(prompt)
-                    .call()
-                    .content();
-
-            log.info("Financial analysis generated successfully");
-            return response;
-        } catch (Exception e) {
-            log.error("Error generating financial analysis", e);
-            throw new RuntimeException("Failed to generate analysis: " + e.getMessage(), e);
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((model + "|" + temperature + "|").getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest(prompt.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
     }
 
-    private String buildFinancialSummary(List<Transaction> transactions, String language) {
-        // Calcula totais
-        BigDecimal totalIncome = transactions.stream()
-                .filter(t -> "INCOME".equals(t.getType().name()))
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalExpense = transactions.stream()
-                .filter(t -> "EXPENSE".equals(t.getType().name()))
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // Agrupa despesas por categoria
-        Map<String, BigDecimal> expensesByCategory = transactions.stream()
-                .filter(t -> "EXPENSE".equals(t.getType().name()))
-                .collect(Collectors.groupingBy(
-                        t -> t.getCategory() != null ? t.getCategory().getName() : "Sem categoria",
-                        Collectors.reducing(BigDecimal.ZERO, Transaction::getAmount, BigDecimal::add)));
-
-        // Agrupa receitas por categoria
-        Map<String, BigDecimal> incomeByCategory = transactions.stream()
-                .filter(t -> "INCOME".equals(t.getType().name()))
-                .collect(Collectors.groupingBy(
-                        t -> t.getCategory() != null ? t.getCategory().getName() : "Sem categoria",
-                        Collectors.reducing(BigDecimal.ZERO, Transaction::getAmount, BigDecimal::add)));
-
-        // Transações recorrentes
-        long recurringCount = transactions.stream()
-                .filter(t -> !"NONE".equals(t.getRecurrence().name()))
-                .count();
+    /**
+     * Guarda a análise e descarta as mais antigas além do limite
+     */
+    private ReportAnalysisCache store(String fingerprint, String language, String analysis) {
+        ReportAnalysisCache entry = reportAnalysisCacheRepository.save(ReportAnalysisCache.builder()
+                .fingerprint(fingerprint)
+                .language(language)
+                .analysis(analysis)
+                .generatedAt(LocalDateTime.now())
+                .build());
+
+        List<ReportAnalysisCache> all = reportAnalysisCacheRepository.findAllByOrderByGeneratedAtDesc();
+        if (all.size() > MAX_CACHED_ANALYSES) {
+            reportAnalysisCacheRepository.deleteAll(all.subList(MAX_CACHED_ANALYSES, all.size()));
+        }
+        return entry;
+    }
+
+    /**
+     * Monta o resumo a partir de agregados calculados no banco (GROUP BY tipo e
+     * categoria + MIN/MAX de data), sem carregar as transações em memória
+     */
+    String buildFinancialSummary(LedgerStats stats, String language) {
+        BigDecimal totalIncome = BigDecimal.ZERO;
+        BigDecimal totalExpense = BigDecimal.ZERO;
+        Map<String, BigDecimal> expensesByCategory = new HashMap<>();
+        Map<String, BigDecimal> incomeByCategory = new HashMap<>();
+
+        // SUM sobre REAL no SQLite pode trazer resíduo de ponto flutuante
+        for (CategoryTypeTotal row : transactionRepository.sumByTypeAndCategory()) {
+            BigDecimal total = row.getTotal().setScale(2, RoundingMode.HALF_UP);
+            String categoryName = row.getCategoryName() != null ? row.getCategoryName() : "Sem categoria";
+            if (row.getType() == TransactionType.INCOME) {
+                totalIncome = totalIncome.add(total);
+                incomeByCategory.merge(categoryName, total, BigDecimal::add);
+            } else {
+                totalExpense = totalExpense.add(total);
+                expensesByCategory.merge(categoryName, total, BigDecimal::add);
+            }
+        }
+
+        long recurringCount = stats.getRecurringCount();
 
         // Período analisado
-        LocalDate minDate = transactions.stream()
-                .map(Transaction::getEffectiveDate)
-                .min(LocalDate::compareTo)
-                .orElse(LocalDate.now());
-        LocalDate maxDate = transactions.stream()
-                .map(Transaction::getEffectiveDate)
-                .max(LocalDate::compareTo)
-                .orElse(LocalDate.now());
+        LocalDate minDate = stats.getFirstDate() != null ? stats.getFirstDate() : LocalDate.now();
+        LocalDate maxDate = stats.getLastDate() != null ? stats.getLastDate() : LocalDate.now();
 
         long months = ChronoUnit.MONTHS.between(minDate.withDayOfMonth(1), maxDate.withDayOfMonth(1)) + 1;
         if (months < 1)
@@ -116,7 +186,7 @@ public class ReportService {
             sb.append("=== RESUMO FINANCEIRO ===\n\n");
             sb.append("Período analisado: ").append(minDate.format(fmt)).append(" a ").append(maxDate.format(fmt))
                     .append(" (").append(months).append(" meses)\n");
-            sb.append("Total de transações: ").append(transactions.size()).append("\n");
+            sb.append("Total de transações: ").append(stats.getCount()).append("\n");
             sb.append("Transações recorrentes: ").append(recurringCount).append("\n\n");
 
             sb.append("RECEITAS TOTAIS: R$ ").append(totalIncome).append("\n");
@@ -143,7 +213,7 @@ public class ReportService {
             sb.append("=== FINANCIAL SUMMARY ===\n\n");
             sb.append("Analyzed period: ").append(minDate.format(fmt)).append(" to ").append(maxDate.format(fmt))
                     .append(" (").append(months).append(" months)\n");
-            sb.append("Total transactions: ").append(transactions.size()).append("\n");
+            sb.append("Total transactions: ").append(stats.getCount()).append("\n");
             sb.append("Recurring transactions: ").append(recurringCount).append("\n\n");
 
             sb.append("TOTAL INCOME: $ ").append(totalIncome).append("\n");
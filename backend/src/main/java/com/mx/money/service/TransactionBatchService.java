@@ -0,0 +1,95 @@
+package com.mx.money.service;
+
+import com.mx.money.dto.DailyCategoryTotal;
+import com.mx.money.dto.TransactionBatch;
+import com.mx.money.dto.TransactionBatchUndoResponse;
+import com.mx.money.repository.TransactionRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Operações em lote sobre o livro-caixa e como desfazê-las.
+ * <p>
+ * Importações de CSV e gerações de recorrências marcam as linhas que inserem
+ * com um id de lote ({@code batch_id}). Desfazer um lote é um único DELETE
+ * indexado por esse id, em uma transação: os agregados mensais perdem os
+ * totais do lote (somados por dia, categoria e tipo), as categorias criadas
+ * pelo lote que ficaram sem uso são removidas e as exclusões vão para o diário
+ * de alterações, como qualquer outra escrita.
+ * <p>
+ * Desfazer uma geração de recorrências não volta a data da última geração dos
+ * modelos: as ocorrências removidas não são recriadas na próxima execução.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionBatchService {
+
+    public static final String IMPORT = "import";
+    public static final String RECURRING = "recurring";
+
+    private final TransactionRepository transactionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final MonthlyRollupService monthlyRollupService;
+    private final ChangeJournalService changeJournalService;
+    private final LedgerVersionService ledgerVersionService;
+
+    /**
+     * Novo id de lote, prefixado pelo tipo da operação
+     */
+    public static String newBatchId(String kind) {
+        return kind + "-" + UUID.randomUUID();
+    }
+
+    @Transactional(readOnly = true)
+    public List<TransactionBatch> findAll() {
+        return transactionRepository.summarizeBatches();
+    }
+
+    /**
+     * Remove as transações do lote e as categorias que ele criou e que não são
+     * mais usadas
+     */
+    @Transactional
+    public TransactionBatchUndoResponse undo(String batchId) {
+        List<DailyCategoryTotal> totals = transactionRepository.sumByDayCategoryAndTypeInBatch(batchId);
+        List<Long> transactionIds = jdbcTemplate.queryForList(
+                "SELECT id FROM transactions WHERE batch_id = ?", Long.class, batchId);
+        List<Long> categoryIds = jdbcTemplate.queryForList(
+                "SELECT id FROM categories WHERE batch_id = ?", Long.class, batchId);
+        if (transactionIds.isEmpty() && categoryIds.isEmpty()) {
+            throw new EntityNotFoundException("Lote não encontrado: " + batchId);
+        }
+
+        int deletedTransactions = jdbcTemplate.update("DELETE FROM transactions WHERE batch_id = ?", batchId);
+        int deletedCategories = 0;
+        if (!categoryIds.isEmpty()) {
+            deletedCategories = jdbcTemplate.update("DELETE FROM categories WHERE batch_id = ? AND NOT EXISTS "
+                    + "(SELECT 1 FROM transactions t WHERE t.category_id = categories.id)", batchId);
+            // As que continuam em uso passam a ser categorias comuns
+            jdbcTemplate.update("UPDATE categories SET batch_id = NULL WHERE batch_id = ?", batchId);
+        }
+
+        monthlyRollupService.subtractTotals(totals);
+        changeJournalService.recordChanged(ChangeJournalService.TRANSACTIONS, transactionIds);
+        changeJournalService.recordChanged(ChangeJournalService.CATEGORIES, categoryIds);
+        ledgerVersionService.markChanged(LedgerVersionService.Resource.TRANSACTIONS);
+        if (!categoryIds.isEmpty()) {
+            ledgerVersionService.markChanged(LedgerVersionService.Resource.CATEGORIES);
+        }
+
+        log.info("Undid batch {}: {} transactions, {} categories", batchId, deletedTransactions, deletedCategories);
+        return TransactionBatchUndoResponse.builder()
+                .batchId(batchId)
+                .deletedTransactions(deletedTransactions)
+                .deletedCategories(deletedCategories)
+                .build();
+    }
+}
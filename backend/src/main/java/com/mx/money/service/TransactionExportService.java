@@ -0,0 +1,118 @@
+package com.mx.money.service;
+
+import com.mx.money.entity.Transaction;
+import com.mx.money.mapper.TransactionMapper;
+import com.mx.money.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exporta o livro-caixa completo em NDJSON ou CSV, linha a linha.
+ * As transações são lidas por cursor e destacadas do contexto de persistência
+ * após serem escritas, mantendo o uso de memória constante.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_HEADER = "id,effectiveDate,description,amount,type,recurrence,endDate,category";
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionMapper transactionMapper;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Escreve uma transação por linha no formato JSON (NDJSON)
+     *
+     * @return Número de linhas escritas
+     */
+    @Transactional(readOnly = true)
+    public long exportNdjson(OutputStream outputStream) throws IOException {
+        OutputStream out = new BufferedOutputStream(outputStream, BUFFER_SIZE);
+        long count = 0;
+
+        try (Stream<Transaction> transactions = transactionRepository.streamAllWithCategory()) {
+            Iterator<Transaction> it = transactions.iterator();
+            while (it.hasNext()) {
+                Transaction t = it.next();
+                out.write(objectMapper.writeValueAsBytes(transactionMapper.toResponse(t)));
+                out.write('\n');
+                entityManager.detach(t);
+                count++;
+            }
+        }
+
+        out.flush();
+        log.info("Exported {} transactions as NDJSON", count);
+        return count;
+    }
+
+    /**
+     * Escreve as transações em CSV (com header)
+     *
+     * @return Número de linhas escritas (sem contar o header)
+     */
+    @Transactional(readOnly = true)
+    public long exportCsv(OutputStream outputStream) throws IOException {
+        Writer out = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        out.write(CSV_HEADER);
+        out.write('\n');
+        long count = 0;
+
+        try (Stream<Transaction> transactions = transactionRepository.streamAllWithCategory()) {
+            Iterator<Transaction> it = transactions.iterator();
+            while (it.hasNext()) {
+                Transaction t = it.next();
+                out.write(String.valueOf(t.getId()));
+                out.write(',');
+                out.write(t.getEffectiveDate().toString());
+                out.write(',');
+                out.write(escapeCsv(t.getDescription()));
+                out.write(',');
+                out.write(t.getAmount().toPlainString());
+                out.write(',');
+                out.write(t.getType().name());
+                out.write(',');
+                out.write(t.getRecurrence().name());
+                out.write(',');
+                out.write(t.getEndDate() != null ? t.getEndDate().toString() : "");
+                out.write(',');
+                out.write(t.getCategory() != null ? escapeCsv(t.getCategory().getName()) : "");
+                out.write('\n');
+                entityManager.detach(t);
+                count++;
+            }
+        }
+
+        out.flush();
+        log.info("Exported {} transactions as CSV", count);
+        return count;
+    }
+
+    /**
+     * Aplica aspas (RFC 4180) quando o valor contém vírgula, aspas ou quebra de
+     * linha
+     */
+    static String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,258 @@
+package com.mx.money.service;
+
+import com.mx.money.dto.CsvImportRequest;
+import com.mx.money.dto.CsvImportResponse;
+import com.mx.money.dto.CsvImportSummary;
+import com.mx.money.entity.Category;
+import com.mx.money.entity.RecurrenceType;
+import com.mx.money.entity.Transaction;
+import com.mx.money.entity.TransactionType;
+import com.mx.money.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Grava em lote as transações confirmadas de uma importação de CSV.
+ * <p>
+ * As categorias são resolvidas (e as que faltam, criadas) em uma única
+ * passada, e as transações são inseridas com statements JDBC em lote dentro de
+ * uma só transação. O Hibernate não agrupa inserts de entidades com id
+ * IDENTITY, por isso o insert é feito direto pelo {@link JdbcTemplate}; os
+ * agregados mensais, a memória de categorizações e a versão do livro-caixa são
+ * atualizados uma vez para o arquivo inteiro.
+ * <p>
+ * Linhas cuja impressão digital ({@link ImportFingerprintService}) já está no
+ * livro-caixa são puladas, salvo quando o usuário pede para importá-las mesmo
+ * assim.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionImportService {
+
+    /**
+     * Categoria usada pela IA quando não sabe classificar; a linha fica sem categoria
+     */
+    static final String FALLBACK_CATEGORY = "Outros";
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_SQL = "INSERT INTO transactions "
+            + "(description, amount, effective_date, type, recurrence, category_id, import_fingerprint, "
+            + "batch_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * Paleta de cores para novas categorias criadas durante o import
+     */
+    private static final String[] COLOR_PALETTE = {
+            "#6366F1", "#EC4899", "#F59E0B", "#10B981", "#3B82F6",
+            "#EF4444", "#8B5CF6", "#14B8A6", "#F97316", "#06B6D4",
+            "#84CC16", "#A855F7", "#E11D48", "#0EA5E9", "#D946EF",
+            "#22C55E", "#FB923C", "#64748B", "#FACC15", "#2DD4BF",
+    };
+
+    private final CategoryRepository categoryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final MonthlyRollupService monthlyRollupService;
+    private final CategorizationMemoService categorizationMemoService;
+    private final LedgerVersionService ledgerVersionService;
+    private final ImportFingerprintService importFingerprintService;
+    private final ChangeJournalService changeJournalService;
+
+    /**
+     * @param skipDuplicates Se true, linhas já importadas anteriormente não são gravadas
+     */
+    @Transactional
+    public CsvImportSummary importAll(List<CsvImportResponse> items, boolean skipDuplicates) {
+        // Impressões digitais sobre a lista completa, para que os índices de
+        // ocorrência coincidam com os da prévia
+        List<String> fingerprints = ImportFingerprintService.fingerprintAll(items.stream()
+                .map(item -> CsvImportRequest.builder()
+                        .date(item.getDate())
+                        .description(item.getDescription())
+                        .amount(item.getAmount())
+                        .build())
+                .toList());
+        Set<String> existing = skipDuplicates ? importFingerprintService.findExisting(fingerprints) : Set.of();
+
+        List<CsvImportResponse> accepted = new ArrayList<>(items.size());
+        List<String> acceptedFingerprints = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            if (!existing.contains(fingerprints.get(i))) {
+                accepted.add(items.get(i));
+                acceptedFingerprints.add(fingerprints.get(i));
+            }
+        }
+
+        // Tudo o que a importação grava leva o mesmo lote, para ser desfeito de uma vez
+        String batchId = TransactionBatchService.newBatchId(TransactionBatchService.IMPORT);
+        List<String> createdCategories = new ArrayList<>();
+        Map<String, Category> categories = resolveCategories(accepted, createdCategories, batchId);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Transaction> transactions = new ArrayList<>(accepted.size());
+        BigDecimal totalIncome = BigDecimal.ZERO;
+        BigDecimal totalExpense = BigDecimal.ZERO;
+        LocalDate firstDate = null;
+        LocalDate lastDate = null;
+
+        for (int i = 0; i < accepted.size(); i++) {
+            CsvImportResponse item = accepted.get(i);
+            // No extrato, valores positivos são débitos e negativos são créditos
+            TransactionType type = item.getAmount().signum() >= 0 ? TransactionType.EXPENSE : TransactionType.INCOME;
+            Transaction transaction = Transaction.builder()
+                    .description(item.getDescription())
+                    .amount(item.getAmount().abs())
+                    .effectiveDate(LocalDate.parse(item.getDate()))
+                    .type(type)
+                    .recurrence(RecurrenceType.NONE)
+                    .category(categories.get(categoryKey(item.getCategory())))
+                    .importFingerprint(acceptedFingerprints.get(i))
+                    .batchId(batchId)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build();
+            transactions.add(transaction);
+
+            if (type == TransactionType.INCOME) {
+                totalIncome = totalIncome.add(transaction.getAmount());
+            } else {
+                totalExpense = totalExpense.add(transaction.getAmount());
+            }
+            LocalDate date = transaction.getEffectiveDate();
+            firstDate = firstDate == null || date.isBefore(firstDate) ? date : firstDate;
+            lastDate = lastDate == null || date.isAfter(lastDate) ? date : lastDate;
+        }
+
+        if (!transactions.isEmpty()) {
+            long lastId = changeJournalService.lastId(ChangeJournalService.TRANSACTIONS);
+            insert(transactions);
+            changeJournalService.recordInsertedAfter(ChangeJournalService.TRANSACTIONS, lastId);
+            monthlyRollupService.addAll(transactions);
+            ledgerVersionService.markChanged(LedgerVersionService.Resource.TRANSACTIONS);
+        }
+
+        // Categorias confirmadas pelo usuário alimentam a memória das próximas importações.
+        // "Outros" fica de fora: é também o fallback de quando o LLM falha, e memorizá-lo
+        // impediria a classificação dessas descrições nas importações seguintes.
+        Map<String, String> confirmed = new LinkedHashMap<>();
+        for (CsvImportResponse item : accepted) {
+            if (categoryKey(item.getCategory()) != null) {
+                confirmed.put(item.getDescription(), item.getCategory());
+            }
+        }
+        categorizationMemoService.rememberAll(confirmed);
+
+        if (!createdCategories.isEmpty()) {
+            ledgerVersionService.markChanged(LedgerVersionService.Resource.CATEGORIES);
+        }
+
+        int skipped = items.size() - accepted.size();
+        log.info("Imported {} transactions ({} new categories, {} duplicates skipped)", transactions.size(),
+                createdCategories.size(), skipped);
+        return CsvImportSummary.builder()
+                .batchId(transactions.isEmpty() && createdCategories.isEmpty() ? null : batchId)
+                .imported(transactions.size())
+                .skippedDuplicates(skipped)
+                .createdCategories(createdCategories)
+                .totalIncome(totalIncome)
+                .totalExpense(totalExpense)
+                .firstDate(firstDate != null ? firstDate.toString() : null)
+                .lastDate(lastDate != null ? lastDate.toString() : null)
+                .build();
+    }
+
+    /**
+     * Carrega as categorias existentes uma vez e cria as que faltam
+     *
+     * @return Categorias por nome normalizado (minúsculas)
+     */
+    private Map<String, Category> resolveCategories(List<CsvImportResponse> items, List<String> createdCategories,
+            String batchId) {
+        List<Category> existing = categoryRepository.findAll();
+        Map<String, Category> byName = existing.stream()
+                .collect(Collectors.toMap(c -> categoryKey(c.getName()), c -> c, (a, b) -> a, HashMap::new));
+        Set<String> usedColors = existing.stream()
+                .map(Category::getColor)
+                .filter(c -> c != null && !c.isBlank())
+                .map(String::toUpperCase)
+                .collect(Collectors.toCollection(HashSet::new));
+
+        Map<String, Category> missing = new LinkedHashMap<>();
+        for (CsvImportResponse item : items) {
+            String key = categoryKey(item.getCategory());
+            if (key != null && !byName.containsKey(key) && !missing.containsKey(key)) {
+                String color = findNextAvailableColor(usedColors, missing.size());
+                usedColors.add(color.toUpperCase());
+                missing.put(key, Category.builder()
+                        .name(item.getCategory().strip())
+                        .color(color)
+                        .batchId(batchId)
+                        .build());
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            List<Long> ids = new ArrayList<>(missing.size());
+            for (Category category : categoryRepository.saveAll(missing.values())) {
+                byName.put(categoryKey(category.getName()), category);
+                createdCategories.add(category.getName());
+                ids.add(category.getId());
+            }
+            changeJournalService.recordChanged(ChangeJournalService.CATEGORIES, ids);
+            log.info("Created {} categories during import: {}", createdCategories.size(), createdCategories);
+        }
+        return byName;
+    }
+
+    private void insert(List<Transaction> transactions) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, transactions, BATCH_SIZE, (ps, t) -> {
+            ps.setString(1, t.getDescription());
+            ps.setBigDecimal(2, t.getAmount());
+            ps.setDate(3, Date.valueOf(t.getEffectiveDate()));
+            ps.setString(4, t.getType().name());
+            ps.setString(5, t.getRecurrence().name());
+            if (t.getCategory() != null) {
+                ps.setLong(6, t.getCategory().getId());
+            } else {
+                ps.setNull(6, Types.BIGINT);
+            }
+            ps.setString(7, t.getImportFingerprint());
+            ps.setString(8, t.getBatchId());
+            ps.setTimestamp(9, Timestamp.valueOf(t.getCreatedAt()));
+            ps.setTimestamp(10, Timestamp.valueOf(t.getUpdatedAt()));
+        });
+    }
+
+    /**
+     * Nome da categoria para comparação, ou null quando a linha fica sem categoria
+     */
+    private static String categoryKey(String name) {
+        if (name == null || name.isBlank() || name.strip().equalsIgnoreCase(FALLBACK_CATEGORY)) {
+            return null;
+        }
+        return name.strip().toLowerCase(Locale.ROOT);
+    }
+
+    private static String findNextAvailableColor(Set<String> usedColors, int startIndex) {
+        for (int i = 0; i < COLOR_PALETTE.length; i++) {
+            String candidate = COLOR_PALETTE[(startIndex + i) % COLOR_PALETTE.length];
+            if (!usedColors.contains(candidate.toUpperCase())) {
+                return candidate;
+            }
+        }
+        return COLOR_PALETTE[startIndex % COLOR_PALETTE.length];
+    }
+}
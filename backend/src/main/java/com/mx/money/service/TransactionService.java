@@ -14,6 +14,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
@@ -23,6 +24,10 @@ public class TransactionService {
     private final TransactionRepository transactionRepository;
     private final TransactionMapper transactionMapper;
     private final CategoryService categoryService;
+    private final LedgerVersionService ledgerVersionService;
+    private final MonthlyRollupService monthlyRollupService;
+    private final CategorizationMemoService categorizationMemoService;
+    private final ChangeJournalService changeJournalService;
 
     @Transactional(readOnly = true)
     public List<TransactionResponse> findAll() {
@@ -56,6 +61,9 @@ public class TransactionService {
         }
 
         transaction = transactionRepository.save(transaction);
+        monthlyRollupService.add(transaction);
+        changeJournalService.recordChanged(ChangeJournalService.TRANSACTIONS, transaction.getId());
+        ledgerVersionService.markChanged(LedgerVersionService.Resource.TRANSACTIONS);
         return transactionMapper.toResponse(transaction);
     }
 
@@ -63,23 +71,42 @@ public class TransactionService {
         Transaction transaction = transactionRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Transação não encontrada: " + id));
 
+        Long previousCategoryId = transaction.getCategory() != null ? transaction.getCategory().getId() : null;
+
+        // Retira os valores antigos dos agregados antes de sobrescrever a entidade
+        monthlyRollupService.subtract(Transaction.builder()
+                .amount(transaction.getAmount())
+                .type(transaction.getType())
+                .effectiveDate(transaction.getEffectiveDate())
+                .category(transaction.getCategory())
+                .build());
+
         transactionMapper.updateEntity(request, transaction);
 
         if (request.getCategoryId() != null) {
             Category category = categoryService.findEntityById(request.getCategoryId());
             transaction.setCategory(category);
+            // Recategorização manual: lembra a escolha para as próximas importações
+            if (!Objects.equals(category.getId(), previousCategoryId)) {
+                categorizationMemoService.remember(transaction.getDescription(), category.getName());
+            }
         } else {
             transaction.setCategory(null);
         }
 
         transaction = transactionRepository.save(transaction);
+        monthlyRollupService.add(transaction);
+        changeJournalService.recordChanged(ChangeJournalService.TRANSACTIONS, transaction.getId());
+        ledgerVersionService.markChanged(LedgerVersionService.Resource.TRANSACTIONS);
         return transactionMapper.toResponse(transaction);
     }
 
     public void delete(Long id) {
-        if (!transactionRepository.existsById(id)) {
-            throw new EntityNotFoundException("Transação não encontrada: " + id);
-        }
-        transactionRepository.deleteById(id);
+        Transaction transaction = transactionRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Transação não encontrada: " + id));
+        monthlyRollupService.subtract(transaction);
+        transactionRepository.delete(transaction);
+        changeJournalService.recordChanged(ChangeJournalService.TRANSACTIONS, id);
+        ledgerVersionService.markChanged(LedgerVersionService.Resource.TRANSACTIONS);
     }
 }
@@ -1,6 +1,7 @@
 package com.mx.money.controller;
 
 import com.mx.money.service.BackupService;
+import com.mx.money.service.DatabaseExportService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -12,15 +13,22 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -32,6 +40,9 @@ class BackupControllerTest {
     @Mock
     private BackupService backupService;
 
+    @Mock
+    private DatabaseExportService databaseExportService;
+
     @InjectMocks
     private BackupController backupController;
 
@@ -96,6 +107,21 @@ class BackupControllerTest {
 
             verify(backupService).createBackup();
         }
+
+        @Test
+        @DisplayName("should create a logical backup when requested")
+        void shouldCreateLogicalBackup() throws Exception {
+            // Given
+            when(backupService.createLogicalBackup()).thenReturn("backup_2024-01-15_12-00-00.ndjson.zip");
+
+            // When/Then
+            mockMvc.perform(post("/api/backup").param("format", "logical"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.name", is("backup_2024-01-15_12-00-00.ndjson.zip")));
+
+            verify(backupService).createLogicalBackup();
+            verify(backupService, never()).createBackup();
+        }
     }
 
     @Nested
@@ -133,29 +159,119 @@ class BackupControllerTest {
 
             verify(backupService).restoreBackup("backup_2024-01-15.db");
         }
+
+        @Test
+        @DisplayName("should restore only the requested tables")
+        void shouldRestoreTables() throws Exception {
+            // When/Then
+            mockMvc.perform(post("/api/backup/restore/backup_2024-01-15.ndjson.zip").param("tables", "categories"))
+                    .andExpect(status().isOk());
+
+            verify(backupService).restoreBackup("backup_2024-01-15.ndjson.zip", List.of("categories"));
+        }
     }
 
     @Nested
-    @DisplayName("GET /api/backup/export")
-    class ExportDatabaseTests {
+    @DisplayName("POST /api/backup/restore-point")
+    class RestorePointTests {
 
         @Test
-        @DisplayName("should export database as file")
-        void shouldExportDatabase() throws Exception {
+        @DisplayName("should rebuild the database at the given local time")
+        void shouldRestoreToPointInTime() throws Exception {
             // Given
-            doAnswer(invocation -> {
-                OutputStream os = invocation.getArgument(0);
-                os.write("mock database content".getBytes());
-                return null;
-            }).when(backupService).exportDatabase(any(OutputStream.class));
+            LocalDateTime at = LocalDateTime.of(2024, 1, 15, 14, 30);
+            when(backupService.restoreToPointInTime(at))
+                    .thenReturn(Map.of("backup", "backup_2024-01-15_12-00-00.zip", "replayedChanges", 42));
 
             // When/Then
-            mockMvc.perform(get("/api/backup/export"))
+            mockMvc.perform(post("/api/backup/restore-point").param("at", "2024-01-15T14:30"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.backup", is("backup_2024-01-15_12-00-00.zip")))
+                    .andExpect(jsonPath("$.replayedChanges", is(42)));
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/backup/export")
+    class ExportDatabaseTests {
+
+        private static final String CONTENT = "mock database content";
+        private static final String ETAG = "\"export_1700000000000\"";
+
+        @BeforeEach
+        void setUpExport() throws Exception {
+            Path file = Path.of("export_1700000000000.db");
+            when(databaseExportService.currentExport())
+                    .thenReturn(new DatabaseExportService.Export(file, CONTENT.length(), ETAG, "v1"));
+            lenient().doAnswer(invocation -> {
+                long position = invocation.getArgument(1);
+                long length = invocation.getArgument(2);
+                OutputStream os = invocation.getArgument(3);
+                os.write(CONTENT.substring((int) position, (int) (position + length)).getBytes());
+                return null;
+            }).when(databaseExportService).transfer(eq(file), anyLong(), anyLong(), any(OutputStream.class));
+        }
+
+        @Test
+        @DisplayName("should export the snapshot as a file with length and ETag")
+        void shouldExportDatabase() throws Exception {
+            // When
+            MvcResult result = mockMvc.perform(get("/api/backup/export"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            // Then - no global async timeout for the download
+            assertThat(result.getRequest().getAsyncContext().getTimeout(), is(-1L));
+            mockMvc.perform(asyncDispatch(result))
                     .andExpect(status().isOk())
                     .andExpect(header().string("Content-Disposition", containsString("attachment")))
-                    .andExpect(header().string("Content-Disposition", containsString(".db")));
+                    .andExpect(header().string("Content-Disposition", containsString(".db")))
+                    .andExpect(header().string("Content-Length", String.valueOf(CONTENT.length())))
+                    .andExpect(header().string("Accept-Ranges", "bytes"))
+                    .andExpect(header().string("ETag", ETAG))
+                    .andExpect(content().string(CONTENT));
+        }
+
+        @Test
+        @DisplayName("should serve a single byte range as partial content")
+        void shouldServeRange() throws Exception {
+            // When
+            MvcResult result = mockMvc.perform(get("/api/backup/export").header("Range", "bytes=5-12"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            // Then
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isPartialContent())
+                    .andExpect(header().string("Content-Range", "bytes 5-12/" + CONTENT.length()))
+                    .andExpect(header().string("Content-Length", "8"))
+                    .andExpect(content().string("database"));
+        }
+
+        @Test
+        @DisplayName("should send the whole file when If-Range does not match the snapshot")
+        void shouldIgnoreRangeForOtherSnapshot() throws Exception {
+            // When
+            MvcResult result = mockMvc.perform(get("/api/backup/export")
+                    .header("Range", "bytes=5-")
+                    .header("If-Range", "\"export_1600000000000\""))
+                    .andReturn();
+
+            // Then
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string(CONTENT));
+        }
+
+        @Test
+        @DisplayName("should return 416 when the range starts past the end")
+        void shouldRejectUnsatisfiableRange() throws Exception {
+            // When/Then
+            mockMvc.perform(get("/api/backup/export").header("Range", "bytes=500-"))
+                    .andExpect(status().isRequestedRangeNotSatisfiable())
+                    .andExpect(header().string("Content-Range", "bytes */" + CONTENT.length()));
 
-            verify(backupService).exportDatabase(any(OutputStream.class));
+            verify(databaseExportService, never()).transfer(any(), anyLong(), anyLong(), any());
         }
     }
 
@@ -199,6 +315,22 @@ class BackupControllerTest {
 
             verify(backupService, never()).importDatabase(any());
         }
+
+        @Test
+        @DisplayName("should import database from the raw request body")
+        void shouldImportRawBody() throws Exception {
+            // Given
+            doNothing().when(backupService).importDatabase(any());
+
+            // When/Then
+            mockMvc.perform(post("/api/backup/import")
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .content("mock database content".getBytes()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.message", containsString("imported")));
+
+            verify(backupService).importDatabase(any());
+        }
     }
 
     @Nested
@@ -291,4 +423,58 @@ class BackupControllerTest {
             verify(backupService, never()).setBackupDirectory(anyString());
         }
     }
+
+    @Nested
+    @DisplayName("PUT /api/backup/settings/max-backups")
+    class SetMaxBackupsTests {
+
+        @Test
+        @DisplayName("should update how many backups are kept")
+        void shouldUpdateMaxBackups() throws Exception {
+            // Given
+            when(backupService.getSettings()).thenReturn(Map.of("maxBackups", 10));
+
+            // When/Then
+            mockMvc.perform(put("/api/backup/settings/max-backups")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"maxBackups\": 10}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.maxBackups", is(10)));
+
+            verify(backupService).setMaxBackups(10);
+        }
+
+        @Test
+        @DisplayName("should return 400 when maxBackups is missing")
+        void shouldReturn400WhenMissing() throws Exception {
+            // When/Then
+            mockMvc.perform(put("/api/backup/settings/max-backups")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{}"))
+                    .andExpect(status().isBadRequest());
+
+            verify(backupService, never()).setMaxBackups(anyInt());
+        }
+    }
+
+    @Nested
+    @DisplayName("PUT /api/backup/settings/incremental")
+    class SetIncrementalTests {
+
+        @Test
+        @DisplayName("should enable incremental backups")
+        void shouldEnableIncremental() throws Exception {
+            // Given
+            when(backupService.getSettings()).thenReturn(Map.of("incrementalBackups", true));
+
+            // When/Then
+            mockMvc.perform(put("/api/backup/settings/incremental")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"enabled\": true}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.incrementalBackups", is(true)));
+
+            verify(backupService).setIncrementalBackups(true);
+        }
+    }
 }
@@ -4,6 +4,7 @@ import com.mx.money.dto.BalanceProjection;
 import com.mx.money.dto.BalanceResponse;
 import com.mx.money.dto.SimulationResponse;
 import com.mx.money.service.BalanceService;
+import com.mx.money.service.LedgerVersionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -11,6 +12,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
@@ -35,6 +37,9 @@ class BalanceControllerTest {
     @Mock
     private BalanceService balanceService;
 
+    @Spy
+    private LedgerVersionService ledgerVersionService = new LedgerVersionService();
+
     @InjectMocks
     private BalanceController balanceController;
 
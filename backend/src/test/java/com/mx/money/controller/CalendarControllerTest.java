@@ -0,0 +1,112 @@
+package com.mx.money.controller;
+
+import com.mx.money.dto.CalendarDayResponse;
+import com.mx.money.dto.CalendarMonthResponse;
+import com.mx.money.exception.GlobalExceptionHandler;
+import com.mx.money.service.CalendarService;
+import com.mx.money.service.LedgerVersionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CalendarController Tests")
+class CalendarControllerTest {
+
+    @Mock
+    private CalendarService calendarService;
+
+    @Spy
+    private LedgerVersionService ledgerVersionService = new LedgerVersionService();
+
+    @InjectMocks
+    private CalendarController calendarController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(calendarController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Nested
+    @DisplayName("GET /api/calendar/{month}")
+    class GetMonthTests {
+
+        @Test
+        @DisplayName("should return daily totals of the month")
+        void shouldReturnDailyTotals() throws Exception {
+            // Given
+            CalendarDayResponse day = CalendarDayResponse.builder()
+                    .date(LocalDate.of(2024, 3, 5))
+                    .totalIncome(new BigDecimal("1000.00"))
+                    .totalExpense(new BigDecimal("250.00"))
+                    .net(new BigDecimal("750.00"))
+                    .count(3)
+                    .build();
+            CalendarMonthResponse month = CalendarMonthResponse.builder()
+                    .month("2024-03")
+                    .totalIncome(new BigDecimal("1000.00"))
+                    .totalExpense(new BigDecimal("250.00"))
+                    .balance(new BigDecimal("750.00"))
+                    .days(List.of(day))
+                    .build();
+            when(calendarService.getMonth(YearMonth.of(2024, 3), false)).thenReturn(month);
+
+            // When/Then
+            mockMvc.perform(get("/api/calendar/2024-03"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.month", is("2024-03")))
+                    .andExpect(jsonPath("$.days", hasSize(1)))
+                    .andExpect(jsonPath("$.days[0].count", is(3)))
+                    .andExpect(jsonPath("$.days[0].net", is(750.00)));
+
+            verify(calendarService).getMonth(YearMonth.of(2024, 3), false);
+        }
+
+        @Test
+        @DisplayName("should pass includeIds flag to service")
+        void shouldPassIncludeIdsFlag() throws Exception {
+            // Given
+            when(calendarService.getMonth(any(), anyBoolean())).thenReturn(new CalendarMonthResponse());
+
+            // When/Then
+            mockMvc.perform(get("/api/calendar/2024-03").param("includeIds", "true"))
+                    .andExpect(status().isOk());
+
+            verify(calendarService).getMonth(YearMonth.of(2024, 3), true);
+        }
+
+        @Test
+        @DisplayName("should return 400 for invalid month")
+        void shouldReturn400ForInvalidMonth() throws Exception {
+            // When/Then
+            mockMvc.perform(get("/api/calendar/2024-13"))
+                    .andExpect(status().isBadRequest());
+
+            verify(calendarService, never()).getMonth(any(), anyBoolean());
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.mx.money.exception.GlobalExceptionHandler;
 import com.mx.money.dto.CategoryRequest;
 import com.mx.money.dto.CategoryResponse;
 import com.mx.money.service.CategoryService;
+import com.mx.money.service.LedgerVersionService;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -13,6 +14,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
@@ -34,6 +36,9 @@ class CategoryControllerTest {
     @Mock
     private CategoryService categoryService;
 
+    @Spy
+    private LedgerVersionService ledgerVersionService = new LedgerVersionService();
+
     @InjectMocks
     private CategoryController categoryController;
 
@@ -92,6 +97,35 @@ class CategoryControllerTest {
                     .andExpect(status().isOk())
                     .andExpect(jsonPath("$", hasSize(0)));
         }
+
+        @Test
+        @DisplayName("should return 304 when ETag matches current version")
+        void shouldReturn304WhenEtagMatches() throws Exception {
+            // Given
+            String etag = ledgerVersionService.etag(LedgerVersionService.Resource.CATEGORIES);
+
+            // When/Then
+            mockMvc.perform(get("/api/categories").header("If-None-Match", etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string("ETag", etag));
+
+            verify(categoryService, never()).findAll();
+        }
+
+        @Test
+        @DisplayName("should return fresh content after categories change")
+        void shouldReturnContentAfterChange() throws Exception {
+            // Given
+            String staleEtag = ledgerVersionService.etag(LedgerVersionService.Resource.CATEGORIES);
+            ledgerVersionService.markChanged(LedgerVersionService.Resource.CATEGORIES);
+            when(categoryService.findAll()).thenReturn(List.of(categoryResponse));
+
+            // When/Then
+            mockMvc.perform(get("/api/categories").header("If-None-Match", staleEtag))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", not(staleEtag)))
+                    .andExpect(jsonPath("$", hasSize(1)));
+        }
     }
 
     @Nested
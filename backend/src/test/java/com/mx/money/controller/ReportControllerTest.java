@@ -1,6 +1,13 @@
 package com.mx.money.controller;
 
-import com.mx.money.service.ReportService;
+import com.mx.money.dto.ReportAnalysisResponse;
+import com.mx.money.dto.ReportJobResponse;
+import com.mx.money.dto.RollupResponse;
+import com.mx.money.entity.TransactionType;
+import com.mx.money.exception.GlobalExceptionHandler;
+import com.mx.money.service.MonthlyRollupService;
+import com.mx.money.service.ReportJobService;
+import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -11,9 +18,20 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -24,7 +42,13 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 class ReportControllerTest {
 
     @Mock
-    private ReportService reportService;
+    private ReportJobService reportJobService;
+
+    @Mock
+    private ReportJobService.ReportJob job;
+
+    @Mock
+    private MonthlyRollupService monthlyRollupService;
 
     @InjectMocks
     private ReportController reportController;
@@ -33,7 +57,18 @@ class ReportControllerTest {
 
     @BeforeEach
     void setUp() {
-        mockMvc = MockMvcBuilders.standaloneSetup(reportController).build();
+        mockMvc = MockMvcBuilders.standaloneSetup(reportController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+        lenient().when(reportJobService.submit(anyString())).thenReturn(job);
+    }
+
+    private static ReportAnalysisResponse analysisResponse(String analysis) {
+        return ReportAnalysisResponse.builder()
+                .analysis(analysis)
+                .generatedAt("2024-01-01T10:00:00")
+                .success(true)
+                .build();
     }
 
     @Nested
@@ -45,7 +80,7 @@ class ReportControllerTest {
         void shouldGenerateAnalysisInPortuguese() throws Exception {
             // Given
             String analysis = "## 📊 Diagnóstico Financeiro\nSua saúde financeira está saudável...";
-            when(reportService.generateFinancialAnalysis("pt-BR")).thenReturn(analysis);
+            when(reportJobService.await(job)).thenReturn(analysisResponse(analysis));
 
             // When/Then
             mockMvc.perform(get("/api/reports/analysis")
@@ -56,7 +91,7 @@ class ReportControllerTest {
                     .andExpect(jsonPath("$.analysis", containsString("Diagnóstico")))
                     .andExpect(jsonPath("$.generatedAt", notNullValue()));
 
-            verify(reportService).generateFinancialAnalysis("pt-BR");
+            verify(reportJobService).submit("pt-BR");
         }
 
         @Test
@@ -64,7 +99,7 @@ class ReportControllerTest {
         void shouldGenerateAnalysisInEnglish() throws Exception {
             // Given
             String analysis = "## 📊 Financial Diagnosis\nYour financial health is excellent...";
-            when(reportService.generateFinancialAnalysis("en")).thenReturn(analysis);
+            when(reportJobService.await(job)).thenReturn(analysisResponse(analysis));
 
             // When/Then
             mockMvc.perform(get("/api/reports/analysis")
@@ -73,29 +108,44 @@ class ReportControllerTest {
                     .andExpect(jsonPath("$.success", is(true)))
                     .andExpect(jsonPath("$.analysis", containsString("Financial")));
 
-            verify(reportService).generateFinancialAnalysis("en");
+            verify(reportJobService).submit("en");
+        }
+
+        @Test
+        @DisplayName("should expose cached flag and original generation time")
+        void shouldExposeCachedFlag() throws Exception {
+            // Given
+            ReportAnalysisResponse cached = analysisResponse("Análise...");
+            cached.setCached(true);
+            when(reportJobService.await(job)).thenReturn(cached);
+
+            // When/Then
+            mockMvc.perform(get("/api/reports/analysis"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.cached", is(true)))
+                    .andExpect(jsonPath("$.generatedAt", is("2024-01-01T10:00:00")));
         }
 
         @Test
         @DisplayName("should use default language when not specified")
         void shouldUseDefaultLanguage() throws Exception {
             // Given
-            when(reportService.generateFinancialAnalysis("pt-BR")).thenReturn("Análise...");
+            when(reportJobService.await(job)).thenReturn(analysisResponse("Análise..."));
 
             // When/Then
             mockMvc.perform(get("/api/reports/analysis"))
                     .andExpect(status().isOk())
                     .andExpect(jsonPath("$.success", is(true)));
 
-            verify(reportService).generateFinancialAnalysis("pt-BR");
+            verify(reportJobService).submit("pt-BR");
         }
 
         @Test
         @DisplayName("should handle error gracefully")
         void shouldHandleErrorGracefully() throws Exception {
             // Given
-            when(reportService.generateFinancialAnalysis(anyString()))
-                    .thenThrow(new RuntimeException("Ollama connection failed"));
+            when(reportJobService.await(job))
+                    .thenThrow(new IllegalStateException("Ollama connection failed"));
 
             // When/Then
             mockMvc.perform(get("/api/reports/analysis"))
@@ -108,8 +158,8 @@ class ReportControllerTest {
         @DisplayName("should return error message in Portuguese on failure")
         void shouldReturnErrorInPortuguese() throws Exception {
             // Given
-            when(reportService.generateFinancialAnalysis("pt-BR"))
-                    .thenThrow(new RuntimeException("Connection timeout"));
+            when(reportJobService.await(job))
+                    .thenThrow(new IllegalStateException("Connection timeout"));
 
             // When/Then
             mockMvc.perform(get("/api/reports/analysis")
@@ -123,8 +173,8 @@ class ReportControllerTest {
         @DisplayName("should return error message in English on failure")
         void shouldReturnErrorInEnglish() throws Exception {
             // Given
-            when(reportService.generateFinancialAnalysis("en"))
-                    .thenThrow(new RuntimeException("Connection timeout"));
+            when(reportJobService.await(job))
+                    .thenThrow(new IllegalStateException("Connection timeout"));
 
             // When/Then
             mockMvc.perform(get("/api/reports/analysis")
@@ -133,5 +183,248 @@ class ReportControllerTest {
                     .andExpect(jsonPath("$.success", is(false)))
                     .andExpect(jsonPath("$.errorMessage", containsString("Error generating analysis")));
         }
+
+        @Test
+        @DisplayName("should return 503 when the queue is full")
+        void shouldReturn503WhenQueueFull() throws Exception {
+            // Given
+            when(reportJobService.submit("pt-BR")).thenThrow(new RejectedExecutionException());
+
+            // When/Then
+            mockMvc.perform(get("/api/reports/analysis"))
+                    .andExpect(status().isServiceUnavailable());
+
+            verify(reportJobService, never()).await(any());
+        }
+
+        @Test
+        @DisplayName("should release the job and keep the interrupt flag when interrupted")
+        void shouldReleaseJobWhenInterrupted() throws Exception {
+            // Given
+            when(job.getId()).thenReturn("job-1");
+            when(reportJobService.await(job)).thenThrow(new InterruptedException());
+
+            try {
+                // When/Then
+                mockMvc.perform(get("/api/reports/analysis"))
+                        .andExpect(status().isInternalServerError());
+
+                assertThat(Thread.currentThread().isInterrupted(), is(true));
+                verify(reportJobService).cancel("job-1");
+            } finally {
+                Thread.interrupted();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/reports/analysis/stream")
+    class StreamAnalysisTests {
+
+        @Test
+        @DisplayName("should stream chunks followed by a done event")
+        void shouldStreamChunksAndDone() throws Exception {
+            // Given
+            when(reportJobService.stream(job)).thenReturn(Flux.just(
+                    ReportAnalysisResponse.builder().analysis("## Diag").success(true).build(),
+                    ReportAnalysisResponse.builder().analysis(" nostico").success(true).build(),
+                    analysisResponse(null)));
+
+            // When
+            MvcResult result = mockMvc.perform(get("/api/reports/analysis/stream"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            // Then
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                    .andExpect(content().string(stringContainsInOrder(
+                            "event:chunk", "\"analysis\":\"## Diag\"",
+                            "event:chunk", "\"analysis\":\" nostico\"",
+                            "event:done", "\"generatedAt\":\"2024-01-01T10:00:00\"")));
+        }
+
+        @Test
+        @DisplayName("should submit a job for the requested language")
+        void shouldSubmitJob() throws Exception {
+            // Given
+            when(reportJobService.stream(job)).thenReturn(Flux.just(analysisResponse(null)));
+
+            // When
+            MvcResult result = mockMvc.perform(get("/api/reports/analysis/stream").param("language", "en"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            // Then
+            mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+            verify(reportJobService).submit("en");
+        }
+
+        @Test
+        @DisplayName("should emit an error event when the model fails mid-stream")
+        void shouldEmitErrorEvent() throws Exception {
+            // Given
+            when(reportJobService.stream(job)).thenReturn(Flux.concat(
+                    Flux.just(ReportAnalysisResponse.builder().analysis("partial").success(true).build()),
+                    Flux.error(new RuntimeException("Connection refused"))));
+
+            // When
+            MvcResult result = mockMvc.perform(get("/api/reports/analysis/stream").param("language", "en"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            // Then
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string(stringContainsInOrder(
+                            "event:chunk", "partial",
+                            "event:error", "Error generating analysis", "Connection refused")));
+        }
+    }
+
+    @Nested
+    @DisplayName("/api/reports/jobs")
+    class JobTests {
+
+        private ReportJobResponse jobResponse(ReportJobService.Status status) {
+            return ReportJobResponse.builder()
+                    .id("job-1")
+                    .status(status)
+                    .language("pt-BR")
+                    .analysis("## Diag")
+                    .build();
+        }
+
+        @Test
+        @DisplayName("should accept job and point to its status")
+        void shouldAcceptJob() throws Exception {
+            // Given
+            when(job.getId()).thenReturn("job-1");
+            when(job.toResponse()).thenReturn(jobResponse(ReportJobService.Status.QUEUED));
+
+            // When/Then
+            mockMvc.perform(post("/api/reports/jobs"))
+                    .andExpect(status().isAccepted())
+                    .andExpect(header().string("Location", "/api/reports/jobs/job-1"))
+                    .andExpect(jsonPath("$.status", is("QUEUED")));
+
+            verify(reportJobService).submit("pt-BR");
+        }
+
+        @Test
+        @DisplayName("should return 503 when the queue is full")
+        void shouldReturn503WhenQueueFull() throws Exception {
+            // Given
+            when(reportJobService.submit("pt-BR")).thenThrow(new RejectedExecutionException());
+
+            // When/Then
+            mockMvc.perform(post("/api/reports/jobs"))
+                    .andExpect(status().isServiceUnavailable());
+        }
+
+        @Test
+        @DisplayName("should return job status with partial analysis")
+        void shouldReturnJobStatus() throws Exception {
+            // Given
+            when(reportJobService.get("job-1")).thenReturn(job);
+            when(job.toResponse()).thenReturn(jobResponse(ReportJobService.Status.RUNNING));
+
+            // When/Then
+            mockMvc.perform(get("/api/reports/jobs/job-1"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.status", is("RUNNING")))
+                    .andExpect(jsonPath("$.analysis", is("## Diag")));
+        }
+
+        @Test
+        @DisplayName("should return 404 for unknown job")
+        void shouldReturn404ForUnknownJob() throws Exception {
+            // Given
+            when(reportJobService.get("nope")).thenThrow(new EntityNotFoundException("Job de relatório não encontrado"));
+
+            // When/Then
+            mockMvc.perform(get("/api/reports/jobs/nope"))
+                    .andExpect(status().isNotFound());
+        }
+
+        @Test
+        @DisplayName("should cancel job")
+        void shouldCancelJob() throws Exception {
+            // Given
+            when(reportJobService.cancel("job-1")).thenReturn(job);
+            when(job.toResponse()).thenReturn(jobResponse(ReportJobService.Status.CANCELLED));
+
+            // When/Then
+            mockMvc.perform(delete("/api/reports/jobs/job-1"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.status", is("CANCELLED")));
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/reports/rollup")
+    class RollupTests {
+
+        @Test
+        @DisplayName("should query rollups with parsed range and dimensions")
+        void shouldQueryRollups() throws Exception {
+            // Given
+            RollupResponse row = RollupResponse.builder()
+                    .categoryId(1L)
+                    .categoryName("Alimentação")
+                    .type(TransactionType.EXPENSE)
+                    .total(new BigDecimal("150.00"))
+                    .count(3)
+                    .build();
+            when(monthlyRollupService.query(YearMonth.of(2024, 1), YearMonth.of(2024, 3),
+                    Set.of("category", "type"))).thenReturn(List.of(row));
+
+            // When/Then
+            mockMvc.perform(get("/api/reports/rollup")
+                    .param("from", "2024-01")
+                    .param("to", "2024-03")
+                    .param("groupBy", "category, type"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(1)))
+                    .andExpect(jsonPath("$[0].categoryName", is("Alimentação")))
+                    .andExpect(jsonPath("$[0].total", is(150.00)))
+                    .andExpect(jsonPath("$[0].month").doesNotExist());
+        }
+
+        @Test
+        @DisplayName("should default to all dimensions and open range")
+        void shouldUseDefaults() throws Exception {
+            // Given
+            when(monthlyRollupService.query(null, null, Set.of("month", "category", "type")))
+                    .thenReturn(List.of());
+
+            // When/Then
+            mockMvc.perform(get("/api/reports/rollup"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(0)));
+        }
+
+        @Test
+        @DisplayName("should return 400 for malformed month")
+        void shouldReturn400ForMalformedMonth() throws Exception {
+            // When/Then
+            mockMvc.perform(get("/api/reports/rollup").param("from", "2024-13"))
+                    .andExpect(status().isBadRequest());
+
+            verify(monthlyRollupService, never()).query(any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("should rebuild rollups on demand")
+        void shouldRebuild() throws Exception {
+            // Given
+            when(monthlyRollupService.rebuild()).thenReturn(12);
+
+            // When/Then
+            mockMvc.perform(post("/api/reports/rollup/rebuild"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.rows", is(12)));
+        }
     }
 }
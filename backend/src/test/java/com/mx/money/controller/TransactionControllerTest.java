@@ -3,12 +3,17 @@ package com.mx.money.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mx.money.exception.GlobalExceptionHandler;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mx.money.dto.TransactionBatch;
+import com.mx.money.dto.TransactionBatchUndoResponse;
 import com.mx.money.dto.TransactionRequest;
 import com.mx.money.dto.TransactionResponse;
 import com.mx.money.entity.RecurrenceType;
 import com.mx.money.entity.TransactionType;
 import com.mx.money.service.RecurringTransactionService;
+import com.mx.money.service.TransactionBatchService;
+import com.mx.money.service.TransactionExportService;
 import com.mx.money.service.TransactionService;
+import com.mx.money.service.LedgerVersionService;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -17,15 +22,19 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -43,6 +52,15 @@ class TransactionControllerTest {
     @Mock
     private RecurringTransactionService recurringTransactionService;
 
+    @Mock
+    private TransactionExportService transactionExportService;
+
+    @Mock
+    private TransactionBatchService transactionBatchService;
+
+    @Spy
+    private LedgerVersionService ledgerVersionService = new LedgerVersionService();
+
     @InjectMocks
     private TransactionController transactionController;
 
@@ -226,6 +244,55 @@ class TransactionControllerTest {
         }
     }
 
+    @Nested
+    @DisplayName("/api/transactions/batches")
+    class BatchTests {
+
+        @Test
+        @DisplayName("should list batches with their kind")
+        void shouldListBatches() throws Exception {
+            // Given
+            when(transactionBatchService.findAll()).thenReturn(List.of(TransactionBatch.builder()
+                    .batchId("import-1234")
+                    .transactionCount(120L)
+                    .firstDate(LocalDate.of(2024, 1, 1))
+                    .lastDate(LocalDate.of(2024, 1, 31))
+                    .build()));
+
+            // When/Then
+            mockMvc.perform(get("/api/transactions/batches"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].batchId", is("import-1234")))
+                    .andExpect(jsonPath("$[0].kind", is("import")))
+                    .andExpect(jsonPath("$[0].transactionCount", is(120)));
+        }
+
+        @Test
+        @DisplayName("should undo a batch")
+        void shouldUndoBatch() throws Exception {
+            // Given
+            when(transactionBatchService.undo("import-1234")).thenReturn(TransactionBatchUndoResponse.builder()
+                    .batchId("import-1234").deletedTransactions(120).deletedCategories(2).build());
+
+            // When/Then
+            mockMvc.perform(delete("/api/transactions/batches/import-1234"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.deletedTransactions", is(120)))
+                    .andExpect(jsonPath("$.deletedCategories", is(2)));
+        }
+
+        @Test
+        @DisplayName("should return 404 for an unknown batch")
+        void shouldReturn404ForUnknownBatch() throws Exception {
+            // Given
+            when(transactionBatchService.undo("import-0")).thenThrow(new EntityNotFoundException("Lote não encontrado"));
+
+            // When/Then
+            mockMvc.perform(delete("/api/transactions/batches/import-0"))
+                    .andExpect(status().isNotFound());
+        }
+    }
+
     @Nested
     @DisplayName("POST /api/transactions/generate-recurring")
     class GenerateRecurringTests {
@@ -256,4 +323,67 @@ class TransactionControllerTest {
                     .andExpect(jsonPath("$.message", containsString("Nenhuma transação pendente")));
         }
     }
+
+    @Nested
+    @DisplayName("GET /api/transactions/export")
+    class ExportTests {
+
+        @Test
+        @DisplayName("should stream transactions as NDJSON by default")
+        void shouldStreamNdjsonByDefault() throws Exception {
+            // Given
+            doAnswer(invocation -> {
+                OutputStream os = invocation.getArgument(0);
+                os.write("{\"id\":1}\n{\"id\":2}\n".getBytes());
+                return 2L;
+            }).when(transactionExportService).exportNdjson(any(OutputStream.class));
+
+            // When
+            MvcResult result = mockMvc.perform(get("/api/transactions/export"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            // Then - sem o limite assíncrono global
+            assertThat(result.getRequest().getAsyncContext().getTimeout(), is(-1L));
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Content-Disposition", containsString("transactions.ndjson")))
+                    .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                    .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+
+            verify(transactionExportService, never()).exportCsv(any());
+        }
+
+        @Test
+        @DisplayName("should stream transactions as CSV")
+        void shouldStreamCsv() throws Exception {
+            // Given
+            doAnswer(invocation -> {
+                OutputStream os = invocation.getArgument(0);
+                os.write("id,effectiveDate\n".getBytes());
+                return 0L;
+            }).when(transactionExportService).exportCsv(any(OutputStream.class));
+
+            // When
+            MvcResult result = mockMvc.perform(get("/api/transactions/export").param("format", "csv"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            // Then
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Content-Disposition", containsString("transactions.csv")))
+                    .andExpect(content().string(containsString("id,effectiveDate")));
+        }
+
+        @Test
+        @DisplayName("should return 400 for unknown format")
+        void shouldReturn400ForUnknownFormat() throws Exception {
+            // When/Then
+            mockMvc.perform(get("/api/transactions/export").param("format", "xml"))
+                    .andExpect(status().isBadRequest());
+
+            verifyNoInteractions(transactionExportService);
+        }
+    }
 }
@@ -0,0 +1,143 @@
+package com.mx.money.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.mx.money.entity.RecurrenceType;
+import com.mx.money.entity.TransactionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.module.blackbird.BlackbirdModule;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark de serialização (tamanho do payload e tempo) para 50 mil
+ * transações, comparando payload cru x gzip e Jackson padrão x Blackbird.
+ * <p>
+ * Em JDK 21 + Jackson 3 o Blackbird não trouxe ganho (a reflexão do JDK já usa
+ * method handles), por isso ele não é registrado na aplicação; a compressão
+ * gzip reduz o payload para ~7% do tamanho original.
+ * <p>
+ * Desabilitado por padrão; execute com:
+ * {@code mvn test -Dtest=JsonPayloadBenchmarkTest -Dbenchmark=true}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DisplayName("JSON payload benchmark")
+class JsonPayloadBenchmarkTest {
+
+    private static final int ROWS = 50_000;
+    private static final int WARMUP = 30;
+    private static final int ITERATIONS = 30;
+
+    @Test
+    @DisplayName("should compare serialization time and payload size")
+    void compareSerialization() throws IOException {
+        List<TransactionResponse> transactions = buildTransactions();
+        List<BalanceProjection> projection = buildProjection(transactions);
+
+        ObjectMapper plain = mapperBuilder().build();
+        ObjectMapper blackbird = mapperBuilder().addModule(new BlackbirdModule()).build();
+
+        byte[] json = plain.writeValueAsBytes(transactions);
+        assertThat(blackbird.writeValueAsBytes(transactions)).isEqualTo(json);
+
+        System.out.printf("%n=== %,d transações ===%n", ROWS);
+        report("transactions", plain, blackbird, transactions);
+        report("projection (365 dias)", plain, blackbird, projection);
+    }
+
+    private void report(String label, ObjectMapper plain, ObjectMapper blackbird, Object payload)
+            throws IOException {
+        byte[] json = plain.writeValueAsBytes(payload);
+        byte[] gzipped = gzip(json);
+
+        double plainMs = measure(plain, payload);
+        double blackbirdMs = measure(blackbird, payload);
+
+        System.out.printf("%s%n", label);
+        System.out.printf("  payload: %,d bytes | gzip: %,d bytes (%.1f%%)%n",
+                json.length, gzipped.length, 100.0 * gzipped.length / json.length);
+        System.out.printf("  serialização: padrão %.1f ms | blackbird %.1f ms (%.1f%%)%n",
+                plainMs, blackbirdMs, 100.0 * blackbirdMs / plainMs);
+    }
+
+    private double measure(ObjectMapper mapper, Object payload) {
+        for (int i = 0; i < WARMUP; i++) {
+            mapper.writeValueAsBytes(payload);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.writeValueAsBytes(payload);
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+    }
+
+    private JsonMapper.Builder mapperBuilder() {
+        // Mesma inclusão configurada em application.properties
+        return JsonMapper.builder()
+                .changeDefaultPropertyInclusion(incl -> incl.withValueInclusion(JsonInclude.Include.NON_NULL));
+    }
+
+    private byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(baos)) {
+            gzip.write(data);
+        }
+        return baos.toByteArray();
+    }
+
+    private List<TransactionResponse> buildTransactions() {
+        List<CategoryResponse> categories = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            categories.add(CategoryResponse.builder()
+                    .id((long) i + 1)
+                    .name("Categoria " + (i + 1))
+                    .color("#6366F1")
+                    .createdAt(LocalDateTime.of(2024, 1, 1, 10, 0))
+                    .build());
+        }
+
+        List<TransactionResponse> transactions = new ArrayList<>(ROWS);
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        for (int i = 0; i < ROWS; i++) {
+            LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 10, 0).plusMinutes(i);
+            transactions.add(TransactionResponse.builder()
+                    .id((long) i + 1)
+                    .description("Compra no estabelecimento " + (i % 500))
+                    .amount(BigDecimal.valueOf(1000 + i % 90_000, 2))
+                    .effectiveDate(start.plusDays(i % 2000))
+                    .type(i % 10 == 0 ? TransactionType.INCOME : TransactionType.EXPENSE)
+                    .recurrence(RecurrenceType.NONE)
+                    .category(categories.get(i % categories.size()))
+                    .createdAt(createdAt)
+                    .updatedAt(createdAt)
+                    .build());
+        }
+        return transactions;
+    }
+
+    private List<BalanceProjection> buildProjection(List<TransactionResponse> transactions) {
+        List<BalanceProjection> projection = new ArrayList<>(365);
+        LocalDate today = LocalDate.of(2024, 1, 1);
+        int perDay = transactions.size() / 365;
+        for (int d = 0; d < 365; d++) {
+            projection.add(BalanceProjection.builder()
+                    .date(today.plusDays(d))
+                    .balance(BigDecimal.valueOf(100_000 - d * 100L, 2))
+                    .transactions(transactions.subList(d * perDay, (d + 1) * perDay))
+                    .build());
+        }
+        return projection;
+    }
+}
@@ -0,0 +1,135 @@
+package com.mx.money.service;
+
+import com.mx.money.dto.BackupManifest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("BackupArchiveService Tests")
+class BackupArchiveServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path database;
+    private BackupArchiveService backupArchiveService;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        backupArchiveService = new BackupArchiveService(JsonMapper.builder().build());
+        database = tempDir.resolve("snapshot.db");
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + database);
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE transactions (id INTEGER PRIMARY KEY, description TEXT)");
+            statement.execute("CREATE TABLE categories (id INTEGER PRIMARY KEY, name TEXT)");
+            for (int i = 0; i < 500; i++) {
+                statement.execute("INSERT INTO transactions (description) VALUES ('Compra numero " + i + "')");
+            }
+            statement.execute("INSERT INTO categories (name) VALUES ('Alimentação')");
+        }
+    }
+
+    @Nested
+    @DisplayName("write")
+    class WriteTests {
+
+        @Test
+        @DisplayName("should compress the database and embed a manifest")
+        void shouldWriteArchive() throws IOException {
+            // Given
+            Path archive = tempDir.resolve("backup.zip");
+
+            // When
+            BackupManifest manifest = backupArchiveService.write(database, archive);
+
+            // Then
+            assertThat(Files.size(archive)).isLessThan(Files.size(database));
+            assertThat(manifest.getSha256()).hasSize(64);
+            assertThat(manifest.getDatabaseSize()).isEqualTo(Files.size(database));
+            assertThat(manifest.getRowCounts()).containsEntry("transactions", 500L).containsEntry("categories", 1L);
+            assertThat(manifest.getFormatVersion()).isEqualTo(BackupArchiveService.FORMAT_VERSION);
+
+            BackupManifest read = backupArchiveService.readManifest(archive);
+            assertThat(read.getSha256()).isEqualTo(manifest.getSha256());
+            assertThat(tempDir.resolve("backup.zip.tmp")).doesNotExist();
+        }
+    }
+
+    @Nested
+    @DisplayName("extract")
+    class ExtractTests {
+
+        @Test
+        @DisplayName("should restore a byte-identical database")
+        void shouldExtractDatabase() throws IOException {
+            // Given
+            Path archive = tempDir.resolve("backup.zip");
+            backupArchiveService.write(database, archive);
+            Path restored = tempDir.resolve("restored.db");
+
+            // When
+            backupArchiveService.extract(archive, restored);
+
+            // Then
+            assertThat(Files.readAllBytes(restored)).isEqualTo(Files.readAllBytes(database));
+        }
+
+        @Test
+        @DisplayName("should reject an archive whose database does not match the checksum")
+        void shouldRejectTamperedArchive() throws IOException {
+            // Given - mesmo manifesto, banco diferente
+            Path archive = tempDir.resolve("backup.zip");
+            backupArchiveService.write(database, archive);
+            Path tampered = tempDir.resolve("tampered.zip");
+            try (ZipFile original = new ZipFile(archive.toFile());
+                    ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(tampered))) {
+                out.putNextEntry(new ZipEntry(BackupArchiveService.DATABASE_ENTRY));
+                out.write("not the same database".getBytes());
+                out.closeEntry();
+                out.putNextEntry(new ZipEntry(BackupArchiveService.MANIFEST_ENTRY));
+                original.getInputStream(original.getEntry(BackupArchiveService.MANIFEST_ENTRY)).transferTo(out);
+                out.closeEntry();
+            }
+            Path restored = tempDir.resolve("restored.db");
+
+            // When/Then
+            assertThatThrownBy(() -> backupArchiveService.extract(tampered, restored))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("checksum");
+            assertThat(restored).doesNotExist();
+        }
+
+        @Test
+        @DisplayName("should reject a truncated archive")
+        void shouldRejectTruncatedArchive() throws IOException {
+            // Given
+            Path archive = tempDir.resolve("backup.zip");
+            backupArchiveService.write(database, archive);
+            byte[] bytes = Files.readAllBytes(archive);
+            try (OutputStream out = Files.newOutputStream(archive)) {
+                out.write(bytes, 0, bytes.length / 2);
+            }
+
+            // When/Then
+            assertThatThrownBy(() -> backupArchiveService.verify(archive)).isInstanceOf(IOException.class);
+        }
+    }
+}
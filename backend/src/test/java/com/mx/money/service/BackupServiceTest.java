@@ -0,0 +1,353 @@
+package com.mx.money.service;
+
+import com.mx.money.dto.BackupManifest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("BackupService Tests")
+class BackupServiceTest {
+
+    private static final Instant NOW = Instant.parse("2024-06-01T12:00:00Z");
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private LedgerVersionService ledgerVersionService;
+
+    @Mock
+    private MonthlyRollupService monthlyRollupService;
+
+    @Mock
+    private DatabaseSnapshotService databaseSnapshotService;
+
+    @Mock
+    private BackupArchiveService backupArchiveService;
+
+    @Mock
+    private ChunkedBackupService chunkedBackupService;
+
+    @Mock
+    private DatabaseSwapService databaseSwapService;
+
+    @Mock
+    private LogicalBackupService logicalBackupService;
+
+    @Mock
+    private ChangeJournalService changeJournalService;
+
+    @Mock
+    private ScheduledExecutorService scheduler;
+
+    @Mock
+    private ScheduledFuture<?> future;
+
+    private Path backupDir;
+    private BackupService backupService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        backupDir = tempDir.resolve("backups");
+        Files.writeString(tempDir.resolve("live.db"), "db");
+        doReturn(future).when(scheduler).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+        when(ledgerVersionService.etag(LedgerVersionService.Resource.values())).thenReturn("W/\"v1\"");
+        // The archive writer creates the file, as the real one does
+        doAnswer(invocation -> {
+            Path archive = invocation.getArgument(1, Path.class);
+            Files.writeString(archive, "archive");
+            Files.setLastModifiedTime(archive, FileTime.from(NOW));
+            return new BackupManifest();
+        }).when(backupArchiveService).write(any(), any());
+    }
+
+    private BackupService newService() {
+        BackupService service = new BackupService(ledgerVersionService, monthlyRollupService,
+                databaseSnapshotService, backupArchiveService, chunkedBackupService, databaseSwapService,
+                logicalBackupService, changeJournalService, tempDir.resolve("backup-settings.properties"),
+                Clock.fixed(NOW, ZoneOffset.UTC), scheduler);
+        ReflectionTestUtils.setField(service, "datasourceUrl", "jdbc:sqlite:" + tempDir.resolve("live.db"));
+        return service;
+    }
+
+    private void existingBackup(String name, Duration age) throws IOException {
+        Path file = backupDir.resolve(name);
+        Files.createDirectories(backupDir);
+        Files.writeString(file, "archive");
+        Files.setLastModifiedTime(file, FileTime.from(NOW.minus(age)));
+    }
+
+    private void verifyScheduledIn(Duration delay) {
+        verify(scheduler).schedule(any(Runnable.class), eq(delay.toMillis()), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Nested
+    @DisplayName("createBackup")
+    class CreateBackupTests {
+
+        @Test
+        @DisplayName("should never reuse the name of an existing backup")
+        void shouldUseUniqueNames() throws IOException {
+            // Given
+            backupService = newService();
+
+            // When - same clock reading for every backup
+            String first = backupService.createBackup();
+            String second = backupService.createBackup();
+            String third = backupService.createBackup();
+
+            // Then
+            assertThat(List.of(first, second, third)).doesNotHaveDuplicates()
+                    .allSatisfy(name -> assertThat(backupDir.resolve(name)).exists());
+            assertThat(first).isEqualTo("backup_2024-06-01_12-00-00-000.zip");
+            verify(changeJournalService).checkpoint(eq(second), anyLong());
+            verify(changeJournalService).checkpoint(eq(third), anyLong());
+        }
+    }
+
+    @Nested
+    @DisplayName("restoreBackup")
+    class RestoreBackupTests {
+
+        private static final String LOGICAL = "backup_2024-05-30_12-00-00-000" + LogicalBackupService.EXTENSION;
+
+        @BeforeEach
+        void setUp() throws IOException {
+            existingBackup(LOGICAL, Duration.ofHours(50));
+            backupService = newService();
+        }
+
+        @Test
+        @DisplayName("should redo a partial restore when the database changed meanwhile")
+        void shouldRedoPartialRestoreAfterConcurrentWrite() throws IOException {
+            // Given - a write commits while the first copy is restored, none during the second
+            when(ledgerVersionService.etag(LedgerVersionService.Resource.values()))
+                    .thenReturn("W/\"v1\"", "W/\"v1\"", "W/\"v2\"", "W/\"v2\"");
+            when(databaseSwapService.replace(any(), any())).thenAnswer(invocation ->
+                    invocation.getArgument(1, BooleanSupplier.class).getAsBoolean());
+
+            // When
+            backupService.restoreBackup(LOGICAL, List.of("categories"));
+
+            // Then - restored twice over a fresh copy, replaced once
+            verify(databaseSnapshotService, times(2)).snapshot(any());
+            verify(logicalBackupService, times(2)).restore(any(), any(), eq(List.of("categories")));
+            verify(databaseSwapService, times(2)).replace(any(), any());
+            verify(ledgerVersionService).markAllChanged();
+        }
+
+        @Test
+        @DisplayName("should give up without replacing when the database keeps changing")
+        void shouldGiveUpWhenDatabaseKeepsChanging() throws IOException {
+            // Given
+            when(databaseSwapService.replace(any(), any())).thenReturn(false);
+
+            // When / Then
+            assertThatThrownBy(() -> backupService.restoreBackup(LOGICAL, List.of("categories")))
+                    .isInstanceOf(IllegalStateException.class);
+            verify(databaseSwapService, times(3)).replace(any(), any());
+            verify(ledgerVersionService, never()).markAllChanged();
+        }
+    }
+
+    @Nested
+    @DisplayName("schedule")
+    class ScheduleTests {
+
+        @Test
+        @DisplayName("should schedule one interval after the newest backup")
+        void shouldScheduleFromNewestBackup() throws IOException {
+            // Given
+            existingBackup("backup_2024-05-30_12-00-00.zip", Duration.ofHours(50));
+            existingBackup("backup_2024-06-01_10-00-00.zip", Duration.ofHours(2));
+            backupService = newService();
+
+            // When
+            backupService.startScheduler();
+
+            // Then
+            verifyScheduledIn(Duration.ofHours(22));
+            assertThat(backupService.getSettings()).containsEntry("nextBackupAt",
+                    NOW.plus(Duration.ofHours(22)).toString());
+        }
+
+        @Test
+        @DisplayName("should wait the startup delay when a backup is overdue")
+        void shouldWaitStartupDelayWhenOverdue() throws IOException {
+            // Given
+            existingBackup("backup_2024-05-30_12-00-00.zip", Duration.ofHours(30));
+            backupService = newService();
+
+            // When
+            backupService.startScheduler();
+
+            // Then
+            verifyScheduledIn(Duration.ofMinutes(1));
+        }
+
+        @Test
+        @DisplayName("should schedule a full interval from now without backups")
+        void shouldScheduleFromNowWithoutBackups() {
+            // Given
+            backupService = newService();
+
+            // When
+            backupService.startScheduler();
+
+            // Then
+            verifyScheduledIn(Duration.ofHours(24));
+        }
+
+        @Test
+        @DisplayName("should reschedule when the interval changes")
+        void shouldRescheduleOnIntervalChange() throws IOException {
+            // Given
+            existingBackup("backup_2024-06-01_10-00-00.zip", Duration.ofHours(2));
+            backupService = newService();
+            backupService.startScheduler();
+
+            // When
+            backupService.setBackupInterval(4);
+
+            // Then
+            verify(future).cancel(false);
+            verifyScheduledIn(Duration.ofHours(2));
+        }
+
+        @Test
+        @DisplayName("should stop scheduling when auto backup is disabled and resume when enabled")
+        void shouldFollowAutoBackupFlag() {
+            // Given
+            backupService = newService();
+            backupService.startScheduler();
+            clearInvocations(scheduler);
+
+            // When
+            backupService.setAutoBackupEnabled(false);
+
+            // Then
+            verify(future).cancel(false);
+            verify(scheduler, never()).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+            assertThat(backupService.getSettings()).doesNotContainKey("nextBackupAt");
+
+            // When
+            backupService.setAutoBackupEnabled(true);
+
+            // Then
+            verifyScheduledIn(Duration.ofHours(24));
+        }
+    }
+
+    @Nested
+    @DisplayName("scheduledBackup")
+    class ScheduledBackupTests {
+
+        @BeforeEach
+        void setUp() {
+            backupService = newService();
+            backupService.startScheduler();
+            clearInvocations(scheduler);
+        }
+
+        @Test
+        @DisplayName("should write a throttled backup and schedule the next one")
+        void shouldBackupAndReschedule() throws IOException {
+            // When
+            backupService.scheduledBackup();
+
+            // Then
+            verify(databaseSnapshotService).snapshot(any(), eq(true));
+            verify(backupArchiveService).write(any(), any());
+            verifyScheduledIn(Duration.ofHours(24));
+        }
+
+        @Test
+        @DisplayName("should skip the run when the ledger did not change")
+        void shouldSkipWhenUnchanged() throws IOException {
+            // Given
+            backupService.scheduledBackup();
+
+            // When
+            backupService.scheduledBackup();
+
+            // Then
+            verify(backupArchiveService, times(1)).write(any(), any());
+            verify(scheduler, times(2)).schedule(any(Runnable.class), eq(Duration.ofHours(24).toMillis()),
+                    eq(TimeUnit.MILLISECONDS));
+        }
+
+        @Test
+        @DisplayName("should back up again once the ledger changed")
+        void shouldBackupAfterChange() throws IOException {
+            // Given
+            backupService.scheduledBackup();
+            when(ledgerVersionService.etag(LedgerVersionService.Resource.values())).thenReturn("W/\"v2\"");
+
+            // When
+            backupService.scheduledBackup();
+
+            // Then
+            verify(backupArchiveService, times(2)).write(any(), any());
+        }
+
+        @Test
+        @DisplayName("should reschedule a full interval after a failure and retry on the next run")
+        void shouldRescheduleAfterFailure() throws IOException {
+            // Given
+            doThrow(new IOException("disk full")).doNothing()
+                    .when(databaseSnapshotService).snapshot(any(), anyBoolean());
+
+            // When
+            backupService.scheduledBackup();
+
+            // Then
+            verify(backupArchiveService, never()).write(any(), any());
+            verifyScheduledIn(Duration.ofHours(24));
+
+            // When
+            backupService.scheduledBackup();
+
+            // Then
+            verify(backupArchiveService).write(any(), any());
+        }
+    }
+}
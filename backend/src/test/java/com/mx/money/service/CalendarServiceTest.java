@@ -0,0 +1,130 @@
+package com.mx.money.service;
+
+import com.mx.money.dto.CalendarDayResponse;
+import com.mx.money.dto.CalendarMonthResponse;
+import com.mx.money.dto.DailyTotal;
+import com.mx.money.entity.RecurrenceType;
+import com.mx.money.entity.Transaction;
+import com.mx.money.entity.TransactionType;
+import com.mx.money.repository.TransactionRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CalendarService Tests")
+class CalendarServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @InjectMocks
+    private CalendarService calendarService;
+
+    private static final YearMonth MONTH = YearMonth.of(2024, 3);
+
+    @Nested
+    @DisplayName("getMonth")
+    class GetMonthTests {
+
+        @Test
+        @DisplayName("should return empty month when there are no transactions")
+        void shouldReturnEmptyMonth() {
+            // Given
+            when(transactionRepository.sumByDayAndType(MONTH.atDay(1), MONTH.atEndOfMonth())).thenReturn(List.of());
+            when(transactionRepository.findByRecurrenceNot(RecurrenceType.NONE)).thenReturn(List.of());
+
+            // When
+            CalendarMonthResponse result = calendarService.getMonth(MONTH, false);
+
+            // Then
+            assertThat(result.getMonth()).isEqualTo("2024-03");
+            assertThat(result.getDays()).isEmpty();
+            assertThat(result.getBalance()).isEqualByComparingTo("0");
+        }
+
+        @Test
+        @DisplayName("should merge income and expense totals of the same day")
+        void shouldMergeTotalsOfSameDay() {
+            // Given
+            LocalDate day = LocalDate.of(2024, 3, 5);
+            when(transactionRepository.sumByDayAndType(any(), any())).thenReturn(List.of(
+                    new DailyTotal(day, TransactionType.INCOME, new BigDecimal("1000.00"), 1L),
+                    new DailyTotal(day, TransactionType.EXPENSE, new BigDecimal("250.00"), 2L)));
+            when(transactionRepository.findByRecurrenceNot(RecurrenceType.NONE)).thenReturn(List.of());
+
+            // When
+            CalendarMonthResponse result = calendarService.getMonth(MONTH, false);
+
+            // Then
+            assertThat(result.getDays()).hasSize(1);
+            CalendarDayResponse dayResponse = result.getDays().get(0);
+            assertThat(dayResponse.getDate()).isEqualTo(day);
+            assertThat(dayResponse.getTotalIncome()).isEqualByComparingTo("1000.00");
+            assertThat(dayResponse.getTotalExpense()).isEqualByComparingTo("250.00");
+            assertThat(dayResponse.getNet()).isEqualByComparingTo("750.00");
+            assertThat(dayResponse.getCount()).isEqualTo(3);
+            assertThat(dayResponse.getTransactionIds()).isNull();
+            assertThat(result.getBalance()).isEqualByComparingTo("750.00");
+            verify(transactionRepository, never()).findIdsAndDatesInPeriod(any(), any());
+        }
+
+        @Test
+        @DisplayName("should project recurring occurrences not yet generated")
+        void shouldProjectPendingRecurringOccurrences() {
+            // Given - weekly template generated up to March 8th
+            Transaction weekly = Transaction.builder()
+                    .id(7L)
+                    .description("Feira")
+                    .amount(new BigDecimal("80.00"))
+                    .type(TransactionType.EXPENSE)
+                    .effectiveDate(LocalDate.of(2024, 2, 23))
+                    .recurrence(RecurrenceType.WEEKLY)
+                    .lastGeneratedDate(LocalDate.of(2024, 3, 8))
+                    .endDate(LocalDate.of(2024, 3, 25))
+                    .build();
+            when(transactionRepository.sumByDayAndType(any(), any())).thenReturn(List.of());
+            when(transactionRepository.findByRecurrenceNot(RecurrenceType.NONE)).thenReturn(List.of(weekly));
+
+            // When
+            CalendarMonthResponse result = calendarService.getMonth(MONTH, false);
+
+            // Then - 15th and 22nd (29th is after endDate)
+            assertThat(result.getDays()).extracting(CalendarDayResponse::getDate)
+                    .containsExactly(LocalDate.of(2024, 3, 15), LocalDate.of(2024, 3, 22));
+            assertThat(result.getTotalExpense()).isEqualByComparingTo("160.00");
+        }
+
+        @Test
+        @DisplayName("should include transaction ids when requested")
+        void shouldIncludeIdsWhenRequested() {
+            // Given
+            LocalDate day = LocalDate.of(2024, 3, 10);
+            when(transactionRepository.sumByDayAndType(any(), any())).thenReturn(List.of(
+                    new DailyTotal(day, TransactionType.EXPENSE, new BigDecimal("30.00"), 2L)));
+            when(transactionRepository.findIdsAndDatesInPeriod(any(), any())).thenReturn(List.of(
+                    new Object[] { 1L, day },
+                    new Object[] { 2L, day }));
+            when(transactionRepository.findByRecurrenceNot(RecurrenceType.NONE)).thenReturn(List.of());
+
+            // When
+            CalendarMonthResponse result = calendarService.getMonth(MONTH, true);
+
+            // Then
+            assertThat(result.getDays().get(0).getTransactionIds()).containsExactly(1L, 2L);
+        }
+    }
+}
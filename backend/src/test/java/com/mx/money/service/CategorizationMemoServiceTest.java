@@ -0,0 +1,124 @@
+package com.mx.money.service;
+
+import com.mx.money.dto.CategorizationMemoStats;
+import com.mx.money.entity.CategorizationMemo;
+import com.mx.money.repository.CategorizationMemoRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CategorizationMemoService Tests")
+class CategorizationMemoServiceTest {
+
+    @Mock
+    private CategorizationMemoRepository categorizationMemoRepository;
+
+    @Mock
+    private LedgerVersionService ledgerVersionService;
+
+    @InjectMocks
+    private CategorizationMemoService categorizationMemoService;
+
+    @Nested
+    @DisplayName("key")
+    class KeyTests {
+
+        @Test
+        @DisplayName("should normalize case, accents and punctuation and drop numeric tokens")
+        void shouldNormalize() {
+            assertThat(CategorizationMemoService.key("IFOOD *Restaurante 12/03")).isEqualTo("ifood restaurante");
+            assertThat(CategorizationMemoService.key("Pgto Farmácia São João 0042"))
+                    .isEqualTo("pgto farmacia sao joao");
+        }
+
+        @Test
+        @DisplayName("should keep numbers when the description has nothing else")
+        void shouldKeepNumericOnlyDescription() {
+            assertThat(CategorizationMemoService.key("99")).isEqualTo("99");
+        }
+    }
+
+    @Nested
+    @DisplayName("lookupAll")
+    class LookupTests {
+
+        @Test
+        @DisplayName("should resolve descriptions in one query and track the hit rate")
+        void shouldResolveAndTrackHits() {
+            // Given
+            when(categorizationMemoRepository.findAllById(Set.of("uber trip", "loja x"))).thenReturn(List.of(
+                    new CategorizationMemo("uber trip", "Transporte", LocalDateTime.now())));
+            when(categorizationMemoRepository.count()).thenReturn(1L);
+
+            // When
+            Map<String, String> result = categorizationMemoService.lookupAll(
+                    List.of("UBER *TRIP 1234", "Uber Trip", "Loja X"));
+            CategorizationMemoStats stats = categorizationMemoService.getStats();
+
+            // Then
+            assertThat(result).containsOnly(
+                    Map.entry("UBER *TRIP 1234", "Transporte"),
+                    Map.entry("Uber Trip", "Transporte"));
+            assertThat(stats.getLookups()).isEqualTo(3);
+            assertThat(stats.getHits()).isEqualTo(2);
+            assertThat(stats.getHitRate()).isEqualTo(2.0 / 3);
+            assertThat(stats.getEntries()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("rememberAll")
+    class RememberTests {
+
+        @Test
+        @SuppressWarnings("unchecked")
+        @DisplayName("should save one entry per key, keeping the last category")
+        void shouldKeepLastCategoryPerKey() {
+            // Given
+            Map<String, String> confirmed = new LinkedHashMap<>();
+            confirmed.put("Ifood *Pizza 01", "Lazer");
+            confirmed.put("IFOOD PIZZA 02", "Alimentação");
+            confirmed.put("Sem categoria", "");
+
+            // When
+            categorizationMemoService.rememberAll(confirmed);
+
+            // Then
+            ArgumentCaptor<Iterable<CategorizationMemo>> captor = ArgumentCaptor.forClass(Iterable.class);
+            verify(categorizationMemoRepository).saveAll(captor.capture());
+            List<CategorizationMemo> saved = new ArrayList<>();
+            captor.getValue().forEach(saved::add);
+            assertThat(saved).singleElement().satisfies(memo -> {
+                assertThat(memo.getDescriptionKey()).isEqualTo("ifood pizza");
+                assertThat(memo.getCategoryName()).isEqualTo("Alimentação");
+            });
+            verify(ledgerVersionService).markChanged(LedgerVersionService.Resource.CATEGORIZATION_MEMO);
+        }
+
+        @Test
+        @DisplayName("should not change the version when nothing is remembered")
+        void shouldKeepVersionWhenNothingSaved() {
+            // When
+            categorizationMemoService.rememberAll(Map.of("Sem categoria", " "));
+
+            // Then
+            verifyNoInteractions(categorizationMemoRepository, ledgerVersionService);
+        }
+    }
+}
@@ -34,6 +34,12 @@ class CategoryServiceTest {
     @Mock
     private CategoryMapper categoryMapper;
 
+    @Mock
+    private LedgerVersionService ledgerVersionService;
+
+    @Mock
+    private ChangeJournalService changeJournalService;
+
     @InjectMocks
     private CategoryService categoryService;
 
@@ -213,6 +219,7 @@ class CategoryServiceTest {
 
             // Then
             verify(categoryRepository).deleteById(1L);
+            verify(changeJournalService).recordChanged(ChangeJournalService.CATEGORIES, 1L);
         }
 
         @Test
@@ -0,0 +1,306 @@
+package com.mx.money.service;
+
+import com.mx.money.dto.ChangeJournalEntry;
+import com.mx.money.dto.ChangeJournalEntry.Operation;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("ChangeJournalService Tests")
+class ChangeJournalServiceTest {
+
+    private static final JsonMapper MAPPER = JsonMapper.builder().build();
+
+    @TempDir
+    Path tempDir;
+
+    private Path database;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private ChangeJournalService changeJournalService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        database = tempDir.resolve("live.db");
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource("jdbc:sqlite:" + database, true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate.execute("CREATE TABLE categories (id INTEGER PRIMARY KEY, name TEXT NOT NULL UNIQUE)");
+        jdbcTemplate.execute("CREATE TABLE transactions (id INTEGER PRIMARY KEY, description TEXT, "
+                + "amount REAL, effective_date INTEGER, category_id INTEGER)");
+        changeJournalService = newService();
+    }
+
+    private ChangeJournalService newService() throws IOException {
+        return new ChangeJournalService(jdbcTemplate, mock(EntityManager.class), MAPPER, "jdbc:sqlite:" + database);
+    }
+
+    private long insertTransaction(String description, double amount) {
+        jdbcTemplate.update("INSERT INTO transactions (description, amount, effective_date) VALUES (?, ?, ?)",
+                description, amount, 1704067200000L);
+        return jdbcTemplate.queryForObject("SELECT last_insert_rowid()", Long.class);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir.resolve("journal"))) {
+            return files.sorted().toList();
+        }
+    }
+
+    private List<ChangeJournalEntry> entries() throws IOException {
+        List<ChangeJournalEntry> entries = new ArrayList<>();
+        for (Path segment : segments()) {
+            for (String line : Files.readAllLines(segment)) {
+                entries.add(MAPPER.readValue(line, ChangeJournalEntry.class));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * "Backup": cópia do banco e checkpoint no diário
+     */
+    private Path backup(String name) throws IOException {
+        long from = changeJournalService.lastSequence();
+        Path copy = tempDir.resolve(name);
+        Files.copy(database, copy, StandardCopyOption.REPLACE_EXISTING);
+        changeJournalService.checkpoint(name, from);
+        return copy;
+    }
+
+    private List<Map<String, Object>> transactions(Path file) {
+        return new JdbcTemplate(new SingleConnectionDataSource("jdbc:sqlite:" + file, false))
+                .queryForList("SELECT * FROM transactions ORDER BY id");
+    }
+
+    private static void tick() throws InterruptedException {
+        Thread.sleep(5);
+    }
+
+    @Nested
+    @DisplayName("record")
+    class RecordTests {
+
+        @Test
+        @DisplayName("should write the stored row image after commit")
+        void shouldWriteRowImageAfterCommit() throws Exception {
+            // When
+            long id = transactionTemplate.execute(status -> {
+                long inserted = insertTransaction("Mercado", 150.25);
+                changeJournalService.recordChanged(ChangeJournalService.TRANSACTIONS, inserted);
+                return inserted;
+            });
+
+            // Then
+            List<ChangeJournalEntry> entries = entries();
+            assertThat(entries).hasSize(1);
+            ChangeJournalEntry entry = entries.getFirst();
+            assertThat(entry.getSeq()).isEqualTo(1);
+            assertThat(entry.getOp()).isEqualTo(Operation.UPSERT);
+            assertThat(entry.getId()).isEqualTo(id);
+            assertThat(entry.getRow()).containsEntry("description", "Mercado")
+                    .containsEntry("amount", 150.25)
+                    .containsEntry("effective_date", 1704067200000L);
+        }
+
+        @Test
+        @DisplayName("should write nothing when the transaction rolls back")
+        void shouldSkipRolledBackChanges() throws Exception {
+            // When
+            transactionTemplate.executeWithoutResult(status -> {
+                changeJournalService.recordChanged(ChangeJournalService.TRANSACTIONS,
+                        insertTransaction("Mercado", 10));
+                status.setRollbackOnly();
+            });
+
+            // Then
+            assertThat(segments()).isEmpty();
+            assertThat(changeJournalService.lastSequence()).isZero();
+        }
+
+        @Test
+        @DisplayName("should journal rows that no longer exist as deletions")
+        void shouldJournalDeletions() throws Exception {
+            // Given
+            long id = insertTransaction("Mercado", 10);
+
+            // When
+            jdbcTemplate.update("DELETE FROM transactions WHERE id = ?", id);
+            changeJournalService.recordChanged(ChangeJournalService.TRANSACTIONS, id);
+
+            // Then
+            assertThat(entries()).singleElement()
+                    .satisfies(entry -> {
+                        assertThat(entry.getOp()).isEqualTo(Operation.DELETE);
+                        assertThat(entry.getId()).isEqualTo(id);
+                    });
+        }
+
+        @Test
+        @DisplayName("should journal every row of a batch insert")
+        void shouldJournalBatchInsert() throws Exception {
+            // Given
+            insertTransaction("Anterior", 1);
+
+            // When
+            transactionTemplate.executeWithoutResult(status -> {
+                long lastId = changeJournalService.lastId(ChangeJournalService.TRANSACTIONS);
+                for (int i = 0; i < 3; i++) {
+                    insertTransaction("Importada " + i, i);
+                }
+                changeJournalService.recordInsertedAfter(ChangeJournalService.TRANSACTIONS, lastId);
+            });
+
+            // Then
+            assertThat(entries()).extracting(entry -> entry.getRow().get("description"))
+                    .containsExactly("Importada 0", "Importada 1", "Importada 2");
+        }
+
+        @Test
+        @DisplayName("should continue the sequence after a restart and drop a torn entry")
+        void shouldRecoverAfterRestart() throws Exception {
+            // Given
+            changeJournalService.recordChanged(ChangeJournalService.TRANSACTIONS, insertTransaction("a", 1));
+            changeJournalService.recordChanged(ChangeJournalService.TRANSACTIONS, insertTransaction("b", 2));
+            Files.writeString(segments().getLast(), "{\"seq\":3,\"ts\":1,\"op\":\"UPS",
+                    StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+            // When
+            ChangeJournalService restarted = newService();
+            restarted.recordChanged(ChangeJournalService.TRANSACTIONS, insertTransaction("c", 3));
+
+            // Then
+            assertThat(entries()).extracting(ChangeJournalEntry::getSeq).containsExactly(1L, 2L, 3L);
+        }
+    }
+
+    @Nested
+    @DisplayName("replay")
+    class ReplayTests {
+
+        @Test
+        @DisplayName("should rebuild the live state from a backup and the journal")
+        void shouldRebuildLiveState() throws Exception {
+            // Given
+            long kept = insertTransaction("Mercado", 10);
+            long removed = insertTransaction("Cinema", 40);
+            Path base = backup("backup_1.db");
+            tick();
+            jdbcTemplate.update("UPDATE transactions SET amount = 12.5 WHERE id = ?", kept);
+            changeJournalService.recordChanged(ChangeJournalService.TRANSACTIONS, kept);
+            jdbcTemplate.update("DELETE FROM transactions WHERE id = ?", removed);
+            changeJournalService.recordChanged(ChangeJournalService.TRANSACTIONS, removed);
+            changeJournalService.recordChanged(ChangeJournalService.TRANSACTIONS, insertTransaction("Uber", 30));
+            tick();
+            ChangeJournalService.Checkpoint checkpoint = changeJournalService
+                    .findCheckpoint(Instant.now(), name -> true).orElseThrow();
+
+            // When
+            int replayed = changeJournalService.replay(base, checkpoint.from(), Instant.now());
+
+            // Then
+            assertThat(checkpoint.backup()).isEqualTo("backup_1.db");
+            assertThat(replayed).isEqualTo(3);
+            assertThat(transactions(base)).isEqualTo(transactions(database));
+        }
+
+        @Test
+        @DisplayName("should stop at the requested moment")
+        void shouldStopAtPointInTime() throws Exception {
+            // Given
+            Path base = backup("backup_1.db");
+            tick();
+            changeJournalService.recordChanged(ChangeJournalService.TRANSACTIONS, insertTransaction("Antes", 1));
+            tick();
+            Instant pointInTime = Instant.now();
+            tick();
+            changeJournalService.recordChanged(ChangeJournalService.TRANSACTIONS, insertTransaction("Depois", 2));
+
+            // When
+            changeJournalService.replay(base, 0, pointInTime);
+
+            // Then
+            assertThat(transactions(base)).extracting(row -> row.get("description")).containsExactly("Antes");
+        }
+
+        @Test
+        @DisplayName("should not replay across a database replacement")
+        void shouldRejectReplacement() throws Exception {
+            // Given
+            Path base = backup("backup_1.db");
+            tick();
+            changeJournalService.markReplaced();
+            changeJournalService.recordChanged(ChangeJournalService.TRANSACTIONS, insertTransaction("Nova", 1));
+
+            // When / Then
+            assertThatThrownBy(() -> changeJournalService.replay(base, 0, Instant.now()))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("checkpoints")
+    class CheckpointTests {
+
+        @Test
+        @DisplayName("should pick the latest checkpoint before the moment whose backup exists")
+        void shouldPickLatestAvailableCheckpoint() throws Exception {
+            // Given
+            backup("backup_1.db");
+            tick();
+            Instant between = Instant.now();
+            tick();
+            backup("backup_2.db");
+            backup("backup_3.db");
+
+            // When / Then
+            assertThat(changeJournalService.findCheckpoint(between, name -> true))
+                    .map(ChangeJournalService.Checkpoint::backup).contains("backup_1.db");
+            assertThat(changeJournalService.findCheckpoint(Instant.now(), name -> !name.equals("backup_3.db")))
+                    .map(ChangeJournalService.Checkpoint::backup).contains("backup_2.db");
+        }
+
+        @Test
+        @DisplayName("should prune segments older than the oldest available backup")
+        void shouldPruneUnreachableSegments() throws Exception {
+            // Given
+            backup("backup_1.db");
+            changeJournalService.recordChanged(ChangeJournalService.TRANSACTIONS, insertTransaction("a", 1));
+            backup("backup_2.db");
+            changeJournalService.recordChanged(ChangeJournalService.TRANSACTIONS, insertTransaction("b", 2));
+
+            // When
+            changeJournalService.prune(name -> name.equals("backup_2.db"));
+
+            // Then
+            assertThat(segments()).hasSize(1);
+            assertThat(changeJournalService.recoverableSince(name -> true)).isPresent();
+            assertThat(entries()).extracting(ChangeJournalEntry::getOp)
+                    .containsExactly(Operation.CHECKPOINT, Operation.UPSERT);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.mx.money.service;
+
+import com.mx.money.dto.BackupManifest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ChunkedBackupService Tests")
+class ChunkedBackupServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path database;
+    private Path backupDir;
+    private ChunkedBackupService chunkedBackupService;
+
+    @BeforeEach
+    void setUp() throws SQLException, IOException {
+        chunkedBackupService = new ChunkedBackupService(JsonMapper.builder().build());
+        backupDir = Files.createDirectories(tempDir.resolve("backups"));
+        database = tempDir.resolve("snapshot.db");
+        execute("CREATE TABLE transactions (id INTEGER PRIMARY KEY, description TEXT)");
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + database)) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                for (int i = 0; i < 5000; i++) {
+                    statement.execute("INSERT INTO transactions (description) VALUES ('Compra numero " + i
+                            + " com uma descrição longa o bastante para ocupar várias páginas')");
+                }
+            }
+            connection.commit();
+        }
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + database);
+                Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private long chunkCount() throws IOException {
+        try (Stream<Path> files = Files.walk(backupDir.resolve(ChunkedBackupService.CHUNK_DIR))) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+
+    @Nested
+    @DisplayName("write")
+    class WriteTests {
+
+        @Test
+        @DisplayName("should store only the chunks that changed since the previous backup")
+        void shouldStoreOnlyChangedChunks() throws Exception {
+            // Given
+            BackupManifest first = chunkedBackupService.write(database, backupDir.resolve("backup_1.chunks"));
+            execute("UPDATE transactions SET description = 'Alterada' WHERE id = 2500");
+
+            // When
+            BackupManifest second = chunkedBackupService.write(database, backupDir.resolve("backup_2.chunks"));
+
+            // Then
+            assertThat(first.getChunks().size()).isGreaterThan(10);
+            assertThat(second.getSha256()).isNotEqualTo(first.getSha256());
+            assertThat(second.getAddedBytes()).isLessThan(first.getAddedBytes() / 5);
+            assertThat(chunkCount()).isLessThan(first.getChunks().size() + 4L);
+        }
+
+        @Test
+        @DisplayName("should rewrite a stored chunk that is corrupted")
+        void shouldRewriteCorruptedChunk() throws Exception {
+            // Given
+            String hash = chunkedBackupService.write(database, backupDir.resolve("backup_1.chunks"))
+                    .getChunks().get(3);
+            Path chunk = backupDir.resolve(ChunkedBackupService.CHUNK_DIR).resolve(hash.substring(0, 2)).resolve(hash);
+            Files.write(chunk, new byte[] { 1, 2, 3 });
+
+            // When
+            Path manifest = backupDir.resolve("backup_2.chunks");
+            BackupManifest second = chunkedBackupService.write(database, manifest);
+
+            // Then
+            assertThat(second.getAddedBytes()).isPositive();
+            chunkedBackupService.verify(manifest);
+            chunkedBackupService.verify(backupDir.resolve("backup_1.chunks"));
+        }
+    }
+
+    @Nested
+    @DisplayName("extract")
+    class ExtractTests {
+
+        @Test
+        @DisplayName("should rebuild a byte-identical database")
+        void shouldRebuildDatabase() throws Exception {
+            // Given
+            Path manifest = backupDir.resolve("backup_1.chunks");
+            chunkedBackupService.write(database, manifest);
+            Path restored = tempDir.resolve("restored.db");
+
+            // When
+            chunkedBackupService.extract(manifest, restored);
+
+            // Then
+            assertThat(Files.readAllBytes(restored)).isEqualTo(Files.readAllBytes(database));
+        }
+
+        @Test
+        @DisplayName("should fail when a chunk is missing")
+        void shouldFailOnMissingChunk() throws Exception {
+            // Given
+            Path manifest = backupDir.resolve("backup_1.chunks");
+            String hash = chunkedBackupService.write(database, manifest).getChunks().get(3);
+            Files.delete(backupDir.resolve(ChunkedBackupService.CHUNK_DIR).resolve(hash.substring(0, 2)).resolve(hash));
+
+            // When/Then
+            assertThatThrownBy(() -> chunkedBackupService.verify(manifest))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining(hash);
+        }
+    }
+
+    @Nested
+    @DisplayName("collectGarbage")
+    class CollectGarbageTests {
+
+        @Test
+        @DisplayName("should remove chunks no remaining backup references")
+        void shouldRemoveUnreferencedChunks() throws Exception {
+            // Given
+            Path first = backupDir.resolve("backup_1.chunks");
+            chunkedBackupService.write(database, first);
+            execute("UPDATE transactions SET description = 'Alterada' WHERE id = 2500");
+            Path second = backupDir.resolve("backup_2.chunks");
+            BackupManifest kept = chunkedBackupService.write(database, second);
+            Files.delete(first);
+
+            // When
+            int removed = chunkedBackupService.collectGarbage(backupDir, List.of(second));
+
+            // Then
+            assertThat(removed).isPositive();
+            assertThat(chunkCount()).isEqualTo(kept.getChunks().stream().distinct().count());
+            chunkedBackupService.verify(second);
+        }
+    }
+}
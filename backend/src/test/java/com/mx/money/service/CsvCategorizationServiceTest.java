@@ -0,0 +1,255 @@
+package com.mx.money.service;
+
+import com.mx.money.dto.CsvImportRequest;
+import com.mx.money.dto.CsvImportResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CsvCategorizationService Tests")
+class CsvCategorizationServiceTest {
+
+    @Mock
+    private ChatClient.Builder chatClientBuilder;
+
+    @Mock
+    private KeywordCategoryClassifier keywordClassifier;
+
+    @Mock
+    private CategorizationMemoService categorizationMemoService;
+
+    private CsvCategorizationService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        service = new CsvCategorizationService(chatClientBuilder, keywordClassifier, categorizationMemoService,
+                new ByteArrayResource("# Alimentação\n- Ifood\n".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private CsvImportRequest row(String description) {
+        return CsvImportRequest.builder()
+                .date("2024-01-10")
+                .description(description)
+                .amount(new BigDecimal("10.00"))
+                .build();
+    }
+
+    @Nested
+    @DisplayName("categorize")
+    class CategorizeTests {
+
+        @Test
+        @DisplayName("should not call the LLM when every row matches a keyword")
+        void shouldSkipLlmWhenAllMatched() {
+            // Given
+            when(keywordClassifier.classify("Ifood")).thenReturn(Optional.of("Alimentação"));
+
+            // When
+            List<CsvImportResponse> result = service.categorize(List.of(row("Ifood")));
+
+            // Then
+            assertThat(result).extracting(CsvImportResponse::getCategory).containsExactly("Alimentação");
+            verifyNoInteractions(chatClientBuilder);
+        }
+
+        @Test
+        @DisplayName("should use remembered categories before keywords and the LLM")
+        void shouldUseMemoFirst() {
+            // Given
+            when(categorizationMemoService.lookupAll(List.of("Uber *Trip", "Loja X")))
+                    .thenReturn(Map.of("Uber *Trip", "Lazer", "Loja X", "Compras"));
+
+            // When
+            List<CsvImportResponse> result = service.categorize(List.of(row("Uber *Trip"), row("Loja X")));
+
+            // Then
+            assertThat(result).extracting(CsvImportResponse::getCategory).containsExactly("Lazer", "Compras");
+            verifyNoInteractions(keywordClassifier, chatClientBuilder);
+        }
+
+        @Test
+        @DisplayName("should send only unmatched rows to the LLM and keep input order")
+        void shouldSendOnlyUnmatchedRows() {
+            // Given
+            when(keywordClassifier.classify("Ifood")).thenReturn(Optional.of("Alimentação"));
+            when(keywordClassifier.classify("Loja X")).thenReturn(Optional.empty());
+            when(keywordClassifier.classify("Curso Y")).thenReturn(Optional.empty());
+            ChatClient chatClient = mock(ChatClient.class, RETURNS_DEEP_STUBS);
+            when(chatClientBuilder.build()).thenReturn(chatClient);
+            when(chatClient.prompt().user(anyString()).call().content()).thenReturn("1. Compras\n2. Educação");
+
+            // When
+            List<CsvImportResponse> result = service.categorize(
+                    List.of(row("Loja X"), row("Ifood"), row("Curso Y")));
+
+            // Then
+            assertThat(result).extracting(CsvImportResponse::getCategory)
+                    .containsExactly("Compras", "Alimentação", "Educação");
+            ArgumentCaptor<String> prompt = ArgumentCaptor.forClass(String.class);
+            verify(chatClient.prompt(), atLeastOnce()).user(prompt.capture());
+            assertThat(prompt.getValue()).contains("1. Loja X\n2. Curso Y\n").doesNotContain(". Ifood");
+        }
+
+        @Test
+        @DisplayName("should fall back to Outros only for unmatched rows when the LLM fails")
+        void shouldFallBackForUnmatchedRows() {
+            // Given
+            when(keywordClassifier.classify("Ifood")).thenReturn(Optional.of("Alimentação"));
+            when(keywordClassifier.classify("Loja X")).thenReturn(Optional.empty());
+            when(chatClientBuilder.build()).thenThrow(new IllegalStateException("offline"));
+
+            // When
+            List<CsvImportResponse> result = service.categorize(List.of(row("Ifood"), row("Loja X")));
+
+            // Then
+            assertThat(result).extracting(CsvImportResponse::getCategory).containsExactly("Alimentação", "Outros");
+        }
+    }
+
+    @Nested
+    @DisplayName("categorize in chunks")
+    class ChunkTests {
+
+        private ChatClient.ChatClientRequestSpec requestSpec;
+
+        @BeforeEach
+        void setUpChunks() {
+            ReflectionTestUtils.setField(service, "chunkSize", 2);
+            when(keywordClassifier.classify(anyString())).thenReturn(Optional.empty());
+            ChatClient chatClient = mock(ChatClient.class);
+            requestSpec = mock(ChatClient.ChatClientRequestSpec.class);
+            when(chatClientBuilder.build()).thenReturn(chatClient);
+            when(chatClient.prompt()).thenReturn(requestSpec);
+        }
+
+        /**
+         * Escolhe a resposta pelo primeiro item do bloco presente no prompt
+         */
+        private void givenReplies(Map<String, ChatClient.CallResponseSpec> repliesByFirstRow) {
+            Map<String, ChatClient.ChatClientRequestSpec> specs = new HashMap<>();
+            repliesByFirstRow.forEach((firstRow, call) -> {
+                ChatClient.ChatClientRequestSpec spec = mock(ChatClient.ChatClientRequestSpec.class);
+                when(spec.call()).thenReturn(call);
+                specs.put("1. " + firstRow + "\n", spec);
+            });
+            when(requestSpec.user(anyString())).thenAnswer(inv -> specs.entrySet().stream()
+                    .filter(e -> inv.<String>getArgument(0).contains(e.getKey()))
+                    .map(Map.Entry::getValue)
+                    .findFirst()
+                    .orElseThrow());
+        }
+
+        private ChatClient.CallResponseSpec reply(String content) {
+            ChatClient.CallResponseSpec call = mock(ChatClient.CallResponseSpec.class);
+            when(call.content()).thenReturn(content);
+            return call;
+        }
+
+        @Test
+        @DisplayName("should send one prompt per chunk and merge results in order")
+        void shouldMergeChunksInOrder() {
+            // Given
+            givenReplies(Map.of(
+                    "A", reply("1. Lazer\n2. Moradia"),
+                    "C", reply("1. Compras")));
+
+            // When
+            List<CsvImportResponse> result = service.categorize(List.of(row("A"), row("B"), row("C")));
+
+            // Then
+            assertThat(result).extracting(CsvImportResponse::getDescription).containsExactly("A", "B", "C");
+            assertThat(result).extracting(CsvImportResponse::getCategory)
+                    .containsExactly("Lazer", "Moradia", "Compras");
+            verify(requestSpec, times(2)).user(anyString());
+        }
+
+        @Test
+        @DisplayName("should retry a failing chunk and fall back only for its rows")
+        void shouldIsolateFailingChunk() {
+            // Given
+            ChatClient.CallResponseSpec failing = mock(ChatClient.CallResponseSpec.class);
+            when(failing.content()).thenThrow(new IllegalStateException("timeout"));
+            givenReplies(Map.of(
+                    "A", failing,
+                    "C", reply("1. Compras")));
+
+            // When
+            List<CsvImportResponse> result = service.categorize(List.of(row("A"), row("B"), row("C")));
+
+            // Then
+            assertThat(result).extracting(CsvImportResponse::getCategory)
+                    .containsExactly("Outros", "Outros", "Compras");
+            verify(failing, times(2)).content();
+        }
+
+        @Test
+        @DisplayName("should try once when max attempts is not positive")
+        void shouldTryOnceWithoutAttempts() {
+            // Given
+            ReflectionTestUtils.setField(service, "maxAttempts", 0);
+            ChatClient.CallResponseSpec failing = mock(ChatClient.CallResponseSpec.class);
+            when(failing.content()).thenThrow(new IllegalStateException("timeout"));
+            givenReplies(Map.of("A", failing));
+
+            // When
+            List<CsvImportResponse> result = service.categorize(List.of(row("A")));
+
+            // Then
+            assertThat(result).extracting(CsvImportResponse::getCategory).containsExactly("Outros");
+            verify(failing).content();
+        }
+
+        @Test
+        @DisplayName("should use single-row chunks one at a time when the limits are not positive")
+        void shouldClampChunkLimits() {
+            // Given
+            ReflectionTestUtils.setField(service, "chunkSize", 0);
+            ReflectionTestUtils.setField(service, "maxParallelChunks", 0);
+            givenReplies(Map.of(
+                    "A", reply("1. Lazer"),
+                    "B", reply("1. Moradia")));
+
+            // When
+            List<CsvImportResponse> result = service.categorize(List.of(row("A"), row("B")));
+
+            // Then
+            assertThat(result).extracting(CsvImportResponse::getCategory).containsExactly("Lazer", "Moradia");
+            verify(requestSpec, times(2)).user(anyString());
+        }
+
+        @Test
+        @DisplayName("should retry a chunk whose answer has no numbered lines")
+        void shouldRetryUnparseableAnswer() {
+            // Given
+            ChatClient.CallResponseSpec flaky = mock(ChatClient.CallResponseSpec.class);
+            when(flaky.content()).thenReturn("Desculpe, não entendi.", "1. Lazer");
+            givenReplies(Map.of("A", flaky));
+
+            // When
+            List<CsvImportResponse> result = service.categorize(List.of(row("A")));
+
+            // Then
+            assertThat(result).extracting(CsvImportResponse::getCategory).containsExactly("Lazer");
+        }
+    }
+}
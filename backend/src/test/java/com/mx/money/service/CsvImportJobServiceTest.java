@@ -0,0 +1,270 @@
+package com.mx.money.service;
+
+import com.mx.money.dto.CsvImportJobResponse;
+import com.mx.money.dto.CsvImportRequest;
+import com.mx.money.dto.CsvImportResponse;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CsvImportJobService Tests")
+class CsvImportJobServiceTest {
+
+    private static final String CSV = """
+            date,title,amount
+            2024-01-02,Ifood,35.90
+            2024-01-03,Loja X,10.00
+            2024-01-04,Curso Y,99.00
+            """;
+
+    @Spy
+    private CsvStatementParser csvStatementParser = new CsvStatementParser();
+
+    @Mock
+    private CsvCategorizationService csvCategorizationService;
+
+    @Mock
+    private ImportFingerprintService importFingerprintService;
+
+    @InjectMocks
+    private CsvImportJobService csvImportJobService;
+
+    @TempDir
+    Path tempDir;
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        csvImportJobService.start();
+        file = Files.writeString(tempDir.resolve("extrato.csv"), CSV);
+        lenient().when(importFingerprintService.flagDuplicates(anyList()))
+                .thenAnswer(inv -> Collections.nCopies(((List<?>) inv.getArgument(0)).size(), false));
+    }
+
+    @AfterEach
+    void tearDown() {
+        csvImportJobService.stop();
+    }
+
+    private static CsvImportResponse categorized(String description, String category) {
+        return CsvImportResponse.builder()
+                .date("2024-01-02")
+                .description(description)
+                .amount(BigDecimal.ONE)
+                .category(category)
+                .build();
+    }
+
+    /**
+     * Ifood é resolvido localmente; as outras duas linhas ficam para o LLM
+     */
+    private void givenLocalMatchForFirstRow() {
+        List<CsvImportResponse> local = new ArrayList<>();
+        local.add(categorized("Ifood", "Alimentação"));
+        local.add(null);
+        local.add(null);
+        when(csvCategorizationService.classifyLocally(anyList())).thenReturn(local);
+    }
+
+    private static void awaitStage(CsvImportJobService.ImportJob job, CsvImportJobService.Stage stage)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (job.toResponse(false).getStage() != stage && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(job.toResponse(false).getStage()).isEqualTo(stage);
+    }
+
+    @Nested
+    @DisplayName("submit")
+    class SubmitTests {
+
+        @Test
+        @SuppressWarnings("unchecked")
+        @DisplayName("should parse, classify locally, send only pending rows to the AI and keep order")
+        void shouldRunPipeline() throws Exception {
+            // Given
+            givenLocalMatchForFirstRow();
+            when(csvCategorizationService.categorizeWithAi(anyList(), any())).thenAnswer(inv -> {
+                List<CsvImportRequest> pending = inv.getArgument(0);
+                assertThat(pending).extracting(CsvImportRequest::getDescription).containsExactly("Loja X", "Curso Y");
+                List<CsvImportResponse> chunk = List.of(categorized("Loja X", "Compras"),
+                        categorized("Curso Y", "Educação"));
+                ((Consumer<List<CsvImportResponse>>) inv.getArgument(1)).accept(chunk);
+                return chunk;
+            });
+
+            // When
+            CsvImportJobService.ImportJob job = csvImportJobService.submit("extrato.csv", file);
+            List<CsvImportResponse> rows = csvImportJobService.await(job);
+
+            // Then
+            assertThat(rows).extracting(CsvImportResponse::getCategory)
+                    .containsExactly("Alimentação", "Compras", "Educação");
+            CsvImportJobResponse last = csvImportJobService.events(job).blockLast(Duration.ofSeconds(5));
+            assertThat(last.getStatus()).isEqualTo(CsvImportJobService.Status.DONE);
+            assertThat(last.getProgress()).isEqualTo(100);
+            assertThat(last.getRows()).hasSize(3);
+            assertThat(file).doesNotExist();
+        }
+
+        @Test
+        @DisplayName("should skip the AI stage when every row is resolved locally")
+        void shouldSkipAiWhenResolvedLocally() throws Exception {
+            // Given
+            when(csvCategorizationService.classifyLocally(anyList())).thenReturn(List.of(
+                    categorized("Ifood", "Alimentação"), categorized("Loja X", "Compras"),
+                    categorized("Curso Y", "Educação")));
+
+            // When
+            List<CsvImportResponse> rows = csvImportJobService.await(csvImportJobService.submit("extrato.csv", file));
+
+            // Then
+            assertThat(rows).hasSize(3);
+            verify(csvCategorizationService, never()).categorizeWithAi(anyList(), any());
+        }
+
+        @Test
+        @DisplayName("should flag already imported rows and leave them out of classification")
+        void shouldFlagDuplicates() throws Exception {
+            // Given
+            when(importFingerprintService.flagDuplicates(anyList())).thenReturn(List.of(false, true, false));
+            when(csvCategorizationService.classifyLocally(anyList())).thenAnswer(inv -> {
+                List<CsvImportRequest> fresh = inv.getArgument(0);
+                assertThat(fresh).extracting(CsvImportRequest::getDescription).containsExactly("Ifood", "Curso Y");
+                return List.of(categorized("Ifood", "Alimentação"), categorized("Curso Y", "Educação"));
+            });
+
+            // When
+            List<CsvImportResponse> rows = csvImportJobService.await(csvImportJobService.submit("extrato.csv", file));
+
+            // Then
+            assertThat(rows).extracting(CsvImportResponse::getDescription)
+                    .containsExactly("Ifood", "Loja X", "Curso Y");
+            assertThat(rows).extracting(CsvImportResponse::getDuplicate).containsExactly(null, true, null);
+            assertThat(rows.get(1).getCategory()).isNull();
+            verify(csvCategorizationService, never()).categorizeWithAi(anyList(), any());
+        }
+
+        @Test
+        @DisplayName("should expose a partial preview while the AI stage runs")
+        void shouldExposePartialPreview() throws Exception {
+            // Given
+            givenLocalMatchForFirstRow();
+            CountDownLatch release = new CountDownLatch(1);
+            when(csvCategorizationService.categorizeWithAi(anyList(), any())).thenAnswer(inv -> {
+                release.await();
+                return List.of();
+            });
+
+            // When
+            CsvImportJobService.ImportJob job = csvImportJobService.submit("extrato.csv", file);
+            awaitStage(job, CsvImportJobService.Stage.AI_CLASSIFICATION);
+            CsvImportJobResponse state = job.toResponse(true);
+            release.countDown();
+
+            // Then
+            assertThat(state.getStatus()).isEqualTo(CsvImportJobService.Status.RUNNING);
+            assertThat(state.getTotalRows()).isEqualTo(3);
+            assertThat(state.getProcessedRows()).isEqualTo(1);
+            assertThat(state.getProgress()).isEqualTo(33);
+            assertThat(state.getRows()).extracting(CsvImportResponse::getCategory)
+                    .containsExactly("Alimentação", null, null);
+        }
+    }
+
+    @Nested
+    @DisplayName("cancel")
+    class CancelTests {
+
+        @Test
+        @DisplayName("should interrupt a running import and finish its event stream")
+        void shouldCancelRunningImport() throws Exception {
+            // Given
+            givenLocalMatchForFirstRow();
+            CountDownLatch interrupted = new CountDownLatch(1);
+            when(csvCategorizationService.categorizeWithAi(anyList(), any())).thenAnswer(inv -> {
+                try {
+                    new CountDownLatch(1).await();
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return List.of();
+            });
+            CsvImportJobService.ImportJob job = csvImportJobService.submit("extrato.csv", file);
+            awaitStage(job, CsvImportJobService.Stage.AI_CLASSIFICATION);
+
+            // When
+            csvImportJobService.cancel(job.getId());
+
+            // Then
+            assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(job.getStatus()).isEqualTo(CsvImportJobService.Status.CANCELLED);
+            assertThat(csvImportJobService.events(job).blockLast(Duration.ofSeconds(5)).getStatus())
+                    .isEqualTo(CsvImportJobService.Status.CANCELLED);
+            assertThatThrownBy(() -> csvImportJobService.await(job)).isInstanceOf(IllegalStateException.class);
+        }
+
+        @Test
+        @DisplayName("should free the queue slots of jobs cancelled while waiting")
+        void shouldFreeSlotsOfCancelledQueuedJobs() throws Exception {
+            // Given - 1 rodando + fila cheia (4)
+            givenLocalMatchForFirstRow();
+            when(csvCategorizationService.categorizeWithAi(anyList(), any())).thenAnswer(inv -> {
+                new CountDownLatch(1).await();
+                return List.of();
+            });
+            CsvImportJobService.ImportJob running = csvImportJobService.submit("extrato.csv", file);
+            awaitStage(running, CsvImportJobService.Stage.AI_CLASSIFICATION);
+            List<CsvImportJobService.ImportJob> queued = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                queued.add(csvImportJobService.submit("extrato.csv",
+                        Files.writeString(tempDir.resolve("fila-" + i + ".csv"), CSV)));
+            }
+
+            // When
+            queued.forEach(job -> csvImportJobService.cancel(job.getId()));
+            CsvImportJobService.ImportJob next = csvImportJobService.submit("extrato.csv",
+                    Files.writeString(tempDir.resolve("proximo.csv"), CSV));
+
+            // Then
+            assertThat(next.getStatus()).isEqualTo(CsvImportJobService.Status.QUEUED);
+        }
+
+        @Test
+        @DisplayName("should throw EntityNotFoundException for unknown jobs")
+        void shouldThrowForUnknownJob() {
+            assertThatThrownBy(() -> csvImportJobService.cancel("missing"))
+                    .isInstanceOf(EntityNotFoundException.class);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.mx.money.service;
+
+import com.mx.money.dto.CsvImportRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("CsvStatementParser Tests")
+class CsvStatementParserTest {
+
+    private final CsvStatementParser parser = new CsvStatementParser();
+
+    private List<CsvImportRequest> parse(String csv) throws IOException {
+        return parser.parse(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Nested
+    @DisplayName("format detection")
+    class FormatTests {
+
+        @Test
+        @DisplayName("should parse comma separated file with header and ISO dates")
+        void shouldParseCommaSeparated() throws IOException {
+            // When
+            List<CsvImportRequest> rows = parse("""
+                    date,title,amount
+                    2024-01-02,Ifood,35.90
+                    2024-01-03,Posto Shell,-120.00
+                    """);
+
+            // Then
+            assertThat(rows).hasSize(2);
+            assertThat(rows.get(0).getDate()).isEqualTo("2024-01-02");
+            assertThat(rows.get(0).getDescription()).isEqualTo("Ifood");
+            assertThat(rows.get(0).getAmount()).isEqualByComparingTo("35.90");
+            assertThat(rows.get(1).getAmount()).isEqualByComparingTo("-120.00");
+        }
+
+        @Test
+        @DisplayName("should parse semicolon file with Brazilian dates and decimal comma")
+        void shouldParseBrazilianFormat() throws IOException {
+            // When
+            List<CsvImportRequest> rows = parse("""
+                    Data;Histórico;Valor
+                    15/01/2024;Supermercado Dia;1.234,56
+                    16/01/2024;Padaria;R$ 9,90
+                    """);
+
+            // Then
+            assertThat(rows).extracting(CsvImportRequest::getDate).containsExactly("2024-01-15", "2024-01-16");
+            assertThat(rows).extracting(CsvImportRequest::getAmount)
+                    .usingElementComparator(BigDecimal::compareTo)
+                    .containsExactly(new BigDecimal("1234.56"), new BigDecimal("9.90"));
+        }
+
+        @Test
+        @DisplayName("should locate columns by header name regardless of order")
+        void shouldMapColumnsByHeader() throws IOException {
+            // When
+            List<CsvImportRequest> rows = parse("""
+                    Valor,Descrição,Categoria,Data
+                    50.00,Uber,Transporte,2024-03-01
+                    """);
+
+            // Then
+            assertThat(rows).singleElement().satisfies(row -> {
+                assertThat(row.getDescription()).isEqualTo("Uber");
+                assertThat(row.getDate()).isEqualTo("2024-03-01");
+                assertThat(row.getAmount()).isEqualByComparingTo("50.00");
+            });
+        }
+
+        @Test
+        @DisplayName("should infer columns from content when there is no header")
+        void shouldInferColumnsWithoutHeader() throws IOException {
+            // When
+            List<CsvImportRequest> rows = parse("""
+                    Netflix;05/02/2024;39,90
+                    Spotify;06/02/2024;21,90
+                    """);
+
+            // Then
+            assertThat(rows).hasSize(2);
+            assertThat(rows.get(0).getDescription()).isEqualTo("Netflix");
+            assertThat(rows.get(0).getDate()).isEqualTo("2024-02-05");
+            assertThat(rows.get(0).getAmount()).isEqualByComparingTo("39.90");
+        }
+
+        @Test
+        @DisplayName("should split columns aligned with multiple spaces")
+        void shouldParseWhitespaceAligned() throws IOException {
+            // When
+            List<CsvImportRequest> rows = parse("""
+                    2024-01-02    Padaria Pao Quente    12.50
+                    2024-01-03    Farmacia              30.00
+                    """);
+
+            // Then
+            assertThat(rows).extracting(CsvImportRequest::getDescription)
+                    .containsExactly("Padaria Pao Quente", "Farmacia");
+        }
+    }
+
+    @Nested
+    @DisplayName("tokenizer")
+    class TokenizerTests {
+
+        @Test
+        @DisplayName("should keep delimiters, escaped quotes and line breaks inside quotes")
+        void shouldHandleQuotedFields() throws IOException {
+            // When
+            List<CsvImportRequest> rows = parse("""
+                    date,title,amount
+                    2024-01-02,"Restaurante ""Bom"", Centro","1,234.50"
+                    2024-01-03,"Compra
+                    parcelada",10.00
+                    """);
+
+            // Then
+            assertThat(rows).hasSize(2);
+            assertThat(rows.get(0).getDescription()).isEqualTo("Restaurante \"Bom\", Centro");
+            assertThat(rows.get(0).getAmount()).isEqualByComparingTo("1234.50");
+            assertThat(rows.get(1).getDescription()).isEqualTo("Compra\nparcelada");
+        }
+
+        @Test
+        @DisplayName("should skip invalid rows and stream valid ones in order")
+        void shouldStreamValidRows() throws IOException {
+            // Given
+            String csv = "\uFEFFdate,title,amount\n2024-01-02,A,1.00\nlixo\n\n2024-01-04,B,abc\n2024-01-05,C,3.00\n";
+            List<String> seen = new ArrayList<>();
+
+            // When
+            int count = parser.parse(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                    row -> seen.add(row.getDescription()));
+
+            // Then
+            assertThat(count).isEqualTo(2);
+            assertThat(seen).containsExactly("A", "C");
+        }
+
+        @Test
+        @DisplayName("should return nothing for an empty file")
+        void shouldHandleEmptyFile() throws IOException {
+            assertThat(parse("")).isEmpty();
+            assertThat(parse("\n\n")).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.mx.money.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("DatabaseExportService Tests")
+class DatabaseExportServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path database;
+    private LedgerVersionService ledgerVersionService;
+    private DatabaseExportService databaseExportService;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = tempDir.resolve("live.db");
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + database);
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE items (id INTEGER PRIMARY KEY, name TEXT)");
+            statement.execute("INSERT INTO items (name) VALUES ('a'), ('b'), ('c')");
+        }
+        ledgerVersionService = new LedgerVersionService();
+        databaseExportService = new DatabaseExportService(
+                new DatabaseSnapshotService("jdbc:sqlite:" + database), ledgerVersionService,
+                "jdbc:sqlite:" + database);
+    }
+
+    private long exportCount() throws Exception {
+        try (var files = Files.list(tempDir.resolve("exports"))) {
+            return files.count();
+        }
+    }
+
+    @Nested
+    @DisplayName("currentExport")
+    class CurrentExportTests {
+
+        @Test
+        @DisplayName("should snapshot the database next to it with a strong ETag")
+        void shouldSnapshotDatabase() throws Exception {
+            // When
+            DatabaseExportService.Export export = databaseExportService.currentExport();
+
+            // Then
+            assertThat(export.file().getParent()).isEqualTo(tempDir.resolve("exports").toAbsolutePath());
+            assertThat(export.size()).isEqualTo(Files.size(export.file()));
+            assertThat(export.etag()).startsWith("\"export_").endsWith("\"");
+        }
+
+        @Test
+        @DisplayName("should reuse the snapshot while the ledger is unchanged")
+        void shouldReuseSnapshot() throws Exception {
+            // Given
+            DatabaseExportService.Export first = databaseExportService.currentExport();
+
+            // When
+            DatabaseExportService.Export second = databaseExportService.currentExport();
+
+            // Then
+            assertThat(second).isEqualTo(first);
+            assertThat(exportCount()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should take a new snapshot after a change and keep only the last two")
+        void shouldRenewAfterChange() throws Exception {
+            // Given
+            DatabaseExportService.Export first = databaseExportService.currentExport();
+
+            // When
+            DatabaseExportService.Export latest = first;
+            for (int i = 0; i < 3; i++) {
+                Thread.sleep(2);
+                ledgerVersionService.markChanged(LedgerVersionService.Resource.TRANSACTIONS);
+                latest = databaseExportService.currentExport();
+            }
+
+            // Then
+            assertThat(latest.etag()).isNotEqualTo(first.etag());
+            assertThat(first.file()).doesNotExist();
+            assertThat(exportCount()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("should take a new snapshot after the categorization memo changes")
+        void shouldRenewAfterMemoChange() throws Exception {
+            // Given
+            DatabaseExportService.Export first = databaseExportService.currentExport();
+            Thread.sleep(2);
+
+            // When
+            ledgerVersionService.markChanged(LedgerVersionService.Resource.CATEGORIZATION_MEMO);
+            DatabaseExportService.Export second = databaseExportService.currentExport();
+
+            // Then
+            assertThat(second.etag()).isNotEqualTo(first.etag());
+        }
+    }
+
+    @Nested
+    @DisplayName("transfer")
+    class TransferTests {
+
+        @Test
+        @DisplayName("should copy exactly the requested byte range")
+        void shouldCopyRange() throws Exception {
+            // Given
+            DatabaseExportService.Export export = databaseExportService.currentExport();
+            byte[] all = Files.readAllBytes(export.file());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            // When
+            databaseExportService.transfer(export.file(), 100, 1000, out);
+
+            // Then
+            assertThat(out.toByteArray()).isEqualTo(Arrays.copyOfRange(all, 100, 1100));
+        }
+
+        @Test
+        @DisplayName("should fail when the range goes past the end of the file")
+        void shouldFailPastEnd() throws Exception {
+            // Given
+            DatabaseExportService.Export export = databaseExportService.currentExport();
+
+            // When/Then
+            assertThatThrownBy(() -> databaseExportService.transfer(export.file(), export.size() - 10, 20,
+                    new ByteArrayOutputStream()))
+                    .isInstanceOf(EOFException.class);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.mx.money.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("DatabaseSnapshotService Tests")
+class DatabaseSnapshotServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path database;
+    private DatabaseSnapshotService databaseSnapshotService;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = tempDir.resolve("live.db");
+        databaseSnapshotService = new DatabaseSnapshotService("jdbc:sqlite:" + database);
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + database);
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE items (id INTEGER PRIMARY KEY, name TEXT)");
+            statement.execute("INSERT INTO items (name) VALUES ('a'), ('b'), ('c')");
+        }
+    }
+
+    private static int countItems(Path file) throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file);
+                Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM items")) {
+            return rs.getInt(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("snapshot")
+    class SnapshotTests {
+
+        @Test
+        @DisplayName("should copy committed data and leave no temporary file")
+        void shouldCopyDatabase() throws Exception {
+            // Given
+            Path target = tempDir.resolve("backup.db");
+
+            // When
+            databaseSnapshotService.snapshot(target);
+
+            // Then
+            assertThat(countItems(target)).isEqualTo(3);
+            assertThat(tempDir.resolve("backup.db.tmp")).doesNotExist();
+        }
+
+        @Test
+        @DisplayName("should not include uncommitted writes from another connection")
+        void shouldIgnoreOpenTransaction() throws Exception {
+            // Given
+            Path target = tempDir.resolve("backup.db");
+            try (Connection writer = DriverManager.getConnection("jdbc:sqlite:" + database)) {
+                writer.setAutoCommit(false);
+                try (Statement statement = writer.createStatement()) {
+                    statement.execute("INSERT INTO items (name) VALUES ('pending')");
+                }
+
+                // When
+                databaseSnapshotService.snapshot(target);
+                writer.rollback();
+            }
+
+            // Then
+            assertThat(countItems(target)).isEqualTo(3);
+        }
+    }
+
+    @Nested
+    @DisplayName("verify")
+    class VerifyTests {
+
+        @Test
+        @DisplayName("should accept a healthy database")
+        void shouldAcceptHealthyDatabase() throws IOException {
+            databaseSnapshotService.verify(database);
+        }
+
+        @Test
+        @DisplayName("should reject a file that is not a database")
+        void shouldRejectGarbage() throws IOException {
+            // Given
+            Path garbage = Files.writeString(tempDir.resolve("garbage.db"), "not a database ".repeat(100));
+
+            // When/Then
+            assertThatThrownBy(() -> databaseSnapshotService.verify(garbage)).isInstanceOf(IOException.class);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.mx.money.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("DatabaseSwapService Tests")
+class DatabaseSwapServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path database;
+    private HikariDataSource dataSource;
+    private DatabaseSwapService databaseSwapService;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = tempDir.resolve("live.db");
+        createLedger(database, "live", 3);
+
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:sqlite:" + database);
+        dataSource.setAllowPoolSuspension(true);
+        dataSource.setMaximumPoolSize(4);
+        databaseSwapService = new DatabaseSwapService(dataSource,
+                new DatabaseSnapshotService("jdbc:sqlite:" + database), "jdbc:sqlite:" + database,
+                Duration.ofSeconds(2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    private static void createLedger(Path file, String description, int rows) throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file);
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE categories (id INTEGER PRIMARY KEY, name TEXT)");
+            statement.execute("CREATE TABLE transactions (id INTEGER PRIMARY KEY, description TEXT)");
+            for (int i = 0; i < rows; i++) {
+                statement.execute("INSERT INTO transactions (description) VALUES ('" + description + "')");
+            }
+        }
+    }
+
+    private String firstDescription() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT description FROM transactions LIMIT 1")) {
+            return rs.getString(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("validate")
+    class ValidateTests {
+
+        @Test
+        @DisplayName("should accept a ledger database")
+        void shouldAcceptLedger() throws Exception {
+            // Given
+            Path incoming = tempDir.resolve("incoming.db");
+            createLedger(incoming, "restored", 1);
+
+            // When / Then
+            databaseSwapService.validate(incoming);
+        }
+
+        @Test
+        @DisplayName("should reject a SQLite file without the ledger tables")
+        void shouldRejectForeignDatabase() throws Exception {
+            // Given
+            Path other = tempDir.resolve("other.db");
+            try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + other);
+                    Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE notes (id INTEGER PRIMARY KEY)");
+            }
+
+            // When / Then
+            assertThatThrownBy(() -> databaseSwapService.validate(other))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("transactions");
+        }
+
+        @Test
+        @DisplayName("should reject a file that is not a database")
+        void shouldRejectGarbage() throws Exception {
+            // Given
+            Path garbage = tempDir.resolve("garbage.db");
+            Files.writeString(garbage, "not a database ".repeat(100));
+
+            // When / Then
+            assertThatThrownBy(() -> databaseSwapService.validate(garbage))
+                    .isInstanceOf(IOException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("replace")
+    class ReplaceTests {
+
+        @Test
+        @DisplayName("should serve the new database through pooled connections")
+        void shouldReopenPooledConnections() throws Exception {
+            // Given - pool already holds connections on the old file
+            assertThat(firstDescription()).isEqualTo("live");
+            Path incoming = tempDir.resolve("incoming.db");
+            createLedger(incoming, "restored", 1);
+
+            // When
+            databaseSwapService.replace(incoming);
+
+            // Then
+            assertThat(firstDescription()).isEqualTo("restored");
+            assertThat(incoming).exists();
+            assertThat(tempDir.resolve("live.db.incoming")).doesNotExist();
+        }
+
+        @Test
+        @DisplayName("should keep concurrent requests working with bounded latency during the swap")
+        void shouldKeepRequestsWorkingDuringSwap() throws Exception {
+            // Given - readers querying continuously through the pool
+            Path incoming = tempDir.resolve("incoming.db");
+            createLedger(incoming, "restored", 500);
+            AtomicBoolean running = new AtomicBoolean(true);
+            ExecutorService readers = Executors.newFixedThreadPool(3);
+            List<Future<Long>> maxLatencies = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                maxLatencies.add(readers.submit(() -> {
+                    long max = 0;
+                    while (running.get()) {
+                        long start = System.nanoTime();
+                        String description = firstDescription();
+                        max = Math.max(max, System.nanoTime() - start);
+                        assertThat(description).isIn("live", "restored");
+                    }
+                    return max;
+                }));
+            }
+            Thread.sleep(100);
+
+            // When
+            databaseSwapService.replace(incoming);
+            Thread.sleep(100);
+            running.set(false);
+            readers.shutdown();
+            readers.awaitTermination(5, TimeUnit.SECONDS);
+
+            // Then - no request failed, none waited long, and all now see the new file
+            long worst = 0;
+            for (Future<Long> latency : maxLatencies) {
+                worst = Math.max(worst, latency.get());
+            }
+            assertThat(Duration.ofNanos(worst)).isLessThan(Duration.ofSeconds(1));
+            assertThat(firstDescription()).isEqualTo("restored");
+        }
+
+        @Test
+        @DisplayName("should keep the old database when the condition fails after draining")
+        void shouldKeepDatabaseWhenConditionFails() throws Exception {
+            // Given
+            Path incoming = tempDir.resolve("incoming.db");
+            createLedger(incoming, "restored", 1);
+
+            // When
+            boolean replaced = databaseSwapService.replace(incoming, () -> false);
+
+            // Then
+            assertThat(replaced).isFalse();
+            assertThat(firstDescription()).isEqualTo("live");
+            assertThat(tempDir.resolve("live.db.incoming")).doesNotExist();
+        }
+
+        @Test
+        @DisplayName("should abort and keep the old database when a connection is not released")
+        void shouldAbortWhenDrainTimesOut() throws Exception {
+            // Given
+            Path incoming = tempDir.resolve("incoming.db");
+            createLedger(incoming, "restored", 1);
+
+            try (Connection held = dataSource.getConnection()) {
+                // When / Then
+                assertThatThrownBy(() -> databaseSwapService.replace(incoming))
+                        .isInstanceOf(IllegalStateException.class);
+            }
+
+            // Then - pool resumed and still on the old file
+            assertThat(firstDescription()).isEqualTo("live");
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.mx.money.service;
+
+import com.mx.money.dto.CsvImportRequest;
+import com.mx.money.repository.TransactionRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ImportFingerprintService Tests")
+class ImportFingerprintServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @InjectMocks
+    private ImportFingerprintService importFingerprintService;
+
+    private static CsvImportRequest row(String date, String description, String amount) {
+        return CsvImportRequest.builder()
+                .date(date)
+                .description(description)
+                .amount(new BigDecimal(amount))
+                .build();
+    }
+
+    @Nested
+    @DisplayName("fingerprintAll")
+    class FingerprintAllTests {
+
+        @Test
+        @DisplayName("should ignore case, accents, punctuation and amount scale")
+        void shouldNormalizeRows() {
+            // When
+            List<String> fingerprints = ImportFingerprintService.fingerprintAll(List.of(
+                    row("2024-01-02", "Padaria São João", "12.5"),
+                    row("2024-01-02", "  PADARIA sao-joao ", "12.50")));
+
+            // Then
+            assertThat(fingerprints.get(0)).hasSize(64).isNotEqualTo(fingerprints.get(1));
+            // Mesma linha: o índice de ocorrência é o único diferencial
+            assertThat(ImportFingerprintService.baseKey("2024-01-02", new BigDecimal("12.5"), "Padaria São João"))
+                    .isEqualTo(ImportFingerprintService.baseKey("2024-01-02", new BigDecimal("12.50"),
+                            "  PADARIA sao-joao "));
+        }
+
+        @Test
+        @DisplayName("should match repeated rows occurrence by occurrence")
+        void shouldUseOccurrenceIndex() {
+            // Given
+            List<CsvImportRequest> first = List.of(row("2024-01-02", "Café", "5.00"), row("2024-01-02", "Café", "5.00"));
+            List<CsvImportRequest> overlapping = List.of(row("2024-01-02", "Café", "5.00"),
+                    row("2024-01-02", "Café", "5.00"), row("2024-01-02", "Café", "5.00"));
+
+            // When
+            List<String> a = ImportFingerprintService.fingerprintAll(first);
+            List<String> b = ImportFingerprintService.fingerprintAll(overlapping);
+
+            // Then
+            assertThat(a).doesNotHaveDuplicates();
+            assertThat(b.subList(0, 2)).isEqualTo(a);
+            assertThat(a).doesNotContain(b.get(2));
+        }
+
+        @Test
+        @DisplayName("should distinguish debits from credits")
+        void shouldKeepSign() {
+            assertThat(ImportFingerprintService.fingerprintAll(List.of(row("2024-01-02", "Pix", "10.00"))))
+                    .isNotEqualTo(ImportFingerprintService.fingerprintAll(List.of(row("2024-01-02", "Pix", "-10.00"))));
+        }
+    }
+
+    @Nested
+    @DisplayName("flagDuplicates")
+    class FlagDuplicatesTests {
+
+        @Test
+        @DisplayName("should flag rows whose fingerprint already exists")
+        void shouldFlagExisting() {
+            // Given
+            List<CsvImportRequest> rows = List.of(row("2024-01-02", "Café", "5.00"), row("2024-01-03", "Uber", "12.00"));
+            String existing = ImportFingerprintService.fingerprintAll(rows).get(1);
+            when(transactionRepository.findExistingImportFingerprints(anyCollection())).thenReturn(List.of(existing));
+
+            // When
+            List<Boolean> duplicates = importFingerprintService.flagDuplicates(rows);
+
+            // Then
+            assertThat(duplicates).containsExactly(false, true);
+            verify(transactionRepository, times(1)).findExistingImportFingerprints(anyCollection());
+        }
+
+        @Test
+        @DisplayName("should split large files into a few batched lookups")
+        void shouldBatchLookups() {
+            // Given
+            List<CsvImportRequest> rows = new ArrayList<>();
+            IntStream.range(0, 2000).forEach(i -> rows.add(row("2024-01-02", "Compra " + i, "1.00")));
+            when(transactionRepository.findExistingImportFingerprints(anyCollection())).thenReturn(List.of());
+
+            // When
+            importFingerprintService.flagDuplicates(rows);
+
+            // Then
+            verify(transactionRepository, times(3)).findExistingImportFingerprints(anyCollection());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.mx.money.service;
+
+import com.mx.money.entity.Category;
+import com.mx.money.repository.CategoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("KeywordCategoryClassifier Tests")
+class KeywordCategoryClassifierTest {
+
+    private static final String KNOWLEDGE = """
+            # Alimentação
+            - Ifood
+            - Supermercado
+            - Café
+
+            # Transporte
+            - Posto
+            - 99
+            - Autoposto
+
+            # Compras
+            - Mercado Livre
+            """;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    private LedgerVersionService ledgerVersionService;
+    private KeywordCategoryClassifier classifier;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ledgerVersionService = new LedgerVersionService();
+        classifier = new KeywordCategoryClassifier(categoryRepository, ledgerVersionService,
+                new ByteArrayResource(KNOWLEDGE.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Nested
+    @DisplayName("classify")
+    class ClassifyTests {
+
+        @Test
+        @DisplayName("should match keywords ignoring case, accents and punctuation")
+        void shouldMatchNormalized() {
+            // Given
+            when(categoryRepository.findAll()).thenReturn(List.of());
+
+            // When/Then
+            assertThat(classifier.classify("PGTO *IFOOD.COM")).contains("Alimentação");
+            assertThat(classifier.classify("Cafe do Ponto")).contains("Alimentação");
+            assertThat(classifier.classify("Rxfautoposto Ltda")).contains("Transporte");
+        }
+
+        @Test
+        @DisplayName("should require whole words for short keywords")
+        void shouldRequireWholeWordsForShortKeywords() {
+            // Given
+            when(categoryRepository.findAll()).thenReturn(List.of());
+
+            // When/Then
+            assertThat(classifier.classify("Pix 99 Tecnologia")).contains("Transporte");
+            assertThat(classifier.classify("Boleto 1990")).isEmpty();
+            assertThat(classifier.classify("Cafeteria Central")).isEmpty();
+        }
+
+        @Test
+        @DisplayName("should prefer the longest matching keyword")
+        void shouldPreferLongestMatch() {
+            // Given
+            when(categoryRepository.findAll()).thenReturn(List.of());
+
+            // When/Then
+            assertThat(classifier.classify("Supermercado Bom Preco")).contains("Alimentação");
+            assertThat(classifier.classify("Supermercado Mercado Livre")).contains("Compras");
+        }
+
+        @Test
+        @DisplayName("should return empty when nothing matches")
+        void shouldReturnEmptyWhenNoMatch() {
+            // Given
+            when(categoryRepository.findAll()).thenReturn(List.of());
+
+            // When/Then
+            assertThat(classifier.classify("Transferência recebida")).isEmpty();
+            assertThat(classifier.classify("  ")).isEmpty();
+            verify(categoryRepository).findAll();
+        }
+
+        @Test
+        @DisplayName("should recompile with user categories after categories change")
+        void shouldRecompileAfterCategoriesChange() {
+            // Given
+            when(categoryRepository.findAll()).thenReturn(List.of());
+            assertThat(classifier.classify("Petshop Amigo")).isEmpty();
+            when(categoryRepository.findAll()).thenReturn(List.of(
+                    Category.builder().id(9L).name("Petshop").build()));
+
+            // When
+            ledgerVersionService.markChanged(LedgerVersionService.Resource.CATEGORIES);
+
+            // Then
+            assertThat(classifier.classify("Petshop Amigo")).contains("Petshop");
+            assertThat(classifier.classify("Ifood")).contains("Alimentação");
+            verify(categoryRepository, times(2)).findAll();
+        }
+    }
+}
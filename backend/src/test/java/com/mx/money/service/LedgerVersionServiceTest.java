@@ -0,0 +1,114 @@
+package com.mx.money.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("LedgerVersionService Tests")
+class LedgerVersionServiceTest {
+
+    private final LedgerVersionService ledgerVersionService = new LedgerVersionService();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Nested
+    @DisplayName("markChanged")
+    class MarkChangedTests {
+
+        @Test
+        @DisplayName("should increment only the changed resource")
+        void shouldIncrementOnlyChangedResource() {
+            // When
+            ledgerVersionService.markChanged(LedgerVersionService.Resource.TRANSACTIONS);
+
+            // Then
+            assertThat(ledgerVersionService.getVersion(LedgerVersionService.Resource.TRANSACTIONS)).isEqualTo(1);
+            assertThat(ledgerVersionService.getVersion(LedgerVersionService.Resource.CATEGORIES)).isZero();
+        }
+
+        @Test
+        @DisplayName("should defer increment until commit inside a transaction")
+        void shouldDeferIncrementUntilCommit() {
+            // Given
+            TransactionSynchronizationManager.initSynchronization();
+
+            // When
+            ledgerVersionService.markChanged(LedgerVersionService.Resource.CATEGORIES);
+
+            // Then
+            assertThat(ledgerVersionService.getVersion(LedgerVersionService.Resource.CATEGORIES)).isZero();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertThat(ledgerVersionService.getVersion(LedgerVersionService.Resource.CATEGORIES)).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should increment every resource on markAllChanged")
+        void shouldIncrementAllResources() {
+            // When
+            ledgerVersionService.markAllChanged();
+
+            // Then
+            for (LedgerVersionService.Resource resource : LedgerVersionService.Resource.values()) {
+                assertThat(ledgerVersionService.getVersion(resource)).isEqualTo(1);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("etag")
+    class EtagTests {
+
+        @Test
+        @DisplayName("should return a quoted weak ETag so responses can be gzipped")
+        void shouldReturnQuotedWeakEtag() {
+            String etag = ledgerVersionService.etag(LedgerVersionService.Resource.TRANSACTIONS);
+
+            assertThat(etag).startsWith("W/\"").endsWith("\"");
+        }
+
+        @Test
+        @DisplayName("should change when a dependent resource changes")
+        void shouldChangeWhenResourceChanges() {
+            String before = ledgerVersionService.etag(
+                    LedgerVersionService.Resource.TRANSACTIONS, LedgerVersionService.Resource.CATEGORIES);
+
+            ledgerVersionService.markChanged(LedgerVersionService.Resource.CATEGORIES);
+
+            assertThat(ledgerVersionService.etag(
+                    LedgerVersionService.Resource.TRANSACTIONS, LedgerVersionService.Resource.CATEGORIES))
+                    .isNotEqualTo(before);
+        }
+
+        @Test
+        @DisplayName("should not change when an unrelated resource changes")
+        void shouldNotChangeForUnrelatedResource() {
+            String before = ledgerVersionService.etag(LedgerVersionService.Resource.TRANSACTIONS);
+
+            ledgerVersionService.markChanged(LedgerVersionService.Resource.CATEGORIES);
+
+            assertThat(ledgerVersionService.etag(LedgerVersionService.Resource.TRANSACTIONS)).isEqualTo(before);
+        }
+
+        @Test
+        @DisplayName("should include the reference date")
+        void shouldIncludeReferenceDate() {
+            LocalDate today = LocalDate.of(2024, 1, 15);
+
+            assertThat(ledgerVersionService.etag(today, LedgerVersionService.Resource.TRANSACTIONS))
+                    .isNotEqualTo(ledgerVersionService.etag(today.plusDays(1),
+                            LedgerVersionService.Resource.TRANSACTIONS));
+        }
+    }
+}
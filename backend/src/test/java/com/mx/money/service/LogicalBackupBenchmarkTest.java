@@ -0,0 +1,96 @@
+package com.mx.money.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark do backup lógico com 1 milhão de transações: gravação e restore com
+ * uma thread de leitura contra várias (a inserção é sempre em uma conexão).
+ * <p>
+ * Em JDK 21, banco de ~56 MB vira um backup de ~12 MB em ~5,9 s; o restore leva
+ * ~5,1 s com uma thread e ~4,6 s com quatro, limitado pelo escritor único do
+ * SQLite.
+ * <p>
+ * Desabilitado por padrão; execute com:
+ * {@code mvn test -Dtest=LogicalBackupBenchmarkTest -Dbenchmark=true}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DisplayName("Logical backup benchmark")
+class LogicalBackupBenchmarkTest {
+
+    private static final int ROWS = 1_000_000;
+    private static final String SCHEMA = "CREATE TABLE transactions (id INTEGER PRIMARY KEY, description TEXT NOT NULL, "
+            + "amount REAL NOT NULL, effective_date INTEGER NOT NULL, type TEXT NOT NULL, category_id INTEGER, "
+            + "import_fingerprint TEXT)";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("should write and restore 1M transactions")
+    void writeAndRestore() throws Exception {
+        Path database = tempDir.resolve("source.db");
+        populate(database);
+        Path archive = tempDir.resolve("backup" + LogicalBackupService.EXTENSION);
+
+        long start = System.nanoTime();
+        new LogicalBackupService(JsonMapper.builder().build(), 4).write(database, archive);
+        System.out.printf("%n=== %,d transações (banco %,d KB, backup %,d KB) ===%n", ROWS,
+                Files.size(database) / 1024, Files.size(archive) / 1024);
+        System.out.printf("gravação:            %6d ms%n", (System.nanoTime() - start) / 1_000_000);
+
+        for (int threads : new int[] { 1, 4 }) {
+            Path target = tempDir.resolve("target-" + threads + ".db");
+            try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + target);
+                    Statement statement = connection.createStatement()) {
+                statement.execute(SCHEMA);
+            }
+            start = System.nanoTime();
+            Map<String, Long> restored = new LogicalBackupService(JsonMapper.builder().build(), threads)
+                    .restore(archive, target, List.of());
+            System.out.printf("restore (%d thread%s): %6d ms%n", threads, threads == 1 ? " " : "s",
+                    (System.nanoTime() - start) / 1_000_000);
+            assertThat(restored).containsEntry("transactions", (long) ROWS);
+        }
+    }
+
+    private static void populate(Path database) throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + database)) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(SCHEMA);
+            }
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO transactions "
+                    + "(description, amount, effective_date, type, category_id) VALUES (?, ?, ?, ?, ?)")) {
+                for (int i = 0; i < ROWS; i++) {
+                    insert.setString(1, "Pgto Ifood *Pedido " + (i % 997));
+                    insert.setDouble(2, (i % 5000) + (i % 100) / 100.0);
+                    insert.setLong(3, 1_704_067_200_000L + (i % 365) * 86_400_000L);
+                    insert.setString(4, i % 10 == 0 ? "INCOME" : "EXPENSE");
+                    insert.setLong(5, i % 12 + 1);
+                    insert.addBatch();
+                    if (i % 10_000 == 9_999) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+            connection.commit();
+        }
+    }
+}
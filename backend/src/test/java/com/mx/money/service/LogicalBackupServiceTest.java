@@ -0,0 +1,275 @@
+package com.mx.money.service;
+
+import com.mx.money.dto.BackupManifest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("LogicalBackupService Tests")
+class LogicalBackupServiceTest {
+
+    private static final String CATEGORIES = "CREATE TABLE categories (id INTEGER PRIMARY KEY, name TEXT NOT NULL, color TEXT)";
+    private static final String TRANSACTIONS = "CREATE TABLE transactions (id INTEGER PRIMARY KEY, "
+            + "description TEXT NOT NULL, amount REAL, effective_date INTEGER, category_id INTEGER)";
+
+    @TempDir
+    Path tempDir;
+
+    private Path database;
+    private Path archive;
+    private LogicalBackupService logicalBackupService;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = tempDir.resolve("live.db");
+        archive = tempDir.resolve("backup" + LogicalBackupService.EXTENSION);
+        logicalBackupService = new LogicalBackupService(JsonMapper.builder().build(), 3);
+        execute(database,
+                CATEGORIES,
+                TRANSACTIONS,
+                "CREATE TABLE monthly_rollups (id INTEGER PRIMARY KEY, month TEXT)",
+                "INSERT INTO categories VALUES (1, 'Alimentação', '#FF0000'), (2, 'Transporte', NULL)",
+                "INSERT INTO transactions VALUES (1, 'Mercado', 150.25, 1704067200000, 1), "
+                        + "(2, 'Uber \"centro\"', 32.5, 1704153600000, 2), (3, 'Salário', 5000, 1704240000000, NULL)",
+                "INSERT INTO monthly_rollups VALUES (1, '2024-01')");
+    }
+
+    private static void execute(Path file, String... statements) throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file);
+                Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    private static List<List<Object>> rows(Path file, String sql) throws SQLException {
+        List<List<Object>> rows = new ArrayList<>();
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file);
+                Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery(sql)) {
+            int columns = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                List<Object> row = new ArrayList<>();
+                for (int i = 1; i <= columns; i++) {
+                    row.add(rs.getObject(i));
+                }
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private Path emptyTarget(String... schema) throws SQLException {
+        Path target = tempDir.resolve("target.db");
+        execute(target, schema);
+        return target;
+    }
+
+    @Nested
+    @DisplayName("write")
+    class WriteTests {
+
+        @Test
+        @DisplayName("should dump every table except derived ones with columns and row counts")
+        void shouldDumpTables() throws Exception {
+            // When
+            BackupManifest manifest = logicalBackupService.write(database, archive);
+
+            // Then
+            assertThat(manifest.getFormatVersion()).isEqualTo(LogicalBackupService.FORMAT_VERSION);
+            assertThat(manifest.getTables()).containsOnlyKeys("categories", "transactions");
+            assertThat(manifest.getTables().get("transactions").getColumns())
+                    .containsExactly("id", "description", "amount", "effective_date", "category_id");
+            assertThat(manifest.getTables().get("transactions").getRowCount()).isEqualTo(3);
+            assertThat(manifest.getRowCounts()).containsEntry("monthly_rollups", 1L);
+            assertThat(logicalBackupService.readManifest(archive).getTables()).hasSize(2);
+        }
+
+        @Test
+        @DisplayName("should split large tables into NDJSON chunks")
+        void shouldSplitIntoChunks() throws Exception {
+            // Given
+            try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + database);
+                    PreparedStatement insert = connection.prepareStatement(
+                            "INSERT INTO transactions (description, amount) VALUES (?, ?)")) {
+                connection.setAutoCommit(false);
+                for (int i = 0; i < LogicalBackupService.CHUNK_ROWS; i++) {
+                    insert.setString(1, "Compra " + i);
+                    insert.setDouble(2, i / 100.0);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+                connection.commit();
+            }
+
+            // When
+            BackupManifest manifest = logicalBackupService.write(database, archive);
+
+            // Then
+            assertThat(manifest.getTables().get("transactions").getChunks())
+                    .containsExactly("transactions/00000.ndjson", "transactions/00001.ndjson");
+            try (ZipFile zip = new ZipFile(archive.toFile());
+                    InputStream in = zip.getInputStream(zip.getEntry("transactions/00001.ndjson"))) {
+                String[] lines = new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n");
+                assertThat(lines).hasSize(3);
+                assertThat(lines[0]).startsWith("[").endsWith("]");
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("verify")
+    class VerifyTests {
+
+        @Test
+        @DisplayName("should accept an intact backup")
+        void shouldAcceptIntactBackup() throws Exception {
+            // Given
+            logicalBackupService.write(database, archive);
+
+            // When/Then
+            assertThat(logicalBackupService.verify(archive).getTables()).hasSize(2);
+        }
+
+        @Test
+        @DisplayName("should reject a backup whose chunk was altered")
+        void shouldRejectAlteredChunk() throws Exception {
+            // Given
+            logicalBackupService.write(database, archive);
+            Path tampered = tempDir.resolve("tampered" + LogicalBackupService.EXTENSION);
+            try (ZipFile zip = new ZipFile(archive.toFile());
+                    ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(tampered))) {
+                Enumeration<? extends ZipEntry> entries = zip.entries();
+                while (entries.hasMoreElements()) {
+                    ZipEntry entry = entries.nextElement();
+                    byte[] content = zip.getInputStream(entry).readAllBytes();
+                    if (entry.getName().equals("transactions/00000.ndjson")) {
+                        content = new String(content, StandardCharsets.UTF_8).replace("150.25", "999.99")
+                                .getBytes(StandardCharsets.UTF_8);
+                    }
+                    out.putNextEntry(new ZipEntry(entry.getName()));
+                    out.write(content);
+                    out.closeEntry();
+                }
+            }
+
+            // When/Then
+            assertThatThrownBy(() -> logicalBackupService.verify(tampered))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("checksum");
+        }
+
+        @Test
+        @DisplayName("should reject a file backup archive")
+        void shouldRejectFileArchive() throws Exception {
+            // Given
+            new BackupArchiveService(JsonMapper.builder().build()).write(database, archive);
+
+            // When/Then
+            assertThatThrownBy(() -> logicalBackupService.readManifest(archive))
+                    .isInstanceOf(IOException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("restore")
+    class RestoreTests {
+
+        @Test
+        @DisplayName("should replace all tables with the backup contents")
+        void shouldRestoreAllTables() throws Exception {
+            // Given
+            logicalBackupService.write(database, archive);
+            Path target = emptyTarget(CATEGORIES, TRANSACTIONS,
+                    "INSERT INTO transactions VALUES (99, 'Posterior ao backup', 1, 0, NULL)");
+
+            // When
+            Map<String, Long> restored = logicalBackupService.restore(archive, target, List.of());
+
+            // Then
+            assertThat(restored).containsEntry("categories", 2L).containsEntry("transactions", 3L);
+            assertThat(rows(target, "SELECT * FROM transactions ORDER BY id"))
+                    .isEqualTo(rows(database, "SELECT * FROM transactions ORDER BY id"));
+            assertThat(rows(target, "SELECT * FROM categories ORDER BY id"))
+                    .isEqualTo(rows(database, "SELECT * FROM categories ORDER BY id"));
+        }
+
+        @Test
+        @DisplayName("should match columns by name across schema versions")
+        void shouldRestoreAcrossSchemaVersions() throws Exception {
+            // Given - newer schema: color dropped, import_fingerprint added
+            logicalBackupService.write(database, archive);
+            Path target = emptyTarget(
+                    "CREATE TABLE categories (id INTEGER PRIMARY KEY, name TEXT NOT NULL, icon TEXT)",
+                    TRANSACTIONS.replace(")", ", import_fingerprint TEXT)"));
+
+            // When
+            logicalBackupService.restore(archive, target, List.of());
+
+            // Then
+            assertThat(rows(target, "SELECT id, name, icon FROM categories ORDER BY id"))
+                    .containsExactly(Arrays.asList(1, "Alimentação", null), Arrays.asList(2, "Transporte", null));
+            assertThat(rows(target, "SELECT COUNT(*) FROM transactions WHERE import_fingerprint IS NULL"))
+                    .containsExactly(List.of(3));
+        }
+
+        @Test
+        @DisplayName("should restore only the requested tables and detach missing categories")
+        void shouldRestorePartially() throws Exception {
+            // Given - live data moved on: category 3 created and used after the backup
+            logicalBackupService.write(database, archive);
+            execute(database,
+                    "INSERT INTO categories VALUES (3, 'Lazer', NULL)",
+                    "INSERT INTO transactions VALUES (4, 'Cinema', 40, 1704326400000, 3)");
+
+            // When
+            Map<String, Long> restored = logicalBackupService.restore(archive, database, List.of("categories"));
+
+            // Then
+            assertThat(restored).containsOnlyKeys("categories");
+            assertThat(rows(database, "SELECT COUNT(*) FROM categories")).containsExactly(List.of(2));
+            assertThat(rows(database, "SELECT description, category_id FROM transactions WHERE id = 4"))
+                    .containsExactly(Arrays.asList("Cinema", null));
+            assertThat(rows(database, "SELECT category_id FROM transactions WHERE id = 1"))
+                    .containsExactly(List.of(1));
+        }
+
+        @Test
+        @DisplayName("should reject a table that is not in the backup")
+        void shouldRejectUnknownTable() throws Exception {
+            // Given
+            logicalBackupService.write(database, archive);
+
+            // When/Then
+            assertThatThrownBy(() -> logicalBackupService.restore(archive, database, List.of("monthly_rollups")))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.mx.money.service;
+
+import com.mx.money.dto.DailyCategoryTotal;
+import com.mx.money.dto.RollupResponse;
+import com.mx.money.entity.Category;
+import com.mx.money.entity.MonthlyRollup;
+import com.mx.money.entity.Transaction;
+import com.mx.money.entity.TransactionType;
+import com.mx.money.repository.CategoryRepository;
+import com.mx.money.repository.MonthlyRollupRepository;
+import com.mx.money.repository.TransactionRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MonthlyRollupService Tests")
+class MonthlyRollupServiceTest {
+
+    @Mock
+    private MonthlyRollupRepository monthlyRollupRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @InjectMocks
+    private MonthlyRollupService monthlyRollupService;
+
+    @Captor
+    private ArgumentCaptor<List<MonthlyRollup>> rollupsCaptor;
+
+    private static Category category(long id, String name) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName(name);
+        category.setColor("#6366F1");
+        return category;
+    }
+
+    private static Transaction expense(String amount, LocalDate date, Category category) {
+        return Transaction.builder()
+                .amount(new BigDecimal(amount))
+                .type(TransactionType.EXPENSE)
+                .effectiveDate(date)
+                .category(category)
+                .build();
+    }
+
+    private static MonthlyRollup rollup(String month, long categoryId, TransactionType type, String total, long count) {
+        return MonthlyRollup.builder()
+                .month(month)
+                .categoryId(categoryId)
+                .type(type)
+                .totalAmount(new BigDecimal(total))
+                .txCount(count)
+                .build();
+    }
+
+    @Nested
+    @DisplayName("incremental updates")
+    class IncrementalTests {
+
+        @Test
+        @DisplayName("should add transaction to its month, category and type")
+        void shouldAddTransaction() {
+            // Given
+            when(monthlyRollupRepository.increment("2024-03", 2L, TransactionType.EXPENSE,
+                    new BigDecimal("50.00"), 1)).thenReturn(1);
+
+            // When
+            monthlyRollupService.add(expense("50.00", LocalDate.of(2024, 3, 10), category(2L, "Lazer")));
+
+            // Then
+            verify(monthlyRollupRepository, never()).save(any(MonthlyRollup.class));
+        }
+
+        @Test
+        @DisplayName("should insert a new row when the key does not exist yet")
+        void shouldInsertWhenMissing() {
+            // Given
+            when(monthlyRollupRepository.increment(anyString(), anyLong(), any(), any(), anyLong())).thenReturn(0);
+
+            // When
+            monthlyRollupService.add(expense("50.00", LocalDate.of(2024, 3, 10), category(2L, "Lazer")));
+
+            // Then
+            verify(monthlyRollupRepository).save(argThat(r -> r.getMonth().equals("2024-03")
+                    && r.getCategoryId() == 2L
+                    && r.getType() == TransactionType.EXPENSE
+                    && r.getTotalAmount().compareTo(new BigDecimal("50.00")) == 0
+                    && r.getTxCount() == 1L));
+        }
+
+        @Test
+        @DisplayName("should subtract with negative delta and use sentinel for missing category")
+        void shouldSubtractUncategorized() {
+            // Given
+            when(monthlyRollupRepository.increment(anyString(), anyLong(), any(), any(), anyLong())).thenReturn(1);
+
+            // When
+            monthlyRollupService.subtract(expense("20.00", LocalDate.of(2024, 3, 31), null));
+
+            // Then
+            verify(monthlyRollupRepository).increment("2024-03", MonthlyRollup.NO_CATEGORY, TransactionType.EXPENSE,
+                    new BigDecimal("-20.00"), -1);
+        }
+
+        @Test
+        @DisplayName("should consolidate batch into one write per key")
+        void shouldConsolidateBatch() {
+            // Given
+            Category food = category(1L, "Alimentação");
+            List<Transaction> batch = List.of(
+                    expense("10.00", LocalDate.of(2024, 1, 5), food),
+                    expense("15.00", LocalDate.of(2024, 1, 20), food),
+                    expense("30.00", LocalDate.of(2024, 2, 1), food));
+
+            when(monthlyRollupRepository.increment(anyString(), anyLong(), any(), any(), anyLong())).thenReturn(1);
+
+            // When
+            monthlyRollupService.addAll(batch);
+
+            // Then
+            verify(monthlyRollupRepository).increment("2024-01", 1L, TransactionType.EXPENSE,
+                    new BigDecimal("25.00"), 2);
+            verify(monthlyRollupRepository).increment("2024-02", 1L, TransactionType.EXPENSE,
+                    new BigDecimal("30.00"), 1);
+            verifyNoMoreInteractions(monthlyRollupRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("rebuild")
+    class RebuildTests {
+
+        @Test
+        @DisplayName("should fold daily totals into monthly rows")
+        void shouldFoldDailyTotals() {
+            // Given
+            when(transactionRepository.sumByDayCategoryAndType()).thenReturn(List.of(
+                    new DailyCategoryTotal(LocalDate.of(2024, 1, 3), 1L, TransactionType.EXPENSE,
+                            new BigDecimal("10.00"), 1L),
+                    new DailyCategoryTotal(LocalDate.of(2024, 1, 28), 1L, TransactionType.EXPENSE,
+                            new BigDecimal("5.00"), 2L),
+                    new DailyCategoryTotal(LocalDate.of(2024, 1, 28), null, TransactionType.INCOME,
+                            new BigDecimal("900.00"), 1L)));
+
+            // When
+            int rows = monthlyRollupService.rebuild();
+
+            // Then
+            assertThat(rows).isEqualTo(2);
+            verify(monthlyRollupRepository).deleteAllInBatch();
+            verify(monthlyRollupRepository).saveAll(rollupsCaptor.capture());
+            List<MonthlyRollup> saved = rollupsCaptor.getValue().stream()
+                    .sorted(Comparator.comparing(MonthlyRollup::getCategoryId))
+                    .toList();
+            assertThat(saved.get(0).getCategoryId()).isEqualTo(MonthlyRollup.NO_CATEGORY);
+            assertThat(saved.get(0).getTotalAmount()).isEqualByComparingTo("900.00");
+            assertThat(saved.get(1).getMonth()).isEqualTo("2024-01");
+            assertThat(saved.get(1).getTotalAmount()).isEqualByComparingTo("15.00");
+            assertThat(saved.get(1).getTxCount()).isEqualTo(3L);
+        }
+    }
+
+    @Nested
+    @DisplayName("query")
+    class QueryTests {
+
+        @Test
+        @DisplayName("should collapse months when grouping by category and type")
+        void shouldCollapseMonths() {
+            // Given
+            when(monthlyRollupRepository.findInRange("2024-01", "2024-02")).thenReturn(List.of(
+                    rollup("2024-01", 1L, TransactionType.EXPENSE, "100.00", 4),
+                    rollup("2024-02", 1L, TransactionType.EXPENSE, "50.00", 1),
+                    rollup("2024-02", MonthlyRollup.NO_CATEGORY, TransactionType.EXPENSE, "7.00", 1)));
+            when(categoryRepository.findAll()).thenReturn(List.of(category(1L, "Alimentação")));
+
+            // When
+            List<RollupResponse> result = monthlyRollupService.query(YearMonth.of(2024, 1), YearMonth.of(2024, 2),
+                    Set.of("category", "type"));
+
+            // Then
+            assertThat(result).hasSize(2);
+            assertThat(result.get(0).getMonth()).isNull();
+            assertThat(result.get(0).getCategoryName()).isEqualTo("Alimentação");
+            assertThat(result.get(0).getTotal()).isEqualByComparingTo("150.00");
+            assertThat(result.get(0).getCount()).isEqualTo(5);
+            assertThat(result.get(1).getCategoryId()).isNull();
+            assertThat(result.get(1).getCategoryName()).isEqualTo("Sem categoria");
+        }
+
+        @Test
+        @DisplayName("should not load categories when not grouping by category")
+        void shouldSkipCategoriesWhenNotNeeded() {
+            // Given
+            when(monthlyRollupRepository.findInRange(anyString(), anyString())).thenReturn(List.of(
+                    rollup("2024-01", 1L, TransactionType.EXPENSE, "100.00", 4),
+                    rollup("2024-01", 2L, TransactionType.EXPENSE, "20.00", 1)));
+
+            // When
+            List<RollupResponse> result = monthlyRollupService.query(null, null, Set.of("month"));
+
+            // Then
+            assertThat(result).hasSize(1);
+            assertThat(result.get(0).getMonth()).isEqualTo("2024-01");
+            assertThat(result.get(0).getTotal()).isEqualByComparingTo("120.00");
+            verifyNoInteractions(categoryRepository);
+        }
+
+        @Test
+        @DisplayName("should reject unknown dimensions")
+        void shouldRejectUnknownDimension() {
+            // When/Then
+            assertThatThrownBy(() -> monthlyRollupService.query(null, null, Set.of("week")))
+                    .isInstanceOf(IllegalArgumentException.class);
+            verifyNoInteractions(monthlyRollupRepository);
+        }
+    }
+}
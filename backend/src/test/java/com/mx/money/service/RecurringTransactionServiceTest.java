@@ -31,6 +31,15 @@ class RecurringTransactionServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private LedgerVersionService ledgerVersionService;
+
+    @Mock
+    private MonthlyRollupService monthlyRollupService;
+
+    @Mock
+    private ChangeJournalService changeJournalService;
+
     @InjectMocks
     private RecurringTransactionService recurringTransactionService;
 
@@ -102,6 +111,7 @@ class RecurringTransactionServiceTest {
             assertThat(savedTransactions).isNotEmpty();
             assertThat(savedTransactions.get(0).getDescription()).isEqualTo("Netflix");
             assertThat(savedTransactions.get(0).getRecurrence()).isEqualTo(RecurrenceType.NONE);
+            verify(monthlyRollupService).addAll(savedTransactions);
         }
 
         @Test
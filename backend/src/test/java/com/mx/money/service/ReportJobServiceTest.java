@@ -0,0 +1,258 @@
+package com.mx.money.service;
+
+import com.mx.money.dto.ReportAnalysisResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReportJobService Tests")
+class ReportJobServiceTest {
+
+    @Mock
+    private ReportService reportService;
+
+    @Spy
+    private LedgerVersionService ledgerVersionService = new LedgerVersionService();
+
+    @InjectMocks
+    private ReportJobService reportJobService;
+
+    @BeforeEach
+    void setUp() {
+        reportJobService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        reportJobService.stop();
+    }
+
+    private static ReportAnalysisResponse chunk(String text) {
+        return ReportAnalysisResponse.builder().analysis(text).success(true).build();
+    }
+
+    private static ReportAnalysisResponse done() {
+        return ReportAnalysisResponse.builder().generatedAt("2024-01-01T10:00:00").success(true).build();
+    }
+
+    /**
+     * Geração que só termina quando o teste libera o sink. O stub é leniente
+     * porque o worker pode ainda não ter iniciado o job quando o teste termina.
+     */
+    private Sinks.Many<ReportAnalysisResponse> givenPendingGeneration(AtomicBoolean cancelled) {
+        Sinks.Many<ReportAnalysisResponse> sink = Sinks.many().replay().all();
+        lenient().when(reportService.streamFinancialAnalysis(anyString()))
+                .thenReturn(sink.asFlux().doOnCancel(() -> cancelled.set(true)));
+        return sink;
+    }
+
+    private static void awaitStatus(ReportJobService.ReportJob job, ReportJobService.Status status)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (job.getStatus() != status && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(job.getStatus()).isEqualTo(status);
+    }
+
+    @Nested
+    @DisplayName("submit")
+    class SubmitTests {
+
+        @Test
+        @DisplayName("should run job to completion and expose full analysis")
+        void shouldRunToCompletion() throws Exception {
+            // Given
+            when(reportService.streamFinancialAnalysis("pt-BR")).thenReturn(Flux.just(chunk("## Diag"), chunk("nóstico"), done()));
+
+            // When
+            ReportJobService.ReportJob job = reportJobService.submit("pt-BR");
+            ReportAnalysisResponse result = reportJobService.await(job);
+
+            // Then
+            assertThat(job.getStatus()).isEqualTo(ReportJobService.Status.DONE);
+            assertThat(result.getAnalysis()).isEqualTo("## Diagnóstico");
+            assertThat(result.getGeneratedAt()).isEqualTo("2024-01-01T10:00:00");
+            assertThat(job.toResponse().getFinishedAt()).isNotNull();
+        }
+
+        @Test
+        @DisplayName("should coalesce identical requests into the active job")
+        void shouldCoalesceIdenticalRequests() {
+            // Given
+            givenPendingGeneration(new AtomicBoolean());
+
+            // When
+            ReportJobService.ReportJob first = reportJobService.submit("pt-BR");
+            ReportJobService.ReportJob second = reportJobService.submit("pt-BR");
+            ReportJobService.ReportJob english = reportJobService.submit("en");
+
+            // Then
+            assertThat(second).isSameAs(first);
+            assertThat(english).isNotSameAs(first);
+        }
+
+        @Test
+        @DisplayName("should start a new job after the ledger changes")
+        void shouldNotCoalesceAcrossLedgerVersions() {
+            // Given
+            givenPendingGeneration(new AtomicBoolean());
+            ReportJobService.ReportJob first = reportJobService.submit("pt-BR");
+
+            // When
+            ledgerVersionService.markChanged(LedgerVersionService.Resource.TRANSACTIONS);
+            ReportJobService.ReportJob second = reportJobService.submit("pt-BR");
+
+            // Then
+            assertThat(second).isNotSameAs(first);
+        }
+
+        @Test
+        @DisplayName("should reject submissions when the queue is full")
+        void shouldRejectWhenQueueFull() {
+            // Given - 1 rodando + 8 na fila
+            givenPendingGeneration(new AtomicBoolean());
+            for (int i = 0; i < 9; i++) {
+                ledgerVersionService.markChanged(LedgerVersionService.Resource.TRANSACTIONS);
+                reportJobService.submit("pt-BR");
+            }
+            ledgerVersionService.markChanged(LedgerVersionService.Resource.TRANSACTIONS);
+
+            // When/Then
+            assertThatThrownBy(() -> reportJobService.submit("pt-BR"))
+                    .isInstanceOf(RejectedExecutionException.class);
+        }
+
+        @Test
+        @DisplayName("should free the queue slot of a job cancelled while waiting")
+        void shouldFreeSlotOfCancelledQueuedJob() {
+            // Given - 1 rodando + 8 na fila
+            givenPendingGeneration(new AtomicBoolean());
+            List<ReportJobService.ReportJob> submitted = new ArrayList<>();
+            for (int i = 0; i < 9; i++) {
+                ledgerVersionService.markChanged(LedgerVersionService.Resource.TRANSACTIONS);
+                submitted.add(reportJobService.submit("pt-BR"));
+            }
+
+            // When
+            reportJobService.cancel(submitted.getLast().getId());
+            ledgerVersionService.markChanged(LedgerVersionService.Resource.TRANSACTIONS);
+            ReportJobService.ReportJob next = reportJobService.submit("pt-BR");
+
+            // Then
+            assertThat(next.getStatus()).isEqualTo(ReportJobService.Status.QUEUED);
+        }
+
+        @Test
+        @DisplayName("should mark job as failed when generation errors")
+        void shouldMarkFailed() throws Exception {
+            // Given
+            when(reportService.streamFinancialAnalysis("pt-BR"))
+                    .thenReturn(Flux.error(new RuntimeException("Connection refused")));
+
+            // When
+            ReportJobService.ReportJob job = reportJobService.submit("pt-BR");
+
+            // Then
+            assertThatThrownBy(() -> reportJobService.await(job))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("Connection refused");
+            assertThat(job.getStatus()).isEqualTo(ReportJobService.Status.FAILED);
+        }
+    }
+
+    @Nested
+    @DisplayName("cancel")
+    class CancelTests {
+
+        @Test
+        @DisplayName("should keep running while other subscribers remain")
+        void shouldKeepRunningWithOtherSubscribers() throws Exception {
+            // Given
+            AtomicBoolean cancelled = new AtomicBoolean();
+            givenPendingGeneration(cancelled);
+            ReportJobService.ReportJob job = reportJobService.submit("pt-BR");
+            reportJobService.submit("pt-BR");
+            awaitStatus(job, ReportJobService.Status.RUNNING);
+
+            // When
+            reportJobService.cancel(job.getId());
+
+            // Then
+            assertThat(job.getStatus()).isEqualTo(ReportJobService.Status.RUNNING);
+            assertThat(cancelled).isFalse();
+        }
+
+        @Test
+        @DisplayName("should interrupt generation when the last subscriber cancels")
+        void shouldInterruptWhenLastSubscriberCancels() throws Exception {
+            // Given
+            AtomicBoolean cancelled = new AtomicBoolean();
+            Sinks.Many<ReportAnalysisResponse> sink = givenPendingGeneration(cancelled);
+            ReportJobService.ReportJob job = reportJobService.submit("pt-BR");
+            sink.tryEmitNext(chunk("## Parcial"));
+            awaitStatus(job, ReportJobService.Status.RUNNING);
+
+            // When
+            reportJobService.cancel(job.getId());
+
+            // Then
+            assertThat(job.getStatus()).isEqualTo(ReportJobService.Status.CANCELLED);
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (!cancelled.get() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(cancelled).isTrue();
+            assertThatThrownBy(() -> reportJobService.await(job)).isInstanceOf(IllegalStateException.class);
+        }
+
+        @Test
+        @DisplayName("should treat stream disconnect as a cancellation")
+        void shouldCancelOnStreamDisconnect() {
+            // Given
+            Sinks.Many<ReportAnalysisResponse> sink = givenPendingGeneration(new AtomicBoolean());
+            ReportJobService.ReportJob job = reportJobService.submit("pt-BR");
+            sink.tryEmitNext(chunk("a"));
+
+            // When - o cliente recebe um trecho e desconecta
+            List<ReportAnalysisResponse> received = reportJobService.stream(job).take(1).collectList().block();
+
+            // Then
+            assertThat(received).hasSize(1);
+            assertThat(job.getStatus()).isEqualTo(ReportJobService.Status.CANCELLED);
+        }
+    }
+
+    @Nested
+    @DisplayName("get")
+    class GetTests {
+
+        @Test
+        @DisplayName("should throw EntityNotFoundException for unknown id")
+        void shouldThrowForUnknownId() {
+            assertThatThrownBy(() -> reportJobService.get("nope"))
+                    .isInstanceOf(jakarta.persistence.EntityNotFoundException.class);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.mx.money.service;
+
+import com.mx.money.dto.CategoryTypeTotal;
+import com.mx.money.dto.LedgerStats;
+import com.mx.money.dto.ReportAnalysisResponse;
+import com.mx.money.entity.ReportAnalysisCache;
+import com.mx.money.entity.TransactionType;
+import com.mx.money.repository.ReportAnalysisCacheRepository;
+import com.mx.money.repository.TransactionRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.chat.client.ChatClient;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReportService Tests")
+class ReportServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private ReportAnalysisCacheRepository reportAnalysisCacheRepository;
+
+    @Mock
+    private ChatClient.Builder chatClientBuilder;
+
+    private void givenLedgerWithOneExpense() {
+        when(transactionRepository.summarizeLedger())
+                .thenReturn(new LedgerStats(1L, 0L, LocalDate.of(2024, 1, 10), LocalDate.of(2024, 1, 10)));
+        when(transactionRepository.sumByTypeAndCategory()).thenReturn(List.of(
+                new CategoryTypeTotal(TransactionType.EXPENSE, "Food", new BigDecimal("12.5"), 1L)));
+    }
+
+    @InjectMocks
+    private ReportService reportService;
+
+    @Nested
+    @DisplayName("streamFinancialAnalysis")
+    class StreamFinancialAnalysisTests {
+
+        @Test
+        @DisplayName("should not call the LLM when the ledger is empty")
+        void shouldSkipLlmWhenEmpty() {
+            // Given
+            when(transactionRepository.summarizeLedger()).thenReturn(new LedgerStats(0L, 0L, null, null));
+
+            // When
+            List<ReportAnalysisResponse> parts = reportService.streamFinancialAnalysis("pt-BR").collectList().block();
+
+            // Then
+            assertThat(parts).hasSize(2);
+            assertThat(parts.get(0).getAnalysis()).contains("Não há transações suficientes");
+            assertThat(parts.get(1).getGeneratedAt()).isNotNull();
+            verifyNoInteractions(chatClientBuilder);
+            verify(transactionRepository, never()).findAll();
+        }
+
+        @Test
+        @DisplayName("should forward model chunks and cache the full text on completion")
+        void shouldForwardChunksAndCache() {
+            // Given
+            givenLedgerWithOneExpense();
+            when(reportAnalysisCacheRepository.findById(anyString())).thenReturn(Optional.empty());
+            ChatClient chatClient = mock(ChatClient.class, RETURNS_DEEP_STUBS);
+            when(chatClientBuilder.build()).thenReturn(chatClient);
+            when(chatClient.prompt().user(anyString()).stream().content()).thenReturn(Flux.just("## ", "Fresh"));
+            when(reportAnalysisCacheRepository.save(any(ReportAnalysisCache.class))).thenAnswer(inv -> inv.getArgument(0));
+            when(reportAnalysisCacheRepository.findAllByOrderByGeneratedAtDesc()).thenReturn(List.of());
+
+            // When
+            List<ReportAnalysisResponse> parts = reportService.streamFinancialAnalysis("en").collectList().block();
+
+            // Then
+            assertThat(parts).hasSize(3);
+            assertThat(parts.get(0).getAnalysis()).isEqualTo("## ");
+            assertThat(parts.get(1).getAnalysis()).isEqualTo("Fresh");
+            assertThat(parts.get(2).getGeneratedAt()).isNotNull();
+            assertThat(parts.get(2).isCached()).isFalse();
+            verify(reportAnalysisCacheRepository).save(argThat(e -> e.getFingerprint().length() == 64
+                    && e.getLanguage().equals("en")
+                    && e.getAnalysis().equals("## Fresh")));
+        }
+
+        @Test
+        @DisplayName("should not cache a stream that was cancelled")
+        void shouldNotCacheCancelledStream() {
+            // Given
+            givenLedgerWithOneExpense();
+            when(reportAnalysisCacheRepository.findById(anyString())).thenReturn(Optional.empty());
+            ChatClient chatClient = mock(ChatClient.class, RETURNS_DEEP_STUBS);
+            when(chatClientBuilder.build()).thenReturn(chatClient);
+            when(chatClient.prompt().user(anyString()).stream().content()).thenReturn(Flux.just("a", "b", "c"));
+
+            // When
+            List<ReportAnalysisResponse> parts = reportService.streamFinancialAnalysis("en").take(1).collectList().block();
+
+            // Then
+            assertThat(parts).hasSize(1);
+            verify(reportAnalysisCacheRepository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("should replay cached analysis as a single chunk")
+        void shouldReplayCachedAnalysis() {
+            // Given
+            givenLedgerWithOneExpense();
+            when(reportAnalysisCacheRepository.findById(anyString())).thenReturn(Optional.of(ReportAnalysisCache.builder()
+                    .fingerprint("abc")
+                    .language("en")
+                    .analysis("## Cached")
+                    .generatedAt(LocalDateTime.of(2024, 2, 1, 9, 30))
+                    .build()));
+
+            // When
+            List<ReportAnalysisResponse> parts = reportService.streamFinancialAnalysis("en").collectList().block();
+
+            // Then
+            assertThat(parts).hasSize(2);
+            assertThat(parts.get(0).getAnalysis()).isEqualTo("## Cached");
+            assertThat(parts.get(1).getGeneratedAt()).isEqualTo("2024-02-01T09:30:00");
+            assertThat(parts.get(1).isCached()).isTrue();
+            verifyNoInteractions(chatClientBuilder);
+        }
+    }
+
+    @Nested
+    @DisplayName("fingerprint")
+    class FingerprintTests {
+
+        @Test
+        @DisplayName("should be stable for the same prompt and change with it")
+        void shouldDependOnPrompt() {
+            // When/Then
+            assertThat(reportService.fingerprint("resumo A")).isEqualTo(reportService.fingerprint("resumo A"));
+            assertThat(reportService.fingerprint("resumo A")).isNotEqualTo(reportService.fingerprint("resumo B"));
+        }
+    }
+
+    @Nested
+    @DisplayName("buildFinancialSummary")
+    class BuildFinancialSummaryTests {
+
+        @Test
+        @DisplayName("should build summary from aggregated rows")
+        void shouldBuildSummaryFromAggregates() {
+            // Given
+            LedgerStats stats = new LedgerStats(42L, 3L, LocalDate.of(2024, 1, 10), LocalDate.of(2024, 3, 5));
+            when(transactionRepository.sumByTypeAndCategory()).thenReturn(List.of(
+                    new CategoryTypeTotal(TransactionType.EXPENSE, "Alimentação", new BigDecimal("600.0000000001"), 30L),
+                    new CategoryTypeTotal(TransactionType.EXPENSE, null, new BigDecimal("90"), 2L),
+                    new CategoryTypeTotal(TransactionType.INCOME, "Salário", new BigDecimal("5000"), 10L)));
+
+            // When
+            String summary = reportService.buildFinancialSummary(stats, "pt-BR");
+
+            // Then
+            assertThat(summary)
+                    .contains("Período analisado: 10/01/2024 a 05/03/2024 (3 meses)")
+                    .contains("Total de transações: 42")
+                    .contains("Transações recorrentes: 3")
+                    .contains("RECEITAS TOTAIS: R$ 5000.00")
+                    .contains("DESPESAS TOTAIS: R$ 690.00")
+                    .contains("SALDO: R$ 4310.00")
+                    .contains("MÉDIA MENSAL DE DESPESAS: R$ 230.00")
+                    .contains("• Alimentação: R$ 600.00 (Média mensal: R$ 200.00)")
+                    .contains("• Sem categoria: R$ 90.00")
+                    .contains("• Salário: R$ 5000.00");
+            assertThat(summary.indexOf("Alimentação")).isLessThan(summary.indexOf("Sem categoria"));
+            verify(transactionRepository, never()).findAll();
+        }
+
+        @Test
+        @DisplayName("should build English summary")
+        void shouldBuildEnglishSummary() {
+            // Given
+            LedgerStats stats = new LedgerStats(1L, 0L, LocalDate.of(2024, 1, 10), LocalDate.of(2024, 1, 10));
+            when(transactionRepository.sumByTypeAndCategory()).thenReturn(List.of(
+                    new CategoryTypeTotal(TransactionType.EXPENSE, "Food", new BigDecimal("12.5"), 1L)));
+
+            // When
+            String summary = reportService.buildFinancialSummary(stats, "en");
+
+            // Then
+            assertThat(summary)
+                    .contains("(1 months)")
+                    .contains("TOTAL INCOME: $ 0")
+                    .contains("• Food: $ 12.50 (Monthly avg: $ 12.50)");
+        }
+    }
+}
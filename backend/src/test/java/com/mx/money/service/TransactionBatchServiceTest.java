@@ -0,0 +1,132 @@
+package com.mx.money.service;
+
+import com.mx.money.dto.DailyCategoryTotal;
+import com.mx.money.dto.TransactionBatchUndoResponse;
+import com.mx.money.repository.TransactionRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TransactionBatchService Tests")
+class TransactionBatchServiceTest {
+
+    private static final String BATCH = "import-1";
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private MonthlyRollupService monthlyRollupService;
+
+    @Mock
+    private ChangeJournalService changeJournalService;
+
+    @Mock
+    private LedgerVersionService ledgerVersionService;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionBatchService transactionBatchService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource("jdbc:sqlite:" + tempDir.resolve("ledger.db"),
+                true));
+        jdbcTemplate.execute("CREATE TABLE categories (id INTEGER PRIMARY KEY, name TEXT, batch_id TEXT)");
+        jdbcTemplate.execute("CREATE TABLE transactions (id INTEGER PRIMARY KEY, description TEXT, "
+                + "category_id INTEGER, batch_id TEXT)");
+        jdbcTemplate.execute("INSERT INTO categories VALUES (1, 'Alimentação', NULL), (2, 'Pets', 'import-1'), "
+                + "(3, 'Streaming', 'import-1')");
+        jdbcTemplate.execute("INSERT INTO transactions VALUES (1, 'Manual', 1, NULL), "
+                + "(2, 'Ração', 2, 'import-1'), (3, 'Mercado', 1, 'import-1'), (4, 'Netflix', 3, 'import-1'), "
+                + "(5, 'Petshop', 3, NULL), (6, 'Outra importação', 1, 'import-2')");
+        transactionBatchService = new TransactionBatchService(transactionRepository, jdbcTemplate,
+                monthlyRollupService, changeJournalService, ledgerVersionService);
+    }
+
+    private List<String> descriptions() {
+        return jdbcTemplate.queryForList("SELECT description FROM transactions ORDER BY id", String.class);
+    }
+
+    @Nested
+    @DisplayName("undo")
+    class UndoTests {
+
+        @Test
+        @DisplayName("should delete only the transactions of the batch")
+        void shouldDeleteBatchTransactions() {
+            // When
+            TransactionBatchUndoResponse response = transactionBatchService.undo(BATCH);
+
+            // Then
+            assertThat(response.getDeletedTransactions()).isEqualTo(3);
+            assertThat(descriptions()).containsExactly("Manual", "Petshop", "Outra importação");
+            verify(changeJournalService).recordChanged(ChangeJournalService.TRANSACTIONS, List.of(2L, 3L, 4L));
+            verify(ledgerVersionService).markChanged(LedgerVersionService.Resource.TRANSACTIONS);
+        }
+
+        @Test
+        @DisplayName("should remove the categories it created unless still in use")
+        void shouldRemoveUnusedCreatedCategories() {
+            // When
+            TransactionBatchUndoResponse response = transactionBatchService.undo(BATCH);
+
+            // Then - Pets only had the batch's row; Streaming is also used by a manual one
+            assertThat(response.getDeletedCategories()).isEqualTo(1);
+            assertThat(jdbcTemplate.queryForList("SELECT name FROM categories ORDER BY id", String.class))
+                    .containsExactly("Alimentação", "Streaming");
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM categories WHERE batch_id IS NOT NULL",
+                    Integer.class)).isZero();
+            verify(changeJournalService).recordChanged(ChangeJournalService.CATEGORIES, List.of(2L, 3L));
+        }
+
+        @Test
+        @DisplayName("should take the batch totals out of the monthly rollups")
+        void shouldSubtractRollups() {
+            // Given
+            List<DailyCategoryTotal> totals = List.of(new DailyCategoryTotal(LocalDate.of(2024, 1, 5), 1L,
+                    null, new BigDecimal("100.10"), 1L));
+            when(transactionRepository.sumByDayCategoryAndTypeInBatch(BATCH)).thenReturn(totals);
+
+            // When
+            transactionBatchService.undo(BATCH);
+
+            // Then
+            verify(monthlyRollupService).subtractTotals(totals);
+        }
+
+        @Test
+        @DisplayName("should throw EntityNotFoundException for an unknown batch")
+        void shouldRejectUnknownBatch() {
+            // When/Then
+            assertThatThrownBy(() -> transactionBatchService.undo("import-99"))
+                    .isInstanceOf(EntityNotFoundException.class);
+            assertThat(descriptions()).hasSize(6);
+            verify(changeJournalService, never()).recordChanged(eq(ChangeJournalService.TRANSACTIONS), anyList());
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.mx.money.service;
+
+import com.mx.money.dto.CsvImportRequest;
+import com.mx.money.dto.CsvImportResponse;
+import com.mx.money.dto.CsvImportSummary;
+import com.mx.money.entity.Category;
+import com.mx.money.entity.Transaction;
+import com.mx.money.entity.TransactionType;
+import com.mx.money.repository.CategoryRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TransactionImportService Tests")
+class TransactionImportServiceTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private MonthlyRollupService monthlyRollupService;
+
+    @Mock
+    private CategorizationMemoService categorizationMemoService;
+
+    @Mock
+    private LedgerVersionService ledgerVersionService;
+
+    @Mock
+    private ImportFingerprintService importFingerprintService;
+
+    @Mock
+    private ChangeJournalService changeJournalService;
+
+    @InjectMocks
+    private TransactionImportService transactionImportService;
+
+    @Captor
+    private ArgumentCaptor<Collection<Transaction>> transactionsCaptor;
+
+    private static CsvImportResponse item(String date, String description, String amount, String category) {
+        return CsvImportResponse.builder()
+                .date(date)
+                .description(description)
+                .amount(new BigDecimal(amount))
+                .category(category)
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenCategorySaveAssignsIds() {
+        AtomicLong ids = new AtomicLong(100);
+        when(categoryRepository.saveAll(anyCollection())).thenAnswer(invocation -> {
+            List<Category> saved = new ArrayList<>();
+            for (Category category : (Collection<Category>) invocation.getArgument(0)) {
+                category.setId(ids.incrementAndGet());
+                saved.add(category);
+            }
+            return saved;
+        });
+    }
+
+    @Nested
+    @DisplayName("importAll")
+    class ImportAllTests {
+
+        @Test
+        @DisplayName("should insert all rows in one batch and return a summary")
+        @SuppressWarnings("unchecked")
+        void shouldInsertInBatch() {
+            // Given
+            Category food = Category.builder().id(1L).name("Alimentação").color("#6366F1").build();
+            when(categoryRepository.findAll()).thenReturn(List.of(food));
+            List<CsvImportResponse> items = List.of(
+                    item("2024-01-05", "IFOOD", "35.90", "alimentação"),
+                    item("2024-01-02", "Salário", "-5000.00", "Outros"),
+                    item("2024-01-03", "Mercado", "100.10", "Alimentação"));
+
+            // When
+            CsvImportSummary summary = transactionImportService.importAll(items, true);
+
+            // Then
+            assertThat(summary.getImported()).isEqualTo(3);
+            assertThat(summary.getCreatedCategories()).isEmpty();
+            assertThat(summary.getTotalExpense()).isEqualByComparingTo("136.00");
+            assertThat(summary.getTotalIncome()).isEqualByComparingTo("5000.00");
+            assertThat(summary.getFirstDate()).isEqualTo("2024-01-02");
+            assertThat(summary.getLastDate()).isEqualTo("2024-01-05");
+
+            verify(jdbcTemplate).batchUpdate(anyString(), transactionsCaptor.capture(), anyInt(),
+                    any(ParameterizedPreparedStatementSetter.class));
+            List<Transaction> inserted = List.copyOf(transactionsCaptor.getValue());
+            assertThat(inserted).extracting(Transaction::getType)
+                    .containsExactly(TransactionType.EXPENSE, TransactionType.INCOME, TransactionType.EXPENSE);
+            assertThat(inserted.get(0).getCategory()).isSameAs(food);
+            assertThat(inserted.get(1).getCategory()).isNull();
+            assertThat(inserted.get(1).getAmount()).isEqualByComparingTo("5000.00");
+            assertThat(inserted).extracting(Transaction::getImportFingerprint).doesNotContainNull().doesNotHaveDuplicates();
+            assertThat(summary.getBatchId()).startsWith(TransactionBatchService.IMPORT + "-");
+            assertThat(inserted).extracting(Transaction::getBatchId).containsOnly(summary.getBatchId());
+
+            verify(categoryRepository, never()).saveAll(anyCollection());
+            verify(monthlyRollupService).addAll(inserted);
+            verify(ledgerVersionService).markChanged(LedgerVersionService.Resource.TRANSACTIONS);
+            verify(ledgerVersionService, never()).markChanged(LedgerVersionService.Resource.CATEGORIES);
+            verify(changeJournalService).recordInsertedAfter(eq(ChangeJournalService.TRANSACTIONS), anyLong());
+        }
+
+        @Test
+        @DisplayName("should create each missing category once")
+        @SuppressWarnings("unchecked")
+        void shouldCreateMissingCategoriesOnce() {
+            // Given
+            when(categoryRepository.findAll()).thenReturn(List.of());
+            givenCategorySaveAssignsIds();
+            List<CsvImportResponse> items = List.of(
+                    item("2024-01-02", "Academia", "90.00", "Saúde"),
+                    item("2024-01-03", "Farmácia", "20.00", "saúde "),
+                    item("2024-01-04", "Cinema", "40.00", "Lazer"));
+
+            // When
+            CsvImportSummary summary = transactionImportService.importAll(items, true);
+
+            // Then
+            assertThat(summary.getCreatedCategories()).containsExactly("Saúde", "Lazer");
+            verify(categoryRepository, times(1)).saveAll(anyCollection());
+            verify(jdbcTemplate).batchUpdate(anyString(), transactionsCaptor.capture(), anyInt(),
+                    any(ParameterizedPreparedStatementSetter.class));
+            List<Transaction> inserted = List.copyOf(transactionsCaptor.getValue());
+            assertThat(inserted.get(0).getCategory()).isSameAs(inserted.get(1).getCategory());
+            assertThat(inserted.get(0).getCategory().getColor())
+                    .isNotEqualTo(inserted.get(2).getCategory().getColor());
+            verify(ledgerVersionService).markChanged(LedgerVersionService.Resource.CATEGORIES);
+        }
+
+        @Test
+        @DisplayName("should remember confirmed categories")
+        void shouldRememberConfirmedCategories() {
+            // Given
+            when(categoryRepository.findAll()).thenReturn(List.of());
+            givenCategorySaveAssignsIds();
+
+            // When
+            transactionImportService.importAll(List.of(item("2024-01-02", "Uber Trip", "12.00", "Transporte")), true);
+
+            // Then
+            verify(categorizationMemoService).rememberAll(Map.of("Uber Trip", "Transporte"));
+        }
+
+        @Test
+        @DisplayName("should not remember the fallback category")
+        void shouldNotRememberFallbackCategory() {
+            // Given
+            when(categoryRepository.findAll()).thenReturn(List.of());
+            givenCategorySaveAssignsIds();
+            List<CsvImportResponse> items = List.of(
+                    item("2024-01-02", "Uber Trip", "12.00", "Transporte"),
+                    item("2024-01-03", "Loja X", "10.00", "Outros"),
+                    item("2024-01-04", "Curso Y", "99.00", " outros "));
+
+            // When
+            transactionImportService.importAll(items, true);
+
+            // Then
+            verify(categorizationMemoService).rememberAll(Map.of("Uber Trip", "Transporte"));
+        }
+
+        @Test
+        @DisplayName("should skip rows already imported")
+        @SuppressWarnings("unchecked")
+        void shouldSkipDuplicates() {
+            // Given
+            List<CsvImportResponse> items = List.of(
+                    item("2024-01-02", "Café", "5.00", "Outros"),
+                    item("2024-01-02", "Café", "5.00", "Outros"));
+            List<String> fingerprints = ImportFingerprintService.fingerprintAll(items.stream()
+                    .map(i -> CsvImportRequest.builder()
+                            .date(i.getDate()).description(i.getDescription()).amount(i.getAmount()).build())
+                    .toList());
+            when(categoryRepository.findAll()).thenReturn(List.of());
+            when(importFingerprintService.findExisting(fingerprints)).thenReturn(Set.of(fingerprints.get(0)));
+
+            // When
+            CsvImportSummary summary = transactionImportService.importAll(items, true);
+
+            // Then
+            assertThat(summary.getImported()).isEqualTo(1);
+            assertThat(summary.getSkippedDuplicates()).isEqualTo(1);
+            verify(jdbcTemplate).batchUpdate(anyString(), transactionsCaptor.capture(), anyInt(),
+                    any(ParameterizedPreparedStatementSetter.class));
+            assertThat(transactionsCaptor.getValue()).extracting(Transaction::getImportFingerprint)
+                    .containsExactly(fingerprints.get(1));
+        }
+
+        @Test
+        @DisplayName("should not touch the ledger when every row is a duplicate")
+        void shouldNotWriteWhenAllDuplicates() {
+            // Given
+            List<CsvImportResponse> items = List.of(item("2024-01-02", "Café", "5.00", "Outros"));
+            when(categoryRepository.findAll()).thenReturn(List.of());
+            when(importFingerprintService.findExisting(anyList()))
+                    .thenAnswer(inv -> Set.copyOf((List<String>) inv.getArgument(0)));
+
+            // When
+            CsvImportSummary summary = transactionImportService.importAll(items, true);
+
+            // Then
+            assertThat(summary.getImported()).isZero();
+            verifyNoInteractions(jdbcTemplate, monthlyRollupService);
+            verify(ledgerVersionService, never()).markChanged(any());
+        }
+    }
+}
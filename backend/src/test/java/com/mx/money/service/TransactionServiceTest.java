@@ -42,6 +42,18 @@ class TransactionServiceTest {
     @Mock
     private CategoryService categoryService;
 
+    @Mock
+    private LedgerVersionService ledgerVersionService;
+
+    @Mock
+    private MonthlyRollupService monthlyRollupService;
+
+    @Mock
+    private CategorizationMemoService categorizationMemoService;
+
+    @Mock
+    private ChangeJournalService changeJournalService;
+
     @InjectMocks
     private TransactionService transactionService;
 
@@ -195,6 +207,8 @@ class TransactionServiceTest {
             assertThat(result.getDescription()).isEqualTo("Almoço");
             verify(categoryService).findEntityById(1L);
             verify(transactionRepository).save(any(Transaction.class));
+            verify(ledgerVersionService).markChanged(LedgerVersionService.Resource.TRANSACTIONS);
+            verify(monthlyRollupService).add(transaction);
         }
 
         @Test
@@ -257,6 +271,52 @@ class TransactionServiceTest {
             assertThat(result).isNotNull();
             verify(transactionMapper).updateEntity(transactionRequest, transaction);
             verify(transactionRepository).save(transaction);
+            verify(categorizationMemoService, never()).remember(anyString(), anyString());
+        }
+
+        @Test
+        @DisplayName("should remember the description when the category is changed")
+        void shouldRememberRecategorization() {
+            // Given
+            Category transport = new Category();
+            transport.setId(2L);
+            transport.setName("Transporte");
+            transactionRequest.setCategoryId(2L);
+            when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+            when(categoryService.findEntityById(2L)).thenReturn(transport);
+            when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
+            when(transactionMapper.toResponse(transaction)).thenReturn(transactionResponse);
+
+            // When
+            transactionService.update(1L, transactionRequest);
+
+            // Then
+            verify(categorizationMemoService).remember("Almoço", "Transporte");
+        }
+
+        @Test
+        @DisplayName("should move amount between rollups using the previous values")
+        void shouldMoveAmountBetweenRollups() {
+            // Given
+            LocalDate oldDate = LocalDate.of(2024, 1, 15);
+            transaction.setEffectiveDate(oldDate);
+            transactionRequest.setEffectiveDate(LocalDate.of(2024, 2, 1));
+            when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+            when(categoryService.findEntityById(1L)).thenReturn(category);
+            doAnswer(inv -> {
+                transaction.setEffectiveDate(transactionRequest.getEffectiveDate());
+                return null;
+            }).when(transactionMapper).updateEntity(transactionRequest, transaction);
+            when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
+            when(transactionMapper.toResponse(transaction)).thenReturn(transactionResponse);
+
+            // When
+            transactionService.update(1L, transactionRequest);
+
+            // Then
+            verify(monthlyRollupService).subtract(argThat(t -> oldDate.equals(t.getEffectiveDate())
+                    && t.getAmount().compareTo(new BigDecimal("50.00")) == 0));
+            verify(monthlyRollupService).add(argThat(t -> t.getEffectiveDate().equals(LocalDate.of(2024, 2, 1))));
         }
 
         @Test
@@ -299,25 +359,28 @@ class TransactionServiceTest {
         @DisplayName("should delete existing transaction")
         void shouldDeleteExistingTransaction() {
             // Given
-            when(transactionRepository.existsById(1L)).thenReturn(true);
+            when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
 
             // When
             transactionService.delete(1L);
 
             // Then
-            verify(transactionRepository).deleteById(1L);
+            verify(transactionRepository).delete(transaction);
+            verify(monthlyRollupService).subtract(transaction);
+            verify(changeJournalService).recordChanged(ChangeJournalService.TRANSACTIONS, 1L);
         }
 
         @Test
         @DisplayName("should throw EntityNotFoundException when deleting non-existent transaction")
         void shouldThrowExceptionWhenDeletingNonExistent() {
             // Given
-            when(transactionRepository.existsById(99L)).thenReturn(false);
+            when(transactionRepository.findById(99L)).thenReturn(Optional.empty());
 
             // When/Then
             assertThatThrownBy(() -> transactionService.delete(99L))
                     .isInstanceOf(EntityNotFoundException.class);
-            verify(transactionRepository, never()).deleteById(anyLong());
+            verify(transactionRepository, never()).delete(any(Transaction.class));
+            verifyNoInteractions(monthlyRollupService);
         }
     }
 }
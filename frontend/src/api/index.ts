@@ -6,6 +6,7 @@ import type {
     CategoryRequest,
     BalanceResponse,
     BalanceProjection,
+    CalendarMonth,
 } from '../types';
 
 const api = axios.create({
@@ -43,6 +44,10 @@ export const transactionApi = {
     delete: async (id: number): Promise<void> => {
         await api.delete(`/transactions/${id}`);
     },
+
+    exportUrl: (format: 'ndjson' | 'csv' = 'ndjson'): string => {
+        return `/api/transactions/export?format=${format}`;
+    },
 };
 
 // Categories
@@ -101,6 +106,14 @@ export const balanceApi = {
     },
 };
 
+// Calendar
+export const calendarApi = {
+    getMonth: async (month: string): Promise<CalendarMonth> => {
+        const { data } = await api.get<CalendarMonth>(`/calendar/${month}`);
+        return data;
+    },
+};
+
 // Simulation Response
 export interface SimulationResponse {
     simulatedAmount: number;
@@ -117,13 +130,24 @@ export interface BackupInfo {
     name: string;
     size: number;
     created: number;
+    format: 'archive' | 'incremental' | 'logical' | 'db';
+    verified: boolean;
+    databaseSize?: number;
+    appVersion?: string;
+    schemaVersion?: number;
+    rowCounts?: Record<string, number>;
+    addedBytes?: number;
 }
 
 export interface BackupSettings {
     autoBackupEnabled: boolean;
     maxBackups: number;
+    incrementalBackups: boolean;
     backupDirectory: string;
     backupIntervalHours: number;
+    nextBackupAt?: string;
+    // Instante mais antigo (hora local) recuperável pelo diário de alterações
+    recoverableSince?: string;
 }
 
 export const backupApi = {
@@ -132,8 +156,10 @@ export const backupApi = {
         return data;
     },
 
-    create: async (): Promise<{ name: string; message: string }> => {
-        const { data } = await api.post<{ name: string; message: string }>('/backup');
+    create: async (format?: 'logical'): Promise<{ name: string; message: string }> => {
+        const { data } = await api.post<{ name: string; message: string }>('/backup', null, {
+            params: format ? { format } : undefined,
+        });
         return data;
     },
 
@@ -141,8 +167,18 @@ export const backupApi = {
         await api.delete(`/backup/${backupName}`);
     },
 
-    restore: async (backupName: string): Promise<{ message: string }> => {
-        const { data } = await api.post<{ message: string }>(`/backup/restore/${backupName}`);
+    // tables: restauração parcial, apenas para backups lógicos
+    restore: async (backupName: string, tables?: string[]): Promise<{ message: string }> => {
+        const { data } = await api.post<{ message: string }>(`/backup/restore/${backupName}`, null, {
+            params: tables ? { tables: tables.join(',') } : undefined,
+        });
+        return data;
+    },
+
+    // at: data e hora local, ex: 2024-01-15T14:30
+    restoreToPoint: async (at: string): Promise<{ message: string; backup: string; replayedChanges: number }> => {
+        const { data } = await api.post<{ message: string; backup: string; replayedChanges: number }>(
+            '/backup/restore-point', null, { params: { at } });
         return data;
     },
 
@@ -150,11 +186,10 @@ export const backupApi = {
         return '/api/backup/export';
     },
 
+    // Corpo bruto: o servidor grava o arquivo direto em disco, sem multipart
     importDatabase: async (file: File): Promise<{ message: string }> => {
-        const formData = new FormData();
-        formData.append('file', file);
-        const { data } = await api.post<{ message: string }>('/backup/import', formData, {
-            headers: { 'Content-Type': 'multipart/form-data' },
+        const { data } = await api.post<{ message: string }>('/backup/import', file, {
+            headers: { 'Content-Type': 'application/octet-stream' },
         });
         return data;
     },
@@ -178,6 +213,16 @@ export const backupApi = {
         const { data } = await api.put<BackupSettings>('/backup/settings/interval', { hours });
         return data;
     },
+
+    setIncremental: async (enabled: boolean): Promise<BackupSettings> => {
+        const { data } = await api.put<BackupSettings>('/backup/settings/incremental', { enabled });
+        return data;
+    },
+
+    setMaxBackups: async (maxBackups: number): Promise<BackupSettings> => {
+        const { data } = await api.put<BackupSettings>('/backup/settings/max-backups', { maxBackups });
+        return data;
+    },
 };
 
 // Reports - AI Analysis
@@ -186,9 +231,48 @@ export interface ReportAnalysisResponse {
     generatedAt: string;
     success: boolean;
     errorMessage?: string;
+    cached?: boolean;
+}
+
+export interface RollupRow {
+    month?: string;
+    categoryId?: number;
+    categoryName?: string;
+    categoryColor?: string;
+    type?: 'INCOME' | 'EXPENSE';
+    total: number;
+    count: number;
 }
 
 export const reportsApi = {
+    getRollup: async (params: { from?: string; to?: string; groupBy?: string } = {}): Promise<RollupRow[]> => {
+        const { data } = await api.get<RollupRow[]>('/reports/rollup', { params });
+        return data;
+    },
+
+    // Análise em streaming (SSE); devolve função que encerra a conexão e cancela a geração
+    streamAnalysis: (
+        language: string,
+        handlers: {
+            onChunk: (text: string) => void;
+            onDone: (result: ReportAnalysisResponse) => void;
+            onError: (result: ReportAnalysisResponse | null) => void;
+        }
+    ): (() => void) => {
+        const source = new EventSource(`/api/reports/analysis/stream?language=${encodeURIComponent(language)}`);
+        source.addEventListener('chunk', (e) => handlers.onChunk(JSON.parse((e as MessageEvent).data).analysis ?? ''));
+        source.addEventListener('done', (e) => {
+            source.close();
+            handlers.onDone(JSON.parse((e as MessageEvent).data));
+        });
+        source.addEventListener('error', (e) => {
+            source.close();
+            const data = (e as MessageEvent).data;
+            handlers.onError(data ? JSON.parse(data) : null);
+        });
+        return () => source.close();
+    },
+
     generateAnalysis: async (language: string = 'pt-BR'): Promise<ReportAnalysisResponse> => {
         const { data } = await api.get<ReportAnalysisResponse>('/reports/analysis', {
             params: { language },
@@ -203,9 +287,100 @@ export interface CsvImportItem {
     description: string;
     amount: number;
     category: string;
+    duplicate?: boolean;
 }
 
+export interface CsvImportSummary {
+    imported: number;
+    skippedDuplicates: number;
+    createdCategories: string[];
+    totalIncome: number;
+    totalExpense: number;
+    firstDate?: string;
+    lastDate?: string;
+    batchId?: string;
+}
+
+export interface CsvImportJob {
+    id: string;
+    fileName?: string;
+    status: 'QUEUED' | 'RUNNING' | 'DONE' | 'FAILED' | 'CANCELLED';
+    stage: 'PARSING' | 'DEDUPLICATION' | 'LOCAL_CLASSIFICATION' | 'AI_CLASSIFICATION' | 'PREVIEW';
+    progress: number;
+    totalRows: number;
+    processedRows: number;
+    rows?: CsvImportItem[];
+    errorMessage?: string;
+}
+
+// Lotes (importações e gerações de recorrências) que podem ser desfeitos
+export interface TransactionBatch {
+    batchId: string;
+    kind: string;
+    transactionCount: number;
+    createdAt: string;
+    firstDate: string;
+    lastDate: string;
+}
+
+export interface TransactionBatchUndoResponse {
+    batchId: string;
+    deletedTransactions: number;
+    deletedCategories: number;
+}
+
+export const batchApi = {
+    getAll: async (): Promise<TransactionBatch[]> => {
+        const { data } = await api.get<TransactionBatch[]>('/transactions/batches');
+        return data;
+    },
+
+    undo: async (batchId: string): Promise<TransactionBatchUndoResponse> => {
+        const { data } = await api.delete<TransactionBatchUndoResponse>(
+            `/transactions/batches/${encodeURIComponent(batchId)}`
+        );
+        return data;
+    },
+};
+
 export const csvImportApi = {
+    // Importação em segundo plano; o progresso é acompanhado com watchJob
+    startJob: async (file: File): Promise<CsvImportJob> => {
+        const formData = new FormData();
+        formData.append('file', file);
+        const { data } = await api.post<CsvImportJob>('/csv/import/jobs', formData, {
+            headers: { 'Content-Type': 'multipart/form-data' },
+        });
+        return data;
+    },
+
+    // Progresso via SSE; devolve função que encerra a conexão
+    watchJob: (
+        id: string,
+        handlers: {
+            onProgress: (job: CsvImportJob) => void;
+            onDone: (job: CsvImportJob) => void;
+            onError: (job: CsvImportJob | null) => void;
+        }
+    ): (() => void) => {
+        const source = new EventSource(`/api/csv/import/jobs/${encodeURIComponent(id)}/events`);
+        source.addEventListener('progress', (e) => handlers.onProgress(JSON.parse((e as MessageEvent).data)));
+        source.addEventListener('done', (e) => {
+            source.close();
+            handlers.onDone(JSON.parse((e as MessageEvent).data));
+        });
+        source.addEventListener('error', (e) => {
+            source.close();
+            const data = (e as MessageEvent).data;
+            handlers.onError(data ? JSON.parse(data) : null);
+        });
+        return () => source.close();
+    },
+
+    cancelJob: async (id: string): Promise<void> => {
+        await api.delete(`/csv/import/jobs/${encodeURIComponent(id)}`);
+    },
+
     upload: async (file: File): Promise<CsvImportItem[]> => {
         const formData = new FormData();
         formData.append('file', file);
@@ -216,8 +391,9 @@ export const csvImportApi = {
         return data;
     },
 
-    save: async (items: CsvImportItem[]): Promise<void> => {
-        await api.post('/csv/import/save', items);
+    save: async (items: CsvImportItem[]): Promise<CsvImportSummary> => {
+        const { data } = await api.post<CsvImportSummary>('/csv/import/save', items);
+        return data;
     },
 };
 
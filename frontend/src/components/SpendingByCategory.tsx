@@ -1,4 +1,4 @@
-import { useTransactions } from '../hooks/useApi';
+import { useRollup } from '../hooks/useApi';
 import { PieChart, Pie, Cell, ResponsiveContainer, Tooltip, Legend } from 'recharts';
 
 function formatCurrency(value: number): string {
@@ -23,10 +23,11 @@ interface SpendingByCategoryProps {
 }
 
 export function SpendingByCategory({ transactions: propsTransactions, isLoading: propsLoading }: SpendingByCategoryProps = {}) {
-    const { data: hookTransactions, isLoading: hookLoading } = useTransactions();
+    // Sem transações via props, lê os totais já agregados no servidor
+    const useServerTotals = propsTransactions === undefined;
+    const { data: rollup, isLoading: rollupLoading } = useRollup('category,type', undefined, undefined, useServerTotals);
 
-    const transactions = propsTransactions || hookTransactions;
-    const isLoading = propsLoading !== undefined ? propsLoading : hookLoading;
+    const isLoading = useServerTotals ? rollupLoading : !!propsLoading;
 
     if (isLoading) {
         return (
@@ -42,16 +43,19 @@ export function SpendingByCategory({ transactions: propsTransactions, isLoading:
     }
 
     // Filtra apenas despesas e agrupa por categoria
-    const expenses = transactions?.filter((t) => t.type === 'EXPENSE') || [];
+    const entries = useServerTotals
+        ? (rollup || [])
+            .filter((r) => r.type === 'EXPENSE')
+            .map((r) => ({ name: r.categoryName || 'Sem Categoria', color: r.categoryColor, amount: r.total }))
+        : (propsTransactions || [])
+            .filter((t) => t.type === 'EXPENSE')
+            .map((t) => ({ name: t.category?.name || 'Sem Categoria', color: t.category?.color, amount: t.amount }));
 
-    const categoryTotals = expenses.reduce((acc, t) => {
-        const categoryName = t.category?.name || 'Sem Categoria';
-        const color = t.category?.color || '#64748b';
-
-        if (!acc[categoryName]) {
-            acc[categoryName] = { name: categoryName, value: 0, color };
+    const categoryTotals = entries.reduce((acc, e) => {
+        if (!acc[e.name]) {
+            acc[e.name] = { name: e.name, value: 0, color: e.color || '#64748b' };
         }
-        acc[categoryName].value += t.amount;
+        acc[e.name].value += e.amount;
         return acc;
     }, {} as Record<string, { name: string; value: number; color: string }>);
 
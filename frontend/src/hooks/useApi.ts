@@ -1,5 +1,5 @@
 import { useQuery, useMutation, useQueryClient } from '@tanstack/react-query';
-import { transactionApi, categoryApi, balanceApi } from '../api';
+import { transactionApi, categoryApi, balanceApi, calendarApi, reportsApi } from '../api';
 import type { TransactionRequest, CategoryRequest } from '../types';
 
 // Transaction hooks
@@ -10,6 +10,31 @@ export function useTransactions(startDate?: string, endDate?: string) {
     });
 }
 
+// Chave sob 'transactions' para ser invalidada junto com as mutações de transação
+export function useCalendarMonth(month: string) {
+    return useQuery({
+        queryKey: ['transactions', 'calendar', month],
+        queryFn: () => calendarApi.getMonth(month),
+    });
+}
+
+// Agregados mensais; também sob 'transactions' para acompanhar as mutações
+export function useRollup(groupBy: string, from?: string, to?: string, enabled: boolean = true) {
+    return useQuery({
+        queryKey: ['transactions', 'rollup', groupBy, from, to],
+        queryFn: () => reportsApi.getRollup({ groupBy, from, to }),
+        enabled,
+    });
+}
+
+export function useDayTransactions(date: string | null) {
+    return useQuery({
+        queryKey: ['transactions', date, date],
+        queryFn: () => transactionApi.getAll(date!, date!),
+        enabled: date !== null,
+    });
+}
+
 export function useTransaction(id: number) {
     return useQuery({
         queryKey: ['transaction', id],
@@ -130,11 +130,14 @@ export interface Translations {
             enabled: string;
             disabled: string;
             maxBackups: string;
+            incremental: string;
+            incrementalDescription: string;
             interval: string;
             intervalDescription: string;
             hourly: string;
             every4Hours: string;
             daily24h: string;
+            nextBackup: string;
         };
         backupDirectory: {
             title: string;
@@ -149,6 +152,26 @@ export interface Translations {
             createFirst: string;
             confirmRestore: string;
             confirmDelete: string;
+            corrupted: string;
+            createLogical: string;
+            logical: string;
+            restoreCategories: string;
+            confirmRestoreCategories: string;
+            pointInTime: string;
+            pointInTimeDescription: string;
+            restoreToPoint: string;
+            confirmRestoreToPoint: string;
+        };
+        batches: {
+            title: string;
+            description: string;
+            empty: string;
+            import: string;
+            recurring: string;
+            transactions: string;
+            undo: string;
+            confirmUndo: string;
+            undone: string;
         };
     };
 
@@ -170,11 +193,21 @@ export interface Translations {
         selectFile: string;
         processing: string;
         aiCategorizing: string;
+        stageParsing: string;
+        stageDedup: string;
+        duplicate: string;
+        stageLocal: string;
+        stageAi: string;
+        rowsProcessed: string;
         results: string;
         saveAll: string;
         saving: string;
         saved: string;
         importAnother: string;
+        undoImport: string;
+        confirmUndo: string;
+        undone: string;
+        errorUndoing: string;
         invalidFile: string;
         errorProcessing: string;
         errorSaving: string;
@@ -320,11 +353,14 @@ export const translations: Record<Language, Translations> = {
                 enabled: 'Ativado',
                 disabled: 'Desativado',
                 maxBackups: 'backups mantidos (mais antigos são removidos)',
+                incremental: 'Backup incremental',
+                incrementalDescription: 'Grava apenas os blocos do banco que mudaram desde o último backup',
                 interval: 'Intervalo de Backup',
                 intervalDescription: 'Com que frequência o backup automático será criado',
                 hourly: '1 hora',
                 every4Hours: '4 horas',
                 daily24h: '24 horas',
+                nextBackup: 'Próximo backup automático',
             },
             backupDirectory: {
                 title: 'Diretório de Backups',
@@ -337,8 +373,28 @@ export const translations: Record<Language, Translations> = {
                 restore: 'Restaurar',
                 noBackups: 'Nenhum backup encontrado',
                 createFirst: 'Clique em "Criar Backup" para criar o primeiro',
+                corrupted: 'Corrompido',
                 confirmRestore: 'Restaurar banco a partir de "$1"? Isso substituirá todos os dados atuais.',
                 confirmDelete: 'Excluir backup "$1"?',
+                createLogical: 'Backup Lógico',
+                logical: 'Lógico',
+                restoreCategories: 'Só categorias',
+                confirmRestoreCategories: 'Restaurar apenas as categorias a partir de "$1"? As transações atuais são mantidas.',
+                pointInTime: 'Restaurar para um instante',
+                pointInTimeDescription: 'Reconstrói o banco como estava no instante escolhido (desde $1)',
+                restoreToPoint: 'Restaurar',
+                confirmRestoreToPoint: 'Reconstruir o banco como estava em $1? As alterações posteriores serão desfeitas.',
+            },
+            batches: {
+                title: 'Operações em Lote',
+                description: 'Importações e gerações de recorrências podem ser desfeitas de uma vez',
+                empty: 'Nenhuma operação em lote',
+                import: 'Importação de CSV',
+                recurring: 'Recorrências geradas',
+                transactions: 'transações',
+                undo: 'Desfazer',
+                confirmUndo: 'Excluir as $1 transações desta operação?',
+                undone: 'Operação desfeita',
             },
         },
         categories: {
@@ -356,11 +412,21 @@ export const translations: Record<Language, Translations> = {
             selectFile: 'ou clique para selecionar',
             processing: 'Processando...',
             aiCategorizing: 'A IA está categorizando suas transações, isso pode levar alguns segundos.',
+            stageParsing: 'Lendo o arquivo',
+            stageDedup: 'Procurando transações já importadas',
+            duplicate: 'Já importada',
+            stageLocal: 'Categorizando por palavras-chave',
+            stageAi: 'Categorizando com IA',
+            rowsProcessed: 'linhas categorizadas',
             results: 'Resultados',
             saveAll: 'Salvar Tudo',
             saving: 'Salvando...',
             saved: 'Transações importadas com sucesso!',
             importAnother: 'Importar outro',
+            undoImport: 'Desfazer importação',
+            confirmUndo: 'Excluir todas as transações desta importação e as categorias criadas por ela?',
+            undone: 'Importação desfeita.',
+            errorUndoing: 'Erro ao desfazer a importação.',
             invalidFile: 'Arquivo inválido. Use um arquivo .csv ou .txt',
             errorProcessing: 'Erro ao processar o arquivo CSV. Verifique o formato.',
             errorSaving: 'Erro ao salvar as transações.',
@@ -373,9 +439,9 @@ export const translations: Record<Language, Translations> = {
         messages: {
             backupCreated: 'Backup criado',
             backupDeleted: 'Backup excluído',
-            backupRestored: 'Banco restaurado. Recarregue a página.',
+            backupRestored: 'Banco restaurado.',
             databaseExported: 'Banco exportado',
-            databaseImported: 'Banco importado. Recarregue a página.',
+            databaseImported: 'Banco importado.',
             settingsSaved: 'Configuração salva',
             transactionCreated: 'Transação criada',
             transactionUpdated: 'Transação atualizada',
@@ -502,11 +568,14 @@ export const translations: Record<Language, Translations> = {
                 enabled: 'Enabled',
                 disabled: 'Disabled',
                 maxBackups: 'backups kept (older ones are removed)',
+                incremental: 'Incremental backup',
+                incrementalDescription: 'Stores only the database blocks that changed since the last backup',
                 interval: 'Backup Interval',
                 intervalDescription: 'How often automatic backup will be created',
                 hourly: '1 hour',
                 every4Hours: '4 hours',
                 daily24h: '24 hours',
+                nextBackup: 'Next automatic backup',
             },
             backupDirectory: {
                 title: 'Backup Directory',
@@ -518,9 +587,29 @@ export const translations: Record<Language, Translations> = {
                 createBackup: 'Create Backup',
                 restore: 'Restore',
                 noBackups: 'No backups found',
+                corrupted: 'Corrupted',
                 createFirst: 'Click "Create Backup" to create the first one',
                 confirmRestore: 'Restore database from "$1"? This will replace all current data.',
                 confirmDelete: 'Delete backup "$1"?',
+                createLogical: 'Logical Backup',
+                logical: 'Logical',
+                restoreCategories: 'Categories only',
+                confirmRestoreCategories: 'Restore only the categories from "$1"? Current transactions are kept.',
+                pointInTime: 'Restore to a point in time',
+                pointInTimeDescription: 'Rebuilds the database as it was at the chosen moment (since $1)',
+                restoreToPoint: 'Restore',
+                confirmRestoreToPoint: 'Rebuild the database as it was on $1? Later changes will be undone.',
+            },
+            batches: {
+                title: 'Bulk Operations',
+                description: 'Imports and recurring generations can be undone at once',
+                empty: 'No bulk operations',
+                import: 'CSV import',
+                recurring: 'Generated recurrences',
+                transactions: 'transactions',
+                undo: 'Undo',
+                confirmUndo: 'Delete the $1 transactions of this operation?',
+                undone: 'Operation undone',
             },
         },
         categories: {
@@ -538,11 +627,21 @@ export const translations: Record<Language, Translations> = {
             selectFile: 'or click to select',
             processing: 'Processing...',
             aiCategorizing: 'AI is categorizing your transactions, this may take a few seconds.',
+            stageParsing: 'Reading file',
+            stageDedup: 'Looking for already imported transactions',
+            duplicate: 'Already imported',
+            stageLocal: 'Categorizing by keywords',
+            stageAi: 'Categorizing with AI',
+            rowsProcessed: 'rows categorized',
             results: 'Results',
             saveAll: 'Save All',
             saving: 'Saving...',
             saved: 'Transactions imported successfully!',
             importAnother: 'Import another',
+            undoImport: 'Undo import',
+            confirmUndo: 'Delete every transaction from this import and the categories it created?',
+            undone: 'Import undone.',
+            errorUndoing: 'Error undoing the import.',
             invalidFile: 'Invalid file. Use a .csv or .txt file',
             errorProcessing: 'Error processing the CSV file. Check the format.',
             errorSaving: 'Error saving transactions.',
@@ -555,9 +654,9 @@ export const translations: Record<Language, Translations> = {
         messages: {
             backupCreated: 'Backup created',
             backupDeleted: 'Backup deleted',
-            backupRestored: 'Database restored. Please reload the page.',
+            backupRestored: 'Database restored.',
             databaseExported: 'Database exported',
-            databaseImported: 'Database imported. Please reload the page.',
+            databaseImported: 'Database imported.',
             settingsSaved: 'Setting saved',
             transactionCreated: 'Transaction created',
             transactionUpdated: 'Transaction updated',
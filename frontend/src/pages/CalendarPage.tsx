@@ -1,5 +1,5 @@
 import { useState, useMemo } from 'react';
-import { useTransactions, useDeleteTransaction } from '../hooks/useApi';
+import { useCalendarMonth, useDayTransactions, useDeleteTransaction } from '../hooks/useApi';
 import { TransactionForm } from '../components/TransactionForm';
 import {
     format,
@@ -12,8 +12,7 @@ import {
     isSameMonth,
     isSameDay,
     isToday,
-    eachDayOfInterval,
-    parseISO
+    eachDayOfInterval
 } from 'date-fns';
 import { ptBR, enUS } from 'date-fns/locale';
 import { useLanguage } from '../i18n';
@@ -28,11 +27,11 @@ import {
     Pencil,
     Trash2
 } from 'lucide-react';
-import type { Transaction } from '../types';
+import type { Transaction, CalendarDay } from '../types';
 
 interface DayTransactions {
     date: Date;
-    transactions: Transaction[];
+    count: number;
     incomeCount: number;
     expenseCount: number;
     totalIncome: number;
@@ -45,7 +44,8 @@ export function CalendarPage() {
     const [showForm, setShowForm] = useState(false);
     const [editingTransaction, setEditingTransaction] = useState<Transaction | null>(null);
 
-    const { data: allTransactions, isLoading } = useTransactions();
+    const { data: calendarMonth, isLoading } = useCalendarMonth(format(currentMonth, 'yyyy-MM'));
+    const { data: dayTransactions } = useDayTransactions(selectedDay ? format(selectedDay, 'yyyy-MM-dd') : null);
     const deleteMutation = useDeleteTransaction();
     const { t, language } = useLanguage();
 
@@ -58,7 +58,7 @@ export function CalendarPage() {
         }).format(value);
     };
 
-    // Generate calendar days with transactions
+    // Generate calendar days with the per-day totals aggregated by the backend
     const calendarData = useMemo(() => {
         const monthStart = startOfMonth(currentMonth);
         const monthEnd = endOfMonth(currentMonth);
@@ -67,34 +67,22 @@ export function CalendarPage() {
 
         const days = eachDayOfInterval({ start: calendarStart, end: calendarEnd });
 
-        const transactionsByDate = new Map<string, Transaction[]>();
-
-        if (allTransactions) {
-            allTransactions.forEach(tx => {
-                const dateKey = tx.effectiveDate;
-                if (!transactionsByDate.has(dateKey)) {
-                    transactionsByDate.set(dateKey, []);
-                }
-                transactionsByDate.get(dateKey)!.push(tx);
-            });
-        }
+        const totalsByDate = new Map<string, CalendarDay>();
+        calendarMonth?.days.forEach(day => totalsByDate.set(day.date, day));
 
         return days.map(date => {
-            const dateKey = format(date, 'yyyy-MM-dd');
-            const transactions = transactionsByDate.get(dateKey) || [];
-            const incomeTransactions = transactions.filter(tx => tx.type === 'INCOME');
-            const expenseTransactions = transactions.filter(tx => tx.type === 'EXPENSE');
+            const totals = totalsByDate.get(format(date, 'yyyy-MM-dd'));
 
             return {
                 date,
-                transactions,
-                incomeCount: incomeTransactions.length,
-                expenseCount: expenseTransactions.length,
-                totalIncome: incomeTransactions.reduce((sum, tx) => sum + tx.amount, 0),
-                totalExpense: expenseTransactions.reduce((sum, tx) => sum + tx.amount, 0),
+                count: totals?.count ?? 0,
+                incomeCount: totals?.incomeCount ?? 0,
+                expenseCount: totals?.expenseCount ?? 0,
+                totalIncome: totals?.totalIncome ?? 0,
+                totalExpense: totals?.totalExpense ?? 0,
             } as DayTransactions;
         });
-    }, [currentMonth, allTransactions, locale]);
+    }, [currentMonth, calendarMonth, locale]);
 
     // Get weekday names
     const weekDays = useMemo(() => {
@@ -107,28 +95,11 @@ export function CalendarPage() {
     }, [locale]);
 
     // Monthly totals
-    const monthlyTotals = useMemo(() => {
-        const monthStart = startOfMonth(currentMonth);
-        const monthEnd = endOfMonth(currentMonth);
-
-        let income = 0;
-        let expense = 0;
-
-        if (allTransactions) {
-            allTransactions.forEach(tx => {
-                const txDate = parseISO(tx.effectiveDate);
-                if (txDate >= monthStart && txDate <= monthEnd) {
-                    if (tx.type === 'INCOME') {
-                        income += tx.amount;
-                    } else {
-                        expense += tx.amount;
-                    }
-                }
-            });
-        }
-
-        return { income, expense, balance: income - expense };
-    }, [currentMonth, allTransactions]);
+    const monthlyTotals = useMemo(() => ({
+        income: calendarMonth?.totalIncome ?? 0,
+        expense: calendarMonth?.totalExpense ?? 0,
+        balance: calendarMonth?.balance ?? 0,
+    }), [calendarMonth]);
 
     // Selected day transactions
     const selectedDayData = useMemo(() => {
@@ -240,7 +211,7 @@ export function CalendarPage() {
                                     const isCurrentMonth = isSameMonth(dayData.date, currentMonth);
                                     const isSelected = selectedDay && isSameDay(dayData.date, selectedDay);
                                     const isTodayDate = isToday(dayData.date);
-                                    const hasTransactions = dayData.transactions.length > 0;
+                                    const hasTransactions = dayData.count > 0;
 
                                     return (
                                         <div
@@ -287,7 +258,7 @@ export function CalendarPage() {
                                 </button>
                             </div>
 
-                            {selectedDayData && selectedDayData.transactions.length > 0 ? (
+                            {selectedDayData && selectedDayData.count > 0 ? (
                                 <>
                                     {/* Day Summary */}
                                     <div style={{ display: 'flex', gap: '1rem', marginBottom: '1rem', fontSize: '0.875rem' }}>
@@ -305,7 +276,7 @@ export function CalendarPage() {
 
                                     {/* Transaction List */}
                                     <div className="transaction-list">
-                                        {selectedDayData.transactions.map(tx => (
+                                        {(dayTransactions || []).map(tx => (
                                             <div key={tx.id} className="transaction-item">
                                                 <div className={`transaction-icon ${tx.type === 'INCOME' ? 'income' : 'expense'}`}>
                                                     {tx.type === 'INCOME' ? <ArrowUpCircle size={18} /> : <ArrowDownCircle size={18} />}
@@ -1,9 +1,10 @@
-import { useState, useRef, useCallback, useMemo } from 'react';
+import { useState, useRef, useCallback, useMemo, useEffect } from 'react';
 import { useQuery } from '@tanstack/react-query';
-import { csvImportApi, categoryApi } from '../api';
+import { csvImportApi, categoryApi, batchApi } from '../api';
+import type { CsvImportJob } from '../api';
 import { useLanguage } from '../i18n';
 import type { Category } from '../types';
-import { Upload, FileSpreadsheet, Loader2, Check, AlertCircle, Pencil, Save, X } from 'lucide-react';
+import { Upload, FileSpreadsheet, Loader2, Check, AlertCircle, Pencil, Save, X, Undo2 } from 'lucide-react';
 
 interface CsvImportItem {
     date: string;
@@ -20,9 +21,23 @@ export function ImportPage() {
     const [uploading, setUploading] = useState(false);
     const [saving, setSaving] = useState(false);
     const [saved, setSaved] = useState(false);
+    const [batchId, setBatchId] = useState<string | null>(null);
+    const [undoing, setUndoing] = useState(false);
+    const [undone, setUndone] = useState(false);
     const [error, setError] = useState<string | null>(null);
     const [dragOver, setDragOver] = useState(false);
     const [editingIndex, setEditingIndex] = useState<number | null>(null);
+    const [progress, setProgress] = useState<CsvImportJob | null>(null);
+    // Job em andamento: ao sair da página, encerra o SSE e cancela a importação
+    const activeJob = useRef<{ id: string; close: () => void } | null>(null);
+
+    useEffect(() => () => {
+        const job = activeJob.current;
+        if (job) {
+            job.close();
+            csvImportApi.cancelJob(job.id).catch(() => undefined);
+        }
+    }, []);
 
     const { data: categories = [] } = useQuery<Category[]>({
         queryKey: ['categories'],
@@ -44,18 +59,46 @@ export function ImportPage() {
         setError(null);
         setSaved(false);
         setItems([]);
+        setProgress(null);
+
+        const finish = () => {
+            activeJob.current = null;
+            setUploading(false);
+            setProgress(null);
+        };
 
         try {
-            const result = await csvImportApi.upload(file);
-            setItems(result);
+            const job = await csvImportApi.startJob(file);
+            setProgress(job);
+            const close = csvImportApi.watchJob(job.id, {
+                onProgress: setProgress,
+                onDone: (result) => {
+                    setItems(result.rows ?? []);
+                    finish();
+                },
+                onError: (result) => {
+                    setError(t.csvImport.errorProcessing);
+                    console.error('CSV import error:', result?.errorMessage);
+                    finish();
+                },
+            });
+            activeJob.current = { id: job.id, close };
         } catch (err) {
             setError(t.csvImport.errorProcessing);
             console.error('CSV upload error:', err);
-        } finally {
-            setUploading(false);
+            finish();
         }
     }, [t]);
 
+    const stageLabel = (stage: CsvImportJob['stage']) => {
+        switch (stage) {
+            case 'PARSING': return t.csvImport.stageParsing;
+            case 'DEDUPLICATION': return t.csvImport.stageDedup;
+            case 'LOCAL_CLASSIFICATION': return t.csvImport.stageLocal;
+            default: return t.csvImport.stageAi;
+        }
+    };
+
     const handleDrop = useCallback((e: React.DragEvent) => {
         e.preventDefault();
         setDragOver(false);
@@ -91,7 +134,8 @@ export function ImportPage() {
         setError(null);
 
         try {
-            await csvImportApi.save(items);
+            const summary = await csvImportApi.save(items);
+            setBatchId(summary.batchId ?? null);
             setSaved(true);
         } catch (err) {
             setError(t.csvImport.errorSaving);
@@ -101,13 +145,34 @@ export function ImportPage() {
         }
     };
 
+    // Remove de uma vez tudo o que esta importação gravou
+    const handleUndo = async () => {
+        if (!batchId || !confirm(t.csvImport.confirmUndo)) return;
+        setUndoing(true);
+        setError(null);
+
+        try {
+            await batchApi.undo(batchId);
+            setBatchId(null);
+            setUndone(true);
+        } catch (err) {
+            setError(t.csvImport.errorUndoing);
+            console.error('Undo error:', err);
+        } finally {
+            setUndoing(false);
+        }
+    };
+
     const handleReset = () => {
         setItems([]);
         setSaved(false);
+        setBatchId(null);
+        setUndone(false);
         setError(null);
     };
 
-    const totalAmount = items.reduce((sum, item) => sum + item.amount, 0);
+    // Linhas já importadas são puladas pelo servidor ao salvar
+    const totalAmount = items.reduce((sum, item) => item.duplicate ? sum : sum + item.amount, 0);
 
     return (
         <div className="import-page">
@@ -144,6 +209,12 @@ export function ImportPage() {
                     <Loader2 size={48} className="spin" />
                     <h3>{t.csvImport.processing}</h3>
                     <p>{t.csvImport.aiCategorizing}</p>
+                    {progress && progress.totalRows > 0 && (
+                        <p>
+                            {stageLabel(progress.stage)} · {progress.processedRows}/{progress.totalRows}{' '}
+                            {t.csvImport.rowsProcessed} ({progress.progress}%)
+                        </p>
+                    )}
                 </div>
             )}
 
@@ -159,7 +230,13 @@ export function ImportPage() {
             {saved && (
                 <div className="csv-success">
                     <Check size={20} />
-                    <span>{t.csvImport.saved}</span>
+                    <span>{undone ? t.csvImport.undone : t.csvImport.saved}</span>
+                    {batchId && (
+                        <button className="btn btn-secondary btn-sm" onClick={handleUndo} disabled={undoing}>
+                            {undoing ? <Loader2 size={14} className="spin" /> : <Undo2 size={14} />}{' '}
+                            {t.csvImport.undoImport}
+                        </button>
+                    )}
                     <button className="btn btn-secondary btn-sm" onClick={handleReset}>
                         {t.csvImport.importAnother}
                     </button>
@@ -202,7 +279,7 @@ export function ImportPage() {
                             </thead>
                             <tbody>
                                 {items.map((item, index) => (
-                                    <tr key={index}>
+                                    <tr key={index} className={item.duplicate ? 'csv-duplicate' : undefined}>
                                         <td className="csv-date">{item.date}</td>
                                         <td className="csv-description">{item.description}</td>
                                         <td className="csv-amount text-right">
@@ -212,7 +289,9 @@ export function ImportPage() {
                                             })}
                                         </td>
                                         <td className="csv-category">
-                                            {editingIndex === index ? (
+                                            {item.duplicate ? (
+                                                <span className="category-badge">{t.csvImport.duplicate}</span>
+                                            ) : editingIndex === index ? (
                                                 <select
                                                     value={item.category}
                                                     onChange={(e) => updateCategory(index, e.target.value)}
@@ -235,13 +314,15 @@ export function ImportPage() {
                                             )}
                                         </td>
                                         <td>
-                                            <button
-                                                className="btn-icon"
-                                                onClick={() => setEditingIndex(editingIndex === index ? null : index)}
-                                                title={t.csvImport.editCategory}
-                                            >
-                                                <Pencil size={14} />
-                                            </button>
+                                            {!item.duplicate && (
+                                                <button
+                                                    className="btn-icon"
+                                                    onClick={() => setEditingIndex(editingIndex === index ? null : index)}
+                                                    title={t.csvImport.editCategory}
+                                                >
+                                                    <Pencil size={14} />
+                                                </button>
+                                            )}
                                         </td>
                                     </tr>
                                 ))}
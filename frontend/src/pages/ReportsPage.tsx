@@ -1,4 +1,4 @@
-import { useState } from 'react';
+import { useEffect, useRef, useState } from 'react';
 import { reportsApi, type ReportAnalysisResponse } from '../api';
 import { useLanguage } from '../i18n';
 import { Brain, Sparkles, Loader2, AlertCircle } from 'lucide-react';
@@ -8,23 +8,37 @@ export function ReportsPage() {
     const [analysis, setAnalysis] = useState<ReportAnalysisResponse | null>(null);
     const [isLoading, setIsLoading] = useState(false);
     const { t, language } = useLanguage();
+    const closeStream = useRef<(() => void) | null>(null);
 
-    const handleGenerateAnalysis = async () => {
+    // Fechar a conexão ao sair da página cancela a geração no servidor
+    useEffect(() => () => closeStream.current?.(), []);
+
+    const handleGenerateAnalysis = () => {
+        closeStream.current?.();
         setIsLoading(true);
-        try {
-            const result = await reportsApi.generateAnalysis(language);
-            setAnalysis(result);
-        } catch (error) {
-            console.error('Error generating analysis:', error);
-            setAnalysis({
-                success: false,
-                analysis: '',
-                generatedAt: new Date().toISOString(),
-                errorMessage: t.reports.errorOllama,
-            });
-        } finally {
-            setIsLoading(false);
-        }
+        setAnalysis(null);
+
+        let text = '';
+        closeStream.current = reportsApi.streamAnalysis(language, {
+            onChunk: (chunk) => {
+                text += chunk;
+                setAnalysis({ success: true, analysis: text, generatedAt: '' });
+            },
+            onDone: (result) => {
+                setAnalysis({ ...result, analysis: text });
+                setIsLoading(false);
+            },
+            onError: (result) => {
+                console.error('Error generating analysis:', result?.errorMessage);
+                setAnalysis({
+                    success: false,
+                    analysis: '',
+                    generatedAt: new Date().toISOString(),
+                    errorMessage: result?.errorMessage ?? t.reports.errorOllama,
+                });
+                setIsLoading(false);
+            },
+        });
     };
 
     return (
@@ -90,7 +104,7 @@ export function ReportsPage() {
                     )}
                 </div>
 
-                {isLoading ? (
+                {isLoading && !analysis?.analysis ? (
                     <div className="loading" style={{ padding: '3rem' }}>
                         <div className="spinner"></div>
                         <p style={{ marginTop: '1rem', color: 'var(--text-secondary)' }}>
@@ -1,5 +1,6 @@
 import { useState, useRef, useEffect } from 'react';
-import { backupApi, BackupInfo, BackupSettings } from '../api';
+import { useQueryClient } from '@tanstack/react-query';
+import { backupApi, batchApi, BackupInfo, BackupSettings, TransactionBatch } from '../api';
 import { useLanguage, Language } from '../i18n';
 import {
     Settings,
@@ -12,7 +13,8 @@ import {
     Clock,
     Shield,
     Folder,
-    Globe
+    Globe,
+    Undo2
 } from 'lucide-react';
 import { format } from 'date-fns';
 import { ptBR, enUS } from 'date-fns/locale';
@@ -27,12 +29,15 @@ function formatBytes(bytes: number): string {
 
 export function SettingsPage() {
     const { t, language, setLanguage } = useLanguage();
+    const queryClient = useQueryClient();
     const [backups, setBackups] = useState<BackupInfo[]>([]);
     const [settings, setSettings] = useState<BackupSettings | null>(null);
+    const [batches, setBatches] = useState<TransactionBatch[]>([]);
     const [loading, setLoading] = useState(true);
     const [message, setMessage] = useState<{ type: 'success' | 'error'; text: string } | null>(null);
     const [newDirectory, setNewDirectory] = useState('');
     const [editingDirectory, setEditingDirectory] = useState(false);
+    const [pointInTime, setPointInTime] = useState('');
     const fileInputRef = useRef<HTMLInputElement>(null);
 
     const dateLocale = language === 'pt-BR' ? ptBR : enUS;
@@ -47,12 +52,14 @@ export function SettingsPage() {
     const loadData = async () => {
         setLoading(true);
         try {
-            const [backupList, backupSettings] = await Promise.all([
+            const [backupList, backupSettings, batchList] = await Promise.all([
                 backupApi.list(),
                 backupApi.getSettings(),
+                batchApi.getAll(),
             ]);
             setBackups(backupList);
             setSettings(backupSettings);
+            setBatches(batchList);
             setNewDirectory(backupSettings.backupDirectory);
         } catch {
             showMessage('error', t.messages.errorLoading);
@@ -69,9 +76,9 @@ export function SettingsPage() {
         setTimeout(() => setMessage(null), 4000);
     };
 
-    const handleCreateBackup = async () => {
+    const handleCreateBackup = async (format?: 'logical') => {
         try {
-            const result = await backupApi.create();
+            const result = await backupApi.create(format);
             showMessage('success', `${t.messages.backupCreated}: ${result.name}`);
             loadData();
         } catch {
@@ -90,10 +97,13 @@ export function SettingsPage() {
         }
     };
 
-    const handleRestoreBackup = async (name: string) => {
-        if (!confirm(t.settings.backups.confirmRestore.replace('$1', name))) return;
+    const handleRestoreBackup = async (name: string, tables?: string[]) => {
+        const question = tables ? t.settings.backups.confirmRestoreCategories : t.settings.backups.confirmRestore;
+        if (!confirm(question.replace('$1', name))) return;
         try {
-            await backupApi.restore(name);
+            await backupApi.restore(name, tables);
+            // O banco foi trocado no servidor: todos os dados em cache ficam obsoletos
+            queryClient.invalidateQueries();
             showMessage('success', t.messages.backupRestored);
             loadData();
         } catch {
@@ -101,6 +111,32 @@ export function SettingsPage() {
         }
     };
 
+    const handleRestoreToPoint = async () => {
+        if (!pointInTime) return;
+        if (!confirm(t.settings.backups.confirmRestoreToPoint.replace('$1', formatDate(Date.parse(pointInTime))))) return;
+        try {
+            await backupApi.restoreToPoint(pointInTime);
+            queryClient.invalidateQueries();
+            showMessage('success', t.messages.backupRestored);
+            setPointInTime('');
+            loadData();
+        } catch {
+            showMessage('error', t.messages.errorSaving);
+        }
+    };
+
+    const handleUndoBatch = async (batch: TransactionBatch) => {
+        if (!confirm(t.settings.batches.confirmUndo.replace('$1', String(batch.transactionCount)))) return;
+        try {
+            await batchApi.undo(batch.batchId);
+            queryClient.invalidateQueries();
+            showMessage('success', t.settings.batches.undone);
+            loadData();
+        } catch {
+            showMessage('error', t.messages.errorSaving);
+        }
+    };
+
     const handleExport = () => {
         window.location.href = backupApi.exportDatabase();
     };
@@ -116,6 +152,7 @@ export function SettingsPage() {
 
         try {
             await backupApi.importDatabase(file);
+            queryClient.invalidateQueries();
             showMessage('success', t.messages.databaseImported);
             loadData();
         } catch {
@@ -135,6 +172,17 @@ export function SettingsPage() {
         }
     };
 
+    const handleToggleIncremental = async () => {
+        if (!settings) return;
+        try {
+            const updated = await backupApi.setIncremental(!settings.incrementalBackups);
+            setSettings(updated);
+            showMessage('success', t.messages.settingsSaved);
+        } catch {
+            showMessage('error', t.messages.errorSaving);
+        }
+    };
+
     const handleIntervalChange = async (hours: number) => {
         try {
             const updated = await backupApi.setInterval(hours);
@@ -145,6 +193,18 @@ export function SettingsPage() {
         }
     };
 
+    const handleMaxBackupsChange = async (maxBackups: number) => {
+        if (!settings || !Number.isInteger(maxBackups) || maxBackups === settings.maxBackups) return;
+        try {
+            const updated = await backupApi.setMaxBackups(maxBackups);
+            setSettings(updated);
+            showMessage('success', t.messages.settingsSaved);
+            loadData();
+        } catch {
+            showMessage('error', t.messages.errorSaving);
+        }
+    };
+
     const handleSaveDirectory = async () => {
         if (!newDirectory.trim()) {
             showMessage('error', t.messages.errorSaving);
@@ -282,6 +342,22 @@ export function SettingsPage() {
                                 </button>
                             </div>
 
+                            <div style={{ display: 'flex', alignItems: 'center', justifyContent: 'space-between', marginBottom: '1rem' }}>
+                                <div>
+                                    <div style={{ fontWeight: 500 }}>{t.settings.autoBackup.incremental}</div>
+                                    <div style={{ fontSize: '0.75rem', color: 'var(--text-muted)' }}>
+                                        {t.settings.autoBackup.incrementalDescription}
+                                    </div>
+                                </div>
+                                <button
+                                    className={`btn ${settings.incrementalBackups ? 'btn-success' : 'btn-ghost'}`}
+                                    onClick={handleToggleIncremental}
+                                    style={{ minWidth: '100px' }}
+                                >
+                                    {settings.incrementalBackups ? t.settings.autoBackup.enabled : t.settings.autoBackup.disabled}
+                                </button>
+                            </div>
+
                             {/* Interval Selector */}
                             <div style={{ marginBottom: '1rem' }}>
                                 <div style={{ fontWeight: 500, marginBottom: '0.5rem' }}>{t.settings.autoBackup.interval}</div>
@@ -308,11 +384,25 @@ export function SettingsPage() {
                                         {t.settings.autoBackup.daily24h}
                                     </button>
                                 </div>
+                                {settings.autoBackupEnabled && settings.nextBackupAt && (
+                                    <div style={{ fontSize: '0.75rem', color: 'var(--text-muted)', marginTop: '0.5rem' }}>
+                                        {t.settings.autoBackup.nextBackup}: {formatDate(Date.parse(settings.nextBackupAt))}
+                                    </div>
+                                )}
                             </div>
 
                             <div style={{ fontSize: '0.75rem', color: 'var(--text-muted)' }}>
                                 <Shield size={12} style={{ display: 'inline', marginRight: '4px' }} />
-                                {settings.maxBackups} {t.settings.autoBackup.maxBackups}
+                                <input
+                                    type="number"
+                                    min={1}
+                                    max={500}
+                                    key={settings.maxBackups}
+                                    defaultValue={settings.maxBackups}
+                                    onBlur={(e) => handleMaxBackupsChange(Number(e.target.value))}
+                                    style={{ width: '3.5rem', marginRight: '4px' }}
+                                />
+                                {t.settings.autoBackup.maxBackups}
                             </div>
                         </>
                     )}
@@ -389,13 +479,41 @@ export function SettingsPage() {
                         <button className="btn btn-icon btn-ghost" onClick={loadData} title="Refresh">
                             <RefreshCw size={16} />
                         </button>
-                        <button className="btn btn-primary" onClick={handleCreateBackup}>
+                        <button className="btn btn-ghost" onClick={() => handleCreateBackup('logical')}>
+                            <Save size={16} />
+                            {t.settings.backups.createLogical}
+                        </button>
+                        <button className="btn btn-primary" onClick={() => handleCreateBackup()}>
                             <Save size={16} />
                             {t.settings.backups.createBackup}
                         </button>
                     </div>
                 </div>
 
+                {!loading && settings?.recoverableSince && (
+                    <div style={{ display: 'flex', gap: '0.75rem', alignItems: 'center', marginBottom: '1rem' }}>
+                        <div style={{ flex: 1 }}>
+                            <div style={{ fontWeight: 500 }}>{t.settings.backups.pointInTime}</div>
+                            <div style={{ fontSize: '0.75rem', color: 'var(--text-muted)' }}>
+                                {t.settings.backups.pointInTimeDescription.replace('$1',
+                                    formatDate(Date.parse(settings.recoverableSince)))}
+                            </div>
+                        </div>
+                        <input
+                            type="datetime-local"
+                            className="form-input"
+                            value={pointInTime}
+                            min={settings.recoverableSince.slice(0, 16)}
+                            onChange={(e) => setPointInTime(e.target.value)}
+                            style={{ width: 'auto' }}
+                        />
+                        <button className="btn btn-ghost" onClick={handleRestoreToPoint} disabled={!pointInTime}>
+                            <Clock size={16} />
+                            {t.settings.backups.restoreToPoint}
+                        </button>
+                    </div>
+                )}
+
                 {loading ? (
                     <div className="loading"><div className="spinner"></div></div>
                 ) : backups.length === 0 ? (
@@ -417,13 +535,36 @@ export function SettingsPage() {
                                     <div className="transaction-meta">
                                         <span>{formatDate(backup.created)}</span>
                                         <span>•</span>
-                                        <span>{formatBytes(backup.size)}</span>
+                                        <span>{formatBytes(backup.addedBytes ?? backup.size)}</span>
+                                        {backup.format === 'logical' && (
+                                            <>
+                                                <span>•</span>
+                                                <span>{t.settings.backups.logical}</span>
+                                            </>
+                                        )}
+                                        {!backup.verified && (
+                                            <>
+                                                <span>•</span>
+                                                <span style={{ color: 'var(--color-danger)' }}>{t.settings.backups.corrupted}</span>
+                                            </>
+                                        )}
                                     </div>
                                 </div>
                                 <div className="transaction-actions" style={{ opacity: 1 }}>
+                                    {backup.format === 'logical' && (
+                                        <button
+                                            className="btn btn-ghost"
+                                            onClick={() => handleRestoreBackup(backup.name, ['categories'])}
+                                            disabled={!backup.verified}
+                                            style={{ fontSize: '0.75rem' }}
+                                        >
+                                            {t.settings.backups.restoreCategories}
+                                        </button>
+                                    )}
                                     <button
                                         className="btn btn-ghost"
                                         onClick={() => handleRestoreBackup(backup.name)}
+                                        disabled={!backup.verified}
                                         title={t.settings.backups.restore}
                                         style={{ fontSize: '0.75rem' }}
                                     >
@@ -443,6 +584,57 @@ export function SettingsPage() {
                     </div>
                 )}
             </div>
+
+            {/* Bulk Operations */}
+            <div className="card" style={{ marginTop: '1.5rem' }}>
+                <div className="card-header">
+                    <h3 className="card-title">
+                        <Undo2 size={18} style={{ marginRight: '8px' }} />
+                        {t.settings.batches.title}
+                    </h3>
+                </div>
+                <p style={{ fontSize: '0.875rem', color: 'var(--text-muted)', marginBottom: '1rem' }}>
+                    {t.settings.batches.description}
+                </p>
+
+                {!loading && batches.length === 0 ? (
+                    <div className="empty-state">
+                        <p>{t.settings.batches.empty}</p>
+                    </div>
+                ) : (
+                    <div className="transaction-list">
+                        {batches.map((batch) => (
+                            <div key={batch.batchId} className="transaction-item">
+                                <div className="transaction-icon" style={{ background: 'var(--color-primary-light)', color: 'var(--color-primary)' }}>
+                                    {batch.kind === 'recurring' ? <RefreshCw size={20} /> : <Upload size={20} />}
+                                </div>
+                                <div className="transaction-info">
+                                    <div className="transaction-description">
+                                        {batch.kind === 'recurring' ? t.settings.batches.recurring : t.settings.batches.import}
+                                    </div>
+                                    <div className="transaction-meta">
+                                        <span>{formatDate(Date.parse(batch.createdAt))}</span>
+                                        <span>•</span>
+                                        <span>{batch.transactionCount} {t.settings.batches.transactions}</span>
+                                        <span>•</span>
+                                        <span>{batch.firstDate} – {batch.lastDate}</span>
+                                    </div>
+                                </div>
+                                <div className="transaction-actions" style={{ opacity: 1 }}>
+                                    <button
+                                        className="btn btn-ghost"
+                                        onClick={() => handleUndoBatch(batch)}
+                                        style={{ fontSize: '0.75rem' }}
+                                    >
+                                        <Undo2 size={14} />
+                                        {t.settings.batches.undo}
+                                    </button>
+                                </div>
+                            </div>
+                        ))}
+                    </div>
+                )}
+            </div>
         </div>
     );
 }
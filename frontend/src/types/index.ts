@@ -50,3 +50,22 @@ export interface BalanceProjection {
     balance: number;
     transactions: Transaction[];
 }
+
+export interface CalendarDay {
+    date: string;
+    totalIncome: number;
+    totalExpense: number;
+    net: number;
+    incomeCount: number;
+    expenseCount: number;
+    count: number;
+    transactionIds?: number[];
+}
+
+export interface CalendarMonth {
+    month: string;
+    totalIncome: number;
+    totalExpense: number;
+    balance: number;
+    days: CalendarDay[];
+}